@@ -5,17 +5,25 @@ local M = {}
 local default_config = {
   -- Picker configuration
   picker = {
-    type = "vim_ui_select", -- "telescope", "vim_ui_select", "snacks"
+    type = "vim_ui_select", -- "telescope", "vim_ui_select", "snacks", "float"
+    stream = true, -- Open telescope/snacks/float when a scan starts and add endpoints as they are parsed
     options = {
       telescope = {}, -- Telescope-specific options
       snacks = {
         preview_title_format = "filename", -- "filename", "full"
       },
       vim_ui_select = {}, -- vim.ui.select-specific options
+      float = { -- Built-in floating window picker options
+        width = 0.8, -- Fraction of the editor width (or columns when > 1)
+        height = 0.6, -- Fraction of the editor height (or lines when > 1)
+        border = "rounded",
+      },
     },
     -- Previewer configuration
     previewer = {
       enable_highlighting = true, -- Enable syntax highlighting in previewer
+      cache_size = 20, -- Telescope: preview buffers kept loaded (least recently used are dropped)
+      prefetch = 3, -- Telescope: preload the files of this many entries above and below the selection
     },
   },
 
@@ -35,7 +43,9 @@ local default_config = {
 
   -- Cache configuration
   cache = {
-    mode = "session", -- "none", "session", "persistent"
+    mode = "session", -- "none", "session", "persistent", "swr"
+    -- swr (stale-while-revalidate): open with cached endpoints, rescan stale ones in the background
+    swr_max_age = 300, -- swr: seconds after which cached endpoints are rescanned even if no file changed
   },
 
   -- Progress notification configuration
@@ -47,11 +57,66 @@ local default_config = {
     -- notify: Use vim.notify
   },
 
+  -- Background pre-warm configuration (opt-in)
+  prewarm = {
+    enabled = false, -- Scan in the background on VimEnter/DirChanged so the first :Endpoint is a cache hit
+    delay_ms = 2000, -- Idle time before the background scan starts (pushed back while typing)
+  },
+
+  -- Profiler configuration (opt-in)
+  profiler = {
+    enabled = false, -- Record per-phase timings and Lua heap deltas for :EndpointProfile
+    slowest_files = 10, -- Number of slowest files listed in the :EndpointProfile report
+  },
+
+  -- Access log traffic configuration (:EndpointTraffic)
+  traffic = {
+    log_files = {}, -- nginx/Apache/Tomcat/Spring Boot access logs ingested by :EndpointTraffic without arguments
+    sort = nil, -- Sort the picker by traffic once a log was ingested: "hits", "errors", "p99"
+    min_hits = 0, -- Hide endpoints with fewer requests once a log was ingested
+  },
+
+  -- Scan telemetry configuration (reported by :checkhealth endpoint)
+  telemetry = {
+    enabled = true, -- Keep a rolling history of recent scans per project
+    history_size = 20, -- Number of scans kept per project (memory and cache dir)
+  },
+
+  -- Comment filtering configuration
+  comment_filtering = {
+    enabled = true, -- Drop matches inside comments (e.g. `// @GetMapping("/old")`) before parsing
+    languages = { -- Per-language toggles, by language name (each covers the file extensions listed)
+      java = true, -- .java
+      kotlin = true, -- .kt, .kts
+      typescript = true, -- .ts, .tsx, .mts, .cts
+      javascript = true, -- .js, .jsx, .mjs, .cjs
+      php = true, -- .php (`//`, `#` and `/* */`; `#[...]` attributes are kept)
+      csharp = true, -- .cs
+      python = true, -- .py (`#` and standalone triple-quoted strings)
+      ruby = true, -- .rb (`#` and `=begin`/`=end`)
+    },
+  },
+
+  -- Multi-module Maven/Gradle build configuration
+  modules = {
+    scope = "all", -- "all": scan every module; "buffer": scan the current buffer's module and its dependencies
+    -- :Endpoint module=<name> scopes a single find (module=all scans every module)
+  },
+
+  -- Multi-root workspace configuration (opt-in)
+  workspace = {
+    enabled = false, -- Scan several project roots and merge their endpoints, tagged by root
+    roots = {}, -- Root directories (absolute or relative to the working directory); empty: discover them
+    -- Discovered roots: the projects under the working directory (unless it is one) and other tabs' :tcd dirs
+    max_jobs = 4, -- Roots a workspace scan scans in parallel, and ripgrep processes it runs at the same time
+  },
+
   -- Tree-sitter configuration (experimental)
   treesitter = {
     enabled = false, -- Enable Tree-sitter based parsing (requires nvim-treesitter)
     -- Tree-sitter provides more accurate AST-based parsing
     -- Falls back to regex parsing if Tree-sitter is unavailable
+    -- Mount prefixes (Express app.use, NestJS RouterModule, FastAPI include_router) are only applied by regex parsing
   },
 
   -- Framework-specific configuration
@@ -0,0 +1,519 @@
+local class = require "endpoint.lib.middleclass"
+local log = require "endpoint.utils.log"
+local progress = require "endpoint.utils.progress"
+local git = require "endpoint.utils.git"
+local ProcessPool = require "endpoint.core.ProcessPool"
+
+---API surface diff between two git revisions
+---Only the endpoints of the files `git diff --name-only` reports as changed are compared, plus those of the files
+---depending on a changed context file (the routers under an edited mount, the controllers using edited constants),
+---as the others are the same on both sides. Each revision is read with `git show <ref>:<path>` (nothing is checked
+---out) into a mirror directory scanned as the project root: the compared files, plus the files detection and the
+---frameworks' indexes read (manifests, routes files, router mounts, deployment descriptors, build files, constants;
+---see Framework:get_context_specs()), so prefixes declared in unchanged files resolve as they were at that revision.
+---@class endpoint.ApiDiff
+local ApiDiff = class "ApiDiff"
+
+-- `git show` processes run at a time while reading a revision
+local MAX_GIT_JOBS = 8
+
+---Normalizes a file path for comparing endpoints across revisions
+local function normalize_path(file_path)
+  return ((file_path or ""):gsub("^%./", ""))
+end
+
+---Identity of an endpoint across revisions
+local function get_endpoint_key(endpoint)
+  return (endpoint.method or "") .. " " .. (endpoint.endpoint_path or "")
+end
+
+---Gets the declaration of an endpoint, whitespace-insensitive (nil when the parser keeps none)
+local function get_declaration(endpoint)
+  local raw_content = endpoint.metadata and endpoint.metadata.raw_content
+  if type(raw_content) ~= "string" then
+    return nil
+  end
+  return vim.trim((raw_content:gsub("%s+", " ")))
+end
+
+---Splits a path or glob into its segments
+local function split_path(path)
+  return vim.split(path, "/", { plain = true })
+end
+
+-- Anchored Lua patterns of glob segments
+local segment_patterns = {}
+
+---Converts a glob segment to a Lua pattern, `*` and `?` matching within the segment
+local function get_segment_pattern(glob_segment)
+  if not segment_patterns[glob_segment] then
+    local escaped = glob_segment:gsub("[%^%$%(%)%%%.%[%]%+%-]", "%%%0")
+    segment_patterns[glob_segment] = "^" .. escaped:gsub("%*", ".*"):gsub("%?", ".") .. "$"
+  end
+  return segment_patterns[glob_segment]
+end
+
+---Matches path segments against glob segments, `**` standing for any number of segments
+local function match_segments(path_segments, glob_segments, path_index, glob_index)
+  local glob_segment = glob_segments[glob_index]
+  if not glob_segment then
+    return path_index > #path_segments
+  end
+  if glob_segment == "**" then
+    for next_index = path_index, #path_segments + 1 do
+      if match_segments(path_segments, glob_segments, next_index, glob_index + 1) then
+        return true
+      end
+    end
+    return false
+  end
+  return path_index <= #path_segments
+    and path_segments[path_index]:match(get_segment_pattern(glob_segment)) ~= nil
+    and match_segments(path_segments, glob_segments, path_index + 1, glob_index + 1)
+end
+
+---Checks a project path against a ripgrep glob: one without a `/` matches the file name
+---@param path_segments string[]
+---@param glob string
+local function matches_glob(path_segments, glob)
+  if not glob:find("/", 1, true) then
+    return match_segments({ path_segments[#path_segments] }, { glob }, 1, 1)
+  end
+  return match_segments(path_segments, split_path(glob), 1, 1)
+end
+
+---Checks if a file matches one of a context spec's globs and is not under one of its excluded directories
+local function matches_spec(path_segments, spec)
+  for _, exclude_glob in ipairs(spec.exclude_globs or {}) do
+    if matches_glob(path_segments, exclude_glob .. "/**") then
+      return false
+    end
+  end
+  for _, file_glob in ipairs(spec.file_globs) do
+    if matches_glob(path_segments, file_glob) then
+      return true
+    end
+  end
+  return false
+end
+
+---Gets the `git grep -E` form of a ripgrep search pattern
+local function to_extended_regex(search_pattern)
+  return (search_pattern:gsub("\\s", "[[:space:]]"))
+end
+
+---@param sources table { scan = fun(project_root, callback, scan_handle), get_context_specs = fun(): table[] }
+function ApiDiff:initialize(sources)
+  self.sources = sources
+  self.pool = ProcessPool:new(MAX_GIT_JOBS)
+end
+
+---Compares the endpoints of the changed files at two revisions
+---Endpoints are matched by method and path, preferring one in the same file. A matched endpoint changed when it
+---moved to another file or its declaration differs.
+---@param base_endpoints endpoint.entry[]
+---@param head_endpoints endpoint.entry[]
+---@return table result { added: endpoint.entry[], removed: endpoint.entry[], changed: { base, head }[] }
+function ApiDiff.static.compare(base_endpoints, head_endpoints)
+  local base_by_key = {}
+  for _, endpoint in ipairs(base_endpoints) do
+    local key = get_endpoint_key(endpoint)
+    base_by_key[key] = base_by_key[key] or {}
+    table.insert(base_by_key[key], endpoint)
+  end
+
+  local matches = {}
+  local matched = {}
+  -- Same file first, so an endpoint that moved does not take the match of one that stayed
+  for _, same_file in ipairs { true, false } do
+    for _, head_endpoint in ipairs(head_endpoints) do
+      if not matches[head_endpoint] then
+        for _, base_endpoint in ipairs(base_by_key[get_endpoint_key(head_endpoint)] or {}) do
+          local file_matches = normalize_path(base_endpoint.file_path) == normalize_path(head_endpoint.file_path)
+          if not matched[base_endpoint] and (file_matches or not same_file) then
+            matches[head_endpoint] = base_endpoint
+            matched[base_endpoint] = true
+            break
+          end
+        end
+      end
+    end
+  end
+
+  local result = { added = {}, removed = {}, changed = {} }
+  for _, head_endpoint in ipairs(head_endpoints) do
+    local base_endpoint = matches[head_endpoint]
+    if not base_endpoint then
+      table.insert(result.added, head_endpoint)
+    elseif
+      normalize_path(base_endpoint.file_path) ~= normalize_path(head_endpoint.file_path)
+      or get_declaration(base_endpoint) ~= get_declaration(head_endpoint)
+    then
+      table.insert(result.changed, { base = base_endpoint, head = head_endpoint })
+    end
+  end
+  for _, base_endpoint in ipairs(base_endpoints) do
+    if not matched[base_endpoint] then
+      table.insert(result.removed, base_endpoint)
+    end
+  end
+  return result
+end
+
+---Turns a diff into picker entries, each tagged with its change (`diff`) in its display
+---Entries keep their location at the revision they were found in (`revision`, nil for the working tree): removed
+---endpoints at the base, the others at the head.
+---@param result table From run_async() (or compare(), whose entries are then taken from the working tree)
+---@return endpoint.entry[]
+function ApiDiff.static.to_entries(result)
+  local entries = {}
+  local function add(endpoint, change, revision)
+    local entry = vim.tbl_extend("force", {}, endpoint)
+    -- Recomputed by the picker with the change
+    entry._display = nil
+    entry.diff = change
+    entry.revision = revision
+    entry.display_value = (endpoint.display_value or get_endpoint_key(endpoint)) .. " (" .. change .. ")"
+    table.insert(entries, entry)
+  end
+
+  for _, endpoint in ipairs(result.added) do
+    add(endpoint, "added", result.head)
+  end
+  for _, endpoint in ipairs(result.removed) do
+    add(endpoint, "removed", result.base)
+  end
+  for _, change in ipairs(result.changed) do
+    add(change.head, "changed", result.head)
+  end
+  return entries
+end
+
+---Lists the files of a revision the context specs select
+---The `dependents` specs of the specs selecting a changed file are collected, for comparing those files too.
+---@private
+---@param ref string|nil nil for the working tree (untracked files included)
+---@param specs table[] See Framework:get_context_specs()
+---@param changed table<string, true> Changed files
+---@param callback fun(context: table) { read, listed: sets of paths, directories: string[], dependents: table[] }
+function ApiDiff:_list_context_async(ref, specs, changed, callback, scan_handle)
+  local context = { read = {}, listed = {}, directories = {}, dependents = {} }
+
+  local function select(spec, file_path, selection)
+    context[selection][file_path] = true
+    if spec.dependents and changed[file_path] and not vim.tbl_contains(context.dependents, spec.dependents) then
+      table.insert(context.dependents, spec.dependents)
+    end
+  end
+
+  local list_command = ref and { "git", "ls-tree", "-r", "--name-only", ref, "--", "." }
+    or { "git", "ls-files", "--cached", "--others", "--exclude-standard", "--", "." }
+
+  self.pool:run(list_command, { text = true }, function(obj)
+    local file_paths = obj.code == 0 and vim.split(obj.stdout or "", "\n", { trimempty = true }) or {}
+    local path_segments = {}
+    local directories = {}
+    for _, file_path in ipairs(file_paths) do
+      path_segments[file_path] = split_path(file_path)
+      for parent in file_path:gmatch "()/" do
+        directories[file_path:sub(1, parent - 1)] = true
+      end
+    end
+
+    local searches = {}
+    for _, spec in ipairs(specs) do
+      -- Detection looks manifests up from the root, where some name a directory
+      for _, manifest_file in ipairs(spec.manifest_files or {}) do
+        local manifest_path = manifest_file:gsub("/$", "")
+        if path_segments[manifest_path] then
+          select(spec, manifest_path, "read")
+        elseif directories[manifest_path] then
+          table.insert(context.directories, manifest_path)
+        elseif manifest_path:find("[*?]") then
+          local glob_segments = split_path(manifest_path)
+          for file_path, segments in pairs(path_segments) do
+            if match_segments(segments, glob_segments, 1, 1) then
+              select(spec, file_path, "read")
+            end
+          end
+        end
+      end
+
+      if spec.search_patterns then
+        table.insert(searches, spec)
+      elseif spec.file_globs then
+        for file_path, segments in pairs(path_segments) do
+          if matches_spec(segments, spec) then
+            select(spec, file_path, spec.paths_only and "listed" or "read")
+          end
+        end
+      end
+    end
+
+    -- Files with a match are only read where they are
+    local remaining = #searches + 1
+    local function on_search_done()
+      remaining = remaining - 1
+      if remaining == 0 then
+        callback(context)
+      end
+    end
+    for _, spec in ipairs(searches) do
+      local search_command = { "git", "grep", "-l", "-E" }
+      for _, search_pattern in ipairs(spec.search_patterns) do
+        vim.list_extend(search_command, { "-e", to_extended_regex(search_pattern) })
+      end
+      table.insert(search_command, ref or "--untracked")
+      table.insert(search_command, "--")
+      vim.list_extend(search_command, spec.file_globs)
+
+      -- `git grep` exits with 1 when no file matched
+      self.pool:run(search_command, { text = true }, function(search)
+        for _, line in ipairs(vim.split(search.stdout or "", "\n", { trimempty = true })) do
+          local file_path = ref and line:sub(#ref + 2) or line
+          if path_segments[file_path] and matches_spec(path_segments[file_path], spec) then
+            select(spec, file_path, "read")
+          end
+        end
+        on_search_done()
+      end, scan_handle)
+    end
+    on_search_done()
+  end, scan_handle)
+end
+
+---Writes a revision's compared files and context files into a new mirror directory
+---Compared files missing at the revision (added or deleted since) are left out. Context files listed for their
+---paths alone are written empty.
+---@private
+---@param ref string|nil nil for the working tree
+---@param file_paths string[] Compared files
+---@param context table The revision's context files, from _list_context_async()
+---@param callback fun(mirror: { root: string, file_count: number }) file_count: compared files written
+function ApiDiff:_read_revision_async(ref, file_paths, context, callback, scan_handle)
+  -- Not in the temp directory, which exclude patterns such as `**/tmp` would skip
+  local mirror_name = vim.fn.getpid() .. "-" .. vim.fn.fnamemodify(vim.fn.tempname(), ":t")
+  local mirror = { root = vim.fn.stdpath "cache" .. "/endpoint.nvim/diff/" .. mirror_name, file_count = 0 }
+  vim.fn.mkdir(mirror.root, "p")
+  scan_handle:on_cancel(function()
+    vim.fn.delete(mirror.root, "rf")
+  end)
+
+  local compared = {}
+  for _, file_path in ipairs(file_paths) do
+    compared[file_path] = true
+  end
+
+  local function write(file_path, content)
+    local mirror_path = mirror.root .. "/" .. file_path
+    vim.fn.mkdir(vim.fn.fnamemodify(mirror_path, ":h"), "p")
+    local file = io.open(mirror_path, "wb")
+    if file then
+      file:write(content)
+      file:close()
+      if compared[file_path] then
+        mirror.file_count = mirror.file_count + 1
+      end
+    end
+  end
+
+  for _, directory in ipairs(context.directories) do
+    vim.fn.mkdir(mirror.root .. "/" .. directory, "p")
+  end
+  for file_path in pairs(context.listed) do
+    if not compared[file_path] and not context.read[file_path] then
+      write(file_path, "")
+    end
+  end
+
+  local read_paths = vim.list_extend({}, file_paths)
+  for file_path in pairs(context.read) do
+    if not compared[file_path] then
+      table.insert(read_paths, file_path)
+    end
+  end
+
+  if not ref then
+    for _, file_path in ipairs(read_paths) do
+      local file = vim.fn.filereadable(file_path) == 1 and io.open(file_path, "rb")
+      if file then
+        write(file_path, file:read "*a")
+        file:close()
+      end
+    end
+    callback(mirror)
+    return
+  end
+
+  local remaining = #read_paths
+  if remaining == 0 then
+    callback(mirror)
+    return
+  end
+  for _, file_path in ipairs(read_paths) do
+    self.pool:run({ "git", "show", ref .. ":./" .. file_path }, { text = false }, function(obj)
+      remaining = remaining - 1
+      if obj.code == 0 then
+        write(file_path, obj.stdout or "")
+      end
+      if remaining == 0 then
+        callback(mirror)
+      end
+    end, scan_handle)
+  end
+end
+
+---Scans a mirror directory as the project root and keeps the endpoints of the compared files
+---Their paths are mapped back to the project.
+---@private
+---@param compared table<string, true> Compared files
+---@param callback fun(endpoints: endpoint.entry[])
+function ApiDiff:_scan_mirror_async(mirror, compared, callback, scan_handle)
+  if mirror.file_count == 0 then
+    vim.fn.delete(mirror.root, "rf")
+    callback {}
+    return
+  end
+
+  local root_prefix = mirror.root .. "/"
+  local function to_project_path(file_path)
+    if file_path and file_path:sub(1, #root_prefix) == root_prefix then
+      return "./" .. file_path:sub(#root_prefix + 1)
+    end
+    return file_path
+  end
+
+  self.sources.scan(mirror.root, function(endpoints)
+    vim.fn.delete(mirror.root, "rf")
+    local compared_endpoints = {}
+    for _, endpoint in ipairs(endpoints) do
+      endpoint.file_path = to_project_path(endpoint.file_path)
+      endpoint.component_file_path = to_project_path(endpoint.component_file_path)
+      -- Context files are scanned too, but their endpoints did not change
+      if compared[normalize_path(endpoint.file_path)] then
+        table.insert(compared_endpoints, endpoint)
+      end
+    end
+    callback(compared_endpoints)
+  end, scan_handle)
+end
+
+---Diffs the endpoints of two revisions of the working directory's project
+---@param base string
+---@param head string|nil Defaults to the working tree
+---@param callback fun(result: table|nil, err: string|nil) result: compare() result, `base`, `head` and `file_count`
+---@param scan_handle endpoint.ScanHandle
+function ApiDiff:run_async(base, head, callback, scan_handle)
+  local file_paths = git.changed_files(base, head)
+  if not file_paths then
+    local range = base .. (head and (".." .. head) or "")
+    callback(nil, "Cannot diff " .. range .. ": not a git repository or unknown revision")
+    return
+  end
+  if #file_paths == 0 then
+    callback { added = {}, removed = {}, changed = {}, base = base, head = head, file_count = 0 }
+    return
+  end
+
+  log.framework_debug(string.format("Diffing endpoints of %d changed files", #file_paths))
+  local progress_handle = progress.create("Diffing endpoints", #file_paths .. " changed files")
+  scan_handle:on_cancel(function(reason)
+    progress.cancel(progress_handle, "Cancelled (" .. reason .. ")")
+  end)
+
+  local changed = {}
+  for _, file_path in ipairs(file_paths) do
+    changed[file_path] = true
+  end
+
+  local function compare(compared_paths, base_context, head_context)
+    local compared = {}
+    for _, file_path in ipairs(compared_paths) do
+      compared[file_path] = true
+    end
+
+    -- Mirrors are scanned with their own resolver indexes, so both revisions are read and parsed at once
+    local endpoints = {}
+    local pending = 2
+    local function on_scanned()
+      pending = pending - 1
+      if pending > 0 then
+        return
+      end
+      local result = ApiDiff.static.compare(endpoints.base, endpoints.head)
+      result.base = base
+      result.head = head
+      result.file_count = #file_paths
+      progress.finish(
+        progress_handle,
+        string.format("%d added, %d removed, %d changed", #result.added, #result.removed, #result.changed)
+      )
+      callback(result)
+    end
+
+    local function read_and_scan(side, ref, context)
+      self:_read_revision_async(ref, compared_paths, context, function(mirror)
+        self:_scan_mirror_async(mirror, compared, function(side_endpoints)
+          endpoints[side] = side_endpoints
+          on_scanned()
+        end, scan_handle)
+      end, scan_handle)
+    end
+
+    progress.update(progress_handle, "Parsing " .. base .. " and " .. (head or "working tree"), 50)
+    read_and_scan("base", base, base_context)
+    read_and_scan("head", head, head_context)
+  end
+
+  -- Both revisions are listed at once; a changed context file adds the files depending on it to both sides
+  local specs = self.sources.get_context_specs()
+  local contexts = {}
+  local pending = 2
+  local function on_listed()
+    pending = pending - 1
+    if pending > 0 then
+      return
+    end
+
+    local dependent_specs = vim.list_extend({}, contexts.base.dependents)
+    for _, dependent_spec in ipairs(contexts.head.dependents) do
+      if not vim.tbl_contains(dependent_specs, dependent_spec) then
+        table.insert(dependent_specs, dependent_spec)
+      end
+    end
+    if #dependent_specs == 0 then
+      compare(file_paths, contexts.base, contexts.head)
+      return
+    end
+
+    local compared_paths = vim.list_extend({}, file_paths)
+    local is_compared = vim.deepcopy(changed)
+    local dependents_pending = 2
+    local function on_dependents_listed(dependents)
+      for file_path in pairs(dependents.read) do
+        if not is_compared[file_path] then
+          is_compared[file_path] = true
+          table.insert(compared_paths, file_path)
+        end
+      end
+      dependents_pending = dependents_pending - 1
+      if dependents_pending == 0 then
+        log.framework_debug(string.format("Diffing %d files depending on changed files", #compared_paths - #file_paths))
+        compare(compared_paths, contexts.base, contexts.head)
+      end
+    end
+    self:_list_context_async(base, dependent_specs, {}, on_dependents_listed, scan_handle)
+    self:_list_context_async(head, dependent_specs, {}, on_dependents_listed, scan_handle)
+  end
+
+  self:_list_context_async(base, specs, changed, function(context)
+    contexts.base = context
+    on_listed()
+  end, scan_handle)
+  self:_list_context_async(head, specs, changed, function(context)
+    contexts.head = context
+    on_listed()
+  end, scan_handle)
+end
+
+return ApiDiff
@@ -1,20 +1,80 @@
 local class = require "endpoint.lib.middleclass"
+local git = require "endpoint.utils.git"
+local log = require "endpoint.utils.log"
+local ProcessPool = require "endpoint.core.ProcessPool"
+local ScanHandle = require "endpoint.core.ScanHandle"
+
+local uv = vim.uv or vim.loop
 
 ---@class endpoint.Cache
 local Cache = class "Cache"
 
+-- Disk snapshots kept per git project and method, one per indexed commit
+local MAX_SNAPSHOTS = 8
+
+---Lists the files endpoints come from that exist on disk
+---@return string[]|nil file_paths nil when one of them was removed
+local function get_source_files(endpoints)
+  local file_paths = {}
+  local checked = {}
+  for _, endpoint in ipairs(endpoints) do
+    for _, file_path in ipairs { endpoint.file_path, endpoint.component_file_path } do
+      if file_path and not checked[file_path] then
+        checked[file_path] = true
+        if not uv.fs_stat(file_path) then
+          return nil
+        end
+        table.insert(file_paths, file_path)
+      end
+    end
+  end
+  return file_paths
+end
+
+---Checks if changed files include files with the extension of a file a snapshot's endpoints come from
+---@param changed_files string[]|nil nil when they could not be listed, which counts as a change
+local function has_source_files(manifest, changed_files)
+  if not changed_files then
+    return true
+  end
+  for _, file_path in ipairs(changed_files) do
+    local extension = file_path:match "%.([^./]+)$"
+    if not manifest.extensions or (extension and manifest.extensions[extension]) then
+      return true
+    end
+  end
+  return false
+end
+
+---Gets the manifest file stored next to a snapshot
+local function get_manifest_path(snapshot_path)
+  return (snapshot_path:gsub("%.lua$", ".manifest.lua"))
+end
+
 function Cache:initialize()
   self.cached_endpoints = {}
   self.cache_timestamps = {}
   self.cache_mode = "session"
+  -- Whether source files changed between two commits, by "<base>..<head>"
+  self._source_changes = {}
+  -- Git repositories by working directory (false outside one), looked up again after DirChanged
+  self._repos = {}
 end
 
 function Cache:set_mode(mode)
   self.cache_mode = mode
 end
 
+---Checks if the cache is kept on disk ("persistent" and "swr" modes)
+function Cache:_uses_disk()
+  return self.cache_mode == "persistent" or self.cache_mode == "swr"
+end
+
 function Cache:_get_cache_key(method)
-  return method or "all"
+  if not method or method == "" then
+    return "all"
+  end
+  return method
 end
 
 function Cache:_get_cache_dir()
@@ -25,7 +85,123 @@ function Cache:_get_project_hash()
   return (vim.fn.fnamemodify(vim.fn.getcwd(), ":t"):gsub("[^%w]", "_"))
 end
 
-function Cache:_get_cache_file_path(method)
+---Gets the git repository of the working directory, nil outside one
+---git runs once per directory; HEAD, which commits and checkouts move, is read from the repository's files.
+---@return { top_level: string, git_dir: string, common_dir: string, head: string }|nil
+function Cache:_get_repo()
+  local cwd = vim.fn.getcwd()
+  local repo = self._repos[cwd]
+  if repo == nil then
+    repo = git.get_repo(cwd) or false
+    self._repos[cwd] = repo
+  elseif repo then
+    repo.head = git.read_head(repo) or repo.head
+  end
+  return repo or nil
+end
+
+---Forgets the repositories looked up, so the next lookup runs git again (on DirChanged, see Endpoint:setup)
+function Cache:forget_repos()
+  self._repos = {}
+end
+
+---Gets the snapshot directory of a git project
+---It is keyed by the repository (not the worktree) and the project's directory inside it, so the worktrees of a
+---repository share their snapshots.
+function Cache:_get_snapshot_dir(repo)
+  local cwd = vim.fn.getcwd()
+  local subdir = cwd:sub(1, #repo.top_level + 1) == repo.top_level .. "/" and cwd:sub(#repo.top_level + 2) or ""
+  local repo_dir = vim.fn.fnamemodify(repo.common_dir, ":t") == ".git" and vim.fn.fnamemodify(repo.common_dir, ":h")
+    or repo.common_dir
+  local repo_name = vim.fn.fnamemodify(repo_dir, ":t"):gsub("%.git$", ""):gsub("[^%w]", "_")
+  local repo_key = vim.fn.sha256(repo.common_dir .. "\n" .. subdir):sub(1, 12)
+  return self:_get_cache_dir() .. "/" .. repo_name .. "_" .. repo_key
+end
+
+---Lists a method's snapshots, most recently saved first
+function Cache:_list_snapshots(snapshot_dir, suffix)
+  local snapshots = {}
+  for _, file_path in ipairs(vim.fn.glob(snapshot_dir .. "/*" .. suffix .. ".lua", false, true)) do
+    if vim.fn.fnamemodify(file_path, ":t"):match("^%x+" .. vim.pesc(suffix) .. "%.lua$") then
+      table.insert(snapshots, { file_path = file_path, saved_at = vim.fn.getftime(file_path) })
+    end
+  end
+  table.sort(snapshots, function(a, b)
+    return a.saved_at > b.saved_at
+  end)
+  return vim.tbl_map(function(snapshot)
+    return snapshot.file_path
+  end, snapshots)
+end
+
+---Gets the snapshot file of a git project: the one indexed at HEAD, else the most recently saved one
+---After a checkout the fallback is revalidated by file contents like any cached endpoints. "persistent" mode
+---never revalidates, so there it only falls back to snapshots taken in the same worktree.
+---@param for_write boolean|nil Always HEAD's snapshot
+function Cache:_get_snapshot_path(repo, method, for_write)
+  local snapshot_dir = self:_get_snapshot_dir(repo)
+  local suffix = (method and method ~= "") and ("_" .. self:_get_cache_key(method)) or ""
+  local head_path = snapshot_dir .. "/" .. repo.head .. suffix .. ".lua"
+  if for_write or vim.fn.filereadable(head_path) == 1 then
+    return head_path
+  end
+
+  for _, file_path in ipairs(self:_list_snapshots(snapshot_dir, suffix)) do
+    if self.cache_mode == "swr" then
+      return file_path
+    end
+    local manifest = self:_read_manifest(file_path)
+    if manifest and manifest.top_level == repo.top_level and not self:_has_source_changes(repo, manifest) then
+      return file_path
+    end
+  end
+  return head_path
+end
+
+---Checks if source files changed between the commit a snapshot was indexed at and HEAD
+---A snapshot of another commit knows nothing of the files added since, so any changed file with the extension
+---of a file its endpoints come from counts, not only the files it lists.
+---@param manifest table
+---@return boolean
+function Cache:_has_source_changes(repo, manifest)
+  if manifest.head == repo.head then
+    return false
+  end
+
+  local range = manifest.head .. ".." .. repo.head
+  if self._source_changes[range] == nil then
+    self._source_changes[range] = has_source_files(manifest, git.changed_files(manifest.head, repo.head))
+  end
+  return self._source_changes[range]
+end
+
+---Asynchronous _has_source_changes(), for revalidation
+---@param callback fun(has_changes: boolean)
+---@param scan_handle endpoint.ScanHandle
+function Cache:_has_source_changes_async(repo, manifest, callback, scan_handle)
+  local range = manifest.head .. ".." .. repo.head
+  if manifest.head == repo.head or self._source_changes[range] ~= nil then
+    callback(self:_has_source_changes(repo, manifest))
+    return
+  end
+
+  local command = git.get_diff_command(manifest.head, repo.head, vim.fn.getcwd())
+  ProcessPool.static.spawn(nil, command, { text = true }, function(obj)
+    local changed_files = obj.code == 0 and vim.split(obj.stdout or "", "\n", { trimempty = true }) or nil
+    self._source_changes[range] = has_source_files(manifest, changed_files)
+    callback(self._source_changes[range])
+  end, scan_handle)
+end
+
+---Gets the disk cache file of a method
+---In git projects this is a snapshot per indexed commit, so switching branches back and forth reuses them.
+---@param for_write boolean|nil
+function Cache:_get_cache_file_path(method, for_write)
+  local repo = self:_get_repo()
+  if repo then
+    return self:_get_snapshot_path(repo, method, for_write)
+  end
+
   local cache_dir = self:_get_cache_dir()
   local project_hash = self:_get_project_hash()
   local cache_key = self:_get_cache_key(method)
@@ -46,7 +222,7 @@ function Cache:_ensure_cache_dir()
 end
 
 function Cache:is_valid(method)
-  if self.cache_mode == "persistent" then
+  if self:_uses_disk() then
     local loaded_data = self:_load_from_disk(method)
     return loaded_data ~= nil and #loaded_data > 0
   else
@@ -56,7 +232,7 @@ function Cache:is_valid(method)
 end
 
 function Cache:get_endpoints(method)
-  if self.cache_mode == "persistent" then
+  if self:_uses_disk() then
     local endpoints = self:_load_from_disk(method)
     return endpoints or {}
   else
@@ -72,16 +248,149 @@ function Cache:save_endpoints(endpoints, method)
   self.cached_endpoints[cache_key] = endpoints
   self.cache_timestamps[cache_key] = os.time()
 
-  -- Also save to disk if persistent mode
-  if self.cache_mode == "persistent" then
+  -- Also save to disk in persistent and swr modes
+  if self:_uses_disk() then
     self:_save_to_disk(endpoints, method)
   end
 end
 
+---Gets when the endpoints for a method were cached (os.time() seconds), nil if they are not
+function Cache:get_saved_at(method)
+  if self:_uses_disk() then
+    local saved_at = vim.fn.getftime(self:_get_cache_file_path(method))
+    return saved_at >= 0 and saved_at or nil
+  end
+  return self.cache_timestamps[self:_get_cache_key(method)]
+end
+
+---Checks if cached endpoints may be out of date
+---They are stale when a file they come from was modified or removed after they were cached, or when
+---they are older than max_age seconds (new files are only noticed by a rescan, so this bounds that delay).
+---Git snapshots record the blob SHA of those files: a file rewritten with the same contents (e.g. by a
+---checkout, or in another worktree of the repository) does not make them stale. A snapshot of another commit
+---is stale when source files changed since that commit (see _has_source_changes).
+---`git diff` and `git hash-object` run as background processes, so revalidation never blocks the editor.
+---@param method string|nil
+---@param endpoints endpoint.entry[] The cached endpoints
+---@param max_age number|nil Seconds
+---@param callback fun(stale: boolean) Called right away when no process is needed; not called once cancelled
+---@param scan_handle endpoint.ScanHandle|nil
+function Cache:is_stale_async(method, endpoints, max_age, callback, scan_handle)
+  scan_handle = scan_handle or ScanHandle:new()
+
+  local saved_at = self:get_saved_at(method)
+  if not saved_at then
+    callback(true)
+    return
+  end
+
+  if max_age and os.time() - saved_at > max_age then
+    callback(true)
+    return
+  end
+
+  local file_paths = get_source_files(endpoints)
+  if not file_paths then
+    callback(true)
+    return
+  end
+
+  local manifest = self:_uses_disk() and self:_read_manifest(self:_get_cache_file_path(method)) or nil
+  local blobs = manifest and manifest.blobs or {}
+  local repo = manifest and self:_get_repo()
+
+  local function compare_contents()
+    -- Mtimes in another worktree say nothing about when the snapshot was taken: compare every file's contents
+    local compare_all = repo ~= nil and repo.top_level ~= manifest.top_level
+
+    local modified = {}
+    for _, file_path in ipairs(file_paths) do
+      local stat = uv.fs_stat(file_path)
+      -- Same-second edits count as changes (mtime is compared in seconds)
+      if not stat or compare_all or stat.mtime.sec >= saved_at then
+        if not stat or not blobs[file_path] then
+          callback(true)
+          return
+        end
+        table.insert(modified, file_path)
+      end
+    end
+
+    if #modified == 0 then
+      callback(false)
+      return
+    end
+
+    local stdin = table.concat(modified, "\n") .. "\n"
+    ProcessPool.static.spawn(nil, git.HASH_FILES_COMMAND, { text = true, stdin = stdin }, function(obj)
+      local output = obj.code == 0 and vim.split(obj.stdout or "", "\n", { trimempty = true }) or {}
+      local current_blobs = git.to_blobs(modified, output)
+      if not current_blobs then
+        callback(true)
+        return
+      end
+      for _, file_path in ipairs(modified) do
+        if current_blobs[file_path] ~= blobs[file_path] then
+          callback(true)
+          return
+        end
+      end
+
+      log.framework_debug(string.format("%d rewritten files kept their contents, cache is fresh", #modified))
+      callback(false)
+    end, scan_handle)
+  end
+
+  if not repo then
+    compare_contents()
+    return
+  end
+  self:_has_source_changes_async(repo, manifest, function(has_changes)
+    if has_changes then
+      callback(true)
+    else
+      compare_contents()
+    end
+  end, scan_handle)
+end
+
+---Records the blob SHA of every file the endpoints come from, alongside the commit they were indexed at
+---@return table|nil manifest { top_level, head, blobs, extensions }
+function Cache:_create_manifest(repo, endpoints)
+  local file_paths = get_source_files(endpoints)
+  local blobs = file_paths and git.hash_files(file_paths)
+  if not blobs then
+    return nil
+  end
+
+  local extensions = {}
+  for _, file_path in ipairs(file_paths) do
+    local extension = file_path:match "%.([^./]+)$"
+    if extension then
+      extensions[extension] = true
+    end
+  end
+  return { top_level = repo.top_level, head = repo.head, blobs = blobs, extensions = extensions }
+end
+
+---Reads the manifest stored next to a git snapshot, nil for other cache files
+---It is a file of its own, so checking a snapshot does not load its endpoints.
+---@param snapshot_path string
+function Cache:_read_manifest(snapshot_path)
+  local success, manifest = pcall(function()
+    local loader = loadfile(get_manifest_path(snapshot_path))
+    return loader and loader() or nil
+  end)
+  return success and type(manifest) == "table" and manifest or nil
+end
+
 function Cache:_save_to_disk(endpoints, method)
   local success, err = pcall(function()
     self:_ensure_cache_dir()
-    local file_path = self:_get_cache_file_path(method)
+    local repo = self:_get_repo()
+    local file_path = self:_get_cache_file_path(method, true)
+    vim.fn.mkdir(vim.fn.fnamemodify(file_path, ":h"), "p")
+    local manifest = repo and self:_create_manifest(repo, endpoints)
 
     -- Generate Lua code that returns the endpoints table
     local lua_content = "-- Generated cache file for endpoint.nvim\n"
@@ -95,6 +404,20 @@ function Cache:_save_to_disk(endpoints, method)
       file:write(lua_content)
       file:close()
     end
+
+    if repo then
+      local manifest_file = manifest and io.open(get_manifest_path(file_path), "w")
+      if manifest_file then
+        manifest_file:write("return " .. self:_serialize_table(manifest))
+        manifest_file:close()
+      else
+        os.remove(get_manifest_path(file_path))
+      end
+    end
+
+    if repo then
+      self:_prune_snapshots(file_path)
+    end
   end)
 
   if not success then
@@ -102,6 +425,16 @@ function Cache:_save_to_disk(endpoints, method)
   end
 end
 
+---Removes the oldest snapshots of a method beyond MAX_SNAPSHOTS
+function Cache:_prune_snapshots(saved_path)
+  local suffix = vim.fn.fnamemodify(saved_path, ":t"):match "^%x+(.-)%.lua$" or ""
+  local snapshots = self:_list_snapshots(vim.fn.fnamemodify(saved_path, ":h"), suffix)
+  for index = MAX_SNAPSHOTS + 1, #snapshots do
+    os.remove(snapshots[index])
+    os.remove(get_manifest_path(snapshots[index]))
+  end
+end
+
 function Cache:_serialize_table(tbl)
   if type(tbl) ~= "table" then
     if type(tbl) == "string" then
@@ -160,8 +493,8 @@ function Cache:clear()
   self.cached_endpoints = {}
   self.cache_timestamps = {}
 
-  -- Also clear persistent cache files if in persistent mode
-  if self.cache_mode == "persistent" then
+  -- Also clear cache files in persistent and swr modes
+  if self:_uses_disk() then
     self:_clear_disk_cache()
   end
 end
@@ -185,6 +518,12 @@ function Cache:_clear_disk_cache()
         end
       end
     end
+
+    -- Git snapshots of every indexed commit
+    local repo = self:_get_repo()
+    if repo then
+      vim.fn.delete(self:_get_snapshot_dir(repo), "rf")
+    end
   end)
 
   if not success then
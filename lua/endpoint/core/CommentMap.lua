@@ -0,0 +1,320 @@
+local class = require "endpoint.lib.middleclass"
+local SourcePass = require "endpoint.core.SourcePass"
+
+local uv = vim.uv or vim.loop
+
+---Commented regions of one file: line comments and block comments (`/* */`, Python docstrings, Ruby
+---`=begin`/`=end`), computed in a single pass over its lines
+---Strings are skipped while scanning so `"http://..."` or `"#{id}"` never open a comment. Frameworks drop the
+---hits that start inside a comment before handing them to their parser. Only the commented lines are kept, with
+---their ranges and first non-blank column; maps are cached for the duration of a scan.
+---@class endpoint.CommentMap
+local CommentMap = class "CommentMap"
+
+-- Comment and string syntax by language
+-- strings: opening delimiters, longest first; multiline strings may span lines
+local SYNTAX = {
+  java = { line = { "//" }, block = true, strings = { '"""', '"', "'" } },
+  kotlin = { line = { "//" }, block = true, strings = { '"""', '"', "'" } },
+  csharp = { line = { "//" }, block = true, strings = { '"', "'" }, verbatim = true },
+  javascript = { line = { "//" }, block = true, strings = { '"', "'", "`" }, regex = true },
+  typescript = { line = { "//" }, block = true, strings = { '"', "'", "`" }, regex = true },
+  php = { line = { "//", "#" }, block = true, strings = { '"', "'" }, attributes = true },
+  python = { line = { "#" }, strings = { '"""', "'''", '"', "'" }, docstrings = true },
+  ruby = { line = { "#" }, strings = { '"', "'" }, begin_end = true },
+}
+
+local MULTILINE_STRINGS = { ['"""'] = true, ["'''"] = true, ["`"] = true }
+
+-- Languages by file extension
+local EXTENSION_LANGUAGES = {
+  java = "java",
+  kt = "kotlin",
+  kts = "kotlin",
+  cs = "csharp",
+  js = "javascript",
+  jsx = "javascript",
+  mjs = "javascript",
+  cjs = "javascript",
+  ts = "typescript",
+  tsx = "typescript",
+  mts = "typescript",
+  cts = "typescript",
+  php = "php",
+  py = "python",
+  rb = "ruby",
+}
+
+-- Characters after which a `/` starts a regex literal rather than a division
+-- (`<` is left out: in JSX it opens closing tags such as `</Route>`)
+local REGEX_PRECEDERS = "[%(,=:%[!&|%?{};%+%-%*%%~%^]"
+
+-- Maps by file path: { mtime, map }, cleared when a scan finishes
+local _cache = {}
+
+---Finds the end of a string or block comment, honoring backslash escapes (and `""` in C# verbatim strings)
+---@return number|nil close_start, number|nil close_end
+local function find_close(line, start, closer)
+  local index = start
+  local length = #line
+  while index <= length do
+    local char = line:sub(index, index)
+    if closer.escapes and char == "\\" then
+      index = index + 2
+    elseif line:sub(index, index + #closer.close - 1) == closer.close then
+      if closer.doubled and line:sub(index + 1, index + 1) == '"' then
+        index = index + 2
+      else
+        return index, index + #closer.close - 1
+      end
+    else
+      index = index + 1
+    end
+  end
+  return nil
+end
+
+---Finds the end of a regex literal starting at `start`, nil when the line does not close it
+local function find_regex_end(line, start)
+  local index = start + 1
+  local in_class = false
+  while index <= #line do
+    local char = line:sub(index, index)
+    if char == "\\" then
+      index = index + 1
+    elseif char == "[" then
+      in_class = true
+    elseif char == "]" then
+      in_class = false
+    elseif char == "/" and not in_class then
+      return index
+    end
+    index = index + 1
+  end
+  return nil
+end
+
+---Scans one line, adding its commented ranges
+---@param state table { closer } Block comment or multiline string still open at the end of the line
+local function scan_line(line, syntax, state, add_range)
+  local length = #line
+  local index = 1
+  local previous = nil
+
+  while index <= length do
+    local closer = state.closer
+    if closer then
+      local _, close_end = find_close(line, index, closer)
+      if not close_end then
+        break
+      end
+      if closer.comment then
+        add_range(closer.from, close_end)
+      else
+        previous = '"'
+      end
+      index = close_end + 1
+      state.closer = nil
+    else
+      local char = line:sub(index, index)
+      local matched = false
+
+      -- PHP 8 attributes (#[Route]) are not comments
+      local is_attribute = syntax.attributes and line:sub(index, index + 1) == "#["
+      for _, marker in ipairs(syntax.line) do
+        if line:sub(index, index + #marker - 1) == marker and not is_attribute then
+          add_range(index, length)
+          return
+        end
+      end
+
+      if syntax.block and line:sub(index, index + 1) == "/*" then
+        state.closer = { close = "*/", comment = true, multiline = true, from = index }
+        index = index + 2
+        matched = true
+      elseif syntax.verbatim and line:sub(index, index + 1) == '@"' then
+        state.closer = { close = '"', multiline = true, doubled = true, from = index }
+        index = index + 2
+        matched = true
+      end
+
+      if not matched then
+        for _, delimiter in ipairs(syntax.strings) do
+          if line:sub(index, index + #delimiter - 1) == delimiter then
+            state.closer = {
+              close = delimiter,
+              escapes = true,
+              multiline = MULTILINE_STRINGS[delimiter] or false,
+              -- A triple-quoted string standing alone as a statement is a docstring (block comment)
+              comment = syntax.docstrings and #delimiter == 3 and line:sub(1, index - 1):match "^%s*$" ~= nil,
+              from = index,
+            }
+            index = index + #delimiter
+            matched = true
+            break
+          end
+        end
+      end
+
+      if not matched and syntax.regex and char == "/" and (not previous or previous:match(REGEX_PRECEDERS)) then
+        local regex_end = find_regex_end(line, index)
+        if regex_end then
+          index = regex_end + 1
+          previous = "/"
+          matched = true
+        end
+      end
+
+      if not matched then
+        if not char:match "%s" then
+          previous = char
+        end
+        index = index + 1
+      end
+    end
+  end
+
+  -- The rest of the line (blank lines included) is inside a block comment or docstring still open
+  local closer = state.closer
+  if closer then
+    if closer.comment then
+      add_range(closer.from, math.max(length, 1))
+    end
+    if not closer.multiline then
+      state.closer = nil
+    end
+  end
+end
+
+---Computes the commented ranges of each line
+---A range starts at the whitespace before the comment, so a column pointing at the whitespace before matched
+---code is checked without keeping the line.
+---@param lines string[]
+---@param syntax table
+---@return table<number, number[][]> ranges { from, to } columns by line number
+---@return table<number, number> first_columns First non-blank column of the lines with ranges
+local function compute_ranges(lines, syntax)
+  local ranges = {}
+  local first_columns = {}
+  local state = { closer = nil }
+  local in_begin_end = false
+
+  for line_number, line in ipairs(lines) do
+    local function add_range(from, to)
+      if not ranges[line_number] then
+        ranges[line_number] = {}
+        first_columns[line_number] = line:find "%S" or 1
+      end
+      while from > 1 and line:sub(from - 1, from - 1):match "%s" do
+        from = from - 1
+      end
+      table.insert(ranges[line_number], { from, to })
+    end
+
+    if syntax.begin_end and (in_begin_end or line:match "^=begin") then
+      add_range(1, math.max(#line, 1))
+      in_begin_end = not line:match "^=end"
+    else
+      scan_line(line, syntax, state, add_range)
+      if state.closer then
+        state.closer.from = 1
+      end
+    end
+  end
+
+  return ranges, first_columns
+end
+
+---@param lines string[] Read while building the map, not kept
+---@param language string Key of SYNTAX (e.g. "java", "python")
+function CommentMap:initialize(lines, language)
+  self.language = language
+  self._ranges, self._first_columns = compute_ranges(lines, SYNTAX[language])
+end
+
+---Checks if the code at a position is commented out
+---The column may point at whitespace before the matched code (e.g. patterns starting with `\s*`)
+---@param line_number number
+---@param column number|nil 1-based; defaults to the first non-blank character
+---@return boolean
+function CommentMap:is_commented(line_number, column)
+  local line_ranges = self._ranges[line_number]
+  if not line_ranges then
+    return false
+  end
+
+  column = column or self._first_columns[line_number]
+  for _, range in ipairs(line_ranges) do
+    if column >= range[1] and column <= range[2] then
+      return true
+    end
+  end
+  return false
+end
+
+---Gets the comment syntax language of a file from its extension, nil when unsupported
+---@param file_path string
+---@return string|nil
+function CommentMap.static.get_language(file_path)
+  local extension = file_path:match "%.([%w]+)$"
+  return extension and EXTENSION_LANGUAGES[extension:lower()] or nil
+end
+
+---Checks if hits in comments are dropped for a language (`comment_filtering` config)
+---@param language string
+---@return boolean
+function CommentMap.static.is_enabled(language)
+  local comment_filtering = require("endpoint.config").get().comment_filtering or {}
+  if comment_filtering.enabled == false then
+    return false
+  end
+  local languages = comment_filtering.languages or {}
+  return languages[language] ~= false
+end
+
+---Gets the comment map of a file, computed once per file version until the cache is cleared
+---Lines come from the scan's source pass when it read the file, otherwise from the disk.
+---@param file_path string
+---@return endpoint.CommentMap|nil nil when the language is unsupported or disabled, or the file is unreadable
+function CommentMap.static.for_file(file_path)
+  local language = CommentMap.static.get_language(file_path)
+  if not language or not CommentMap.static.is_enabled(language) then
+    return nil
+  end
+
+  local stat = uv.fs_stat(file_path)
+  if not stat then
+    return nil
+  end
+  local mtime_key = string.format("%d.%d.%d", stat.mtime.sec, stat.mtime.nsec or 0, stat.size)
+
+  local cached = _cache[file_path]
+  if cached and cached.mtime == mtime_key then
+    return cached.map
+  end
+
+  local lines = SourcePass.static.read_lines(file_path)
+  if not lines then
+    return nil
+  end
+  local map = CommentMap:new(lines, language)
+  _cache[file_path] = { mtime = mtime_key, map = map }
+  return map
+end
+
+---Checks if a search hit starts inside a comment
+---@param file_path string
+---@param line_number number
+---@param column number|nil
+---@return boolean
+function CommentMap.static.is_commented_hit(file_path, line_number, column)
+  local map = CommentMap.static.for_file(file_path)
+  return map ~= nil and map:is_commented(line_number, column)
+end
+
+---Drops the cached maps; called when a scan finishes or is cancelled
+function CommentMap.static.clear_cache()
+  _cache = {}
+end
+
+return CommentMap
@@ -4,6 +4,19 @@ local class = require "endpoint.lib.middleclass"
 ---@class endpoint.Detector
 local Detector = class "Detector"
 
+---Resolves manifest paths against a project root, the working directory when nil
+---@param project_root string|nil
+---@param paths string[]
+---@return string[]
+local function in_root(project_root, paths)
+  if not project_root then
+    return paths
+  end
+  return vim.tbl_map(function(path)
+    return project_root .. "/" .. path
+  end, paths)
+end
+
 function Detector:initialize(required_dependencies, manifest_files, detection_name)
   self.detection_name = detection_name or "dependency_detection"
 
@@ -11,8 +24,10 @@ function Detector:initialize(required_dependencies, manifest_files, detection_na
   self.manifest_files = manifest_files or {}
 end
 
-function Detector:is_target_detected()
-  for _, manifest_file_path in ipairs(self.manifest_files) do
+---Checks the project's manifests for the required dependencies
+---@param project_root string|nil Root of the project, the working directory when nil
+function Detector:is_target_detected(project_root)
+  for _, manifest_file_path in ipairs(in_root(project_root, self.manifest_files)) do
     if fs.has_file { manifest_file_path } then
       if self:_check_manifest_file_for_dependencies(manifest_file_path) then
         return true
@@ -20,8 +35,8 @@ function Detector:is_target_detected()
     end
   end
 
-  if self:_should_check_submodules() then
-    local submodule_manifest_files = self:_find_submodule_manifest_files()
+  if self:_should_check_submodules(project_root) then
+    local submodule_manifest_files = self:_find_submodule_manifest_files(project_root)
     for _, submodule_manifest_path in ipairs(submodule_manifest_files) do
       if self:_check_manifest_file_for_dependencies(submodule_manifest_path) then
         return true
@@ -102,9 +117,9 @@ function Detector:get_manifest_files()
   return vim.deepcopy(self.manifest_files)
 end
 
-function Detector:_should_check_submodules()
+function Detector:_should_check_submodules(project_root)
   -- Check for Maven
-  if vim.tbl_contains(self.manifest_files, "pom.xml") and fs.has_file { "pom.xml" } then
+  if vim.tbl_contains(self.manifest_files, "pom.xml") and fs.has_file(in_root(project_root, { "pom.xml" })) then
     return true
   end
 
@@ -118,7 +133,7 @@ function Detector:_should_check_submodules()
     "settings.gradle.kts",
   }
 
-  if fs.has_file(gradle_indicators) then
+  if fs.has_file(in_root(project_root, gradle_indicators)) then
     -- Only return true if we are actually looking for gradle files in this detector
     if
       vim.tbl_contains(self.manifest_files, "build.gradle")
@@ -132,12 +147,12 @@ function Detector:_should_check_submodules()
 end
 
 ---Finds all submodule manifest files for Maven and Gradle multi-module projects
-function Detector:_find_submodule_manifest_files()
+function Detector:_find_submodule_manifest_files(project_root)
   local submodule_manifest_files = {}
 
   -- Maven submodules
-  if vim.tbl_contains(self.manifest_files, "pom.xml") and fs.has_file { "pom.xml" } then
-    local pom_files = vim.fn.glob("*/pom.xml", false, true)
+  if vim.tbl_contains(self.manifest_files, "pom.xml") and fs.has_file(in_root(project_root, { "pom.xml" })) then
+    local pom_files = vim.fn.glob(in_root(project_root, { "*/pom.xml" })[1], false, true)
     if type(pom_files) == "table" then
       vim.list_extend(submodule_manifest_files, pom_files)
     elseif type(pom_files) == "string" and pom_files ~= "" then
@@ -147,8 +162,8 @@ function Detector:_find_submodule_manifest_files()
 
   -- Gradle Groovy submodules
   if vim.tbl_contains(self.manifest_files, "build.gradle") then
-    if fs.has_file { "build.gradle", "settings.gradle" } then
-      local gradle_files = vim.fn.glob("*/build.gradle", false, true)
+    if fs.has_file(in_root(project_root, { "build.gradle", "settings.gradle" })) then
+      local gradle_files = vim.fn.glob(in_root(project_root, { "*/build.gradle" })[1], false, true)
       if type(gradle_files) == "table" then
         vim.list_extend(submodule_manifest_files, gradle_files)
       elseif type(gradle_files) == "string" and gradle_files ~= "" then
@@ -159,8 +174,8 @@ function Detector:_find_submodule_manifest_files()
 
   -- Gradle Kotlin submodules
   if vim.tbl_contains(self.manifest_files, "build.gradle.kts") then
-    if fs.has_file { "build.gradle.kts", "settings.gradle.kts" } then
-      local kts_files = vim.fn.glob("*/build.gradle.kts", false, true)
+    if fs.has_file(in_root(project_root, { "build.gradle.kts", "settings.gradle.kts" })) then
+      local kts_files = vim.fn.glob(in_root(project_root, { "*/build.gradle.kts" })[1], false, true)
       if type(kts_files) == "table" then
         vim.list_extend(submodule_manifest_files, kts_files)
       elseif type(kts_files) == "string" and kts_files ~= "" then
@@ -1,22 +1,154 @@
 local class = require "endpoint.lib.middleclass"
 local log = require "endpoint.utils.log"
 local progress = require "endpoint.utils.progress"
+local profiler = require "endpoint.utils.profiler"
+local telemetry = require "endpoint.utils.telemetry"
 local Events = require "endpoint.core.Events"
 local FrameworkRegistry = require "endpoint.core.FrameworkRegistry"
 local Cache = require "endpoint.core.Cache"
+local ScanHandle = require "endpoint.core.ScanHandle"
+local Prewarmer = require "endpoint.core.Prewarmer"
+local RouteTrie = require "endpoint.core.RouteTrie"
+local SourcePass = require "endpoint.core.SourcePass"
+local CommentMap = require "endpoint.core.CommentMap"
+local Traffic = require "endpoint.core.Traffic"
 local config = require "endpoint.config"
 local PickerRegistry = require "endpoint.core.PickerRegistry"
+local Workspace = require "endpoint.core.Workspace"
+local ApiDiff = require "endpoint.core.ApiDiff"
+local build_module_resolver = require "endpoint.resolver.build_module_resolver"
+local index_root = require "endpoint.resolver.index_root"
 
 ---@class endpoint.core.Endpoint
 local Endpoint = class "Endpoint"
 
+-- In-flight scan key for requests without a method filter
+local ALL_METHODS_KEY = "*"
+
+---Gets the in-flight scan key for a method filter
+---@param method string|nil
+---@return string
+local function get_scan_key(method)
+  if not method or method == "" then
+    return ALL_METHODS_KEY
+  end
+  return method:upper()
+end
+
+---Identity of an endpoint when diffing cached and rescanned results
+---@param endpoint endpoint.entry
+---@return string
+local function get_endpoint_key(endpoint)
+  return table.concat({
+    endpoint.method or "",
+    endpoint.endpoint_path or "",
+    endpoint.file_path or "",
+    tostring(endpoint.line_number or ""),
+  }, "\0")
+end
+
+---Computes endpoints added and removed between two results
+---@param previous endpoint.entry[]
+---@param current endpoint.entry[]
+---@return endpoint.entry[] added
+---@return endpoint.entry[] removed
+local function diff_endpoints(previous, current)
+  local previous_keys = {}
+  for _, endpoint in ipairs(previous) do
+    previous_keys[get_endpoint_key(endpoint)] = true
+  end
+
+  local current_keys = {}
+  local added = {}
+  for _, endpoint in ipairs(current) do
+    local key = get_endpoint_key(endpoint)
+    current_keys[key] = true
+    if not previous_keys[key] then
+      table.insert(added, endpoint)
+    end
+  end
+
+  local removed = {}
+  for _, endpoint in ipairs(previous) do
+    if not current_keys[get_endpoint_key(endpoint)] then
+      table.insert(removed, endpoint)
+    end
+  end
+
+  return added, removed
+end
+
+---Filters the result of an all-methods scan down to one method
+---@param endpoints endpoint.entry[]
+---@param scan_key string
+---@return endpoint.entry[]
+local function filter_by_scan_key(endpoints, scan_key)
+  if scan_key == ALL_METHODS_KEY then
+    return endpoints
+  end
+
+  local filtered = {}
+  for _, endpoint in ipairs(endpoints) do
+    if endpoint.method == scan_key then
+      table.insert(filtered, endpoint)
+    end
+  end
+  return filtered
+end
+
+---Filters the result of a scan down to a subscriber's method and module scope
+---@param endpoints endpoint.entry[]
+---@param subscriber table { scan_key, module_scope }
+---@return endpoint.entry[]
+local function filter_for_subscriber(endpoints, subscriber)
+  local filtered = filter_by_scan_key(endpoints, subscriber.scan_key)
+  if subscriber.module_scope then
+    filtered = build_module_resolver.filter_endpoints(filtered, subscriber.module_scope)
+  end
+  return filtered
+end
+
 function Endpoint:initialize(dependencies)
   dependencies = dependencies or {}
 
   self.framework_registry = dependencies.framework_registry or FrameworkRegistry:new()
   self.cache = dependencies.cache or Cache:new()
   self.picker_registry = dependencies.picker_registry or PickerRegistry:new()
+  self.prewarmer = Prewarmer:new(self)
   self._initialized = false
+  -- In-flight find() handles by project root, so a newer find supersedes an older one
+  self._active_finds = {}
+  -- In-flight scans by project root and scan key, shared by concurrent requests
+  self._inflight_scans = {}
+  -- Route tries by endpoint list, so URL lookups against cached endpoints skip building
+  self._route_tries = setmetatable({}, { __mode = "k" })
+  -- Request statistics from ingested access logs
+  self.traffic = Traffic:new()
+  -- Roots of multi-root workspaces, scanned in parallel on the workspace's process pool
+  self.workspace = Workspace:new(function(root_scan_options, callback, scan_handle, on_batch)
+    self:scan_all_endpoints_async(root_scan_options, callback, scan_handle, on_batch)
+  end)
+  -- Endpoint diffs between git revisions, scanning each revision's changed files with the files they depend on
+  self.api_diff = ApiDiff:new {
+    scan = function(project_root, callback, scan_handle)
+      local root_scan_options = { project_root = project_root, search_paths = { project_root }, quiet = true }
+      -- The mirror's resolver indexes are its own, so the project's scans keep theirs; drop them with the mirror
+      scan_handle:on_cancel(function()
+        index_root.release(project_root)
+      end)
+      self:scan_all_endpoints_async(root_scan_options, function(endpoints)
+        index_root.release(project_root)
+        callback(endpoints)
+      end, scan_handle)
+    end,
+    get_context_specs = function()
+      local specs = { build_module_resolver.get_context_spec() }
+      for _, framework in ipairs(self.framework_registry:get_all()) do
+        vim.list_extend(specs, framework:get_context_specs())
+      end
+      return specs
+    end,
+  }
 end
 
 function Endpoint:get_events()
@@ -27,6 +159,16 @@ end
 function Endpoint:setup(user_config)
   config.setup(user_config)
   self._initialized = true
+  self.prewarmer:setup(config.get().prewarm)
+
+  -- The cache looks the working directory's git repository up once, until the directory changes
+  vim.api.nvim_create_autocmd("DirChanged", {
+    group = vim.api.nvim_create_augroup("EndpointCache", { clear = true }),
+    callback = function()
+      self.cache:forget_repos()
+    end,
+    desc = "endpoint.nvim: look the git repository up again",
+  })
 end
 
 ---Ensures the endpoint is initialized
@@ -61,8 +203,9 @@ function Endpoint:get_registered_frameworks()
 end
 
 ---Detects which frameworks are present in the current project
-function Endpoint:detect_project_frameworks()
-  return self.framework_registry:detect_all()
+---@param project_root string|nil Root of the project, the working directory when nil
+function Endpoint:detect_project_frameworks(project_root)
+  return self.framework_registry:detect_all(project_root)
 end
 
 ---Scans for endpoints using all detected frameworks
@@ -76,11 +219,18 @@ function Endpoint:scan_all_endpoints(scan_options)
     registered_framework_count = #self.framework_registry:get_all(),
   })
 
+  local owned_profile = not profiler.get_active() and profiler.begin "scan" or nil
+
   local all_discovered_endpoints = {}
+  local detection_span = profiler.start_phase "detection"
   local detected_frameworks = self:detect_project_frameworks()
+  -- Module graph of multi-module builds, used to tag endpoints with their module
+  build_module_resolver.refresh()
+  profiler.end_phase(detection_span, { framework_count = #detected_frameworks })
 
   if #detected_frameworks == 0 then
     log.framework_debug "No frameworks detected in project"
+    profiler.finish(owned_profile)
     return all_discovered_endpoints
   end
 
@@ -122,6 +272,9 @@ function Endpoint:scan_all_endpoints(scan_options)
     log.framework_debug(string.format("Found %d endpoints with %s", #framework_endpoints, framework_name))
   end
 
+  -- Comment maps only serve the scan that built them
+  CommentMap.static.clear_cache()
+
   -- Finish progress
   progress.finish(progress_handle, string.format("Found %d endpoints", #all_discovered_endpoints))
 
@@ -131,16 +284,28 @@ function Endpoint:scan_all_endpoints(scan_options)
   })
 
   log.framework_debug(string.format("Total endpoints discovered: %d", #all_discovered_endpoints))
+  profiler.finish(owned_profile)
 
   return all_discovered_endpoints
 end
 
 ---Scans for endpoints using all detected frameworks (asynchronous)
----@param scan_options table|nil Scan options
----@param callback function Callback function(endpoints) called when all scans complete
-function Endpoint:scan_all_endpoints_async(scan_options, callback)
+---In multi-root workspaces every root is scanned (see endpoint.Workspace) and the endpoints are merged.
+---@param scan_options table|nil Scan options (`project_root` and `process_pool` are set for workspace roots)
+---@param callback function Callback function(endpoints, scan_summary) called when all scans complete
+---@param scan_handle endpoint.ScanHandle|nil Handle to cancel the scan with (created if omitted)
+---@return endpoint.ScanHandle
+function Endpoint:scan_all_endpoints_async(scan_options, callback, scan_handle, on_batch)
   scan_options = scan_options or {}
   callback = callback or function() end
+  scan_handle = scan_handle or ScanHandle:new()
+
+  -- Module-scoped scans and root scans (search_paths) stay in their project
+  local workspace_roots = not scan_options.search_paths and self.workspace:get_roots() or nil
+  if workspace_roots then
+    self.workspace:scan_async(workspace_roots, scan_options, callback, scan_handle, on_batch)
+    return scan_handle
+  end
 
   local events = self:get_events()
 
@@ -149,22 +314,66 @@ function Endpoint:scan_all_endpoints_async(scan_options, callback)
     registered_framework_count = #self.framework_registry:get_all(),
   })
 
+  local owned_profile = not profiler.get_active() and profiler.begin "scan" or nil
+
   local all_discovered_endpoints = {}
-  local detected_frameworks = self:detect_project_frameworks()
+  local detection_span = profiler.start_phase "detection"
+  local detected_frameworks = self:detect_project_frameworks(scan_options.project_root)
+  -- Module graph of multi-module builds, used to tag endpoints with their module
+  build_module_resolver.refresh(scan_options.project_root)
+  profiler.end_phase(detection_span, { framework_count = #detected_frameworks })
+
+  -- Summary handed to the callback (used by scan telemetry)
+  local scan_summary = {
+    parser_types = {},
+    first_result_at = nil,
+  }
 
   if #detected_frameworks == 0 then
     log.framework_debug "No frameworks detected in project"
+    profiler.finish(owned_profile)
     vim.schedule(function()
-      callback(all_discovered_endpoints)
+      if not scan_handle:is_cancelled() then
+        callback(all_discovered_endpoints, scan_summary)
+      end
     end)
-    return
+    return scan_handle
   end
 
   local total_frameworks = #detected_frameworks
   log.framework_debug(string.format("Async scanning with %d detected frameworks", total_frameworks))
 
-  -- Create progress handle
-  local progress_handle = progress.create("Scanning endpoints", "Detecting frameworks...")
+  -- Frameworks of the same language share one listing and read of its files (e.g. Spring and Servlet)
+  local source_passes = SourcePass.static.create_for_frameworks(
+    detected_frameworks,
+    scan_options.search_paths,
+    scan_options.process_pool,
+    scan_options.project_root
+  )
+  local framework_scan_options = vim.tbl_extend("force", scan_options, { source_passes = source_passes })
+
+  -- What the scan read from its files (source passes, comment maps) is dropped once it ends
+  local function release_scan_files()
+    for _, source_pass in pairs(source_passes) do
+      source_pass:release()
+    end
+    CommentMap.static.clear_cache()
+  end
+
+  -- Create progress handle (background scans such as the pre-warm stay quiet)
+  local progress_handle = not scan_options.quiet and progress.create("Scanning endpoints", "Detecting frameworks...")
+    or nil
+
+  scan_handle:on_cancel(function(reason)
+    release_scan_files()
+    progress.cancel(progress_handle, "Cancelled (" .. reason .. ")")
+    profiler.finish(owned_profile)
+    events:emit_event(Events.static.EVENT_TYPES.SCAN_CANCELLED, {
+      reason = reason,
+      total_endpoints_found = #all_discovered_endpoints,
+    })
+    log.framework_debug("Async scan cancelled: " .. reason)
+  end)
 
   -- Scan frameworks sequentially but asynchronously
   local current_index = 0
@@ -174,6 +383,7 @@ function Endpoint:scan_all_endpoints_async(scan_options, callback)
 
     if current_index > total_frameworks then
       -- All frameworks scanned
+      release_scan_files()
       progress.finish(progress_handle, string.format("Found %d endpoints", #all_discovered_endpoints))
 
       events:emit_event(Events.static.EVENT_TYPES.SCAN_COMPLETED, {
@@ -182,7 +392,8 @@ function Endpoint:scan_all_endpoints_async(scan_options, callback)
       })
 
       log.framework_debug(string.format("Total endpoints discovered: %d", #all_discovered_endpoints))
-      callback(all_discovered_endpoints)
+      profiler.finish(owned_profile)
+      callback(all_discovered_endpoints, scan_summary)
       return
     end
 
@@ -193,6 +404,7 @@ function Endpoint:scan_all_endpoints_async(scan_options, callback)
 
     -- Get parser type for display
     local parser_type = framework_instance:get_parser_type()
+    scan_summary.parser_types[framework_name] = parser_type
 
     -- Update progress
     local percentage = math.floor((current_index - 1) / total_frameworks * 100)
@@ -208,7 +420,15 @@ function Endpoint:scan_all_endpoints_async(scan_options, callback)
     })
 
     -- Use async scan
-    framework_instance:scan_async(scan_options, function(framework_endpoints)
+    framework_instance:scan_async(framework_scan_options, function(framework_endpoints)
+      if scan_handle:is_cancelled() then
+        return
+      end
+
+      if #framework_endpoints > 0 and not scan_summary.first_result_at then
+        scan_summary.first_result_at = telemetry.now()
+      end
+
       for _, discovered_endpoint in ipairs(framework_endpoints) do
         events:emit_event(Events.static.EVENT_TYPES.ENDPOINT_DISCOVERED, {
           endpoint = discovered_endpoint,
@@ -222,11 +442,21 @@ function Endpoint:scan_all_endpoints_async(scan_options, callback)
 
       -- Continue to next framework
       scan_next_framework()
+    end, scan_handle, on_batch and function(batch)
+      if scan_handle:is_cancelled() then
+        return
+      end
+
+      if not scan_summary.first_result_at then
+        scan_summary.first_result_at = telemetry.now()
+      end
+      on_batch(batch)
     end)
   end
 
   -- Start scanning
   scan_next_framework()
+  return scan_handle
 end
 
 ---Scans for endpoints using a specific framework
@@ -270,36 +500,358 @@ function Endpoint:clear_all_frameworks()
 end
 
 ---Main function to find and show endpoints with UI (async)
+---A find still running for the same project is cancelled (superseded) by a newer one.
+---@return endpoint.ScanHandle
 function Endpoint:find(opts)
   self:_ensure_initialized()
   opts = opts or {}
 
-  self:_resolve_endpoints_async(opts, function(endpoints)
+  local module_scope, scope_error = self:_get_module_scope(opts)
+  if scope_error then
+    vim.notify(scope_error, vim.log.levels.WARN)
+    return ScanHandle:new()
+  end
+  opts = vim.tbl_extend("force", opts, { module_scope = module_scope or false })
+
+  local project_root = vim.fn.getcwd()
+  local previous_handle = self._active_finds[project_root]
+
+  local profile = profiler.begin "find"
+  local scan_handle = ScanHandle:new()
+  self._active_finds[project_root] = scan_handle
+
+  scan_handle:on_cancel(function()
+    profiler.finish(profile)
+  end)
+
+  local shown_picker = nil
+  local stream_picker, stream_picker_opts = self:_get_streaming_picker(opts)
+  local streamed_count = 0
+
+  local resolve_opts = stream_picker and vim.tbl_extend("force", opts, { stream = true }) or opts
+  local traffic_config = config.get().traffic or {}
+
+  self:_resolve_endpoints_async(resolve_opts, function(endpoints, result_info)
+    result_info = result_info or {}
+
+    if result_info.partial then
+      if not shown_picker then
+        shown_picker = stream_picker
+        stream_picker:show_stream(stream_picker_opts)
+      end
+      endpoints = self.traffic:apply(endpoints, traffic_config)
+      if #endpoints > 0 then
+        streamed_count = streamed_count + #endpoints
+        stream_picker:append(endpoints)
+      end
+      return
+    end
+
+    -- A find stays active (and can be superseded) until a pending revalidation delivered
+    if not result_info.revalidating and self._active_finds[project_root] == scan_handle then
+      self._active_finds[project_root] = nil
+    end
+
+    endpoints = self.traffic:apply(endpoints, traffic_config)
+
+    if result_info.revalidated then
+      self:_apply_revalidation(shown_picker, endpoints, result_info)
+      return
+    end
+
     if #endpoints == 0 then
+      profiler.finish(profile)
+      if shown_picker then
+        shown_picker:close()
+      end
       local method_msg = opts.method and (" " .. opts.method) or ""
-      vim.notify("No" .. method_msg .. " endpoints found", vim.log.levels.INFO)
+      local module_msg = module_scope and (" in module " .. module_scope.name) or ""
+      vim.notify("No" .. method_msg .. " endpoints found" .. module_msg, vim.log.levels.INFO)
       return
     end
 
-    self:_show_with_picker(endpoints, opts)
-  end)
+    if shown_picker then
+      -- Streamed batches are unordered across frameworks; only replace them when they differ from the result
+      -- or have to be sorted by traffic
+      if streamed_count ~= #endpoints or (traffic_config.sort and self.traffic:has_data()) then
+        shown_picker:update(endpoints)
+      end
+      profiler.finish(profile)
+      return
+    end
+
+    local picker_span = profiler.start_phase "picker"
+    shown_picker = self:_show_with_picker(endpoints, opts)
+    profiler.end_phase(picker_span, { endpoint_count = #endpoints })
+    profiler.finish(profile)
+  end, scan_handle)
+
+  -- Cancel the superseded find only after the new one joined, so a scan they share keeps running
+  if previous_handle then
+    previous_handle:cancel "superseded"
+  end
+
+  return scan_handle
+end
+
+---Gets the module scope of a find: `opts.module`, or the current buffer's module with `modules.scope = "buffer"`
+---`module=all` (or a buffer outside any module) scans the whole project.
+---@private
+---@return table|nil module_scope nil for the whole project
+---@return string|nil error When the module does not exist
+function Endpoint:_get_module_scope(opts)
+  local module_name = opts.module
+  local modules_config = config.get().modules or {}
+  if module_name == "all" or (not module_name and modules_config.scope ~= "buffer") then
+    return nil
+  end
+
+  build_module_resolver.refresh()
+  if not module_name then
+    local buffer_path = vim.api.nvim_buf_get_name(0)
+    module_name = buffer_path ~= "" and build_module_resolver.get_module_for_file(buffer_path) or nil
+    if not module_name then
+      return nil
+    end
+  end
+
+  local module_scope = build_module_resolver.get_scope(module_name)
+  if not module_scope then
+    return nil, "Unknown module: " .. module_name
+  end
+  return module_scope
 end
 
 ---Resolves endpoints from cache or by scanning (async)
+---With `opts.stream` a scan also calls back with `result_info.partial` when it starts (no endpoints) and
+---for every parsed batch, before the final call with all endpoints. Cache hits are never partial.
+---In "swr" cache mode a cache hit is delivered right away with `result_info.revalidating`; when the cached
+---endpoints are stale the callback is called again after a background rescan with `result_info.revalidated`
+---and the added/removed endpoints.
+---With `opts.module_scope` only the endpoints of the module and its dependencies are delivered: cache hits are
+---filtered (and revalidated for the whole project), misses scan the module directories only.
 ---@private
-function Endpoint:_resolve_endpoints_async(opts, callback)
+---@param callback fun(endpoints: endpoint.entry[], result_info: table|nil)
+---@param scan_handle endpoint.ScanHandle|nil
+---@return endpoint.ScanHandle
+function Endpoint:_resolve_endpoints_async(opts, callback, scan_handle)
+  scan_handle = scan_handle or ScanHandle:new()
+
   if not opts.force_refresh and self:_should_use_cache(opts.method) then
+    local module_scope = opts.module_scope
+    if module_scope then
+      local scoped_callback = callback
+      callback = function(endpoints, result_info)
+        if result_info and result_info.revalidated then
+          result_info.added = build_module_resolver.filter_endpoints(result_info.added, module_scope)
+          result_info.removed = build_module_resolver.filter_endpoints(result_info.removed, module_scope)
+        end
+        scoped_callback(build_module_resolver.filter_endpoints(endpoints, module_scope), result_info)
+      end
+      opts = vim.tbl_extend("force", opts, { module_scope = false })
+    end
+
+    local started_at = telemetry.now()
+    local cache_span = profiler.start_phase "cache_load"
     local cached_endpoints = self.cache:get_endpoints(opts.method)
+    profiler.end_phase(cache_span, { endpoint_count = #cached_endpoints })
+
+    local duration_ms = (telemetry.now() - started_at) / 1e6
+    local revalidate = config.get().cache.mode == "swr" and not opts.quiet
+
     vim.schedule(function()
-      callback(cached_endpoints)
+      if scan_handle:is_cancelled() then
+        return
+      end
+
+      callback(cached_endpoints, { revalidating = revalidate })
+      -- Counted once the endpoints were delivered
+      telemetry.record {
+        method = opts.method,
+        duration_ms = duration_ms,
+        time_to_first_result_ms = duration_ms,
+        endpoint_file_count = telemetry.count_endpoint_files(cached_endpoints),
+        endpoint_count = #cached_endpoints,
+        cache = "hit",
+        parser_types = {},
+      }
+      if revalidate then
+        self:_revalidate_async(opts, cached_endpoints, callback, scan_handle)
+      end
     end)
+    return scan_handle
+  end
+
+  return self:_join_scan(opts, callback, scan_handle)
+end
+
+---Rescans in the background when cached endpoints are stale (swr cache mode)
+---Always calls back once more with `result_info.revalidated` so the caller knows revalidation is over.
+---@private
+function Endpoint:_revalidate_async(opts, cached_endpoints, callback, scan_handle)
+  local cache_config = config.get().cache
+
+  self.cache:is_stale_async(opts.method, cached_endpoints, cache_config.swr_max_age, function(stale)
+    if not stale then
+      log.framework_debug "Cached endpoints are fresh, skipping revalidation"
+      callback(cached_endpoints, { revalidated = true, added = {}, removed = {} })
+      return
+    end
+
+    log.framework_debug "Revalidating cached endpoints in the background"
+    self:_join_scan(vim.tbl_extend("force", opts, { quiet = true, stream = false }), function(endpoints)
+      local added, removed = diff_endpoints(cached_endpoints, endpoints)
+      log.framework_debug(string.format("Revalidated: %d added, %d removed", #added, #removed))
+      callback(endpoints, { revalidated = true, added = added, removed = removed })
+    end, scan_handle)
+  end, scan_handle)
+end
+
+---Pushes revalidated endpoints into the picker opened from the cache, if it is still open
+---The cache was already updated by the rescan, so a closed picker picks them up next time.
+---@private
+function Endpoint:_apply_revalidation(shown_picker, endpoints, result_info)
+  if #result_info.added == 0 and #result_info.removed == 0 then
     return
   end
 
-  self:scan_all_endpoints_async(opts, function(endpoints)
-    self:_update_cache_if_enabled(endpoints, opts.method)
-    callback(endpoints)
-  end)
+  if shown_picker and shown_picker.update and shown_picker:update(endpoints) then
+    log.framework_debug "Updated the open picker with revalidated endpoints"
+  end
+end
+
+---Attaches a request to the project's in-flight scan covering its method, starting one if there is none
+---A scan without a method filter also serves single-method requests, which get its result filtered.
+---Likewise a whole-project scan serves module-scoped requests (`opts.module_scope`), but not the other way
+---around; module-scoped scans only search the module directories and are not cached.
+---Cancelling a request detaches it; the scan itself is cancelled once no request is attached.
+---Streaming requests (`opts.stream`) get the endpoints found so far on attach and each batch after that;
+---only scans started by a streaming request produce batches.
+---@private
+---@param opts table
+---@param callback function Callback function(endpoints, result_info)
+---@param scan_handle endpoint.ScanHandle
+---@return endpoint.ScanHandle
+function Endpoint:_join_scan(opts, callback, scan_handle)
+  local project_root = vim.fn.getcwd()
+  local project_scans = self._inflight_scans[project_root] or {}
+  self._inflight_scans[project_root] = project_scans
+
+  local scan_key = get_scan_key(opts.method)
+  local module_scope = opts.module_scope or nil
+  local inflight_key = module_scope and (scan_key .. "@" .. module_scope.name) or scan_key
+  local subscriber = {
+    callback = callback,
+    handle = scan_handle,
+    scan_key = scan_key,
+    module_scope = module_scope,
+    stream = opts.stream,
+  }
+
+  local inflight_scan = project_scans[inflight_key]
+    or (module_scope and project_scans[ALL_METHODS_KEY .. "@" .. module_scope.name])
+    or project_scans[scan_key]
+    or project_scans[ALL_METHODS_KEY]
+
+  local function attach()
+    table.insert(inflight_scan.subscribers, subscriber)
+
+    if subscriber.stream then
+      callback(vim.list_slice(filter_for_subscriber(inflight_scan.streamed, subscriber)), { partial = true })
+    end
+
+    local joined_scan = inflight_scan
+    scan_handle:on_cancel(function(reason)
+      for index, each in ipairs(joined_scan.subscribers) do
+        if each == subscriber then
+          table.remove(joined_scan.subscribers, index)
+          break
+        end
+      end
+
+      if #joined_scan.subscribers == 0 and not joined_scan.completed then
+        if project_scans[joined_scan.key] == joined_scan then
+          project_scans[joined_scan.key] = nil
+        end
+        joined_scan.handle:cancel(reason)
+      end
+    end)
+  end
+
+  if inflight_scan then
+    log.framework_debug(string.format("Joining in-flight %s scan for %s", inflight_scan.key, project_root))
+    attach()
+    return scan_handle
+  end
+
+  inflight_scan = {
+    key = inflight_key,
+    scan_key = scan_key,
+    module_scope = module_scope,
+    handle = ScanHandle:new(),
+    subscribers = {},
+    completed = false,
+    streamed = {},
+  }
+  project_scans[inflight_key] = inflight_scan
+  attach()
+
+  local started_at = telemetry.now()
+  local started_scan = inflight_scan
+
+  local scan_options = opts
+  if module_scope then
+    local search_paths = vim.tbl_map(function(dir)
+      return "./" .. dir
+    end, module_scope.dirs)
+    scan_options = vim.tbl_extend("force", opts, { search_paths = search_paths })
+  end
+
+  self:scan_all_endpoints_async(scan_options, function(endpoints, scan_summary)
+    started_scan.completed = true
+    if project_scans[inflight_key] == started_scan then
+      project_scans[inflight_key] = nil
+    end
+
+    self:_precompute_displays(endpoints)
+    -- A module-scoped result lacks the other modules
+    if not module_scope then
+      self:_update_cache_if_enabled(endpoints, opts.method)
+    end
+
+    scan_summary = scan_summary or {}
+    telemetry.record {
+      method = opts.method,
+      duration_ms = (telemetry.now() - started_at) / 1e6,
+      time_to_first_result_ms = scan_summary.first_result_at and (scan_summary.first_result_at - started_at) / 1e6
+        or nil,
+      endpoint_file_count = telemetry.count_endpoint_files(endpoints),
+      endpoint_count = #endpoints,
+      cache = "miss",
+      parser_types = scan_summary.parser_types or {},
+    }
+
+    -- Copy: a subscriber callback may cancel (and detach) another subscriber
+    for _, each in ipairs(vim.list_slice(started_scan.subscribers)) do
+      if not each.handle:is_cancelled() then
+        local is_same_request = each.scan_key == scan_key and each.module_scope == module_scope
+        each.callback(is_same_request and endpoints or filter_for_subscriber(endpoints, each))
+      end
+    end
+  end, started_scan.handle, opts.stream and function(batch)
+    vim.list_extend(started_scan.streamed, batch)
+
+    for _, each in ipairs(vim.list_slice(started_scan.subscribers)) do
+      if each.stream and not each.handle:is_cancelled() then
+        local subscriber_batch = filter_for_subscriber(batch, each)
+        if #subscriber_batch > 0 then
+          each.callback(subscriber_batch, { partial = true })
+        end
+      end
+    end
+  end or nil)
+
+  return scan_handle
 end
 
 ---Resolves endpoints from cache or by scanning (sync, for backward compatibility)
@@ -310,6 +862,7 @@ function Endpoint:_resolve_endpoints(opts)
   end
 
   local endpoints = self:scan_all_endpoints(opts)
+  self:_precompute_displays(endpoints)
   self:_update_cache_if_enabled(endpoints, opts.method)
 
   return endpoints
@@ -331,6 +884,15 @@ function Endpoint:_should_use_cache(method)
   return false
 end
 
+---Computes the picker displays of scanned endpoints before they are cached, so cache hits reuse them
+---@private
+function Endpoint:_precompute_displays(endpoints)
+  local display_span = profiler.start_phase "display"
+  local picker_instance = self.picker_registry:get_best_available_picker()
+  picker_instance:precompute_displays(endpoints)
+  profiler.end_phase(display_span, { endpoint_count = #endpoints })
+end
+
 ---Updates cache if caching is enabled
 ---@private
 function Endpoint:_update_cache_if_enabled(endpoints, method)
@@ -344,8 +906,11 @@ end
 -- Legacy _handle_cache function - now integrated into find()
 -- function Endpoint:_handle_cache(endpoints, opts) ... end
 
----Shows endpoints using the configured picker
-function Endpoint:_show_with_picker(endpoints, opts)
+---Gets the configured picker and its options
+---@private
+---@return endpoint.Picker picker_instance
+---@return table picker_opts
+function Endpoint:_get_picker(opts)
   local picker_config = config.get()
   local picker_name = picker_config.picker and picker_config.picker.type or picker_config.picker or "vim_ui_select"
 
@@ -369,7 +934,195 @@ function Endpoint:_show_with_picker(endpoints, opts)
   local user_picker_opts = (opts.picker_opts and opts.picker_opts[selected_picker_name]) or opts.picker_opts or {}
   local picker_opts = vim.tbl_deep_extend("force", current_picker_opts, user_picker_opts)
 
+  return picker_instance, picker_opts
+end
+
+---Shows endpoints using the configured picker
+function Endpoint:_show_with_picker(endpoints, opts)
+  local picker_instance, picker_opts = self:_get_picker(opts)
   picker_instance:show(endpoints, picker_opts)
+  return picker_instance
+end
+
+---Gets the picker to stream scan results into, or nil when streaming is disabled or unsupported
+---@private
+---@return endpoint.Picker|nil picker_instance
+---@return table|nil picker_opts
+function Endpoint:_get_streaming_picker(opts)
+  local picker_config = config.get().picker
+  if type(picker_config) ~= "table" or picker_config.stream == false then
+    return nil
+  end
+
+  local best_picker = self.picker_registry:get_best_available_picker(picker_config.type or "vim_ui_select")
+  if not best_picker or not best_picker:supports_streaming() then
+    return nil
+  end
+  return self:_get_picker(opts)
+end
+
+---Gets the route trie of an endpoint list, building it on first use
+---@private
+---@param endpoints endpoint.entry[]
+---@return endpoint.RouteTrie
+function Endpoint:_get_route_trie(endpoints)
+  local trie = self._route_tries[endpoints]
+  if not trie then
+    trie = RouteTrie.static.from_endpoints(endpoints)
+    self._route_tries[endpoints] = trie
+  end
+  return trie
+end
+
+---Jumps to the handler of a concrete request, e.g. `GET /api/v2/orders/8812/items` or a full URL
+---A single match is opened directly; several (e.g. other methods on the same path) are shown in the picker.
+---@param text string Request line, log line or URL
+function Endpoint:goto_url(text)
+  self:_ensure_initialized()
+
+  local method, url = RouteTrie.static.parse_request(text or "")
+  if not url then
+    vim.notify("No URL found in: " .. (text or ""), vim.log.levels.WARN)
+    return
+  end
+
+  self:_resolve_endpoints_async({ stream = false }, function(endpoints, result_info)
+    -- Revalidation (swr) only refreshes the cache for the next lookup
+    if result_info and result_info.revalidated then
+      return
+    end
+
+    local matches = self:_get_route_trie(endpoints):lookup(url, method)
+    if #matches == 0 then
+      vim.notify("No endpoint matches " .. (method and (method .. " ") or "") .. url, vim.log.levels.INFO)
+      return
+    end
+
+    local picker_instance = self:_get_picker {}
+    if #matches == 1 or (method and matches[1].method == method and matches[2].method ~= method) then
+      picker_instance:_navigate_to_endpoint(matches[1])
+    else
+      self:_show_with_picker(matches, {})
+    end
+  end)
+end
+
+---Jumps to the handler of the URL under the cursor (see goto_url)
+function Endpoint:goto_url_under_cursor()
+  local line = vim.api.nvim_get_current_line()
+  local word = vim.fn.expand "<cWORD>"
+
+  -- Prefer the URL under the cursor, with the method found on its line
+  local method = RouteTrie.static.parse_request(line)
+  local _, url = RouteTrie.static.parse_request(word)
+  self:goto_url(url and ((method and (method .. " ") or "") .. url) or line)
+end
+
+---Shows the endpoints added, removed or changed between two git revisions
+---Only the endpoints of the files changed between them are compared (see ApiDiff).
+---@param base string
+---@param head string|nil Defaults to the working tree
+---@return endpoint.ScanHandle handle Cancel to stop the diff
+function Endpoint:diff_refs(base, head)
+  self:_ensure_initialized()
+
+  local scan_handle = ScanHandle:new()
+  self.api_diff:run_async(base, head, function(result, err)
+    if err then
+      vim.notify(err, vim.log.levels.ERROR)
+      return
+    end
+
+    local entries = ApiDiff.static.to_entries(result)
+    if #entries == 0 then
+      vim.notify(string.format("No endpoint changes in %d changed files", result.file_count), vim.log.levels.INFO)
+      return
+    end
+    self:_show_with_picker(entries, {})
+  end, scan_handle)
+
+  return scan_handle
+end
+
+---Streams access logs and annotates endpoints with their hit counts, error counts and latencies
+---Requests are matched to endpoints with the route trie. Statistics add up across calls until clear_traffic().
+---@param log_files string[]|nil Log file paths, defaults to `traffic.log_files`
+---@param callback fun(summary: table|nil)|nil Called once every log was read
+---@return endpoint.ScanHandle|nil handle Cancel to stop reading
+function Endpoint:ingest_traffic(log_files, callback)
+  self:_ensure_initialized()
+
+  log_files = log_files or (config.get().traffic or {}).log_files or {}
+  if #log_files == 0 then
+    vim.notify("No access logs given. Pass a file or set traffic.log_files", vim.log.levels.WARN)
+    return nil
+  end
+
+  local scan_handle = ScanHandle:new()
+  local progress_handle = progress.create("Ingesting access logs", "Resolving endpoints...")
+  local totals = { requests = 0, matched = 0, unmatched = 0 }
+
+  scan_handle:on_cancel(function(reason)
+    progress.cancel(progress_handle, "Cancelled (" .. reason .. ")")
+  end)
+
+  self:_resolve_endpoints_async({ stream = false }, function(endpoints, result_info)
+    if (result_info and result_info.revalidated) or scan_handle:is_cancelled() then
+      return
+    end
+
+    local route_trie = self:_get_route_trie(endpoints)
+
+    local function ingest_next(file_index)
+      if file_index > #log_files then
+        progress.finish(
+          progress_handle,
+          string.format("%d requests, %d matched, %d unmatched", totals.requests, totals.matched, totals.unmatched)
+        )
+        if callback then
+          callback(totals)
+        end
+        return
+      end
+
+      local file_path = vim.fn.expand(log_files[file_index])
+      local file_handle = self.traffic:ingest_async(file_path, route_trie, function(summary, err)
+        if err then
+          log.warn(err)
+        else
+          for field, count in pairs(summary) do
+            totals[field] = totals[field] + count
+          end
+        end
+        ingest_next(file_index + 1)
+      end, function(bytes_read, total_bytes)
+        local percentage = total_bytes > 0 and math.floor(bytes_read / total_bytes * 100) or nil
+        progress.update(progress_handle, vim.fn.fnamemodify(file_path, ":t"), percentage)
+      end)
+
+      scan_handle:on_cancel(function(reason)
+        file_handle:cancel(reason)
+      end)
+    end
+
+    ingest_next(1)
+  end, scan_handle)
+
+  return scan_handle
+end
+
+---Clears the statistics of ingested access logs
+function Endpoint:clear_traffic()
+  self.traffic:clear()
+  vim.notify("Traffic statistics cleared", vim.log.levels.INFO)
+end
+
+---Cancels every in-flight find()
+function Endpoint:cancel_scans()
+  for project_root, scan_handle in pairs(self._active_finds) do
+    scan_handle:cancel "cancelled"
+    self._active_finds[project_root] = nil
+  end
 end
 
 ---Clears the endpoint cache
@@ -384,6 +1137,26 @@ function Endpoint:clear_cache()
   end
 end
 
+---Shows the report of the most recent profiled scan
+function Endpoint:show_profile()
+  self:_ensure_initialized()
+
+  if not profiler.is_enabled() then
+    vim.notify("Profiler is disabled. Set profiler.enabled = true to record scan profiles", vim.log.levels.WARN)
+    return
+  end
+
+  local profile = profiler.get_last()
+  if not profile then
+    vim.notify("No scan profile recorded yet. Run :Endpoint first", vim.log.levels.INFO)
+    return
+  end
+
+  local profiler_config = config.get().profiler or {}
+  local report_lines = profiler.format_report(profile, { slowest_files = profiler_config.slowest_files })
+  vim.notify(table.concat(report_lines, "\n"), vim.log.levels.INFO)
+end
+
 ---Shows cache statistics
 function Endpoint:show_cache_stats()
   self:_ensure_initialized()
@@ -151,6 +151,8 @@ Events.static.EVENT_TYPES = {
   SCAN_STARTED = "scan_started",
   SCAN_PROGRESS = "scan_progress",
   SCAN_COMPLETED = "scan_completed",
+  SCAN_CANCELLED = "scan_cancelled",
+  SCAN_PHASE = "scan_phase",
   PARSING_ERROR = "parsing_error",
   DETECTION_ERROR = "detection_error",
   CACHE_UPDATED = "cache_updated",
@@ -1,9 +1,94 @@
 local class = require "endpoint.lib.middleclass"
 local log = require "endpoint.utils.log"
+local profiler = require "endpoint.utils.profiler"
+local CommentMap = require "endpoint.core.CommentMap"
+local build_module_resolver = require "endpoint.resolver.build_module_resolver"
+local mount_graph_resolver = require "endpoint.resolver.mount_graph_resolver"
+local index_root = require "endpoint.resolver.index_root"
+local ScanHandle = require "endpoint.core.ScanHandle"
+local ProcessPool = require "endpoint.core.ProcessPool"
 
 ---@class endpoint.Framework
 local Framework = class "Framework"
 
+-- Async parse loops yield to the event loop after this many ripgrep lines / Tree-sitter files,
+-- which is where a cancelled scan stops
+local PARSE_BATCH_SIZE = 500
+local TREESITTER_BATCH_SIZE = 25
+
+---Runs process_item over items in batches, stopping early if the scan is cancelled
+---Batches run with the scan's project root active, so parsers look up its resolver indexes.
+---@param items table
+---@param batch_size number
+---@param scan_handle endpoint.ScanHandle
+---@param project_root string|nil Root of the scanned project, nil for the working directory
+---@param process_item fun(item: any)
+---@param on_done fun()
+---@param on_batch_done fun()|nil Called after each batch (before on_done for the last one)
+local function run_in_batches(items, batch_size, scan_handle, project_root, process_item, on_done, on_batch_done)
+  local next_index = 1
+
+  local function process_batch(last_index)
+    for index = next_index, last_index do
+      process_item(items[index])
+    end
+  end
+
+  local function run_batch()
+    if scan_handle:is_cancelled() then
+      return
+    end
+
+    local last_index = math.min(next_index + batch_size - 1, #items)
+    index_root.run(project_root, process_batch, last_index)
+    next_index = last_index + 1
+
+    if on_batch_done then
+      on_batch_done()
+    end
+
+    if next_index > #items then
+      on_done()
+    else
+      vim.schedule(run_batch)
+    end
+  end
+
+  run_batch()
+end
+
+---Creates a function that passes endpoints found since its last call to on_batch, without duplicates
+---The batches add up to the post-processed result of the scan.
+---@param framework endpoint.Framework
+---@param found_endpoints endpoint.entry[] List the scan appends to
+---@param on_batch fun(endpoints: endpoint.entry[])|nil
+---@return fun()|nil
+local function create_batch_emitter(framework, found_endpoints, on_batch)
+  if not on_batch then
+    return nil
+  end
+
+  local emitted_count = 0
+  local seen = {}
+
+  return function()
+    local batch = {}
+    for index = emitted_count + 1, #found_endpoints do
+      local endpoint = found_endpoints[index]
+      local key = framework:_get_endpoint_key(endpoint)
+      if not seen[key] then
+        seen[key] = true
+        table.insert(batch, endpoint)
+      end
+    end
+    emitted_count = #found_endpoints
+
+    if #batch > 0 then
+      on_batch(batch)
+    end
+  end
+end
+
 ---Creates a new Framework instance
 function Framework:initialize(fields)
   if fields then
@@ -66,9 +151,10 @@ function Framework:_check_treesitter_upgrade()
 end
 
 ---Detects if this framework is present in the current project (unified implementation)
-function Framework:detect()
+---@param project_root string|nil Root of the project, the working directory when nil
+function Framework:detect(project_root)
   if self.detector then
-    return self.detector:is_target_detected()
+    return self.detector:is_target_detected(project_root)
   end
   return false
 end
@@ -121,6 +207,11 @@ function Framework:_enhance_endpoint(parsed_endpoint, file_path)
       parsed_endpoint.metadata.controller_name = controller_name
     end
   end
+
+  -- Module of multi-module Maven/Gradle builds, for grouping and module-scoped finds
+  if not parsed_endpoint.module then
+    parsed_endpoint.module = build_module_resolver.get_module_for_file(file_path)
+  end
 end
 
 ---Extract controller name from file path using configured extractors
@@ -144,7 +235,9 @@ function Framework:getControllerName(file_path)
 end
 
 ---Gets the search command for finding all endpoints
-function Framework:get_search_cmd(method)
+---@param method string|nil
+---@param search_paths string[]|nil Directories to search instead of the whole project (module-scoped scans)
+function Framework:get_search_cmd(method, search_paths)
   if not self.config.patterns then
     error("Patterns not configured for framework: " .. self.name)
   end
@@ -166,6 +259,7 @@ function Framework:get_search_cmd(method)
     file_globs = self.config.file_extensions,
     exclude_globs = self.config.exclude_patterns,
     extra_flags = self.config.search_options or {},
+    search_paths = search_paths,
   }
 
   return rg.create_command(search_options)
@@ -177,19 +271,23 @@ function Framework:scan(options)
 
   log.framework_debug("Starting scan with framework: " .. self.name)
 
-  if not self:detect() then
+  if not self:detect(options.project_root) then
     log.framework_debug("Framework not detected: " .. self.name)
     return {}
   end
 
   -- Ensure parser is initialized (lazy init after config.setup)
   self:_check_treesitter_upgrade()
+  self:_prepare_scan(options)
 
   -- Perform search and parse all matching lines
-  local discovered_endpoints = self:_search_and_parse(options)
+  local discovered_endpoints = index_root.run(options.project_root, self._search_and_parse, self, options)
+  self:_finish_scan(options)
 
   -- Post-process endpoints (remove duplicates, etc.)
+  local post_process_span = profiler.start_phase("post_process", self.name)
   discovered_endpoints = self:_post_process_endpoints(discovered_endpoints)
+  profiler.end_phase(post_process_span, { endpoint_count = #discovered_endpoints })
 
   log.framework_debug(string.format("Found %d endpoints with %s", #discovered_endpoints, self.name))
 
@@ -198,52 +296,141 @@ end
 
 ---Asynchronous scanning using vim.system (Neovim 0.10+)
 ---@param options table|nil Scan options
----@param callback function Callback function(endpoints) called when scan completes
-function Framework:scan_async(options, callback)
+---@param callback function Callback function(endpoints) called when scan completes (not called if cancelled)
+---@param scan_handle endpoint.ScanHandle|nil Handle to cancel the scan with (created if omitted)
+---@param on_batch fun(endpoints: endpoint.entry[])|nil Receives endpoints as parse batches complete
+---@return endpoint.ScanHandle
+function Framework:scan_async(options, callback, scan_handle, on_batch)
   options = options or {}
   callback = callback or function() end
+  scan_handle = scan_handle or ScanHandle:new()
 
   log.framework_debug("Starting async scan with framework: " .. self.name)
 
-  if not self:detect() then
+  if not self:detect(options.project_root) then
     log.framework_debug("Framework not detected: " .. self.name)
     vim.schedule(function()
-      callback({})
+      if not scan_handle:is_cancelled() then
+        callback({})
+      end
     end)
-    return
+    return scan_handle
   end
 
   -- Ensure parser is initialized (lazy init after config.setup)
   self:_check_treesitter_upgrade()
 
-  -- Perform async search
-  self:_search_and_parse_async(options, function(discovered_endpoints)
-    -- Post-process endpoints (remove duplicates, etc.)
-    discovered_endpoints = self:_post_process_endpoints(discovered_endpoints)
-    log.framework_debug(string.format("Found %d endpoints with %s", #discovered_endpoints, self.name))
-    callback(discovered_endpoints)
+  -- What the hooks index is released when the scan completes or is cancelled
+  local finished = false
+  local function finish_scan()
+    if not finished then
+      finished = true
+      self:_finish_scan(options)
+    end
+  end
+  scan_handle:on_cancel(finish_scan)
+
+  self:_prepare_scan_async(options, scan_handle, function()
+    -- Perform async search
+    self:_search_and_parse_async(options, function(discovered_endpoints)
+      finish_scan()
+      -- Post-process endpoints (remove duplicates, etc.)
+      local post_process_span = profiler.start_phase("post_process", self.name)
+      discovered_endpoints = self:_post_process_endpoints(discovered_endpoints)
+      profiler.end_phase(post_process_span, { endpoint_count = #discovered_endpoints })
+      log.framework_debug(string.format("Found %d endpoints with %s", #discovered_endpoints, self.name))
+      callback(discovered_endpoints)
+    end, scan_handle, on_batch)
   end)
+
+  return scan_handle
+end
+
+---Hook for frameworks whose parser looks up an index of other project files (deployment descriptors, routes
+---files, router mounts), built once the framework was detected and before its search runs
+---It receives the scan options, whose `project_root` and `search_paths` scope what is indexed, the scan handle,
+---and the function continuing the scan (not to be called if the scan was cancelled).
+---By default it builds the router mount graph the framework declares (see get_mount_graph()).
+---@param done fun()
+function Framework:_prepare_scan_async(options, scan_handle, done)
+  local mount_graph = self:get_mount_graph()
+  if mount_graph then
+    mount_graph_resolver.refresh_async(mount_graph, options, scan_handle, done)
+    return
+  end
+  done()
+end
+
+---Synchronous counterpart of _prepare_scan_async, receiving the scan options
+function Framework:_prepare_scan(options)
+  local mount_graph = self:get_mount_graph()
+  if mount_graph then
+    mount_graph_resolver.refresh(mount_graph, options)
+  end
+end
+
+---Hook releasing what _prepare_scan(_async) indexed for the scan alone, once its hits were parsed
+---By default it releases the router mount graph and the file contents it holds.
+function Framework:_finish_scan(options)
+  local mount_graph = self:get_mount_graph()
+  if mount_graph then
+    mount_graph_resolver.release(mount_graph, options.project_root)
+  end
+end
+
+---Gets the router mount graph the parser resolves prefixes with (see endpoint.MountGraphResolver), nil if none
+---Frameworks declare it with `config.mount_graph = "<framework>"`; Tree-sitter parsers do not apply mount prefixes,
+---so no graph is built for them.
+---@return string|nil
+function Framework:get_mount_graph()
+  self:_check_treesitter_upgrade()
+  if not self.config.mount_graph or self:_is_treesitter_parser() then
+    return nil
+  end
+  return self.config.mount_graph
+end
+
+---Gets the project files detection and _prepare_scan(_async) read, so they can be read at a git revision
+---Each spec lists `manifest_files` (paths from the project root), or `file_globs` (ripgrep globs, minus
+---`exclude_globs`) narrowed to the files matching one of `search_patterns`, with `paths_only` when the contents
+---are not needed. An optional `dependents` spec selects the files to compare again when one of the spec's files
+---changed (e.g. the routes under a changed mount). Frameworks with a _prepare_scan index add its resolver's spec
+---to the detector manifests.
+---@return table[] specs
+function Framework:get_context_specs()
+  local specs = { { manifest_files = self.detector and self.detector:get_manifest_files() or {} } }
+  local mount_graph = self:get_mount_graph()
+  if mount_graph then
+    table.insert(specs, mount_graph_resolver.get_context_spec(mount_graph))
+  end
+  return specs
 end
 
 ---Searches files and parses matching lines using framework parser (synchronous)
 function Framework:_search_and_parse(options)
   options = options or {}
-  local search_command = self:get_search_cmd(options.method)
+  local search_command = self:get_search_cmd(options.method, options.search_paths)
 
   log.framework_debug("Executing search: " .. search_command)
 
+  local ripgrep_span = profiler.start_phase("ripgrep", self.name)
   local search_result = vim.fn.system(search_command)
-  if vim.v.shell_error ~= 0 then
+  local search_failed = vim.v.shell_error ~= 0
+  profiler.end_phase(ripgrep_span)
+
+  if search_failed then
     log.framework_debug("Search command failed: " .. search_result)
     return {}
   end
 
+  local parse_span = profiler.start_phase("parse", self.name)
   local result_lines = vim.split(search_result, "\n", { trimempty = true })
   local found_endpoints = {}
 
   for _, result_line in ipairs(result_lines) do
     vim.list_extend(found_endpoints, self:_parse_result_line(result_line))
   end
+  profiler.end_phase(parse_span, { hit_count = #result_lines })
 
   return found_endpoints
 end
@@ -251,16 +438,27 @@ end
 ---Searches files and parses matching lines asynchronously (Neovim 0.10+)
 ---@param options table|nil Scan options
 ---@param callback function Callback function(endpoints) called when search completes
-function Framework:_search_and_parse_async(options, callback)
+---@param scan_handle endpoint.ScanHandle|nil
+---@param on_batch fun(endpoints: endpoint.entry[])|nil
+function Framework:_search_and_parse_async(options, callback, scan_handle, on_batch)
   options = options or {}
+  scan_handle = scan_handle or ScanHandle:new()
 
   -- Check if parser is a Tree-sitter parser
   if self.parser and self:_is_treesitter_parser() then
-    self:_search_and_parse_treesitter_async(options, callback)
+    self:_search_and_parse_treesitter_async(options, callback, scan_handle, on_batch)
+    return
+  end
+
+  -- Parse the hits of the scan's shared source pass instead of running ripgrep
+  local source_pass_config = options.source_passes and self:get_source_pass_config()
+  local source_pass = source_pass_config and options.source_passes[source_pass_config.language]
+  if source_pass and source_pass:has_consumer(self.name) then
+    self:_parse_source_pass_async(source_pass, options, callback, scan_handle, on_batch)
     return
   end
 
-  local search_command = self:get_search_cmd(options.method)
+  local search_command = self:get_search_cmd(options.method, options.search_paths)
 
   log.framework_debug("Executing async search: " .. search_command)
 
@@ -269,27 +467,71 @@ function Framework:_search_and_parse_async(options, callback)
   local cmd = { "sh", "-c", search_command }
 
   local framework = self
-  vim.system(cmd, { text = true }, function(obj)
-    vim.schedule(function()
-      if obj.code ~= 0 then
-        log.framework_debug("Async search command failed: " .. (obj.stderr or "unknown error"))
-        callback({})
-        return
-      end
+  local ripgrep_span = profiler.start_phase("ripgrep", self.name)
+  ProcessPool.static.spawn(options.process_pool, cmd, { text = true }, function(obj)
+    profiler.end_phase(ripgrep_span)
+
+    if obj.code ~= 0 then
+      log.framework_debug("Async search command failed: " .. (obj.stderr or "unknown error"))
+      callback({})
+      return
+    end
 
-      local search_result = obj.stdout or ""
-      local result_lines = vim.split(search_result, "\n", { trimempty = true })
-      local found_endpoints = {}
+    local parse_span = profiler.start_phase("parse", framework.name)
+    local search_result = obj.stdout or ""
+    local result_lines = vim.split(search_result, "\n", { trimempty = true })
+    local found_endpoints = {}
 
-      for _, result_line in ipairs(result_lines) do
-        vim.list_extend(found_endpoints, framework:_parse_result_line(result_line))
-      end
+    run_in_batches(result_lines, PARSE_BATCH_SIZE, scan_handle, options.project_root, function(result_line)
+      vim.list_extend(found_endpoints, framework:_parse_result_line(result_line))
+    end, function()
+      profiler.end_phase(parse_span, { hit_count = #result_lines })
+      callback(found_endpoints)
+    end, create_batch_emitter(framework, found_endpoints, on_batch))
+  end, scan_handle)
+end
 
+---Parses the lines a shared source pass matched for this framework
+---@param source_pass endpoint.SourcePass
+---@param options table Scan options
+---@param callback function Callback function(endpoints) called when parsing completes
+---@param scan_handle endpoint.ScanHandle
+---@param on_batch fun(endpoints: endpoint.entry[])|nil
+function Framework:_parse_source_pass_async(source_pass, options, callback, scan_handle, on_batch)
+  local framework = self
+  local method = options.method and options.method ~= "" and options.method:upper() or nil
+
+  source_pass:run_async(scan_handle, function()
+    local hits = source_pass:get_hits(framework.name)
+    local parse_span = profiler.start_phase("parse", framework.name)
+    local found_endpoints = {}
+
+    run_in_batches(hits, PARSE_BATCH_SIZE, scan_handle, options.project_root, function(hit)
+      for _, endpoint in ipairs(framework:_parse_hit(hit.file_path, hit.line_number, hit.column, hit.content)) do
+        -- The pass matches every method's lines
+        if not method or endpoint.method == method then
+          table.insert(found_endpoints, endpoint)
+        end
+      end
+    end, function()
+      profiler.end_phase(parse_span, { hit_count = #hits })
       callback(found_endpoints)
-    end)
+    end, create_batch_emitter(framework, found_endpoints, on_batch))
   end)
 end
 
+---Gets the source pass this framework takes part in, nil when it runs its own ripgrep search
+---Frameworks opt in with `config.source_pass = { language, file_globs, line_patterns }`; Tree-sitter parsers
+---read their files themselves and never take part.
+---@return table|nil
+function Framework:get_source_pass_config()
+  self:_check_treesitter_upgrade()
+  if not self.config.source_pass or self:_is_treesitter_parser() then
+    return nil
+  end
+  return self.config.source_pass
+end
+
 ---Check if the current parser is a Tree-sitter based parser
 ---@return boolean
 function Framework:_is_treesitter_parser()
@@ -315,65 +557,78 @@ end
 ---Uses ripgrep to find matching files first, then parses only those with Tree-sitter
 ---@param options table|nil Scan options
 ---@param callback function Callback function(endpoints) called when search completes
-function Framework:_search_and_parse_treesitter_async(options, callback)
+---@param scan_handle endpoint.ScanHandle|nil
+---@param on_batch fun(endpoints: endpoint.entry[])|nil
+function Framework:_search_and_parse_treesitter_async(options, callback, scan_handle, on_batch)
   options = options or {}
+  scan_handle = scan_handle or ScanHandle:new()
 
   log.framework_debug("Using Tree-sitter parser (hybrid) for: " .. self.name)
 
   -- Use ripgrep to find files containing endpoint patterns (not all files!)
-  local search_command = self:get_search_cmd(options.method)
+  local search_command = self:get_search_cmd(options.method, options.search_paths)
 
   log.framework_debug("Finding matching files with: " .. search_command)
 
   local cmd = { "sh", "-c", search_command }
   local framework = self
+  local ripgrep_span = profiler.start_phase("ripgrep", self.name)
 
-  vim.system(cmd, { text = true }, function(obj)
-    vim.schedule(function()
-      if obj.code ~= 0 then
-        log.framework_debug("Search failed: " .. (obj.stderr or "unknown error"))
-        callback({})
-        return
-      end
+  ProcessPool.static.spawn(options.process_pool, cmd, { text = true }, function(obj)
+    profiler.end_phase(ripgrep_span)
+
+    if obj.code ~= 0 then
+      log.framework_debug("Search failed: " .. (obj.stderr or "unknown error"))
+      callback({})
+      return
+    end
 
-      -- Extract unique file paths from ripgrep results
-      local rg_util = require "endpoint.utils.rg"
-      local result_lines = vim.split(obj.stdout or "", "\n", { trimempty = true })
-      local file_set = {}
+    -- Extract unique file paths from ripgrep results
+    local rg_util = require "endpoint.utils.rg"
+    local result_lines = vim.split(obj.stdout or "", "\n", { trimempty = true })
+    local file_set = {}
 
-      for _, result_line in ipairs(result_lines) do
-        local parsed = rg_util.parse_result_line(result_line)
-        if parsed and parsed.file_path then
-          file_set[parsed.file_path] = true
-        end
+    for _, result_line in ipairs(result_lines) do
+      local parsed = rg_util.parse_result_line(result_line)
+      if parsed and parsed.file_path then
+        file_set[parsed.file_path] = true
       end
+    end
 
-      -- Convert set to list
-      local file_list = {}
-      for file_path in pairs(file_set) do
-        table.insert(file_list, file_path)
-      end
+    -- Convert set to list
+    local file_list = {}
+    for file_path in pairs(file_set) do
+      table.insert(file_list, file_path)
+    end
 
-      log.framework_debug(string.format("Found %d files with patterns, parsing with Tree-sitter", #file_list))
+    log.framework_debug(string.format("Found %d files with patterns, parsing with Tree-sitter", #file_list))
 
-      local all_endpoints = {}
+    local all_endpoints = {}
+    local parse_span = profiler.start_phase("parse", framework.name)
+    local profiling = parse_span ~= nil
+    local parser_name = framework.parser:get_name()
 
-      -- Parse each matching file with Tree-sitter
-      for _, file_path in ipairs(file_list) do
-        local endpoints = framework.parser:extract_endpoints(file_path, options)
-        if endpoints and #endpoints > 0 then
-          -- Enhance endpoints with framework metadata
-          for _, endpoint in ipairs(endpoints) do
-            endpoint.framework = framework.name
-            framework:_enhance_endpoint(endpoint, file_path)
-          end
-          vim.list_extend(all_endpoints, endpoints)
+    -- Parse each matching file with Tree-sitter
+    run_in_batches(file_list, TREESITTER_BATCH_SIZE, scan_handle, options.project_root, function(file_path)
+      local file_started_at = profiling and profiler.now()
+      local endpoints = framework.parser:extract_endpoints(file_path, options)
+      if profiling then
+        profiler.record_file(file_path, profiler.now() - file_started_at, framework.name)
+        profiler.record_hit(parser_name, endpoints ~= nil and #endpoints > 0)
+      end
+      if endpoints and #endpoints > 0 then
+        -- Enhance endpoints with framework metadata
+        for _, endpoint in ipairs(endpoints) do
+          endpoint.framework = framework.name
+          framework:_enhance_endpoint(endpoint, file_path)
         end
+        vim.list_extend(all_endpoints, endpoints)
       end
-
+    end, function()
+      profiler.end_phase(parse_span, { file_count = #file_list })
       callback(all_endpoints)
-    end)
-  end)
+    end, create_batch_emitter(framework, all_endpoints, on_batch))
+  end, scan_handle)
 end
 
 ---Parses a ripgrep result line using framework parser
@@ -390,14 +645,31 @@ function Framework:_parse_result_line(result_line)
     return {}
   end
 
-  local source_file_path = parsed.file_path
-  local line_num = parsed.line_number
-  local col_pos = parsed.column
-  local line_content = parsed.content
+  return self:_parse_hit(parsed.file_path, parsed.line_number, parsed.column, parsed.content)
+end
 
+---Parses a matched line using framework parser
+---@param source_file_path string
+---@param line_num number
+---@param col_pos number
+---@param line_content string
+---@return endpoint.entry[]
+function Framework:_parse_hit(source_file_path, line_num, col_pos, line_content)
   local endpoints = {}
+
+  -- Commented-out routes never reach the parser
+  if CommentMap.static.is_commented_hit(source_file_path, line_num, col_pos) then
+    return endpoints
+  end
+
   if self.parser then
+    local profiling = profiler.get_active() ~= nil
+    local hit_started_at = profiling and profiler.now()
     local endpoint_entry = self.parser:parse_content(line_content, source_file_path, line_num, col_pos)
+    if profiling then
+      profiler.record_file(source_file_path, profiler.now() - hit_started_at, self.name)
+      profiler.record_hit(self.parser:get_name(), endpoint_entry ~= nil)
+    end
     if endpoint_entry then
       -- Normalize to array for consistent handling
       local endpoint_list = {}
@@ -446,7 +718,7 @@ function Framework:_post_process_endpoints(endpoints)
   local unique_endpoints = {}
 
   for _, endpoint in ipairs(endpoints) do
-    local key = string.format("%s:%s:%s", endpoint.method or "", endpoint.endpoint_path or "", endpoint.file_path or "")
+    local key = self:_get_endpoint_key(endpoint)
 
     if not seen[key] then
       seen[key] = true
@@ -457,6 +729,11 @@ function Framework:_post_process_endpoints(endpoints)
   return unique_endpoints
 end
 
+---Gets the key endpoints are de-duplicated by (method + path + file)
+function Framework:_get_endpoint_key(endpoint)
+  return string.format("%s:%s:%s", endpoint.method or "", endpoint.endpoint_path or "", endpoint.file_path or "")
+end
+
 ---Gets the framework name
 function Framework:get_name()
   return self.name
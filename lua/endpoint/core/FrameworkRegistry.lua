@@ -82,10 +82,12 @@ function FrameworkRegistry:get_by_name(framework_name)
   return nil
 end
 
-function FrameworkRegistry:detect_all()
+---Gets the registered frameworks present in a project
+---@param project_root string|nil Root of the project, the working directory when nil
+function FrameworkRegistry:detect_all(project_root)
   local detected_frameworks = {}
   for _, framework in ipairs(self.frameworks) do
-    if framework:detect() then
+    if framework:detect(project_root) then
       table.insert(detected_frameworks, framework)
       log.framework_debug("Detected framework: " .. framework:get_name())
     end
@@ -30,17 +30,13 @@ function Highlighter:highlight_line_range(bufnr, start_line, start_col, end_line
     local end_line_0 = end_line and (end_line - 1) or start_line_0
     local start_col_0 = math.max(0, (start_col or 1) - 1)
 
-    -- Highlight multiple lines if end_line is provided
-    for line = start_line_0, end_line_0 do
-      vim.api.nvim_buf_add_highlight(
-        bufnr,
-        self.highlight_ns,
-        highlight_group,
-        line,
-        line == start_line_0 and start_col_0 or 0, -- Start from specified column on first line, 0 on others
-        -1
-      )
-    end
+    -- One extmark from the start column through the end of the last line (multiple lines if end_line is provided)
+    pcall(vim.api.nvim_buf_set_extmark, bufnr, self.highlight_ns, start_line_0, start_col_0, {
+      end_row = end_line_0 + 1,
+      end_col = 0,
+      hl_group = highlight_group,
+      strict = false,
+    })
   end
 end
 
@@ -52,30 +48,12 @@ function Highlighter:highlight_endpoint(bufnr, endpoint, highlight_group)
   self:highlight_line_range(bufnr, endpoint.line_number, endpoint.column, endpoint.end_line_number, highlight_group)
 end
 
+---Highlights the component definition of a React Router endpoint
+---The line is the one the parser recorded on the endpoint (component_line_number) when it resolved the component.
 function Highlighter:highlight_component_definition(bufnr, endpoint, highlight_group)
-  if not endpoint.component_name then
-    return
+  if endpoint.component_name and endpoint.component_line_number then
+    self:highlight_line_range(bufnr, endpoint.component_line_number, 1, nil, highlight_group)
   end
-
-  highlight_group = highlight_group or "TelescopePreviewMatch"
-
-  vim.defer_fn(function()
-    if vim.api.nvim_buf_is_valid(bufnr) then
-      local lines = vim.api.nvim_buf_get_lines(bufnr, 0, -1, false)
-      for line_idx, line in ipairs(lines) do
-        -- Look for component definition patterns
-        if
-          line:match("const%s+" .. endpoint.component_name)
-          or line:match("function%s+" .. endpoint.component_name)
-          or line:match("export%s+default%s+" .. endpoint.component_name)
-          or line:match("export%s+default%s+function%s+" .. endpoint.component_name)
-        then
-          vim.api.nvim_buf_add_highlight(bufnr, self.highlight_ns, highlight_group, line_idx - 1, 0, -1)
-          break
-        end
-      end
-    end
-  end, 50)
 end
 
 function Highlighter:calculate_highlight_length(entry, method_icon, method_text)
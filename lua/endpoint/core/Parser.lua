@@ -72,7 +72,8 @@ function Parser:parse_content(content, file_path, line_number, column)
   end
 
   -- Use the 4 core methods to create endpoint
-  local base_path = self:extract_base_path(file_path, line_number)
+  -- (the line goes to extract_base_path too, for base paths depending on the router a route is declared on)
+  local base_path = self:extract_base_path(file_path, line_number, content)
   local endpoint_path = self:extract_endpoint_path(content, file_path, line_number)
   local method = self:extract_method(content)
 
@@ -1,8 +1,31 @@
 local class = require "endpoint.lib.middleclass"
+local Traffic = require "endpoint.core.Traffic"
+local git = require "endpoint.utils.git"
 
 ---@class endpoint.Picker
 local Picker = class "Picker"
 
+-- Streamed batches are shown at most this often
+local STREAM_REFRESH_MS = 50
+
+-- `ui` config table the current display key was computed for
+local display_ui = nil
+local display_ui_key = nil
+
+-- Read-only buffers of files at git revisions, by buffer name
+local revision_buffers = {}
+
+---Gets a short key for the `ui` config; displays computed for another key are stale
+---@param config table
+---@return string
+local function get_display_ui_key(config)
+  if config.ui ~= display_ui then
+    display_ui = config.ui
+    display_ui_key = vim.fn.sha256(vim.inspect(config.ui)):sub(1, 12)
+  end
+  return display_ui_key
+end
+
 ---Creates a new Picker instance with optional fields
 function Picker:initialize(fields)
   if fields then
@@ -20,6 +43,46 @@ function Picker:show()
   error "show() must be implemented by subclass"
 end
 
+---Replaces the endpoints shown by the picker opened with show(), if it is still open
+---Default implementation for pickers that cannot update in place - can be overridden by subclasses
+---@return boolean updated false when the picker was closed or cannot update in place
+function Picker:update()
+  return false
+end
+
+---Checks if the picker can open before the scan finished and receive endpoints with append()
+function Picker:supports_streaming()
+  return false
+end
+
+---Opens the picker without endpoints, to be filled by append() while the scan runs
+function Picker:show_stream()
+  error "show_stream() must be implemented by subclasses that support streaming"
+end
+
+---Adds endpoints to the picker opened with show_stream()
+---@return boolean appended false when the picker was closed
+function Picker:append()
+  return false
+end
+
+---Closes the picker opened with show_stream() (e.g. when the scan found nothing)
+function Picker:close() end
+
+---Runs refresh_fn after STREAM_REFRESH_MS, coalescing calls made in the meantime
+---@param refresh_fn fun()
+function Picker:_schedule_refresh(refresh_fn)
+  if self._refresh_pending then
+    return
+  end
+
+  self._refresh_pending = true
+  vim.defer_fn(function()
+    self._refresh_pending = false
+    refresh_fn()
+  end, STREAM_REFRESH_MS)
+end
+
 function Picker:get_name()
   return self.name
 end
@@ -48,20 +111,115 @@ function Picker:_format_endpoint_with_theme(endpoint, config)
   return string.format("%s %s", method_icon, endpoint_display)
 end
 
+---Gets the list display of an endpoint: themed text, method highlight and search ordinal
+---Computed once and kept on the endpoint (and so in the cache with it) until the `ui` config changes.
+---@param endpoint endpoint.entry
+---@param config table
+---@return endpoint.entry_display
+function Picker:_get_entry_display(endpoint, config)
+  local ui_key = get_display_ui_key(config)
+  local display = endpoint._display
+  -- Traffic summaries are replaced on every log ingest, so identity tells whether the display is current
+  if display and display.ui_key == ui_key and display.traffic == endpoint.traffic then
+    return display
+  end
+
+  local method_icon = self.themes:get_method_icon(endpoint.method, config)
+  local method_text = self.themes:get_method_text(endpoint.method, config)
+
+  local text = self:_format_endpoint_with_theme(endpoint, config)
+  -- Workspace root and build module, e.g. "(orders/order-api)"
+  local location = endpoint.root and vim.fn.fnamemodify(endpoint.root, ":t") or nil
+  if endpoint.module then
+    location = location and (location .. "/" .. endpoint.module) or endpoint.module
+  end
+  if location then
+    text = text .. " (" .. location .. ")"
+  end
+  if endpoint.traffic then
+    text = text .. " [" .. Traffic.static.format_summary(endpoint.traffic) .. "]"
+  end
+
+  display = {
+    ui_key = ui_key,
+    traffic = endpoint.traffic,
+    text = text,
+    -- Covers Rails controller#action annotations too
+    highlight_length = self.highlighter:calculate_highlight_length(endpoint, method_icon, method_text),
+    method_color = self.themes:get_method_color(endpoint.method, config),
+    -- Include action name and controller name in search ordinal for Rails action annotations
+    ordinal = endpoint.endpoint_path
+      .. " "
+      .. endpoint.method
+      .. (endpoint.action and (" " .. endpoint.action) or "")
+      .. (endpoint.controller and (" " .. endpoint.controller) or "")
+      .. (location and (" " .. location) or "")
+      .. (endpoint.display_value and (" " .. endpoint.display_value) or ""),
+  }
+  endpoint._display = display
+  return display
+end
+
+---Computes the displays of endpoints entering the index, so opening a picker only looks them up
+---@param endpoints endpoint.entry[]
+function Picker:precompute_displays(endpoints)
+  local config = require("endpoint.config").get()
+  for _, endpoint in ipairs(endpoints) do
+    self:_get_entry_display(endpoint, config)
+  end
+end
+
+---Gets a read-only buffer of an entry's file as of its git revision (`endpoint.revision`, see endpoint.ApiDiff)
+---@param endpoint endpoint.entry
+---@return number|nil bufnr nil when the file cannot be read at the revision
+function Picker:_get_revision_buffer(endpoint)
+  local file_path = endpoint.file_path:gsub("^%./", "")
+  local buffer_name = string.format("endpoint://%s/%s", endpoint.revision, file_path)
+  local bufnr = revision_buffers[buffer_name]
+  if bufnr and vim.api.nvim_buf_is_valid(bufnr) then
+    return bufnr
+  end
+
+  local lines = git.show_file(endpoint.revision, file_path)
+  if not lines then
+    return nil
+  end
+  -- Scratch buffer: not backed by a file and kept when hidden
+  bufnr = vim.api.nvim_create_buf(false, true)
+  vim.api.nvim_buf_set_lines(bufnr, 0, -1, false, lines)
+  vim.api.nvim_buf_set_name(bufnr, buffer_name)
+  vim.bo[bufnr].modifiable = false
+  vim.bo[bufnr].filetype = vim.filetype.match { filename = file_path, contents = lines } or ""
+  revision_buffers[buffer_name] = bufnr
+  return bufnr
+end
+
 function Picker:_navigate_to_endpoint(endpoint)
   if not endpoint.file_path then
     vim.notify("No file path for endpoint", vim.log.levels.ERROR)
     return
   end
 
+  if endpoint.revision then
+    -- Diff entries open their file as of the revision they were found in
+    local bufnr = self:_get_revision_buffer(endpoint)
+    if not bufnr then
+      local message = string.format("Cannot read %s at %s", endpoint.file_path, endpoint.revision)
+      vim.notify(message, vim.log.levels.ERROR)
+      return
+    end
+    vim.api.nvim_win_set_buf(0, bufnr)
+    pcall(vim.api.nvim_win_set_cursor, 0, { endpoint.line_number or 1, (endpoint.column or 1) - 1 })
   -- For React Router with component, navigate to component file
-  if endpoint.component_file_path and vim.fn.filereadable(endpoint.component_file_path) == 1 then
+  elseif endpoint.component_file_path and vim.fn.filereadable(endpoint.component_file_path) == 1 then
     vim.cmd("edit " .. endpoint.component_file_path)
     -- Go to the component definition (typically first line or export line)
     vim.cmd "normal! gg"
-    -- Try to find component definition
+    -- Go to the component definition found by the previewer, or search for it
     local component_name = endpoint.component_name
-    if component_name then
+    if endpoint.component_line_number then
+      pcall(vim.api.nvim_win_set_cursor, 0, { endpoint.component_line_number, 0 })
+    elseif component_name then
       vim.fn.search("\\(const\\|function\\|export default\\).*" .. component_name, "w")
     end
   else
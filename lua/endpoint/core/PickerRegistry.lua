@@ -15,11 +15,13 @@ function PickerRegistry:_register_default_pickers()
   local TelescopePicker = require "endpoint.pickers.telescope"
   local VimUiSelectPicker = require "endpoint.pickers.vim_ui_select"
   local SnacksPicker = require "endpoint.pickers.snacks"
+  local FloatPicker = require "endpoint.pickers.float"
 
   self.available_pickers = {
     telescope = TelescopePicker:new(),
     vim_ui_select = VimUiSelectPicker:new(),
     snacks = SnacksPicker:new(),
+    float = FloatPicker:new(),
   }
 end
 
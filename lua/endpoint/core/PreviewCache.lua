@@ -0,0 +1,212 @@
+local class = require "endpoint.lib.middleclass"
+local log = require "endpoint.utils.log"
+
+local uv = vim.uv or vim.loop
+
+---Bounded LRU of preview buffers keyed by file and mtime
+---Files are read asynchronously into scratch buffers that stay hidden between previews, so moving the
+---selection back and forth only swaps buffers. A buffer is reloaded once its file's mtime changes.
+---@class endpoint.PreviewCache
+local PreviewCache = class "PreviewCache"
+
+-- Files larger than this are not loaded into preview buffers
+local MAX_FILE_BYTES = 2 * 1024 * 1024
+
+---@param capacity number|nil Maximum number of cached buffers
+function PreviewCache:initialize(capacity)
+  self.capacity = math.max(1, capacity or 20)
+  -- Most recently used last
+  self._entries = {}
+  -- Callbacks of reads in flight by file path
+  self._loading = {}
+end
+
+---Sets the maximum number of cached buffers, evicting the least recently used ones
+---@param capacity number
+function PreviewCache:set_capacity(capacity)
+  self.capacity = math.max(1, capacity)
+  self:_evict()
+end
+
+---Gets the modification time of a file as a cache key part, nil if it does not exist
+---@param file_path string
+---@return string|nil
+local function get_mtime_key(file_path)
+  local stat = uv.fs_stat(file_path)
+  if not stat then
+    return nil
+  end
+  return stat.mtime.sec .. "." .. stat.mtime.nsec
+end
+
+---@private
+function PreviewCache:_find(file_path)
+  for index, entry in ipairs(self._entries) do
+    if entry.file_path == file_path then
+      return index, entry
+    end
+  end
+  return nil, nil
+end
+
+---Gets the cached buffer of an unchanged file and marks it as most recently used
+---@param file_path string
+---@return integer|nil bufnr
+function PreviewCache:get(file_path)
+  local index, entry = self:_find(file_path)
+  if not entry then
+    return nil
+  end
+
+  if not vim.api.nvim_buf_is_valid(entry.bufnr) or entry.mtime_key ~= get_mtime_key(file_path) then
+    self:_remove(index)
+    return nil
+  end
+
+  table.remove(self._entries, index)
+  table.insert(self._entries, entry)
+  return entry.bufnr
+end
+
+---Gets the buffer of a file, reading the file asynchronously when it is not cached
+---The callback runs on the main loop, with nil when the file cannot be previewed.
+---@param file_path string
+---@param callback fun(bufnr: integer|nil)|nil
+function PreviewCache:load(file_path, callback)
+  callback = callback or function() end
+
+  local bufnr = self:get(file_path)
+  if bufnr then
+    callback(bufnr)
+    return
+  end
+
+  if self._loading[file_path] then
+    table.insert(self._loading[file_path], callback)
+    return
+  end
+  self._loading[file_path] = { callback }
+
+  self:_read_file_async(file_path, function(content, mtime_key)
+    local callbacks = self._loading[file_path]
+    self._loading[file_path] = nil
+
+    local loaded_bufnr = content and self:_create_buffer(file_path, content, mtime_key) or nil
+    for _, each in ipairs(callbacks) do
+      each(loaded_bufnr)
+    end
+  end)
+end
+
+---Loads files in the background so previewing them later is instant
+---@param file_paths string[]
+function PreviewCache:prefetch(file_paths)
+  for _, file_path in ipairs(file_paths) do
+    if not self._loading[file_path] and not select(2, self:_find(file_path)) then
+      self:load(file_path)
+    end
+  end
+end
+
+---Reads a file with libuv; callback(content, mtime_key) runs on the main loop, content is nil on failure
+---@private
+function PreviewCache:_read_file_async(file_path, callback)
+  local function finish(content, mtime_key)
+    vim.schedule(function()
+      callback(content, mtime_key)
+    end)
+  end
+
+  uv.fs_open(file_path, "r", 438, function(open_err, fd)
+    if open_err or not fd then
+      finish(nil)
+      return
+    end
+
+    uv.fs_fstat(fd, function(stat_err, stat)
+      if stat_err or not stat or stat.size > MAX_FILE_BYTES then
+        uv.fs_close(fd)
+        finish(nil)
+        return
+      end
+
+      uv.fs_read(fd, stat.size, 0, function(read_err, data)
+        uv.fs_close(fd)
+        if read_err then
+          finish(nil)
+          return
+        end
+        finish(data or "", stat.mtime.sec .. "." .. stat.mtime.nsec)
+      end)
+    end)
+  end)
+end
+
+---Creates the hidden scratch buffer for a file and adds it to the cache
+---@private
+function PreviewCache:_create_buffer(file_path, content, mtime_key)
+  local lines = vim.split(content, "\r?\n")
+  if lines[#lines] == "" then
+    table.remove(lines)
+  end
+
+  local bufnr = vim.api.nvim_create_buf(false, true)
+  vim.bo[bufnr].bufhidden = "hide"
+  vim.api.nvim_buf_set_lines(bufnr, 0, -1, false, lines)
+  vim.bo[bufnr].modifiable = false
+
+  -- Highlight without setting 'filetype', which would start ftplugins and language servers
+  local filetype = vim.filetype.match { filename = file_path }
+  if filetype then
+    local lang = vim.treesitter.language.get_lang and vim.treesitter.language.get_lang(filetype) or filetype
+    if not pcall(vim.treesitter.start, bufnr, lang) then
+      vim.bo[bufnr].syntax = filetype
+    end
+  end
+
+  local index = self:_find(file_path)
+  if index then
+    self:_remove(index)
+  end
+
+  table.insert(self._entries, { file_path = file_path, mtime_key = mtime_key, bufnr = bufnr })
+  self:_evict()
+
+  log.framework_debug(string.format("Preview buffer %d loaded for %s", bufnr, file_path))
+  return bufnr
+end
+
+---@private
+function PreviewCache:_remove(index)
+  local entry = table.remove(self._entries, index)
+  -- Keep buffers a window still shows; they are wiped once hidden
+  if vim.api.nvim_buf_is_valid(entry.bufnr) then
+    if #vim.fn.win_findbuf(entry.bufnr) == 0 then
+      vim.api.nvim_buf_delete(entry.bufnr, { force = true })
+    else
+      vim.bo[entry.bufnr].bufhidden = "wipe"
+    end
+  end
+end
+
+---@private
+function PreviewCache:_evict()
+  while #self._entries > self.capacity do
+    self:_remove(1)
+  end
+end
+
+---Deletes every cached buffer
+function PreviewCache:clear()
+  while #self._entries > 0 do
+    self:_remove(#self._entries)
+  end
+end
+
+---Number of cached buffers
+---@return integer
+function PreviewCache:size()
+  return #self._entries
+end
+
+return PreviewCache
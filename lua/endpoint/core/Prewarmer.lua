@@ -0,0 +1,137 @@
+local class = require "endpoint.lib.middleclass"
+local log = require "endpoint.utils.log"
+
+local uv = vim.uv or vim.loop
+
+---Background cache pre-warm (opt-in)
+---Starts a quiet async scan after VimEnter/DirChanged once the editor has been idle for `prewarm.delay_ms`,
+---so the first interactive lookup in a project is a cache hit.
+---@class endpoint.Prewarmer
+local Prewarmer = class "Prewarmer"
+
+local AUGROUP_NAME = "EndpointPrewarm"
+
+---@param endpoint endpoint.core.Endpoint
+function Prewarmer:initialize(endpoint)
+  self.endpoint = endpoint
+  self.delay_ms = 2000
+  self._timer = nil
+  self._last_typed_at = 0
+  -- Projects without a detected framework are not checked again
+  self._skipped_roots = {}
+end
+
+---Enables or disables pre-warming according to the prewarm config
+---@param prewarm_config table|nil { enabled, delay_ms }
+function Prewarmer:setup(prewarm_config)
+  prewarm_config = prewarm_config or {}
+  self:stop()
+
+  if not prewarm_config.enabled then
+    return
+  end
+
+  self.delay_ms = prewarm_config.delay_ms or self.delay_ms
+
+  local group = vim.api.nvim_create_augroup(AUGROUP_NAME, { clear = true })
+
+  vim.api.nvim_create_autocmd({ "VimEnter", "DirChanged" }, {
+    group = group,
+    callback = function()
+      self:schedule()
+    end,
+    desc = "endpoint.nvim: pre-warm the endpoint cache",
+  })
+
+  -- Typing pushes a pending pre-warm back
+  vim.api.nvim_create_autocmd({ "InsertCharPre", "CmdlineChanged" }, {
+    group = group,
+    callback = function()
+      self._last_typed_at = uv.now()
+    end,
+    desc = "endpoint.nvim: delay pre-warm while typing",
+  })
+
+  -- Lazy-loaded setup runs after VimEnter already fired
+  if vim.v.vim_did_enter == 1 then
+    self:schedule()
+  end
+end
+
+---Cancels the pending pre-warm and removes the autocommands
+function Prewarmer:stop()
+  if self._timer then
+    self._timer:stop()
+    self._timer:close()
+    self._timer = nil
+  end
+  pcall(vim.api.nvim_del_augroup_by_name, AUGROUP_NAME)
+end
+
+---(Re)starts the idle timer for the current working directory
+function Prewarmer:schedule()
+  if not self._timer then
+    self._timer = uv.new_timer()
+  end
+
+  self._timer:stop()
+  self._timer:start(
+    self.delay_ms,
+    0,
+    vim.schedule_wrap(function()
+      self:_on_idle()
+    end)
+  )
+end
+
+---Checks if the user typed within the idle delay or is in insert/command-line mode
+---@return boolean
+function Prewarmer:_is_user_busy()
+  if uv.now() - self._last_typed_at < self.delay_ms then
+    return true
+  end
+
+  local mode = vim.api.nvim_get_mode()
+  return mode.blocking or mode.mode:sub(1, 1) == "i" or mode.mode:sub(1, 1) == "c"
+end
+
+---@private
+function Prewarmer:_on_idle()
+  if self:_is_user_busy() then
+    self:schedule()
+    return
+  end
+
+  self:prewarm()
+end
+
+---Scans the current project in the background unless its cache is already warm
+---@return boolean started
+function Prewarmer:prewarm()
+  local project_root = vim.fn.getcwd()
+  local endpoint = self.endpoint
+
+  if self._skipped_roots[project_root] then
+    return false
+  end
+
+  local cache_mode = require("endpoint.config").get().cache.mode
+  if cache_mode == "none" or endpoint:_should_use_cache(nil) then
+    return false
+  end
+
+  if #endpoint:detect_project_frameworks() == 0 then
+    log.framework_debug("Pre-warm skipped, no framework detected in " .. project_root)
+    self._skipped_roots[project_root] = true
+    return false
+  end
+
+  log.framework_debug("Pre-warming endpoint cache for " .. project_root)
+
+  endpoint:_resolve_endpoints_async({ quiet = true }, function(endpoints)
+    log.framework_debug(string.format("Pre-warm found %d endpoints in %s", #endpoints, project_root))
+  end)
+  return true
+end
+
+return Prewarmer
@@ -0,0 +1,82 @@
+local class = require "endpoint.lib.middleclass"
+
+---Bounded pool of vim.system jobs
+---At most `max_jobs` processes run at a time; the others wait in a queue and start, in order, as running ones
+---exit. Jobs of a cancelled scan are killed (running) or dropped (queued).
+---@class endpoint.ProcessPool
+local ProcessPool = class "ProcessPool"
+
+---@param max_jobs number|nil Defaults to 1
+function ProcessPool:initialize(max_jobs)
+  self.max_jobs = math.max(1, max_jobs or 1)
+  self._running = 0
+  self._queue = {}
+end
+
+---Queues a process, started once fewer than `max_jobs` are running
+---@param cmd string[]
+---@param opts table vim.system options (e.g. { cwd, text })
+---@param on_exit fun(obj: vim.SystemCompleted) Called in the main loop; not called if the scan was cancelled
+---@param scan_handle endpoint.ScanHandle
+function ProcessPool:run(cmd, opts, on_exit, scan_handle)
+  table.insert(self._queue, { cmd = cmd, opts = opts, on_exit = on_exit, scan_handle = scan_handle })
+  self:_start_queued()
+end
+
+---Starts queued jobs while there are free slots
+---@private
+function ProcessPool:_start_queued()
+  while self._running < self.max_jobs and #self._queue > 0 do
+    local job = table.remove(self._queue, 1)
+    if not job.scan_handle:is_cancelled() then
+      self._running = self._running + 1
+      local process = vim.system(job.cmd, job.opts, function(obj)
+        vim.schedule(function()
+          self._running = self._running - 1
+          self:_start_queued()
+          if not job.scan_handle:is_cancelled() then
+            job.on_exit(obj)
+          end
+        end)
+      end)
+      job.scan_handle:track_process(process)
+    end
+  end
+end
+
+---Runs a process on a scan's pool, or right away when the scan has none
+---Workspace root scans share a pool bounding their ripgrep processes; other scans start theirs directly.
+---@param pool endpoint.ProcessPool|nil
+---@param cmd string[]
+---@param opts table vim.system options
+---@param on_exit fun(obj: vim.SystemCompleted) Called in the main loop; not called if the scan was cancelled
+---@param scan_handle endpoint.ScanHandle
+function ProcessPool.static.spawn(pool, cmd, opts, on_exit, scan_handle)
+  if pool then
+    pool:run(cmd, opts, on_exit, scan_handle)
+    return
+  end
+
+  local process = vim.system(cmd, opts, function(obj)
+    vim.schedule(function()
+      if not scan_handle:is_cancelled() then
+        on_exit(obj)
+      end
+    end)
+  end)
+  scan_handle:track_process(process)
+end
+
+---Gets the number of running processes
+---@return number
+function ProcessPool:get_running_count()
+  return self._running
+end
+
+---Gets the number of jobs waiting for a slot
+---@return number
+function ProcessPool:get_queued_count()
+  return #self._queue
+end
+
+return ProcessPool
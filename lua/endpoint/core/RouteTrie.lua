@@ -0,0 +1,219 @@
+local class = require "endpoint.lib.middleclass"
+
+---Trie of route templates for matching concrete URLs to endpoints
+---Each endpoint_path is split into segments. A segment is a literal, a parameter (`{id}`, `:id`, `<int:id>`,
+---or any segment containing one, such as `{id}.json`), a single-segment wildcard (`*`) or a catch-all
+---(`**`, `{*path}`, `{path:path}`, `<path:p>`, Rails `*glob`). A trailing `*` also acts as a catch-all,
+---as in Servlet and Express mappings. Optional groups such as Rails `(.:format)` are dropped.
+---Matching walks one node per URL segment, trying literal, parameter, wildcard and catch-all children
+---in that order of precedence.
+---@class endpoint.RouteTrie
+local RouteTrie = class "RouteTrie"
+
+local PARAM = ":param"
+local WILDCARD = ":wildcard"
+local CATCH_ALL = ":catch_all"
+
+local HTTP_METHODS = { "GET", "POST", "PUT", "DELETE", "PATCH", "HEAD", "OPTIONS" }
+
+local function new_node()
+  return { children = {}, endpoints = {} }
+end
+
+function RouteTrie:initialize()
+  self.root = new_node()
+  self.size = 0
+end
+
+---Builds a trie from endpoints
+---@param endpoints endpoint.entry[]
+---@return endpoint.RouteTrie
+function RouteTrie.static.from_endpoints(endpoints)
+  local trie = RouteTrie:new()
+  for _, endpoint in ipairs(endpoints) do
+    trie:insert(endpoint)
+  end
+  return trie
+end
+
+---Classifies a template segment
+---@param segment string
+---@return string key Literal segment (lowercase) or one of the PARAM/WILDCARD/CATCH_ALL keys
+local function classify_segment(segment)
+  if segment == "**" or segment:match "^{%*" or segment:match "^{[^}]*:path}$" or segment:match "^<path:" then
+    return CATCH_ALL
+  end
+  if segment:match "^%*%a" then
+    -- Rails glob (*path)
+    return CATCH_ALL
+  end
+  if segment == "*" then
+    return WILDCARD
+  end
+  if segment:match "^:" or segment:find("{", 1, true) or segment:match "<[^>]+>" or segment:find("${", 1, true) then
+    return PARAM
+  end
+  return segment:lower()
+end
+
+---Splits a route template into segment keys
+---@param template string
+---@return string[]
+function RouteTrie.static.split_template(template)
+  -- Optional groups and regex constraints: /users(.:format), /users/:id(\d+)
+  template = template:gsub("%b()", "")
+
+  local keys = {}
+  for segment in template:gmatch "[^/]+" do
+    table.insert(keys, classify_segment(segment))
+  end
+
+  -- A trailing * matches the rest of the path (Servlet /api/*, Express /files/*)
+  if keys[#keys] == WILDCARD then
+    keys[#keys] = CATCH_ALL
+  end
+  return keys
+end
+
+---Splits a concrete URL (or path) into lowercase segments, without scheme, host, query and fragment
+---@param url string
+---@return string[]
+function RouteTrie.static.split_url(url)
+  local path = url:gsub("^%a[%w+.-]*://[^/]*", ""):gsub("[?#].*$", "")
+  local segments = {}
+  for segment in path:gmatch "[^/]+" do
+    table.insert(segments, segment:lower())
+  end
+  return segments
+end
+
+---Adds an endpoint under its endpoint_path
+---@param endpoint endpoint.entry
+function RouteTrie:insert(endpoint)
+  if not endpoint.endpoint_path then
+    return
+  end
+
+  local node = self.root
+  for _, key in ipairs(RouteTrie.static.split_template(endpoint.endpoint_path)) do
+    node.children[key] = node.children[key] or new_node()
+    node = node.children[key]
+    if key == CATCH_ALL then
+      break
+    end
+  end
+
+  table.insert(node.endpoints, endpoint)
+  self.size = self.size + 1
+end
+
+---Collects the endpoints matching segments[index..] below a node, most specific first
+local function collect(node, segments, index, matches)
+  if index > #segments then
+    vim.list_extend(matches, node.endpoints)
+    -- A catch-all also matches nothing (/files/** matches /files)
+    local catch_all = node.children[CATCH_ALL]
+    if catch_all then
+      vim.list_extend(matches, catch_all.endpoints)
+    end
+    return
+  end
+
+  local segment = segments[index]
+  local literal = node.children[segment]
+  if literal then
+    collect(literal, segments, index + 1, matches)
+  end
+  for _, key in ipairs { PARAM, WILDCARD } do
+    local child = node.children[key]
+    if child then
+      collect(child, segments, index + 1, matches)
+    end
+  end
+
+  local catch_all = node.children[CATCH_ALL]
+  if catch_all then
+    vim.list_extend(matches, catch_all.endpoints)
+  end
+end
+
+---Finds the endpoints whose route template matches a URL, most specific first
+---Endpoints of the given method come first; others matching the path follow. When nothing matches, leading
+---segments are dropped one at a time, so URLs with a context path or gateway prefix still resolve.
+---@param url string URL or path
+---@param method string|nil HTTP method
+---@return endpoint.entry[]
+function RouteTrie:lookup(url, method)
+  local segments = RouteTrie.static.split_url(url)
+
+  local matches = {}
+  for start = 1, math.max(1, #segments) do
+    collect(self.root, vim.list_slice(segments, start), 1, matches)
+    if #matches > 0 then
+      break
+    end
+  end
+
+  if not method then
+    return matches
+  end
+
+  method = method:upper()
+  local same_method, other_methods = {}, {}
+  for _, endpoint in ipairs(matches) do
+    table.insert((endpoint.method or ""):upper() == method and same_method or other_methods, endpoint)
+  end
+  return vim.list_extend(same_method, other_methods)
+end
+
+---Finds the most specific endpoint serving a request: its template matches the whole path and its method is the
+---request's (or ALL). Unlike lookup(), no segments are dropped and no other method is offered, for attributing
+---requests where a near miss would count them against the wrong endpoint.
+---@param url string URL or path
+---@param method string HTTP method
+---@return endpoint.entry|nil
+function RouteTrie:match(url, method)
+  local matches = {}
+  collect(self.root, RouteTrie.static.split_url(url), 1, matches)
+
+  method = method:upper()
+  for _, endpoint in ipairs(matches) do
+    local endpoint_method = (endpoint.method or ""):upper()
+    if endpoint_method == method or endpoint_method == "ALL" then
+      return endpoint
+    end
+  end
+  return nil
+end
+
+---Extracts the method and URL from text such as `GET /api/orders/1 HTTP/1.1`, a log line or a bare URL
+---@param text string
+---@return string|nil method
+---@return string|nil url
+function RouteTrie.static.parse_request(text)
+  local url = nil
+  for token in text:gmatch "%S+" do
+    -- Quotes and brackets around the URL, as in access logs and code
+    token = token:gsub("^[\"'`(<%[]+", ""):gsub("[\"'`)>%],;]+$", "")
+    if token:match "^%a[%w+.-]*://" or token:sub(1, 1) == "/" then
+      url = token
+      break
+    end
+  end
+  if not url then
+    return nil, nil
+  end
+
+  -- Earliest HTTP method word on the line
+  local method, method_position = nil, math.huge
+  for _, candidate in ipairs(HTTP_METHODS) do
+    local position = text:find("%f[%w]" .. candidate .. "%f[%W]")
+    if position and position < method_position then
+      method, method_position = candidate, position
+    end
+  end
+
+  return method, url
+end
+
+return RouteTrie
@@ -0,0 +1,70 @@
+local class = require "endpoint.lib.middleclass"
+
+---Handle for an in-flight asynchronous scan
+---Cancelling kills the ripgrep processes started for the scan and stops parse loops at their next batch;
+---callbacks of a cancelled scan are never called.
+---@class endpoint.ScanHandle
+---@field cancelled boolean
+---@field cancel_reason string|nil
+local ScanHandle = class "ScanHandle"
+
+-- Signal sent to running processes on cancel (SIGTERM)
+local KILL_SIGNAL = 15
+
+function ScanHandle:initialize()
+  self.cancelled = false
+  self.cancel_reason = nil
+  self._processes = {}
+  self._cancel_callbacks = {}
+end
+
+---Checks if the scan was cancelled
+---@return boolean
+function ScanHandle:is_cancelled()
+  return self.cancelled
+end
+
+---Cancels the scan
+---@param reason string|nil Why the scan was cancelled (e.g. "superseded")
+function ScanHandle:cancel(reason)
+  if self.cancelled then
+    return
+  end
+
+  self.cancelled = true
+  self.cancel_reason = reason or "cancelled"
+
+  for _, process in ipairs(self._processes) do
+    -- The process may already have exited
+    pcall(process.kill, process, KILL_SIGNAL)
+  end
+  self._processes = {}
+
+  local cancel_callbacks = self._cancel_callbacks
+  self._cancel_callbacks = {}
+  for _, cancel_callback in ipairs(cancel_callbacks) do
+    cancel_callback(self.cancel_reason)
+  end
+end
+
+---Tracks a vim.system process so it is killed on cancel
+---@param process vim.SystemObj
+function ScanHandle:track_process(process)
+  if self.cancelled then
+    pcall(process.kill, process, KILL_SIGNAL)
+    return
+  end
+  table.insert(self._processes, process)
+end
+
+---Registers a callback run once when the scan is cancelled (immediately if it already was)
+---@param cancel_callback fun(reason: string)
+function ScanHandle:on_cancel(cancel_callback)
+  if self.cancelled then
+    cancel_callback(self.cancel_reason)
+    return
+  end
+  table.insert(self._cancel_callbacks, cancel_callback)
+end
+
+return ScanHandle
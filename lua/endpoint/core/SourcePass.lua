@@ -0,0 +1,253 @@
+local class = require "endpoint.lib.middleclass"
+local fs = require "endpoint.utils.fs"
+local log = require "endpoint.utils.log"
+local profiler = require "endpoint.utils.profiler"
+local ProcessPool = require "endpoint.core.ProcessPool"
+
+---Shared pass over the source files of one language, run once per scan
+---Files are listed with a single `rg --files` and each one is read once. While reading, every line is checked
+---against the line patterns of the frameworks taking part (e.g. Spring and Servlet for Java), and every file
+---is handed to file consumers (e.g. the Java constant resolver). Frameworks then parse their hits from the
+---pass instead of running their own ripgrep, and parsers read hit files from it instead of the disk.
+---@class endpoint.SourcePass
+local SourcePass = class "SourcePass"
+
+-- Files read per event loop tick
+local READ_BATCH_SIZE = 50
+
+-- Passes whose files parsers read instead of the disk, until released
+local active_passes = {}
+
+---@param fields table { language, file_globs, exclude_globs, search_paths, process_pool }
+function SourcePass:initialize(fields)
+  self.language = fields.language
+  self.file_globs = fields.file_globs or {}
+  self.exclude_globs = fields.exclude_globs or {}
+  -- Directories listed instead of the whole project (module-scoped scans)
+  self.search_paths = fields.search_paths
+  -- Pool the file listing runs on (workspace root scans), nil to start it right away
+  self.process_pool = fields.process_pool
+  self._line_consumers = {}
+  self._file_consumers = {}
+  -- Hits by consumer name: { file_path, line_number, column, content }[]
+  self._hits = {}
+  -- Lines of files with hits, kept until the pass is released
+  self._lines = {}
+  self._done = false
+  self._waiting = nil
+  self.file_count = 0
+end
+
+---Registers a consumer of the lines matching any of the given Lua patterns
+---@param name string Consumer (framework) name
+---@param line_patterns string[]
+function SourcePass:add_line_consumer(name, line_patterns)
+  table.insert(self._line_consumers, { name = name, line_patterns = line_patterns })
+  self._hits[name] = {}
+end
+
+---Registers a consumer of every file
+---@param consumer { on_file: fun(file_path: string, lines: string[]), on_done: fun()|nil, on_release: fun()|nil }
+function SourcePass:add_file_consumer(consumer)
+  table.insert(self._file_consumers, consumer)
+end
+
+---Checks if a consumer takes part in the pass
+---@param name string
+---@return boolean
+function SourcePass:has_consumer(name)
+  return self._hits[name] ~= nil
+end
+
+---Gets the lines matched for a consumer, in file order
+---@param name string
+---@return table[] hits { file_path, line_number, column, content }
+function SourcePass:get_hits(name)
+  return self._hits[name] or {}
+end
+
+---Gets the lines of a file with hits, nil for other files
+---@param file_path string
+---@return string[]|nil
+function SourcePass:get_lines(file_path)
+  return self._lines[file_path]
+end
+
+---Reads a file's lines from an active pass, or from the disk
+---@param file_path string
+---@return string[]|nil
+function SourcePass.static.read_lines(file_path)
+  for pass in pairs(active_passes) do
+    local lines = pass._lines[file_path]
+    if lines then
+      return lines
+    end
+  end
+  return fs.read_file(file_path)
+end
+
+---Drops the lines held for parsers, and tells file consumers the scan is over
+function SourcePass:release()
+  active_passes[self] = nil
+  self._lines = {}
+  for _, consumer in ipairs(self._file_consumers) do
+    if consumer.on_release then
+      consumer.on_release()
+    end
+  end
+end
+
+---Matches a file's lines against the line consumers
+---@private
+function SourcePass:_index_file(file_path, lines)
+  local has_hits = false
+  for line_number, line in ipairs(lines) do
+    for _, consumer in ipairs(self._line_consumers) do
+      for _, line_pattern in ipairs(consumer.line_patterns) do
+        local column = line:find(line_pattern)
+        if column then
+          table.insert(self._hits[consumer.name], {
+            file_path = file_path,
+            line_number = line_number,
+            column = column,
+            content = line,
+          })
+          has_hits = true
+          break
+        end
+      end
+    end
+  end
+
+  if has_hits then
+    self._lines[file_path] = lines
+  end
+end
+
+---Lists and reads the files once; later calls wait for (or reuse) the same run
+---@param scan_handle endpoint.ScanHandle
+---@param callback fun() Called when every file was read (not called if cancelled)
+function SourcePass:run_async(scan_handle, callback)
+  if self._done then
+    vim.schedule(function()
+      if not scan_handle:is_cancelled() then
+        callback()
+      end
+    end)
+    return
+  end
+
+  local function on_ready()
+    if not scan_handle:is_cancelled() then
+      callback()
+    end
+  end
+  if self._waiting then
+    table.insert(self._waiting, on_ready)
+    return
+  end
+  self._waiting = { on_ready }
+
+  local rg = require "endpoint.utils.rg"
+  local files_command = rg.create_files_command {
+    file_globs = self.file_globs,
+    exclude_globs = self.exclude_globs,
+    search_paths = self.search_paths,
+  }
+
+  local pass = self
+  local list_span = profiler.start_phase("ripgrep", "source_pass:" .. self.language)
+  scan_handle:on_cancel(function()
+    pass._waiting = nil
+  end)
+  ProcessPool.static.spawn(self.process_pool, { "sh", "-c", files_command }, { text = true }, function(obj)
+    profiler.end_phase(list_span)
+
+    local file_list = obj.code == 0 and vim.split(obj.stdout or "", "\n", { trimempty = true }) or {}
+    pass.file_count = #file_list
+    active_passes[pass] = true
+
+    local read_span = profiler.start_phase("source_pass", pass.language)
+    local next_index = 1
+
+    local function read_batch()
+      if scan_handle:is_cancelled() then
+        pass._waiting = nil
+        return
+      end
+
+      local last_index = math.min(next_index + READ_BATCH_SIZE - 1, #file_list)
+      for index = next_index, last_index do
+        local file_path = file_list[index]
+        local lines = fs.read_file(file_path)
+        if lines then
+          pass:_index_file(file_path, lines)
+          for _, consumer in ipairs(pass._file_consumers) do
+            consumer.on_file(file_path, lines)
+          end
+        end
+      end
+      next_index = last_index + 1
+
+      if next_index <= #file_list then
+        vim.schedule(read_batch)
+        return
+      end
+
+      for _, consumer in ipairs(pass._file_consumers) do
+        if consumer.on_done then
+          consumer.on_done()
+        end
+      end
+      profiler.end_phase(read_span, { file_count = #file_list })
+      log.framework_debug(string.format("Source pass (%s): read %d files", pass.language, #file_list))
+
+      pass._done = true
+      local waiting = pass._waiting
+      pass._waiting = nil
+      for _, waiting_callback in ipairs(waiting) do
+        waiting_callback()
+      end
+    end
+
+    read_batch()
+  end, scan_handle)
+end
+
+---Creates the source passes for a scan, one per language shared by the frameworks that support it
+---@param frameworks endpoint.Framework[] Detected frameworks
+---@param search_paths string[]|nil Directories to read instead of the whole project (module-scoped scans)
+---@param process_pool endpoint.ProcessPool|nil Pool the file listings run on
+---@param project_root string|nil Root of the scanned project, the working directory when nil
+---@return table<string, endpoint.SourcePass> passes By language
+function SourcePass.static.create_for_frameworks(frameworks, search_paths, process_pool, project_root)
+  local passes = {}
+  for _, framework in ipairs(frameworks) do
+    local source_pass_config = framework:get_source_pass_config()
+    if source_pass_config then
+      local language = source_pass_config.language
+      local pass = passes[language]
+      if not pass then
+        pass = SourcePass:new {
+          language = language,
+          file_globs = source_pass_config.file_globs,
+          exclude_globs = framework:get_config().exclude_patterns,
+          search_paths = search_paths,
+          process_pool = process_pool,
+        }
+        passes[language] = pass
+
+        if language == "java" then
+          local java_constant_resolver = require "endpoint.resolver.java_constant_resolver"
+          -- A workspace root's pass searches the root itself, so it reads the whole project
+          local scoped = search_paths ~= nil and not (#search_paths == 1 and search_paths[1] == project_root)
+          pass:add_file_consumer(java_constant_resolver.create_source_consumer(project_root, scoped))
+        end
+      end
+      pass:add_line_consumer(framework:get_name(), source_pass_config.line_patterns)
+    end
+  end
+  return passes
+end
+
+return SourcePass
@@ -0,0 +1,367 @@
+local class = require "endpoint.lib.middleclass"
+local log = require "endpoint.utils.log"
+local ScanHandle = require "endpoint.core.ScanHandle"
+
+local uv = vim.uv or vim.loop
+
+---Request statistics per endpoint, ingested from access logs
+---Logs are read in chunks with libuv and parsed between editor events, so multi-GB files never sit in
+---memory and the editor stays responsive. Each request is matched to an endpoint of its method with the route
+---trie, on the whole path.
+---Latencies go into a fixed log-scale histogram per endpoint, so p50/p99 need constant memory.
+---@class endpoint.Traffic
+local Traffic = class "Traffic"
+
+-- Bytes read per chunk
+local CHUNK_SIZE = 1024 * 1024
+
+-- Latency histogram: bucket i holds latencies up to BUCKET_GROWTH^i ms (about 5% resolution)
+local BUCKET_GROWTH = 1.05
+local BUCKET_COUNT = 400
+
+-- Distinct request paths whose match is remembered while ingesting
+local MATCH_CACHE_LIMIT = 10000
+
+local HTTP_METHODS = { GET = true, POST = true, PUT = true, DELETE = true, PATCH = true, HEAD = true, OPTIONS = true }
+
+function Traffic:initialize()
+  -- Stats by endpoint key
+  self.stats = {}
+  self.unmatched = 0
+  -- Bumped on every ingest, so annotations are recomputed
+  self.generation = 0
+  self._summaries = {}
+end
+
+---Identity of an endpoint across scans
+---@param endpoint endpoint.entry
+---@return string
+function Traffic.static.get_endpoint_key(endpoint)
+  return table.concat({ endpoint.method or "", endpoint.endpoint_path or "", endpoint.file_path or "" }, "\0")
+end
+
+---Parses one access log line
+---Understands nginx/Apache common and combined formats (with an optional trailing request time, in seconds
+---like nginx `$request_time` or `rt=`/`request_time=`), Tomcat/Spring Boot access logs (`%D` milliseconds)
+---and request log lines such as `GET /api/users 200 12ms`.
+---@param line string
+---@return table|nil request { method, path, status, latency_ms }
+function Traffic.static.parse_line(line)
+  local method, path, rest = line:match '"(%u+) ([^%s"]+)[^"]*"(.*)$'
+  local latency_ms = nil
+  local status = nil
+
+  if method then
+    status = tonumber(rest:match "^%s+(%d%d%d)%f[%D]")
+    local seconds = rest:match "%f[%w]request_time=(%d+%.?%d*)" or rest:match "%f[%w]rt=(%d+%.?%d*)"
+    if seconds then
+      latency_ms = tonumber(seconds) * 1000
+    else
+      -- Request time after the user agent (combined) or after status and bytes (common)
+      local tail = rest:match '.*"(.*)$'
+      local trailing = nil
+      if tail then
+        trailing = tail:match "%s(%d+%.?%d*)%s*$"
+      else
+        trailing = rest:match "^%s+%d%d%d%s+[%d-]+%s+(%d+%.?%d*)%s*$"
+      end
+      if trailing then
+        -- Seconds when fractional (nginx $request_time), milliseconds otherwise (Tomcat %D)
+        latency_ms = trailing:find(".", 1, true) and tonumber(trailing) * 1000 or tonumber(trailing)
+      end
+    end
+  else
+    -- Request log line: METHOD /path ... status ... 12ms
+    for token, path_candidate, path_end in line:gmatch "%f[%w](%u+)%s+(/[^%s\"',]*)()" do
+      if HTTP_METHODS[token] then
+        method, path = token, path_candidate
+        rest = line:sub(path_end)
+        break
+      end
+    end
+    if not method then
+      return nil
+    end
+    status = tonumber(rest:match "%f[%d]([1-5]%d%d)%f[%D]")
+    latency_ms = tonumber(rest:match "(%d+%.?%d*)%s*ms")
+  end
+
+  if not HTTP_METHODS[method] then
+    return nil
+  end
+
+  return { method = method, path = path, status = status, latency_ms = latency_ms }
+end
+
+---Gets the histogram bucket of a latency
+local function get_bucket(latency_ms)
+  if latency_ms <= 1 then
+    return 0
+  end
+  return math.min(BUCKET_COUNT, math.ceil(math.log(latency_ms) / math.log(BUCKET_GROWTH)))
+end
+
+---Gets a percentile (0-1) from a latency histogram, nil without samples
+local function get_percentile(stats, percentile)
+  if stats.latency_count == 0 then
+    return nil
+  end
+
+  local target = math.max(1, math.ceil(stats.latency_count * percentile))
+  local seen = 0
+  for bucket = 0, BUCKET_COUNT do
+    seen = seen + (stats.latencies[bucket] or 0)
+    if seen >= target then
+      return bucket == 0 and 1 or BUCKET_GROWTH ^ bucket
+    end
+  end
+  return nil
+end
+
+---Records a parsed request for an endpoint
+---@private
+function Traffic:_record(endpoint, request)
+  local key = Traffic.static.get_endpoint_key(endpoint)
+  local stats = self.stats[key]
+  if not stats then
+    stats = { hits = 0, errors = 0, latency_count = 0, latencies = {} }
+    self.stats[key] = stats
+  end
+
+  stats.hits = stats.hits + 1
+  if request.status and request.status >= 500 then
+    stats.errors = stats.errors + 1
+  end
+  if request.latency_ms then
+    local bucket = get_bucket(request.latency_ms)
+    stats.latencies[bucket] = (stats.latencies[bucket] or 0) + 1
+    stats.latency_count = stats.latency_count + 1
+  end
+end
+
+---Clears all statistics
+function Traffic:clear()
+  self.stats = {}
+  self.unmatched = 0
+  self.generation = self.generation + 1
+  self._summaries = {}
+end
+
+---Streams an access log and adds its requests to the statistics
+---@param file_path string
+---@param route_trie endpoint.RouteTrie Trie of the project's endpoints
+---@param callback fun(summary: { requests: integer, matched: integer, unmatched: integer }|nil, err: string|nil)
+---@param on_progress fun(bytes_read: integer, total_bytes: integer)|nil
+---@return endpoint.ScanHandle handle Cancel to stop reading
+function Traffic:ingest_async(file_path, route_trie, callback, on_progress)
+  local handle = ScanHandle:new()
+  local summary = { requests = 0, matched = 0, unmatched = 0 }
+  local match_cache = {}
+  local match_cache_size = 0
+  local remainder = ""
+
+  local function process_line(line)
+    local request = Traffic.static.parse_line(line)
+    if not request then
+      return
+    end
+    summary.requests = summary.requests + 1
+
+    local cache_key = request.method .. " " .. request.path
+    local endpoint = match_cache[cache_key]
+    if endpoint == nil then
+      endpoint = route_trie:match(request.path, request.method) or false
+      if match_cache_size >= MATCH_CACHE_LIMIT then
+        match_cache, match_cache_size = {}, 0
+      end
+      match_cache[cache_key] = endpoint
+      match_cache_size = match_cache_size + 1
+    end
+
+    if endpoint then
+      summary.matched = summary.matched + 1
+      self:_record(endpoint, request)
+    else
+      summary.unmatched = summary.unmatched + 1
+      self.unmatched = self.unmatched + 1
+    end
+  end
+
+  -- Requests recorded so far stay counted, also when cancelled
+  local function invalidate_summaries()
+    self.generation = self.generation + 1
+    self._summaries = {}
+  end
+
+  local function finish(err)
+    invalidate_summaries()
+    vim.schedule(function()
+      if handle:is_cancelled() then
+        return
+      end
+      if err then
+        callback(nil, err)
+      else
+        log.framework_debug(
+          string.format("Ingested %s: %d requests, %d unmatched", file_path, summary.requests, summary.unmatched)
+        )
+        callback(summary)
+      end
+    end)
+  end
+
+  uv.fs_open(file_path, "r", 438, function(open_err, fd)
+    if open_err or not fd then
+      finish("Cannot open " .. file_path)
+      return
+    end
+
+    local total_bytes = (uv.fs_fstat(fd) or {}).size or 0
+    local offset = 0
+
+    local function read_next()
+      if handle:is_cancelled() then
+        uv.fs_close(fd)
+        invalidate_summaries()
+        return
+      end
+
+      uv.fs_read(fd, CHUNK_SIZE, offset, function(read_err, data)
+        if read_err then
+          uv.fs_close(fd)
+          finish("Cannot read " .. file_path)
+          return
+        end
+
+        if not data or #data == 0 then
+          uv.fs_close(fd)
+          if remainder ~= "" then
+            process_line(remainder)
+          end
+          finish()
+          return
+        end
+
+        offset = offset + #data
+        -- Parse on the main loop between editor events, then read the next chunk
+        vim.schedule(function()
+          if handle:is_cancelled() then
+            uv.fs_close(fd)
+            invalidate_summaries()
+            return
+          end
+
+          local chunk = remainder .. data
+          local last_newline = chunk:match ".*()\n"
+          if last_newline then
+            remainder = chunk:sub(last_newline + 1)
+            for line in chunk:sub(1, last_newline - 1):gmatch "[^\n]+" do
+              process_line(line)
+            end
+          else
+            remainder = chunk
+          end
+
+          if on_progress then
+            on_progress(offset, total_bytes)
+          end
+          read_next()
+        end)
+      end)
+    end
+
+    read_next()
+  end)
+
+  return handle
+end
+
+---Gets the traffic summary of an endpoint, nil if it received no requests
+---Summaries keep their identity until the next ingest, so cached displays can be compared by reference.
+---@param endpoint endpoint.entry
+---@return table|nil summary { hits, errors, p50_ms, p99_ms }
+function Traffic:get_summary(endpoint)
+  local key = Traffic.static.get_endpoint_key(endpoint)
+  local stats = self.stats[key]
+  if not stats then
+    return nil
+  end
+
+  local summary = self._summaries[key]
+  if not summary then
+    summary = {
+      hits = stats.hits,
+      errors = stats.errors,
+      p50_ms = get_percentile(stats, 0.5),
+      p99_ms = get_percentile(stats, 0.99),
+    }
+    self._summaries[key] = summary
+  end
+  return summary
+end
+
+---Checks if any log was ingested
+---@return boolean
+function Traffic:has_data()
+  return next(self.stats) ~= nil
+end
+
+---Attaches traffic summaries to endpoints (endpoint.traffic), then filters and sorts them by traffic
+---@param endpoints endpoint.entry[]
+---@param traffic_config table { sort, min_hits }
+---@return endpoint.entry[]
+function Traffic:apply(endpoints, traffic_config)
+  if not self:has_data() then
+    -- Summaries from before a clear (or restored with the cache) are stale
+    for _, endpoint in ipairs(endpoints) do
+      endpoint.traffic = nil
+    end
+    return endpoints
+  end
+
+  local min_hits = traffic_config.min_hits or 0
+  local result = {}
+  for _, endpoint in ipairs(endpoints) do
+    endpoint.traffic = self:get_summary(endpoint)
+    if min_hits <= 0 or (endpoint.traffic and endpoint.traffic.hits >= min_hits) then
+      table.insert(result, endpoint)
+    end
+  end
+
+  local sort_field = traffic_config.sort
+  if sort_field == "hits" or sort_field == "errors" or sort_field == "p99" then
+    local field = sort_field == "p99" and "p99_ms" or sort_field
+    local positions = {}
+    for position, endpoint in ipairs(result) do
+      positions[endpoint] = position
+    end
+    table.sort(result, function(a, b)
+      local a_value = a.traffic and a.traffic[field] or -1
+      local b_value = b.traffic and b.traffic[field] or -1
+      if a_value ~= b_value then
+        return a_value > b_value
+      end
+      -- Stable: keep the scan order among equals
+      return positions[a] < positions[b]
+    end)
+  end
+
+  return result
+end
+
+---Formats a traffic summary for picker lists, e.g. "1.2k hits · 3 err · p99 120ms"
+---@param summary table
+---@return string
+function Traffic.static.format_summary(summary)
+  local hits = summary.hits >= 1000 and string.format("%.1fk", summary.hits / 1000) or tostring(summary.hits)
+  local parts = { hits .. " hits" }
+  if summary.errors > 0 then
+    table.insert(parts, summary.errors .. " err")
+  end
+  if summary.p99_ms then
+    table.insert(parts, string.format("p99 %dms", math.floor(summary.p99_ms + 0.5)))
+  end
+  return table.concat(parts, " · ")
+end
+
+return Traffic
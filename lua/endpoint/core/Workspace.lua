@@ -0,0 +1,252 @@
+local class = require "endpoint.lib.middleclass"
+local log = require "endpoint.utils.log"
+local progress = require "endpoint.utils.progress"
+local profiler = require "endpoint.utils.profiler"
+local telemetry = require "endpoint.utils.telemetry"
+local ProcessPool = require "endpoint.core.ProcessPool"
+local ScanHandle = require "endpoint.core.ScanHandle"
+local config = require "endpoint.config"
+
+---Scans of several project roots at once (multi-root workspaces)
+---Roots come from `workspace.roots`, or are discovered: the projects under the working directory and the `:tcd`
+---directories of other tabs. Up to `workspace.max_jobs` roots are scanned at the same time in this Neovim, each
+---with its own framework detection and its own resolver indexes (see endpoint.IndexRoot). The ripgrep processes
+---of the scans run on a bounded process pool, and the endpoints are merged, tagged with their root.
+---@class endpoint.Workspace
+local Workspace = class "Workspace"
+
+-- Files marking the root of a project, for discovered roots
+local ROOT_MARKERS = {
+  "pom.xml",
+  "build.gradle",
+  "build.gradle.kts",
+  "package.json",
+  "Gemfile",
+  "composer.json",
+  "pyproject.toml",
+  "requirements.txt",
+  "setup.py",
+  "Pipfile",
+  "*.csproj",
+  "*.sln",
+}
+
+---Gets the absolute path of a directory, without trailing slash
+local function normalize_dir(dir)
+  return (vim.fn.fnamemodify(dir, ":p"):gsub("(.)/$", "%1"))
+end
+
+---Checks if a directory holds a project (a build manifest)
+local function has_root_marker(dir)
+  for _, marker in ipairs(ROOT_MARKERS) do
+    if marker:find("*", 1, true) then
+      if #vim.fn.glob(dir .. "/" .. marker, false, true) > 0 then
+        return true
+      end
+    elseif vim.fn.filereadable(dir .. "/" .. marker) == 1 then
+      return true
+    end
+  end
+  return false
+end
+
+---Resolves a path reported by a root scan against the root
+local function to_absolute(root, file_path)
+  if file_path:match "^/" or file_path:match "^%a:" then
+    return file_path
+  end
+  return root .. "/" .. file_path:gsub("^%./", "")
+end
+
+---@param scan_root function|nil Scans one root, with the signature of Endpoint:scan_all_endpoints_async
+function Workspace:initialize(scan_root)
+  self.scan_root = scan_root
+  self.pool = ProcessPool:new()
+end
+
+---Discovers the roots of the workspace around a directory
+---The directory is a root itself when it holds a project; otherwise each subdirectory holding one is. The
+---directories set with `:tcd` in other tabs are roots too.
+---@param cwd string
+---@return string[] roots
+function Workspace.static.discover_roots(cwd)
+  local roots = {}
+  if has_root_marker(cwd) then
+    table.insert(roots, cwd)
+  else
+    for _, name in ipairs(vim.fn.readdir(cwd)) do
+      local dir = cwd .. "/" .. name
+      if not name:match "^%." and vim.fn.isdirectory(dir) == 1 and has_root_marker(dir) then
+        table.insert(roots, dir)
+      end
+    end
+  end
+
+  for tabnr = 1, vim.fn.tabpagenr "$" do
+    if vim.fn.haslocaldir(-1, tabnr) == 1 then
+      table.insert(roots, vim.fn.getcwd(-1, tabnr))
+    end
+  end
+  return roots
+end
+
+---Gets the roots to scan, nil unless multi-root mode is enabled and there is more than the working directory
+---@return string[]|nil roots Absolute paths
+function Workspace:get_roots()
+  local workspace_config = config.get().workspace or {}
+  if not workspace_config.enabled then
+    return nil
+  end
+
+  local cwd = normalize_dir(vim.fn.getcwd())
+  local configured_roots = workspace_config.roots or {}
+  local candidates = #configured_roots > 0 and configured_roots or Workspace.static.discover_roots(cwd)
+
+  local roots = {}
+  local seen = {}
+  for _, candidate in ipairs(candidates) do
+    local root = normalize_dir(vim.fn.expand(candidate))
+    if not seen[root] and vim.fn.isdirectory(root) == 1 then
+      seen[root] = true
+      table.insert(roots, root)
+    end
+  end
+
+  if #roots == 0 or (#roots == 1 and roots[1] == cwd) then
+    return nil
+  end
+  return roots
+end
+
+---Tags the endpoints of a root scan with their root, making their file paths absolute
+---@param endpoints endpoint.entry[]
+---@param root string
+---@return endpoint.entry[]
+function Workspace.static.tag_endpoints(endpoints, root)
+  for _, endpoint in ipairs(endpoints) do
+    endpoint.root = root
+    endpoint.file_path = to_absolute(root, endpoint.file_path)
+    if endpoint.component_file_path then
+      endpoint.component_file_path = to_absolute(root, endpoint.component_file_path)
+    end
+  end
+  return endpoints
+end
+
+---Scans the roots at the same time and merges their endpoints, in the order of the roots
+---Up to `workspace.max_jobs` roots are scanned at once, and their ripgrep processes share the process pool, which
+---runs as many at a time. A root whose scan fails is reported and skipped.
+---@param roots string[]
+---@param scan_options table { method, quiet }
+---@param callback fun(endpoints: endpoint.entry[], scan_summary: table) Not called if cancelled
+---@param scan_handle endpoint.ScanHandle
+---@param on_batch fun(endpoints: endpoint.entry[])|nil Receives endpoints of each root as they are found
+function Workspace:scan_async(roots, scan_options, callback, scan_handle, on_batch)
+  local workspace_config = config.get().workspace or {}
+  local max_jobs = math.max(1, workspace_config.max_jobs or 1)
+  self.pool.max_jobs = max_jobs
+
+  local endpoints_by_root = {}
+  local scan_summary = { parser_types = {}, first_result_at = nil }
+  local started_count = 0
+  local scanned_count = 0
+
+  log.framework_debug(string.format("Scanning %d workspace roots, %d at a time", #roots, max_jobs))
+  local progress_handle = not scan_options.quiet and progress.create("Scanning workspace", #roots .. " roots") or nil
+  -- One profile covers the root scans running side by side
+  local owned_profile = not profiler.get_active() and profiler.begin "scan" or nil
+  -- Each root scan gets its own handle, so what a finished root scan registered is not run on cancel
+  local root_handles = {}
+  scan_handle:on_cancel(function(reason)
+    for _, root_handle in pairs(root_handles) do
+      root_handle:cancel(reason)
+    end
+    progress.cancel(progress_handle, "Cancelled (" .. reason .. ")")
+    profiler.finish(owned_profile)
+  end)
+
+  local scan_next_root
+
+  local function complete()
+    local all_endpoints = {}
+    for index = 1, #roots do
+      vim.list_extend(all_endpoints, endpoints_by_root[index])
+    end
+    progress.finish(progress_handle, string.format("Found %d endpoints in %d roots", #all_endpoints, #roots))
+    profiler.finish(owned_profile)
+    callback(all_endpoints, scan_summary)
+  end
+
+  local function finish_root(root_index, root_endpoints)
+    root_handles[root_index] = nil
+    endpoints_by_root[root_index] = root_endpoints
+    scanned_count = scanned_count + 1
+    progress.update(
+      progress_handle,
+      string.format("%d/%d roots", scanned_count, #roots),
+      math.floor(scanned_count / #roots * 100)
+    )
+
+    if scanned_count < #roots then
+      scan_next_root()
+    else
+      complete()
+    end
+  end
+
+  local function on_root_scanned(root_index, root_endpoints, root_summary)
+    local root = roots[root_index]
+    Workspace.static.tag_endpoints(root_endpoints, root)
+    for framework_name, parser_type in pairs(root_summary.parser_types or {}) do
+      scan_summary.parser_types[framework_name] = parser_type
+    end
+    if #root_endpoints > 0 and not scan_summary.first_result_at then
+      scan_summary.first_result_at = root_summary.first_result_at or telemetry.now()
+    end
+    log.framework_debug(string.format("Found %d endpoints in workspace root %s", #root_endpoints, root))
+    finish_root(root_index, root_endpoints)
+  end
+
+  scan_next_root = function()
+    if scan_handle:is_cancelled() or started_count == #roots then
+      return
+    end
+
+    started_count = started_count + 1
+    local root_index = started_count
+    local root = roots[root_index]
+    local root_handle = ScanHandle:new()
+    root_handles[root_index] = root_handle
+    local ok, scan_error = pcall(self.scan_root, {
+      method = scan_options.method,
+      project_root = root,
+      search_paths = { root },
+      process_pool = self.pool,
+      quiet = true,
+    }, function(root_endpoints, root_summary)
+      on_root_scanned(root_index, root_endpoints, root_summary or {})
+    end, root_handle, on_batch and function(batch)
+      on_batch(Workspace.static.tag_endpoints(batch, root))
+    end)
+
+    if not ok then
+      root_handle:cancel "failed"
+      vim.notify(string.format("Workspace root %s was not scanned: %s", root, scan_error), vim.log.levels.WARN)
+      vim.schedule(function()
+        if not scan_handle:is_cancelled() then
+          finish_root(root_index, {})
+        end
+      end)
+    end
+  end
+
+  if #roots == 0 then
+    complete()
+    return
+  end
+  for _ = 1, math.min(max_jobs, #roots) do
+    scan_next_root()
+  end
+end
+
+return Workspace
@@ -65,6 +65,7 @@ function ExpressFramework:initialize()
       },
       parser = ExpressParser,
       treesitter_parser = "endpoint.parser.express_treesitter_parser",
+      mount_graph = "express",
     },
   })
 end
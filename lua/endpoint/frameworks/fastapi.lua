@@ -35,6 +35,7 @@ function FastApiFramework:initialize()
       },
       parser = FastApiParser,
       treesitter_parser = "endpoint.parser.fastapi_treesitter_parser",
+      mount_graph = "fastapi",
     },
   })
 end
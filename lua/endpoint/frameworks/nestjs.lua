@@ -61,6 +61,7 @@ function NestJsFramework:initialize()
       },
       parser = NestJsParser,
       treesitter_parser = "endpoint.parser.nestjs_treesitter_parser",
+      mount_graph = "nestjs",
     },
   })
 end
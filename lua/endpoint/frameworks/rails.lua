@@ -1,6 +1,7 @@
 local Framework = require "endpoint.core.Framework"
 local class = require "endpoint.lib.middleclass"
 local RailsParser = require "endpoint.parser.rails_parser"
+local rails_route_resolver = require "endpoint.resolver.rails_route_resolver"
 
 ---@class endpoint.RailsFramework
 local RailsFramework = class("RailsFramework", Framework)
@@ -67,4 +68,29 @@ function RailsFramework:initialize()
   })
 end
 
+---Refreshes the routes table and controller index of the scanned directories (synchronous)
+function RailsFramework:_prepare_scan(options)
+  if not self:_is_treesitter_parser() then
+    rails_route_resolver.refresh(options)
+  end
+end
+
+---Compiles the routes table and controller index once per scan, so hits resolve by lookup
+function RailsFramework:_prepare_scan_async(options, scan_handle, done)
+  if self:_is_treesitter_parser() then
+    done()
+    return
+  end
+  rails_route_resolver.refresh_async(options, scan_handle, done)
+end
+
+---Adds the routes files and controllers to the detector manifests when the regex parser resolves them
+function RailsFramework:get_context_specs()
+  local specs = Framework.get_context_specs(self)
+  if not self:_is_treesitter_parser() then
+    table.insert(specs, rails_route_resolver.get_context_spec())
+  end
+  return specs
+end
+
 return RailsFramework
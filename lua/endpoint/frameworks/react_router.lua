@@ -1,6 +1,7 @@
 local Framework = require "endpoint.core.Framework"
 local class = require "endpoint.lib.middleclass"
 local ReactRouterParser = require "endpoint.parser.react_router_parser"
+local react_component_resolver = require "endpoint.resolver.react_component_resolver"
 
 ---@class endpoint.ReactRouterFramework
 local ReactRouterFramework = class("ReactRouterFramework", Framework)
@@ -30,4 +31,29 @@ function ReactRouterFramework:initialize()
   })
 end
 
+---Lists the component files of the scanned directories (synchronous)
+function ReactRouterFramework:_prepare_scan(options)
+  if not self:_is_treesitter_parser() then
+    react_component_resolver.refresh(options)
+  end
+end
+
+---Lists the component files once per scan, so route components resolve by lookup
+function ReactRouterFramework:_prepare_scan_async(options, scan_handle, done)
+  if self:_is_treesitter_parser() then
+    done()
+    return
+  end
+  react_component_resolver.refresh_async(options, scan_handle, done)
+end
+
+---Adds the component files to the detector manifests when the regex parser resolves them
+function ReactRouterFramework:get_context_specs()
+  local specs = Framework.get_context_specs(self)
+  if not self:_is_treesitter_parser() then
+    table.insert(specs, react_component_resolver.get_context_spec())
+  end
+  return specs
+end
+
 return ReactRouterFramework
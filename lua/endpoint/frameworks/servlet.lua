@@ -1,6 +1,7 @@
 local Framework = require "endpoint.core.Framework"
 local class = require "endpoint.lib.middleclass"
 local ServletParser = require "endpoint.parser.servlet_parser"
+local web_xml_resolver = require "endpoint.resolver.web_xml_resolver"
 
 ---@class endpoint.ServletFramework
 local ServletFramework = class("ServletFramework", Framework)
@@ -20,6 +21,12 @@ function ServletFramework:initialize()
         PATCH = { "doPatch" },
       },
       search_options = { "--case-sensitive", "--type", "java", "-U", "--multiline-dotall" },
+      -- Async scans share one read of the project's Java files with Spring and the constant resolver
+      source_pass = {
+        language = "java",
+        file_globs = { "*.java" },
+        line_patterns = { "doGet", "doPost", "doPut", "doDelete", "doPatch" },
+      },
       controller_extractors = {
         { pattern = "([^/]+)%.java$" },
       },
@@ -38,4 +45,21 @@ function ServletFramework:initialize()
   })
 end
 
+---Refreshes the web.xml index of the scanned directories (synchronous)
+function ServletFramework:_prepare_scan(options)
+  web_xml_resolver.refresh(options)
+end
+
+---Refreshes the web.xml index once per scan, so servlet mappings resolve by lookup
+function ServletFramework:_prepare_scan_async(options, scan_handle, done)
+  web_xml_resolver.refresh_async(options, scan_handle, done)
+end
+
+---Adds the deployment descriptors to the detector manifests
+function ServletFramework:get_context_specs()
+  local specs = Framework.get_context_specs(self)
+  table.insert(specs, web_xml_resolver.get_context_spec())
+  return specs
+end
+
 return ServletFramework
@@ -1,6 +1,7 @@
 local Framework = require "endpoint.core.Framework"
 local class = require "endpoint.lib.middleclass"
 local SpringParser = require "endpoint.parser.spring_parser"
+local java_constant_resolver = require "endpoint.resolver.java_constant_resolver"
 
 ---@class endpoint.SpringFramework
 local SpringFramework = class("SpringFramework", Framework)
@@ -20,6 +21,19 @@ function SpringFramework:initialize()
         PATCH = { "@PatchMapping", "@RequestMapping.*method.*=.*PATCH" },
       },
       search_options = { "--case-sensitive", "--type", "java", "-U", "--multiline-dotall" },
+      -- Async scans share one read of the project's Java files with Servlet and the constant resolver
+      source_pass = {
+        language = "java",
+        file_globs = { "*.java" },
+        line_patterns = {
+          "@GetMapping",
+          "@PostMapping",
+          "@PutMapping",
+          "@DeleteMapping",
+          "@PatchMapping",
+          "@RequestMapping",
+        },
+      },
       controller_extractors = {
         { pattern = "([^/]+)%.java$" },
         { pattern = "([^/]+)%.kt$" },
@@ -42,4 +56,11 @@ function SpringFramework:initialize()
   })
 end
 
+---Adds the files declaring constants, which mapping paths may reference, to the detector manifests
+function SpringFramework:get_context_specs()
+  local specs = Framework.get_context_specs(self)
+  table.insert(specs, java_constant_resolver.get_context_spec())
+  return specs
+end
+
 return SpringFramework
@@ -0,0 +1,183 @@
+-- Health check for endpoint.nvim (:checkhealth endpoint)
+local M = {}
+
+local health = vim.health or require "health"
+local start = health.start or health.report_start
+local ok = health.ok or health.report_ok
+local warn = health.warn or health.report_warn
+local fail = health.error or health.report_error
+local info = health.info or health.report_info
+
+-- Languages used by the Tree-sitter parsers of the built-in frameworks
+local TREESITTER_LANGUAGES = { "java", "kotlin", "typescript", "tsx", "javascript", "python", "ruby", "php", "c_sharp" }
+
+local function check_neovim()
+  start "endpoint.nvim"
+
+  if vim.fn.has "nvim-0.10" == 1 then
+    ok "Neovim >= 0.10 (async scanning with vim.system)"
+  else
+    warn "Neovim < 0.10: async scanning requires vim.system"
+  end
+
+  local config = require("endpoint.config").get()
+  info(string.format("Picker: %s", config.picker and config.picker.type or "vim_ui_select"))
+end
+
+local function check_ripgrep()
+  start "ripgrep"
+
+  if vim.fn.executable "rg" == 0 then
+    fail("ripgrep (rg) not found in PATH", { "Install ripgrep: https://github.com/BurntSushi/ripgrep" })
+    return
+  end
+
+  local version_output = vim.fn.systemlist { "rg", "--version" }
+  if vim.v.shell_error ~= 0 or not version_output[1] then
+    warn "ripgrep found but `rg --version` failed"
+    return
+  end
+
+  ok(version_output[1])
+end
+
+local function check_treesitter()
+  start "Tree-sitter"
+
+  local config = require("endpoint.config").get()
+  local enabled = config.treesitter and config.treesitter.enabled
+  info(string.format("treesitter.enabled = %s", tostring(enabled == true)))
+
+  local has_nvim_treesitter = pcall(require, "nvim-treesitter.parsers")
+  if not has_nvim_treesitter then
+    if enabled then
+      warn("nvim-treesitter not found: falling back to ripgrep parsers", {
+        "Install nvim-treesitter to use Tree-sitter parsing",
+      })
+    else
+      info "nvim-treesitter not found (only needed when treesitter.enabled = true)"
+    end
+    return
+  end
+
+  local TreeSitterParser = require "endpoint.core.TreeSitterParser"
+  local ts_parser = TreeSitterParser:new()
+  local available = {}
+  local missing = {}
+
+  for _, lang in ipairs(TREESITTER_LANGUAGES) do
+    if ts_parser:is_treesitter_available(lang) then
+      table.insert(available, lang)
+    else
+      table.insert(missing, lang)
+    end
+  end
+
+  if #available > 0 then
+    ok("Parsers installed: " .. table.concat(available, ", "))
+  end
+  if #missing > 0 then
+    local report = enabled and warn or info
+    report("Parsers missing: " .. table.concat(missing, ", "))
+  end
+end
+
+local function format_size(bytes)
+  if bytes >= 1024 * 1024 then
+    return string.format("%.1f MB", bytes / (1024 * 1024))
+  elseif bytes >= 1024 then
+    return string.format("%.1f KB", bytes / 1024)
+  end
+  return string.format("%d B", bytes)
+end
+
+local function check_cache()
+  start "Cache"
+
+  local config = require("endpoint.config").get()
+  info(string.format("cache.mode = %s", config.cache and config.cache.mode or "session"))
+
+  local cache_dir = vim.fn.stdpath "cache" .. "/endpoint.nvim"
+  if vim.fn.isdirectory(cache_dir) == 0 then
+    info("Cache directory not created yet: " .. cache_dir)
+    return
+  end
+
+  local total_bytes = 0
+  local file_count = 0
+  for _, file_path in ipairs(vim.fn.glob(cache_dir .. "/**/*", false, true)) do
+    if vim.fn.isdirectory(file_path) == 0 then
+      total_bytes = total_bytes + math.max(0, vim.fn.getfsize(file_path))
+      file_count = file_count + 1
+    end
+  end
+
+  ok(string.format("%s: %d files, %s", cache_dir, file_count, format_size(total_bytes)))
+end
+
+local function format_record(record)
+  local parser_types = {}
+  for framework_name, parser_type in pairs(record.parser_types or {}) do
+    table.insert(parser_types, framework_name .. "=" .. parser_type)
+  end
+  table.sort(parser_types)
+
+  return string.format(
+    "%s %-4s %8.1f ms (first result %s), %d endpoints in %d files%s%s",
+    os.date("%Y-%m-%d %H:%M:%S", record.timestamp),
+    record.cache,
+    record.duration_ms,
+    record.time_to_first_result_ms and string.format("%.1f ms", record.time_to_first_result_ms) or "-",
+    record.endpoint_count or 0,
+    -- Histories saved before the rename keep `file_count`
+    record.endpoint_file_count or record.file_count or 0,
+    record.method and (" [" .. record.method .. "]") or "",
+    #parser_types > 0 and (" " .. table.concat(parser_types, ", ")) or ""
+  )
+end
+
+local function check_telemetry()
+  start "Recent scans"
+
+  local telemetry = require "endpoint.utils.telemetry"
+  if not telemetry.is_enabled() then
+    info "Scan telemetry disabled (telemetry.enabled = false)"
+    return
+  end
+
+  local records = telemetry.get_history()
+  if #records == 0 then
+    info("No scans recorded for " .. vim.fn.getcwd())
+    return
+  end
+
+  for index = #records, math.max(1, #records - 4), -1 do
+    info(format_record(records[index]))
+  end
+
+  local summary = telemetry.summarize(records)
+  if summary and summary.ratio then
+    local message = string.format(
+      "Latest %s scan took %.1f ms vs median %.1f ms of previous scans (%.1fx)",
+      summary.latest.cache,
+      summary.latest.duration_ms,
+      summary.median_ms,
+      summary.ratio
+    )
+    if summary.ratio > 2 then
+      warn(message)
+    else
+      ok(message)
+    end
+  end
+end
+
+function M.check()
+  check_neovim()
+  check_ripgrep()
+  check_treesitter()
+  check_cache()
+  check_telemetry()
+end
+
+return M
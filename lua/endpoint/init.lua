@@ -11,13 +11,44 @@ function M.setup(user_config)
 end
 
 -- Main function to find and show endpoints
+-- Returns a handle whose cancel() stops the scan; a newer find supersedes a running one
 function M.find(opts)
-  endpoint:find(opts)
+  return endpoint:find(opts)
 end
 
 -- Force refresh (bypass cache)
 function M.refresh()
-  M.find { force_refresh = true }
+  return M.find { force_refresh = true }
+end
+
+-- Jump to the handler of a request line or URL, e.g. "GET /api/orders/1"
+function M.goto_url(text)
+  endpoint:goto_url(text)
+end
+
+-- Jump to the handler of the URL under the cursor
+function M.goto_url_under_cursor()
+  endpoint:goto_url_under_cursor()
+end
+
+-- Show endpoints added, removed or changed between two git revisions (head defaults to the working tree)
+function M.diff(base, head)
+  return endpoint:diff_refs(base, head)
+end
+
+-- Annotate endpoints with hit counts, errors and latencies from access logs (defaults to traffic.log_files)
+function M.ingest_traffic(log_files, callback)
+  return endpoint:ingest_traffic(log_files, callback)
+end
+
+-- Drop ingested access log statistics
+function M.clear_traffic()
+  endpoint:clear_traffic()
+end
+
+-- Cancel in-flight scans
+function M.cancel()
+  endpoint:cancel_scans()
 end
 
 -- Cache management
@@ -29,6 +60,11 @@ function M.show_cache_stats()
   endpoint:show_cache_stats()
 end
 
+-- Show the most recent scan profile
+function M.show_profile()
+  endpoint:show_profile()
+end
+
 -- Get configuration
 function M.get_config()
   return config.get()
@@ -1,3 +1,4 @@
+local CommentMap = require "endpoint.core.CommentMap"
 local Parser = require "endpoint.core.Parser"
 local class = require "endpoint.lib.middleclass"
 
@@ -487,43 +488,10 @@ function DotNetParser:_is_commented_code(content, file_path, line_number)
     return true
   end
 
-  -- CRITICAL: Check if the actual file line is commented
+  -- Check the actual file line against the file's comment map (`//` and `/* */` blocks)
   if file_path and line_number then
-    local file = io.open(file_path, "r")
-    if file then
-      local lines = {}
-      for line in file:lines() do
-        table.insert(lines, line)
-      end
-      file:close()
-
-      -- Check if the specific line starts with // comment
-      local actual_line = lines[line_number]
-      if actual_line then
-        local line_trimmed = actual_line:gsub("^%s+", "")
-        if line_trimmed:match "^//" then
-          return true -- This line is commented
-        end
-      end
-
-      -- Look backwards to see if we're inside a comment block
-      local in_comment_block = false
-      for i = math.max(1, line_number - 20), line_number do
-        if lines[i] then
-          local line = lines[i]:gsub("^%s+", "")
-          if line:match "^/%*" then
-            in_comment_block = true
-          elseif line:match "%*/%s*$" then
-            in_comment_block = false
-          elseif i == line_number and in_comment_block then
-            return true
-          end
-        end
-      end
-    end
-  else
-    -- Without file context, do basic check
-    return false
+    local comment_map = CommentMap.static.for_file(file_path)
+    return comment_map ~= nil and comment_map:is_commented(line_number)
   end
 
   return false
@@ -1,5 +1,6 @@
 local Parser = require "endpoint.core.Parser"
 local class = require "endpoint.lib.middleclass"
+local mount_graph_resolver = require "endpoint.resolver.mount_graph_resolver"
 
 ---@class endpoint.ExpressParser
 local ExpressParser = class("ExpressParser", Parser)
@@ -102,9 +103,14 @@ function ExpressParser:initialize()
 end
 
 ---Extracts base path from Express router file
-function ExpressParser:extract_base_path()
-  -- Express doesn't have base path concept like Spring/Symfony
-  return ""
+function ExpressParser:extract_base_path(file_path, _, content)
+  if not file_path then
+    return ""
+  end
+  -- Router the route is declared on (nil for destructured methods)
+  local router_name = content and content:match "([%w_$]+)%s*%.%s*%w+%s*[<(]"
+  -- Prefix the router is mounted at (app.use('/api', router)), from the scan's mount graph
+  return mount_graph_resolver.get_router_prefix("express", file_path, router_name) or ""
 end
 
 ---Extracts endpoint path from Express route content
@@ -1,5 +1,6 @@
 local Parser = require "endpoint.core.Parser"
 local class = require "endpoint.lib.middleclass"
+local mount_graph_resolver = require "endpoint.resolver.mount_graph_resolver"
 
 ---@class endpoint.FastApiParser
 local FastApiParser = class("FastApiParser", Parser)
@@ -18,7 +19,14 @@ function FastApiParser:initialize()
 end
 
 ---Extracts base path from FastAPI router file
-function FastApiParser:extract_base_path(file_path, line_number)
+function FastApiParser:extract_base_path(file_path, line_number, content)
+  -- Prefix of the router across include_router() calls and its own APIRouter(prefix=...), from the scan's graph
+  local router_name = content and content:match "@([%w_]+)%."
+  local mounted_prefix = file_path and mount_graph_resolver.get_router_prefix("fastapi", file_path, router_name)
+  if mounted_prefix then
+    return mounted_prefix
+  end
+
   -- Get router prefix from current file or infer from path
   local prefix = self:_find_router_prefix(file_path, line_number)
   if prefix and prefix ~= "" then
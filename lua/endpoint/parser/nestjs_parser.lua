@@ -1,5 +1,6 @@
 local Parser = require "endpoint.core.Parser"
 local class = require "endpoint.lib.middleclass"
+local mount_graph_resolver = require "endpoint.resolver.mount_graph_resolver"
 
 ---@class endpoint.NestJsParser
 local NestJsParser = class("NestJsParser", Parser)
@@ -19,7 +20,13 @@ end
 
 ---Extracts base path from NestJS controller file
 function NestJsParser:extract_base_path(file_path)
-  return self:_get_controller_path(file_path)
+  local controller_path = self:_get_controller_path(file_path)
+  -- During scans, the graph adds the setGlobalPrefix and RouterModule paths of the controller's module
+  local prefix = file_path and mount_graph_resolver.get_controller_prefix(file_path)
+  if prefix then
+    return self:combine_paths(prefix, controller_path)
+  end
+  return controller_path
 end
 
 ---Extracts endpoint path from NestJS decorator content
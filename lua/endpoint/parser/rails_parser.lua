@@ -1,5 +1,6 @@
 local Parser = require "endpoint.core.Parser"
 local class = require "endpoint.lib.middleclass"
+local rails_route_resolver = require "endpoint.resolver.rails_route_resolver"
 
 ---@class endpoint.RailsParser
 ---Rails-specific parser for route files and controller actions
@@ -452,7 +453,7 @@ function RailsParser:_process_resources_route(content, file_path, line_number, c
 
       if should_include then
         -- Find controller action
-        local controller_info = self:_find_controller_action(resource_name, crud.action)
+        local controller_info = self:_find_controller_action(resource_name, crud.action, namespace_prefix)
         local target_file = controller_info and controller_info.file_path or file_path
         local target_line = controller_info and controller_info.line_number or line_number
 
@@ -503,18 +504,13 @@ function RailsParser:_process_nested_routes(content, file_path, line_number, col
   end
 
   -- Only process truly nested resources (must be indented and inside a resources block)
-  if vim.fn.filereadable(file_path) == 0 then
+  local context = rails_route_resolver.get_route_context(file_path, line_number)
+  if not context or not context.line then
     return nil
   end
 
-  local read_file_path = vim.fn.readfile(file_path) or {}
-  if #read_file_path == 0 or line_number > #read_file_path then
-    return nil
-  end
-
-  local current_line = read_file_path[line_number]
   -- Must be indented to be truly nested
-  if not current_line:match "^%s%s+" then
+  if not context.line:match "^%s%s+" then
     return nil -- Not indented enough to be nested
   end
 
@@ -534,7 +530,7 @@ function RailsParser:_process_nested_routes(content, file_path, line_number, col
 
   -- Check for except clause
   local except_actions = {}
-  local except_clause = read_file_path:match "except:%s*%[([^%]]+)%]"
+  local except_clause = content:match "except:%s*%[([^%]]+)%]"
   if except_clause then
     for action in except_clause:gmatch ":([%w_]+)" do
       except_actions[action] = true
@@ -543,7 +539,7 @@ function RailsParser:_process_nested_routes(content, file_path, line_number, col
 
   -- Check for only clause
   local only_actions = {}
-  local only_clause = read_file_path:match "only:%s*%[([^%]]+)%]"
+  local only_clause = content:match "only:%s*%[([^%]]+)%]"
   if only_clause then
     for action in only_clause:gmatch ":([%w_]+)" do
       only_actions[action] = true
@@ -581,7 +577,7 @@ function RailsParser:_process_nested_routes(content, file_path, line_number, col
           resource_name = resource_name,
           parent_resource = parent_resource,
           action_name = crud.action,
-        }, read_file_path),
+        }, content),
       })
     end
   end
@@ -591,258 +587,41 @@ end
 
 ---Find namespace prefix for the current line
 function RailsParser:_find_namespace_prefix(file_path, line_number)
-  if vim.fn.filereadable(file_path) == 0 then
-    return ""
-  end
-
-  local content = vim.fn.readfile(file_path) or {}
-  if #content == 0 then
-    return ""
-  end
-
-  local namespaces = {}
-  local depth = 0
-
-  -- Search backwards from current line to find namespace blocks
-  for i = line_number - 1, 1, -1 do
-    local line = content[i]
-
-    -- Count 'end' statements (going backwards, so 'end' increases depth)
-    if line:match "^%s*end%s*$" then
-      depth = depth + 1
-    -- Found a 'do' block - check what type
-    elseif line:match "%s+do%s*$" then
-      if line:match "namespace%s+:([%w_]+)%s+do" then
-        -- This is a namespace block
-        local namespace_name = line:match "namespace%s+:([%w_]+)"
-        if depth == 0 then
-          -- This is an active namespace for our line
-          table.insert(namespaces, 1, namespace_name)
-        else
-          -- Deeper nested block, reduce depth and continue
-          depth = depth - 1
-        end
-      else
-        -- Other 'do' blocks (resources, member, collection, etc.)
-        depth = depth - 1
-      end
-    elseif line:match "Rails%.application%.routes%.draw" then
-      break
-    end
-  end
-
-  if #namespaces > 0 then
-    return "/" .. table.concat(namespaces, "/")
-  else
-    return ""
-  end
+  local context = rails_route_resolver.get_route_context(file_path, line_number)
+  return context and context.prefix or ""
 end
 
 ---Find the parent resource for a member/collection route
 function RailsParser:_find_parent_resource(file_path, line_number)
-  local file = io.open(file_path, "r")
-  if not file then
-    return nil
-  end
-
-  local content = {}
-  for line in file:lines() do
-    table.insert(content, line)
-  end
-  file:close()
-
-  if #content == 0 then
-    return nil
-  end
-
-  -- Track nesting depth to properly handle nested structures
-  local depth = 0
-
-  -- Search backwards from current line to find the parent resources block
-  for i = line_number - 1, 1, -1 do
-    local line = content[i]
-
-    -- Count 'end' statements (going backwards, so 'end' increases depth)
-    if line:match "^%s*end%s*$" then
-      depth = depth + 1
-    -- Found a 'do' block - check what type
-    elseif line:match "%s+do%s*$" then
-      -- Check if this is a resources block with 'do'
-      local resource_name = line:match "^%s*resources%s+:([%w_]+)%s+do"
-      if resource_name then
-        if depth == 0 then
-          -- This is the immediate parent resources block
-          return resource_name
-        else
-          -- Deeper nested block, reduce depth and continue
-          depth = depth - 1
-        end
-      else
-        -- Other 'do' blocks (member, collection, namespace, etc.)
-        if depth > 0 then
-          depth = depth - 1
-        end
-      end
-    -- Check for resources without 'do' (single line resources)
-    elseif depth == 0 then
-      local resource_name = line:match "^%s*resources%s+:([%w_]+)"
-      if resource_name and not line:match "except:" and not line:match "only:" then
-        -- Found a parent resources declaration
-        return resource_name
-      end
-    end
-
-    -- If we hit the start of routes, stop searching
-    if line:match "Rails%.application%.routes%.draw" then
-      break
-    end
-  end
-
-  return nil
+  local context = rails_route_resolver.get_route_context(file_path, line_number)
+  return context and context.parent_resource
 end
 
 ---Find the controller action implementation for a given action
-function RailsParser:_find_controller_action(resource_name, action_name)
-  -- Convert resource name to controller path
-  local controller_file = "app/controllers/" .. resource_name .. "_controller.rb"
-
-  -- Try different possible paths
-  local possible_paths = {
-    controller_file,
-    "tests/fixtures/rails/" .. controller_file,
-  }
-
-  local actual_file = nil
-  for _, path in ipairs(possible_paths) do
-    local file = io.open(path, "r")
-    if file then
-      file:close()
-      actual_file = path
-      break
-    end
-  end
-
-  if not actual_file then
-    return nil
-  end
-
-  local file = io.open(actual_file, "r")
-  if not file then
-    return nil
-  end
-
-  local content = {}
-  for line in file:lines() do
-    table.insert(content, line)
-  end
-  file:close()
-
-  if #content == 0 then
-    return nil
-  end
-
-  -- Search for the action definition
-  for i, line in ipairs(content) do
-    if line:match("def%s+" .. action_name .. "%s*$") or line:match("def%s+" .. action_name .. "%s*%(") then
-      -- Find the column where 'def' starts
-      local def_start = line:find "def"
-      return {
-        file_path = actual_file,
-        line_number = i,
-        column = def_start or 1,
-      }
+---@param namespace_prefix string|nil Routes namespace, e.g. "/api/v1"; falls back to the un-namespaced controller
+function RailsParser:_find_controller_action(resource_name, action_name, namespace_prefix)
+  if namespace_prefix and namespace_prefix ~= "" then
+    local controller_info =
+      rails_route_resolver.find_controller_action(namespace_prefix:sub(2) .. "/" .. resource_name, action_name)
+    if controller_info then
+      return controller_info
     end
   end
-
-  return nil
+  return rails_route_resolver.find_controller_action(resource_name, action_name)
 end
 
 ---Check if a method is in the private section of a Rails controller
 function RailsParser:_is_private_method(file_path, line_number)
-  if vim.fn.filereadable(file_path) == 0 then
-    return false
-  end
-
-  local content = vim.fn.readfile(file_path) or {}
-  if #content == 0 then
-    return false
-  end
-  local in_private = false
-
-  -- Search backwards from current line to find private keyword
-  for i = line_number - 1, 1, -1 do
-    local line = content[i]
-
-    -- Found private keyword
-    if line:match "^%s*private%s*$" then
-      in_private = true
-      break
-    end
-
-    -- If we hit another public method or class definition, stop
-    if line:match "^%s*def%s+[%w_]+" and not line:match "^%s*def%s+initialize" then
-      -- Check if there's a private keyword before this method
-      for j = i - 1, 1, -1 do
-        local prev_line = content[j]
-        if prev_line and prev_line:match "^%s*private%s*$" then
-          in_private = true
-          break
-        elseif prev_line and (prev_line:match "^%s*def%s+[%w_]+" or prev_line:match "^%s*class%s+") then
-          break
-        end
-      end
-      break
-    end
-
-    -- If we hit class definition, stop
-    if line:match "^%s*class%s+" then
-      break
-    end
-  end
-
-  return in_private
+  return rails_route_resolver.is_private_method(file_path, line_number)
 end
 
 ---Checks if the current line is within a member or collection block
 function RailsParser:_is_in_member_collection_context(file_path, line_number)
-  if not file_path or not line_number or vim.fn.filereadable(file_path) == 0 then
+  if not file_path or not line_number then
     return false
   end
-
-  local content = vim.fn.readfile(file_path) or {}
-  if #content == 0 or line_number > #content then
-    return false
-  end
-
-  -- Search backwards from current line to find member/collection context
-  local depth = 0
-  for i = line_number - 1, 1, -1 do
-    local line = content[i]
-
-    -- Count 'end' statements (going backwards, so 'end' increases depth)
-    if line:match "^%s*end%s*$" then
-      depth = depth + 1
-    -- Found a 'do' block - check what type
-    elseif line:match "%s+do%s*$" then
-      if line:match "member%s+do" or line:match "collection%s+do" then
-        -- This is a member/collection block
-        if depth == 0 then
-          -- We are directly inside this member/collection block
-          return true
-        else
-          -- Deeper nested block, reduce depth and continue
-          depth = depth - 1
-        end
-      else
-        -- Other 'do' blocks (resources, namespace, etc.)
-        depth = depth - 1
-      end
-    elseif line:match "Rails%.application%.routes%.draw" then
-      break
-    end
-  end
-
-  return false
+  local context = rails_route_resolver.get_route_context(file_path, line_number)
+  return context ~= nil and context.in_member_collection == true
 end
 
 ---Checks if content looks like Rails routing or controller code
@@ -868,75 +647,13 @@ end
 
 ---Checks if a controller has resources defined in routes.rb
 function RailsParser:_has_resources_defined(resource_name)
-  -- Find the routes.rb file
-  local routes_file = "config/routes.rb"
-  if vim.fn.filereadable(routes_file) == 0 then
-    routes_file = "tests/fixtures/rails/config/routes.rb"
-    if vim.fn.filereadable(routes_file) == 0 then
-      return false
-    end
-  end
-
-  local lines = vim.fn.readfile(routes_file) or {}
-
-  for _, line in ipairs(lines) do
-    -- Check for resources declarations for this resource
-    if line:match("resources%s+:" .. resource_name) or line:match("resource%s+:" .. resource_name) then
-      return true
-    end
-  end
-
-  return false
+  return rails_route_resolver.has_resource(resource_name)
 end
 
 ---Checks if an action is defined as a member route in routes.rb
 function RailsParser:_is_member_route(controller_name, action_name)
-  -- Find the routes.rb file
-  local routes_file = "config/routes.rb"
-  if vim.fn.filereadable(routes_file) == 0 then
-    routes_file = "tests/fixtures/rails/config/routes.rb"
-    if vim.fn.filereadable(routes_file) == 0 then
-      -- Default to collection route if routes.rb not found
-      return false
-    end
-  end
-
-  local lines = vim.fn.readfile(routes_file) or {}
-  local in_resources_block = false
-  local in_member_block = false
-  local in_collection_block = false
-  local resource_name = controller_name
-
-  for _, line in ipairs(lines) do
-    -- Check if we're entering the correct resources block
-    if line:match("resources%s+:" .. resource_name) then
-      in_resources_block = true
-    elseif in_resources_block and line:match "^%s*end%s*$" then
-      -- Exiting resources block
-      in_resources_block = false
-      in_member_block = false
-      in_collection_block = false
-    elseif in_resources_block then
-      -- Check for member/collection blocks
-      if line:match "member%s+do" then
-        in_member_block = true
-        in_collection_block = false
-      elseif line:match "collection%s+do" then
-        in_collection_block = true
-        in_member_block = false
-      elseif line:match "^%s*end%s*$" then
-        in_member_block = false
-        in_collection_block = false
-      elseif in_member_block and line:match(":" .. action_name) then
-        return true
-      elseif in_collection_block and line:match(":" .. action_name) then
-        return false
-      end
-    end
-  end
-
   -- Default to collection route if not found in member block
-  return false
+  return rails_route_resolver.is_member_action(controller_name, action_name)
 end
 
 return RailsParser
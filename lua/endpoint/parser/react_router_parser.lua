@@ -1,5 +1,6 @@
 local Parser = require "endpoint.core.Parser"
 local class = require "endpoint.lib.middleclass"
+local react_component_resolver = require "endpoint.resolver.react_component_resolver"
 
 ---@class endpoint.ReactRouterParser
 local ReactRouterParser = class("ReactRouterParser", Parser)
@@ -46,8 +47,13 @@ function ReactRouterParser:parse_content(content, file_path, line_number, column
     -- Extract component information
     local component_name = self:_extract_component_name(content)
     local component_file_path = nil
+    local component_line_number = nil
     if component_name then
-      component_file_path = self:_find_component_file(component_name)
+      component_file_path = self:_find_component_file(component_name, file_path)
+    end
+    if component_file_path then
+      -- Kept on the entry, so previews jump to the definition without reading the file again
+      component_line_number = react_component_resolver.find_component_line(component_file_path, component_name)
     end
 
     -- Add React Router-specific tags and metadata
@@ -59,6 +65,7 @@ function ReactRouterParser:parse_content(content, file_path, line_number, column
     }, content)
     endpoint.component_name = component_name
     endpoint.component_file_path = component_file_path
+    endpoint.component_line_number = component_line_number
   end
 
   return endpoint
@@ -167,92 +174,13 @@ function ReactRouterParser:_detect_route_type(content)
 end
 
 ---Finds component file with various resolution strategies
-function ReactRouterParser:_find_component_file(component_name)
+---@param routes_file_path string|nil File declaring the route, whose imports (including lazy import()) win
+function ReactRouterParser:_find_component_file(component_name, routes_file_path)
   if not component_name then
     return nil
   end
 
-  -- Common file extensions for React components
-  local extensions = { ".tsx", ".jsx", ".ts", ".js" }
-  -- Common directory patterns for React projects
-  local search_dirs = { "src", "app", "components", "pages" }
-
-  -- Strategy 1: Direct file search (e.g., Home.tsx, Home.jsx)
-  local function try_direct_file(dir, name)
-    for _, ext in ipairs(extensions) do
-      local file_path = dir and (dir .. "/" .. name .. ext) or (name .. ext)
-      local file = io.open(file_path, "r")
-      if file then
-        file:close()
-        return file_path
-      end
-    end
-    return nil
-  end
-
-  -- Strategy 2: Index file search (e.g., Home/index.tsx)
-  local function try_index_file(dir, name)
-    for _, ext in ipairs(extensions) do
-      local file_path = dir and (dir .. "/" .. name .. "/index" .. ext) or (name .. "/index" .. ext)
-      local file = io.open(file_path, "r")
-      if file then
-        file:close()
-        return file_path
-      end
-    end
-    return nil
-  end
-
-  -- Strategy 3: Recursive search in common directories
-  local function try_recursive_search(name)
-    for _, search_dir in ipairs(search_dirs) do
-      local dir_file = io.open(search_dir, "r")
-      if dir_file then
-        dir_file:close()
-
-        -- Try direct file in search directory
-        local direct = try_direct_file(search_dir, name)
-        if direct then
-          return direct
-        end
-
-        -- Try index file in search directory
-        local index = try_index_file(search_dir, name)
-        if index then
-          return index
-        end
-
-        -- Try nested search (e.g., src/components/Home.tsx)
-        local nested_dirs = { "components", "pages", "views", "containers" }
-        for _, nested in ipairs(nested_dirs) do
-          local nested_direct = try_direct_file(search_dir .. "/" .. nested, name)
-          if nested_direct then
-            return nested_direct
-          end
-
-          local nested_index = try_index_file(search_dir .. "/" .. nested, name)
-          if nested_index then
-            return nested_index
-          end
-        end
-      end
-    end
-    return nil
-  end
-
-  -- Try current directory first
-  local current_direct = try_direct_file(nil, component_name)
-  if current_direct then
-    return current_direct
-  end
-
-  local current_index = try_index_file(nil, component_name)
-  if current_index then
-    return current_index
-  end
-
-  -- Try recursive search
-  return try_recursive_search(component_name)
+  return react_component_resolver.find_component_file(component_name, routes_file_path)
 end
 
 return ReactRouterParser
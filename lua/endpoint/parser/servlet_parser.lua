@@ -1,5 +1,7 @@
 local Parser = require "endpoint.core.Parser"
 local class = require "endpoint.lib.middleclass"
+local SourcePass = require "endpoint.core.SourcePass"
+local web_xml_resolver = require "endpoint.resolver.web_xml_resolver"
 
 ---@class endpoint.ServletParser
 local ServletParser = class("ServletParser", Parser)
@@ -349,20 +351,12 @@ function ServletParser:_detect_servlet_type(content)
   end
 end
 
----Checks if file has web.xml mapping
+---Checks if the project has a web.xml or web-fragment.xml
 function ServletParser:_has_web_xml_mapping()
-  local web_xml_paths = { "WEB-INF/web.xml", "web.xml", "src/main/webapp/WEB-INF/web.xml" }
-  for _, web_xml_path in ipairs(web_xml_paths) do
-    local file = io.open(web_xml_path, "r")
-    if file then
-      file:close()
-      return true
-    end
-  end
-  return false
+  return web_xml_resolver.has_descriptors()
 end
 
----Finds servlet mapping path for a Java servlet file
+---Finds servlet mapping paths for a Java servlet file in the project's web.xml index
 ---@param java_file_path string
 ---@return string[]|nil
 function ServletParser:_find_servlet_mapping_for_file(java_file_path)
@@ -372,67 +366,16 @@ function ServletParser:_find_servlet_mapping_for_file(java_file_path)
     return nil
   end
 
-  -- Look for web.xml file with multiple path strategies
-  local web_xml_paths = {
-    "WEB-INF/web.xml",
-    "web.xml",
-    "src/main/webapp/WEB-INF/web.xml",
-    "tests/fixtures/servlet/WEB-INF/web.xml",
-  }
-
-  -- Safely add getcwd paths if vim is available
-  local ok, cwd = pcall(function()
-    return vim.fn.getcwd()
-  end)
-  if ok and cwd then
-    table.insert(web_xml_paths, cwd .. "/WEB-INF/web.xml")
-    table.insert(web_xml_paths, cwd .. "/tests/fixtures/servlet/WEB-INF/web.xml")
-  end
-
-  local web_xml_content = nil
-
-  for _, web_xml_path in ipairs(web_xml_paths) do
-    local file = io.open(web_xml_path, "r")
-    if not file then
-      file = io.open("./" .. web_xml_path, "r")
-    end
-    if file then
-      web_xml_content = file:read "*all"
-      file:close()
-      break
-    end
-  end
-
-  if not web_xml_content then
-    return nil
-  end
-
-  -- Find servlet-class that matches this file exactly
-  local servlet_name = nil
-  for servlet_block in web_xml_content:gmatch "<servlet>(.-)</servlet>" do
-    local servlet_class = servlet_block:match "<servlet%-class>([^<]+)</servlet%-class>"
-    if servlet_class and servlet_class:match("%." .. class_name .. "$") then
-      servlet_name = servlet_block:match "<servlet%-name>([^<]+)</servlet%-name>"
+  -- Mappings are by fully qualified class; without a package declaration match the simple name
+  local package_name = nil
+  for _, line in ipairs(SourcePass.static.read_lines(java_file_path) or {}) do
+    package_name = line:match "^%s*package%s+([%w_.]+)%s*;"
+    if package_name or line:match "^%s*public%s" or line:match "^%s*class%s" then
       break
     end
   end
 
-  if not servlet_name then
-    return nil
-  end
-
-  -- Find all servlet-mappings for this servlet-name
-  local url_patterns = {}
-  for mapping_block in web_xml_content:gmatch "<servlet%-mapping>(.-)</servlet%-mapping>" do
-    if mapping_block:match("<servlet%-name>" .. servlet_name .. "</servlet%-name>") then
-      local url_pattern = mapping_block:match "<url%-pattern>([^<]+)</url%-pattern>"
-      if url_pattern then
-        table.insert(url_patterns, url_pattern)
-      end
-    end
-  end
-
-  return #url_patterns > 0 and url_patterns or nil
+  return web_xml_resolver.get_url_patterns(package_name and (package_name .. "." .. class_name) or class_name)
 end
 
 ---Finds @WebServlet annotation paths for a Java servlet file
@@ -453,22 +396,15 @@ function ServletParser:_find_webservlet_annotation_paths_for_file(java_file_path
     table.insert(paths_to_try, cwd .. "/" .. java_file_path)
   end
 
-  local file = nil
+  -- Files read by the scan's source pass are not read again
   for _, path in ipairs(paths_to_try) do
-    file = io.open(path, "r")
-    if file then
-      break
+    local lines = SourcePass.static.read_lines(path)
+    if lines then
+      return self:_extract_webservlet_paths(table.concat(lines, "\n"))
     end
   end
 
-  if not file then
-    return nil
-  end
-
-  local content = file:read "*all"
-  file:close()
-
-  return self:_extract_webservlet_paths(content)
+  return nil
 end
 
 ---Extracts servlet class path from XML content
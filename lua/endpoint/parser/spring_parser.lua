@@ -1,6 +1,7 @@
 local Parser = require "endpoint.core.Parser"
 local class = require "endpoint.lib.middleclass"
 local java_constant_resolver = require "endpoint.resolver.java_constant_resolver"
+local SourcePass = require "endpoint.core.SourcePass"
 
 ---@class endpoint.SpringParser
 local SpringParser = class("SpringParser", Parser)
@@ -20,7 +21,7 @@ end
 
 ---Extracts base path from Spring controller file
 function SpringParser:extract_base_path(file_path, line_number)
-  local lines = self:_read_file_lines(file_path, line_number)
+  local lines = self:_read_file_lines(file_path)
   if not lines then
     return ""
   end
@@ -236,25 +237,9 @@ end
 -- PRIVATE METHODS
 -- ========================================
 
----Reads file lines up to specified line number
-function SpringParser:_read_file_lines(file_path, line_number)
-  local file = io.open(file_path, "r")
-  if not file then
-    return nil
-  end
-
-  local lines = {}
-  local current_line = 1
-  for line in file:lines() do
-    table.insert(lines, line)
-    if current_line >= line_number then
-      break
-    end
-    current_line = current_line + 1
-  end
-  file:close()
-
-  return lines
+---Reads file lines; files read by the scan's source pass are not read again
+function SpringParser:_read_file_lines(file_path)
+  return SourcePass.static.read_lines(file_path)
 end
 
 ---Finds class-level @RequestMapping annotation
@@ -518,19 +503,11 @@ function SpringParser:_get_extended_annotation_content(file_path, start_line)
     return nil, nil, nil
   end
 
-  local file = io.open(file_path, "r")
-  if not file then
+  local lines = SourcePass.static.read_lines(file_path)
+  if not lines then
     return nil, nil, nil
   end
 
-  local lines = {}
-  local current_line = 1
-  for line in file:lines() do
-    table.insert(lines, line)
-    current_line = current_line + 1
-  end
-  file:close()
-
   if start_line > #lines then
     return nil, nil, nil
   end
@@ -0,0 +1,451 @@
+local Picker = require "endpoint.core.Picker"
+local Highlighter = require "endpoint.core.Highlighter"
+local Themes = require "endpoint.core.Themes"
+local class = require "endpoint.lib.middleclass"
+
+---Built-in floating window picker for large endpoint sets
+---Only the visible rows are rendered, and typing filters through an index of path segments instead of
+---matching every endpoint's text.
+---@class endpoint.FloatPicker
+local FloatPicker = class("FloatPicker", Picker)
+
+-- Characters separating the segments endpoints are indexed by (and queries are split on)
+local SEGMENT_PATTERN = "[^%s/%.#:,;=&%?%(%)%[%]{}<>\"'`]+"
+
+---Creates a new FloatPicker instance
+function FloatPicker:initialize()
+  Picker.initialize(self, {
+    name = "float",
+    themes = Themes:new(),
+    highlighter = Highlighter:new "endpoint_float_highlight",
+  })
+  -- Segment index by endpoint list, so reopening with cached endpoints skips indexing
+  self._index_cache = setmetatable({}, { __mode = "k" })
+  self._state = nil
+end
+
+---Always available (no dependencies)
+function FloatPicker:is_available()
+  return true
+end
+
+---Endpoints can be appended while the picker is open
+function FloatPicker:supports_streaming()
+  return true
+end
+
+---Creates an empty segment index
+local function new_index()
+  return { segments = {}, segment_list = {}, count = 0 }
+end
+
+---Adds endpoints to a segment index (ordinal, i.e. path/method/action, plus the file name)
+---@param index table
+---@param endpoints endpoint.entry[]
+---@param first_index integer Index of endpoints[1] in the picker's list
+function FloatPicker:_index_endpoints(index, endpoints, first_index)
+  local config = require("endpoint.config").get()
+
+  for offset, endpoint in ipairs(endpoints) do
+    local endpoint_index = first_index + offset - 1
+    local text = self:_get_entry_display(endpoint, config).ordinal
+    if endpoint.file_path then
+      text = text .. " " .. vim.fn.fnamemodify(endpoint.file_path, ":t")
+    end
+
+    for segment in text:lower():gmatch(SEGMENT_PATTERN) do
+      local postings = index.segments[segment]
+      if not postings then
+        postings = {}
+        index.segments[segment] = postings
+        table.insert(index.segment_list, segment)
+      end
+      -- Indices only grow, so a repeated segment of the same endpoint is the last posting
+      if postings[#postings] ~= endpoint_index then
+        table.insert(postings, endpoint_index)
+      end
+    end
+  end
+
+  index.count = math.max(index.count, first_index + #endpoints - 1)
+end
+
+---Gets the segment index of an endpoint list, building it on first use
+function FloatPicker:_get_index(endpoints)
+  local index = self._index_cache[endpoints]
+  if not index then
+    index = new_index()
+    self:_index_endpoints(index, endpoints, 1)
+    self._index_cache[endpoints] = index
+  end
+  return index
+end
+
+---Matches a query against the index
+---Every query term must be contained in a segment of the endpoint. Matches keep the list order.
+---@param index table
+---@param query string
+---@param candidates integer[]|nil Only consider these endpoint indices (e.g. the matches of a shorter query)
+---@return integer[] matches Endpoint indices
+function FloatPicker:_match(index, query, candidates)
+  local result = candidates
+  for term in query:lower():gmatch(SEGMENT_PATTERN) do
+    local hits = {}
+    for _, segment in ipairs(index.segment_list) do
+      if segment:find(term, 1, true) then
+        for _, endpoint_index in ipairs(index.segments[segment]) do
+          hits[endpoint_index] = true
+        end
+      end
+    end
+
+    local filtered = {}
+    if result then
+      for _, endpoint_index in ipairs(result) do
+        if hits[endpoint_index] then
+          table.insert(filtered, endpoint_index)
+        end
+      end
+    else
+      for endpoint_index = 1, index.count do
+        if hits[endpoint_index] then
+          table.insert(filtered, endpoint_index)
+        end
+      end
+    end
+
+    result = filtered
+    if #result == 0 then
+      break
+    end
+  end
+
+  if result then
+    return result
+  end
+
+  local all = {}
+  for endpoint_index = 1, index.count do
+    all[endpoint_index] = endpoint_index
+  end
+  return all
+end
+
+---Show endpoints in the floating picker
+function FloatPicker:show(endpoints, opts)
+  if not self:_validate_endpoints(endpoints) then
+    return
+  end
+
+  self:_open(endpoints, self:_get_index(endpoints), opts)
+end
+
+---Open an empty picker that endpoints are streamed into with append()
+function FloatPicker:show_stream(opts)
+  self:_open({}, new_index(), opts)
+end
+
+---Add streamed endpoints, matching only them against the current query
+function FloatPicker:append(endpoints)
+  local state = self._state
+  if not self:_is_open() then
+    return false
+  end
+
+  local first_index = #state.endpoints + 1
+  vim.list_extend(state.endpoints, endpoints)
+  self:_index_endpoints(state.index, endpoints, first_index)
+
+  local new_indices = {}
+  for endpoint_index = first_index, #state.endpoints do
+    table.insert(new_indices, endpoint_index)
+  end
+  vim.list_extend(state.matches, self:_match(state.index, state.query, new_indices))
+
+  self:_schedule_refresh(function()
+    if self:_is_open() then
+      self:_render()
+    end
+  end)
+  return true
+end
+
+---Replace the endpoints of the open picker, keeping the query
+function FloatPicker:update(endpoints)
+  local state = self._state
+  if not self:_is_open() then
+    return false
+  end
+
+  state.endpoints = endpoints
+  state.index = self:_get_index(endpoints)
+  state.matches = self:_match(state.index, state.query)
+  state.selected = math.max(1, math.min(state.selected, #state.matches))
+  self:_render()
+  return true
+end
+
+---Check if the picker is open
+function FloatPicker:_is_open()
+  local state = self._state
+  return state ~= nil and vim.api.nvim_win_is_valid(state.results_win) and vim.api.nvim_win_is_valid(state.prompt_win)
+end
+
+---Close the picker windows
+function FloatPicker:close()
+  local state = self._state
+  if not state then
+    return
+  end
+  self._state = nil
+
+  pcall(vim.api.nvim_del_augroup_by_id, state.augroup)
+  for _, winid in ipairs { state.prompt_win, state.results_win } do
+    if vim.api.nvim_win_is_valid(winid) then
+      vim.api.nvim_win_close(winid, true)
+    end
+  end
+  vim.cmd "stopinsert"
+end
+
+---Resolve a size option: fractions are relative to the editor size
+local function resolve_size(value, total)
+  if value <= 1 then
+    return math.max(1, math.floor(total * value))
+  end
+  return math.min(value, total)
+end
+
+---Create the results and prompt windows
+function FloatPicker:_open(endpoints, index, opts)
+  self:close()
+
+  local config = require("endpoint.config").get()
+  local options = vim.tbl_deep_extend("force", config.picker.options.float or {}, opts or {})
+
+  local width = resolve_size(options.width or 0.8, vim.o.columns - 4)
+  local height = resolve_size(options.height or 0.6, vim.o.lines - 6)
+  local row = math.floor((vim.o.lines - height - 3) / 2)
+  local col = math.floor((vim.o.columns - width) / 2)
+  local border = options.border or "rounded"
+
+  local results_buf = vim.api.nvim_create_buf(false, true)
+  local prompt_buf = vim.api.nvim_create_buf(false, true)
+  vim.bo[results_buf].bufhidden = "wipe"
+  vim.bo[prompt_buf].bufhidden = "wipe"
+
+  local results_config = {
+    relative = "editor",
+    row = row,
+    col = col,
+    width = width,
+    height = height,
+    style = "minimal",
+    border = border,
+    focusable = false,
+  }
+  local prompt_config = {
+    relative = "editor",
+    row = row + height + 2,
+    col = col,
+    width = width,
+    height = 1,
+    style = "minimal",
+    border = border,
+  }
+  if vim.fn.has "nvim-0.9" == 1 then
+    results_config.title = " Endpoints "
+    prompt_config.title = " " .. (options.prompt or "Search") .. " "
+  end
+
+  local results_win = vim.api.nvim_open_win(results_buf, false, results_config)
+  local prompt_win = vim.api.nvim_open_win(prompt_buf, true, prompt_config)
+  vim.wo[results_win].cursorline = false
+  vim.wo[results_win].wrap = false
+
+  self._state = {
+    endpoints = endpoints,
+    index = index,
+    query = "",
+    matches = self:_match(index, ""),
+    selected = 1,
+    top = 1,
+    results_buf = results_buf,
+    results_win = results_win,
+    prompt_buf = prompt_buf,
+    prompt_win = prompt_win,
+    augroup = vim.api.nvim_create_augroup("EndpointFloatPicker", { clear = true }),
+  }
+
+  self:_attach(self._state)
+  self:_render()
+  vim.cmd "startinsert"
+end
+
+---Attach prompt autocommands and key mappings
+function FloatPicker:_attach(state)
+  vim.api.nvim_create_autocmd({ "TextChanged", "TextChangedI" }, {
+    group = state.augroup,
+    buffer = state.prompt_buf,
+    callback = function()
+      self:_on_query_changed()
+    end,
+  })
+  vim.api.nvim_create_autocmd({ "WinLeave", "BufLeave" }, {
+    group = state.augroup,
+    buffer = state.prompt_buf,
+    callback = function()
+      -- Windows cannot be closed while leaving them
+      vim.schedule(function()
+        if self._state == state then
+          self:close()
+        end
+      end)
+    end,
+  })
+
+  local function map(modes, lhs, action)
+    vim.keymap.set(modes, lhs, action, { buffer = state.prompt_buf, nowait = true, silent = true })
+  end
+
+  map({ "i", "n" }, "<CR>", function()
+    self:_select()
+  end)
+  map({ "i", "n" }, "<C-c>", function()
+    self:close()
+  end)
+  map({ "i", "n" }, "<Esc>", function()
+    self:close()
+  end)
+  map("n", "q", function()
+    self:close()
+  end)
+  map({ "i", "n" }, "<Down>", function()
+    self:_move(1)
+  end)
+  map({ "i", "n" }, "<C-n>", function()
+    self:_move(1)
+  end)
+  map({ "i", "n" }, "<C-j>", function()
+    self:_move(1)
+  end)
+  map({ "i", "n" }, "<Up>", function()
+    self:_move(-1)
+  end)
+  map({ "i", "n" }, "<C-p>", function()
+    self:_move(-1)
+  end)
+  map({ "i", "n" }, "<C-k>", function()
+    self:_move(-1)
+  end)
+  map({ "i", "n" }, "<C-d>", function()
+    self:_move(math.max(1, math.floor(vim.api.nvim_win_get_height(state.results_win) / 2)))
+  end)
+  map({ "i", "n" }, "<C-u>", function()
+    self:_move(-math.max(1, math.floor(vim.api.nvim_win_get_height(state.results_win) / 2)))
+  end)
+end
+
+---Refilter after the query changed; a longer query only narrows the previous matches
+function FloatPicker:_on_query_changed()
+  local state = self._state
+  if not self:_is_open() then
+    return
+  end
+
+  local query = vim.api.nvim_buf_get_lines(state.prompt_buf, 0, 1, false)[1] or ""
+  if query == state.query then
+    return
+  end
+
+  local candidates = vim.startswith(query, state.query) and state.matches or nil
+  state.matches = self:_match(state.index, query, candidates)
+  state.query = query
+  state.selected = 1
+  state.top = 1
+  self:_render()
+end
+
+---Move the selection
+function FloatPicker:_move(delta)
+  local state = self._state
+  if not self:_is_open() or #state.matches == 0 then
+    return
+  end
+
+  state.selected = math.max(1, math.min(#state.matches, state.selected + delta))
+  self:_render()
+end
+
+---Navigate to the selected endpoint
+function FloatPicker:_select()
+  local state = self._state
+  if not self:_is_open() then
+    return
+  end
+
+  local endpoint_index = state.matches[state.selected]
+  local endpoint = endpoint_index and state.endpoints[endpoint_index]
+  self:close()
+
+  if endpoint then
+    self:_navigate_to_endpoint(endpoint)
+  end
+end
+
+---Render the visible rows only
+function FloatPicker:_render()
+  local state = self._state
+  local config = require("endpoint.config").get()
+  local height = vim.api.nvim_win_get_height(state.results_win)
+
+  -- Scroll so the selection stays visible
+  if state.selected < state.top then
+    state.top = state.selected
+  elseif state.selected >= state.top + height then
+    state.top = state.selected - height + 1
+  end
+
+  local lines = {}
+  local displays = {}
+  for row = 1, height do
+    local endpoint_index = state.matches[state.top + row - 1]
+    if not endpoint_index then
+      break
+    end
+    local display = self:_get_entry_display(state.endpoints[endpoint_index], config)
+    lines[row] = display.text
+    displays[row] = display
+  end
+
+  vim.bo[state.results_buf].modifiable = true
+  vim.api.nvim_buf_set_lines(state.results_buf, 0, -1, false, lines)
+  vim.bo[state.results_buf].modifiable = false
+
+  local namespace = self.highlighter.highlight_ns
+  self.highlighter:clear_highlights(state.results_buf)
+  self.highlighter:clear_highlights(state.prompt_buf)
+
+  for row, display in ipairs(displays) do
+    if row == state.selected - state.top + 1 then
+      vim.api.nvim_buf_set_extmark(state.results_buf, namespace, row - 1, 0, {
+        line_hl_group = "Visual",
+        priority = 100,
+      })
+    end
+    if display.highlight_length > 0 then
+      vim.api.nvim_buf_set_extmark(state.results_buf, namespace, row - 1, 0, {
+        end_col = math.min(display.highlight_length, #display.text),
+        hl_group = display.method_color,
+        priority = 200,
+      })
+    end
+  end
+
+  vim.api.nvim_buf_set_extmark(state.prompt_buf, namespace, 0, 0, {
+    virt_text = { { string.format("%d/%d", #state.matches, #state.endpoints), "Comment" } },
+    virt_text_pos = "right_align",
+  })
+end
+
+return FloatPicker
@@ -43,49 +43,106 @@ function SnacksPicker:show(endpoints, opts)
   end
 
   local config = self:_create_picker_config(items, opts)
-  snacks.picker.pick(config)
+  self._open_picker = snacks.picker.pick(config)
+end
+
+---Open an empty picker that endpoints are streamed into with append()
+function SnacksPicker:show_stream(opts)
+  if not self:is_available() then
+    vim.notify("Snacks is not available", vim.log.levels.ERROR)
+    return
+  end
+
+  local snacks = require "snacks"
+  self._open_picker = snacks.picker.pick(self:_create_picker_config({}, opts or {}))
+end
+
+---Check if Snacks streaming is possible
+function SnacksPicker:supports_streaming()
+  return self:is_available()
+end
+
+---Check if the picker opened by show()/show_stream() is still open
+function SnacksPicker:_is_open()
+  return self._open_picker ~= nil and not self._open_picker.closed
+end
+
+---Add streamed endpoints; the matcher re-runs on the grown item list in batches
+function SnacksPicker:append(endpoints)
+  if not self:_is_open() then
+    return false
+  end
+
+  vim.list_extend(self._open_picker.opts.items, self:_create_items(endpoints))
+
+  self:_schedule_refresh(function()
+    if self:_is_open() then
+      self._open_picker:find { refresh = true }
+    end
+  end)
+  return true
+end
+
+---Replace the items of the open picker, keeping the prompt
+function SnacksPicker:update(endpoints)
+  if not self:_is_open() then
+    return false
+  end
+
+  self._open_picker.opts.items = self:_create_items(endpoints)
+  self._open_picker:find { refresh = true }
+  return true
+end
+
+---Close the open picker
+function SnacksPicker:close()
+  if self:_is_open() then
+    self._open_picker:close()
+  end
 end
 
 ---Create picker items from endpoints
 function SnacksPicker:_create_items(endpoints)
+  local config = require("endpoint.config").get()
+  -- Lines of each file, read once for all endpoints it contains
+  local file_lines = {}
+
   local items = {}
   for _, endpoint in ipairs(endpoints) do
-    local item = self:_create_item(endpoint)
+    local item = self:_create_item(endpoint, config, file_lines)
     table.insert(items, item)
   end
   return items
 end
 
 ---Create a single picker item from an endpoint
-function SnacksPicker:_create_item(endpoint)
-  local config_module = require "endpoint.config"
-  local config = config_module.get()
-
-  -- Use common theme formatting from base Picker
-  local display_text = self:_format_endpoint_with_theme(endpoint, config)
-
-  -- Get theme data for highlighting in the picker list
-  local method_icon = self.themes:get_method_icon(endpoint.method, config)
-  local method_text = self.themes:get_method_text(endpoint.method, config)
-  local method_color = self.themes:get_method_color(endpoint.method, config)
+function SnacksPicker:_create_item(endpoint, config, file_lines)
+  config = config or require("endpoint.config").get()
 
-  -- Calculate highlight length for method part
-  local highlight_length = self.highlighter:calculate_highlight_length(endpoint, method_icon, method_text)
+  -- Precomputed by the base Picker (cached with the endpoint)
+  local entry_display = self:_get_entry_display(endpoint, config)
+  local method_color = entry_display.method_color
+  local highlight_length = entry_display.highlight_length
 
   -- Validate positions against actual file
-  local validated_pos = self:_validate_position(endpoint)
+  local validated_pos = self:_validate_position(endpoint, file_lines)
 
   -- Get preview title format from config
   local preview_title_format = config.picker.options.snacks.preview_title_format or "filename"
   local title = self:_format_preview_title(endpoint.file_path, preview_title_format)
 
   local item = {
-    text = display_text,
+    text = entry_display.text,
     value = endpoint,
     file = endpoint.file_path,
     pos = validated_pos.start_pos,
     title = title,
   }
+  -- Diff entries found at a git revision preview and open that revision of their file
+  if endpoint.revision then
+    item.buf = self:_get_revision_buffer(endpoint)
+    item.file = not item.buf and item.file or nil
+  end
 
   -- Add end position for highlighting
   item.end_pos = validated_pos.end_pos
@@ -102,7 +159,7 @@ function SnacksPicker:_create_item(endpoint)
 end
 
 ---Validate position against actual file to prevent out-of-bounds errors
-function SnacksPicker:_validate_position(endpoint)
+function SnacksPicker:_validate_position(endpoint, file_lines)
   local default_result = {
     start_pos = { endpoint.line_number, math.max(0, endpoint.column - 1) },
     end_pos = { endpoint.line_number, math.max(0, endpoint.column - 1 + 10) },
@@ -112,16 +169,19 @@ function SnacksPicker:_validate_position(endpoint)
     return default_result
   end
 
-  local file = io.open(endpoint.file_path, "r")
-  if not file then
-    return default_result
+  local lines = file_lines and file_lines[endpoint.file_path]
+  if endpoint.revision then
+    local bufnr = self:_get_revision_buffer(endpoint)
+    lines = bufnr and vim.api.nvim_buf_get_lines(bufnr, 0, -1, false) or false
+  elseif lines == nil then
+    lines = self:_read_lines(endpoint.file_path)
+    if file_lines then
+      file_lines[endpoint.file_path] = lines
+    end
   end
-
-  local lines = {}
-  for line in file:lines() do
-    table.insert(lines, line)
+  if not lines then
+    return default_result
   end
-  file:close()
 
   local total_lines = #lines
   if total_lines == 0 then
@@ -162,6 +222,21 @@ function SnacksPicker:_validate_position(endpoint)
   }
 end
 
+---Read the lines of a file, false if it cannot be opened
+function SnacksPicker:_read_lines(file_path)
+  local file = io.open(file_path, "r")
+  if not file then
+    return false
+  end
+
+  local lines = {}
+  for line in file:lines() do
+    table.insert(lines, line)
+  end
+  file:close()
+  return lines
+end
+
 ---Calculate end column for highlighting by reading actual file
 function SnacksPicker:_calculate_end_column(endpoint)
   local default_end_col = endpoint.column - 1 + 10 -- Default to 10 chars
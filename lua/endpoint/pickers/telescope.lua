@@ -1,5 +1,6 @@
 local Picker = require "endpoint.core.Picker"
 local Highlighter = require "endpoint.core.Highlighter"
+local PreviewCache = require "endpoint.core.PreviewCache"
 local Themes = require "endpoint.core.Themes"
 local class = require "endpoint.lib.middleclass"
 
@@ -13,6 +14,7 @@ function TelescopePicker:initialize()
     themes = Themes:new(),
     telescope_available = pcall(require, "telescope"),
     highlighter = Highlighter:new "endpoint_telescope_highlight",
+    preview_cache = PreviewCache:new(),
   })
 end
 
@@ -32,59 +34,160 @@ function TelescopePicker:show(endpoints, opts)
     return
   end
 
+  self._stream_finder = nil
+  self:_open(self:_create_finder(endpoints), opts)
+end
+
+---Open an empty picker that endpoints are streamed into with append()
+function TelescopePicker:show_stream(opts)
+  if not self:is_available() then
+    vim.notify("Telescope is not available", vim.log.levels.ERROR)
+    return
+  end
+
+  self._stream_finder = self:_create_stream_finder()
+  self:_open(self._stream_finder, opts)
+end
+
+---Create and open the Telescope picker
+function TelescopePicker:_open(finder, opts)
   local pickers = require "telescope.pickers"
-  local finders = require "telescope.finders"
   local conf = require("telescope.config").values
   local actions = require "telescope.actions"
   local action_state = require "telescope.actions.state"
-  local config_module = require "endpoint.config"
 
   opts = opts or {}
-  local config = config_module.get()
 
-  pickers
-    .new(opts, {
-      prompt_title = "Endpoints",
-      finder = finders.new_table {
-        results = endpoints,
-        entry_maker = function(entry)
-          return self:_create_entry(entry, config)
-        end,
-      },
-      sorter = conf.generic_sorter(opts),
-      previewer = self:_create_previewer(),
-      attach_mappings = function(prompt_bufnr)
-        return self:_attach_mappings(prompt_bufnr, actions, action_state)
-      end,
-    })
-    :find()
+  local picker = pickers.new(opts, {
+    prompt_title = "Endpoints",
+    finder = finder,
+    sorter = conf.generic_sorter(opts),
+    previewer = self:_create_previewer(),
+    attach_mappings = function(prompt_bufnr)
+      return self:_attach_mappings(prompt_bufnr, actions, action_state)
+    end,
+  })
+  self._open_picker = picker
+  picker:find()
 end
 
----Create telescope entry for an endpoint
-function TelescopePicker:_create_entry(entry, config)
-  -- Use common theme formatting from base Picker
-  local display_text = self:_format_endpoint_with_theme(entry, config)
+---Create the table finder for endpoints
+function TelescopePicker:_create_finder(endpoints)
+  local finders = require "telescope.finders"
+  local config = require("endpoint.config").get()
+
+  return finders.new_table {
+    results = endpoints,
+    entry_maker = function(entry)
+      return self:_create_entry(entry, config)
+    end,
+  }
+end
+
+---Create the finder append() pushes streamed entries to, in the manner of Telescope's async_oneshot finder
+---Each find (one per prompt change) goes over the entries appended so far, and entries appended while it is the
+---current find are handed to its result processor, which scores them against its prompt. A batch thus only
+---adds its own entries, and filtering by the prompt keeps working while the scan runs.
+function TelescopePicker:_create_stream_finder()
+  local finder = { results = {} }
+
+  function finder:push(entries)
+    for _, entry in ipairs(entries) do
+      table.insert(self.results, entry)
+      -- true once a newer find (prompt change) replaced this one, which goes over the results itself
+      if self._process_result and self._process_result(entry) then
+        self._process_result = nil
+      end
+    end
+  end
+
+  function finder:complete()
+    if self._process_result and self._process_complete then
+      self._process_complete()
+    end
+  end
+
+  function finder:close()
+    self._process_result = nil
+    self._process_complete = nil
+  end
+
+  return setmetatable(finder, {
+    __call = function(_, _, process_result, process_complete)
+      finder._process_result = process_result
+      finder._process_complete = process_complete
+      for _, entry in ipairs(finder.results) do
+        if process_result(entry) then
+          finder._process_result = nil
+          return
+        end
+      end
+      process_complete()
+    end,
+  })
+end
+
+---Check if Telescope streaming is possible
+function TelescopePicker:supports_streaming()
+  return self:is_available()
+end
+
+---Check if the picker opened by show()/show_stream() is still open
+function TelescopePicker:_is_open()
+  local picker = self._open_picker
+  return picker ~= nil and picker.prompt_bufnr ~= nil and vim.api.nvim_buf_is_valid(picker.prompt_bufnr)
+end
+
+---Add streamed endpoints; they are scored against the prompt as they come, and the status and selection
+---are updated in batches
+function TelescopePicker:append(endpoints)
+  local finder = self._stream_finder
+  if not finder or not self:_is_open() then
+    return false
+  end
+
+  local config = require("endpoint.config").get()
+  finder:push(vim.tbl_map(function(endpoint)
+    return self:_create_entry(endpoint, config)
+  end, endpoints))
+
+  self:_schedule_refresh(function()
+    if self._stream_finder == finder and self:_is_open() then
+      finder:complete()
+    end
+  end)
+  return true
+end
 
-  -- Get theme data for telescope-specific highlighting
-  local method_icon = self.themes:get_method_icon(entry.method, config)
-  local method_text = self.themes:get_method_text(entry.method, config)
-  local method_color = self.themes:get_method_color(entry.method, config)
+---Replace the results of the open picker, keeping the prompt
+function TelescopePicker:update(endpoints)
+  if not self:_is_open() then
+    return false
+  end
+
+  self._stream_finder = nil
+  self._open_picker:refresh(self:_create_finder(endpoints), { reset_prompt = false })
+  return true
+end
+
+---Close the open picker
+function TelescopePicker:close()
+  if self:_is_open() then
+    require("telescope.actions").close(self._open_picker.prompt_bufnr)
+  end
+end
 
-  -- Calculate highlight length for Rails controller#action annotations
-  local highlight_length = self.highlighter:calculate_highlight_length(entry, method_icon, method_text)
+---Create telescope entry for an endpoint
+function TelescopePicker:_create_entry(entry, config)
+  -- Precomputed by the base Picker (cached with the endpoint)
+  local entry_display = self:_get_entry_display(entry, config)
 
   return {
     value = entry,
     display = function(_)
-      return display_text, { { { 0, highlight_length }, method_color } }
+      return entry_display.text, { { { 0, entry_display.highlight_length }, entry_display.method_color } }
     end,
-    -- Include action name and controller name in search ordinal for Rails action annotations
-    ordinal = entry.endpoint_path
-      .. " "
-      .. entry.method
-      .. (entry.action and (" " .. entry.action) or "")
-      .. (entry.controller and (" " .. entry.controller) or "")
-      .. (entry.display_value and (" " .. entry.display_value) or ""),
+    ordinal = entry_display.ordinal,
     filename = entry.file_path,
     lnum = entry.line_number,
     col = entry.column,
@@ -93,39 +196,117 @@ function TelescopePicker:_create_entry(entry, config)
 end
 
 ---Create endpoint-specific previewer with line/column highlighting
+---Files are shown from the shared preview buffer cache, and the files of the next entries are prefetched.
 function TelescopePicker:_create_previewer()
   local previewers = require "telescope.previewers"
-  local conf = require("telescope.config").values
+  local previewer_config = require("endpoint.config").get().picker.previewer or {}
+  self.preview_cache:set_capacity(previewer_config.cache_size or 20)
 
-  return previewers.new_buffer_previewer {
-    title = "Endpoint Preview",
-    get_buffer_by_name = function(_, entry)
-      return entry.filename
+  return previewers.new {
+    title = function()
+      return "Endpoint Preview"
+    end,
+    preview_fn = function(_, entry, status)
+      self:_define_preview(entry, status)
     end,
-    define_preview = function(picker_self, entry, _)
-      self:_define_preview(picker_self, entry, conf)
+    scroll_fn = function(_, direction)
+      self:_scroll_preview(direction)
     end,
   }
 end
 
+---Get the preview window from the picker status (its field moved between Telescope versions)
+local function get_preview_winid(status)
+  local winid = status.layout and status.layout.preview and status.layout.preview.winid or status.preview_win
+  if winid and vim.api.nvim_win_is_valid(winid) then
+    return winid
+  end
+  return nil
+end
+
 ---Define preview behavior for the previewer
-function TelescopePicker:_define_preview(picker_self, entry, conf)
+function TelescopePicker:_define_preview(entry, status)
   local endpoint = entry.value
-  if not endpoint or not endpoint.file_path then
+  local winid = get_preview_winid(status)
+  if not endpoint or not endpoint.file_path or not winid then
     return
   end
+  self._preview_winid = winid
 
   -- Determine preview file and position
   local preview_file, preview_line, preview_col = self:_get_preview_location(endpoint)
 
-  -- Read file content
-  conf.buffer_previewer_maker(preview_file, picker_self.state.bufnr, {
-    bufname = picker_self.state.bufname,
-    winid = picker_self.state.winid,
-    callback = function(bufnr)
-      self:_handle_preview_callback(bufnr, endpoint, picker_self, preview_line, preview_col)
-    end,
-  })
+  self._preview_endpoint = endpoint
+  if endpoint.revision then
+    -- Diff entries found at a git revision preview that revision of their file
+    local bufnr = self:_get_revision_buffer(endpoint)
+    vim.api.nvim_win_set_buf(winid, bufnr or self:_get_unavailable_buffer())
+    if bufnr then
+      self:_handle_preview_callback(bufnr, endpoint, winid, endpoint.line_number, endpoint.column)
+    end
+    return
+  end
+  self.preview_cache:load(preview_file, function(bufnr)
+    -- The selection may have moved on while the file was read
+    if self._preview_endpoint ~= endpoint or not vim.api.nvim_win_is_valid(winid) then
+      return
+    end
+
+    if bufnr then
+      vim.api.nvim_win_set_buf(winid, bufnr)
+      self:_handle_preview_callback(bufnr, endpoint, winid, preview_line, preview_col)
+    else
+      vim.api.nvim_win_set_buf(winid, self:_get_unavailable_buffer())
+    end
+  end)
+
+  self:_prefetch_neighbors(status.picker or self._open_picker)
+end
+
+---Get the buffer shown for files that cannot be previewed
+function TelescopePicker:_get_unavailable_buffer()
+  if not self._unavailable_bufnr or not vim.api.nvim_buf_is_valid(self._unavailable_bufnr) then
+    self._unavailable_bufnr = vim.api.nvim_create_buf(false, true)
+    vim.api.nvim_buf_set_lines(self._unavailable_bufnr, 0, -1, false, { "Preview unavailable" })
+  end
+  return self._unavailable_bufnr
+end
+
+---Start loading the preview files of the entries around the selection
+function TelescopePicker:_prefetch_neighbors(picker)
+  local prefetch_count = (require("endpoint.config").get().picker.previewer or {}).prefetch or 3
+  if not picker or not picker.manager or prefetch_count <= 0 then
+    return
+  end
+
+  -- Telescope internals; a failure only means nothing is prefetched
+  pcall(function()
+    local selected_index = picker:get_index(picker:get_selection_row())
+    local file_paths = {}
+    for offset = 1, prefetch_count do
+      for _, index in ipairs { selected_index + offset, selected_index - offset } do
+        local neighbor = index >= 1 and picker.manager:get_entry(index)
+        if neighbor and neighbor.value and neighbor.value.file_path and not neighbor.value.revision then
+          table.insert(file_paths, (self:_get_preview_location(neighbor.value)))
+        end
+      end
+    end
+    self.preview_cache:prefetch(file_paths)
+  end)
+end
+
+---Scroll the preview window (<C-d>/<C-u> in Telescope)
+function TelescopePicker:_scroll_preview(direction)
+  local winid = self._preview_winid
+  if not winid or not vim.api.nvim_win_is_valid(winid) then
+    return
+  end
+
+  local key = direction > 0 and "<C-e>" or "<C-y>"
+  local keys = vim.api.nvim_replace_termcodes(math.abs(direction) .. key, true, false, true)
+  vim.api.nvim_win_call(winid, function()
+    vim.cmd("normal! " .. keys)
+  end)
 end
 
 ---Get preview file location (handles React Router component files)
@@ -137,7 +318,7 @@ function TelescopePicker:_get_preview_location(endpoint)
   -- For React Router with component, preview component file instead of route definition
   if endpoint.component_file_path and vim.fn.filereadable(endpoint.component_file_path) == 1 then
     preview_file = endpoint.component_file_path
-    preview_line = 1 -- Start at the top of component file
+    preview_line = endpoint.component_line_number or 1 -- Component definition once known, else the top
     preview_col = 1
   end
 
@@ -145,48 +326,42 @@ function TelescopePicker:_get_preview_location(endpoint)
 end
 
 ---Handle preview callback for highlighting and cursor positioning
-function TelescopePicker:_handle_preview_callback(bufnr, endpoint, picker_self, preview_line, preview_col)
+function TelescopePicker:_handle_preview_callback(bufnr, endpoint, winid, preview_line, preview_col)
   local config_module = require "endpoint.config"
   local config = config_module.get()
 
-  -- Clear previous highlights first
+  -- Clear previous highlights first (the buffer is shared by every endpoint of the file)
   self.highlighter:clear_highlights(bufnr)
 
   -- Only apply highlighting if enabled in config
   if self.highlighter:is_highlighting_enabled(config) then
-    if endpoint.component_file_path and endpoint.component_name then
+    -- Revisions are previewed at the route definition
+    if endpoint.component_file_path and endpoint.component_name and not endpoint.revision then
       self.highlighter:highlight_component_definition(bufnr, endpoint)
+      preview_line = endpoint.component_line_number or preview_line
     else
       self.highlighter:highlight_endpoint(bufnr, endpoint)
     end
   end
 
   -- Set cursor and center (always enabled)
-  self:_set_preview_cursor(picker_self, preview_line, preview_col)
+  self:_set_preview_cursor(winid, preview_line, preview_col)
 end
 
 ---Set cursor position and center in preview window
-function TelescopePicker:_set_preview_cursor(picker_self, preview_line, preview_col)
-  if picker_self.state.winid and vim.api.nvim_win_is_valid(picker_self.state.winid) then
-    local bufnr = vim.api.nvim_win_get_buf(picker_self.state.winid)
-    local line_count = vim.api.nvim_buf_line_count(bufnr)
-
-    local target_line = math.min(preview_line or 1, line_count)
-    local target_col = math.max(0, (preview_col or 1) - 1)
-
-    pcall(function()
-      vim.api.nvim_win_set_cursor(picker_self.state.winid, { target_line, target_col })
-    end)
-
-    -- Center the line in the window
-    vim.defer_fn(function()
-      if vim.api.nvim_win_is_valid(picker_self.state.winid) then
-        vim.api.nvim_win_call(picker_self.state.winid, function()
-          vim.cmd "normal! zz"
-        end)
-      end
-    end, 10)
-  end
+function TelescopePicker:_set_preview_cursor(winid, preview_line, preview_col)
+  local bufnr = vim.api.nvim_win_get_buf(winid)
+  local line_count = vim.api.nvim_buf_line_count(bufnr)
+
+  local target_line = math.min(preview_line or 1, line_count)
+  local target_col = math.max(0, (preview_col or 1) - 1)
+
+  pcall(vim.api.nvim_win_set_cursor, winid, { target_line, target_col })
+
+  -- Center the line in the window
+  vim.api.nvim_win_call(winid, function()
+    vim.cmd "normal! zz"
+  end)
 end
 
 ---Attach key mappings for telescope picker
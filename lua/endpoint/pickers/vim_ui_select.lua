@@ -73,7 +73,7 @@ function VimUiSelectPicker:_create_select_config(opts)
     format_item = function(item)
       -- Use themed format if icons are enabled (works with dressing + telescope backend)
       if config.ui and config.ui.show_icons ~= false then
-        return self:_format_endpoint_with_theme(item, config)
+        return self:_get_entry_display(item, config).text
       else
         return self:_format_endpoint_display(item)
       end
@@ -173,29 +173,15 @@ end
 
 ---Create telescope entry for dressing.nvim telescope backend
 function VimUiSelectPicker:_create_telescope_entry(item, config)
-  -- Use the same entry creation logic as the telescope picker for consistency
-  local display_text = self:_format_endpoint_with_theme(item, config)
-
-  -- Get theme data for telescope-specific highlighting
-  local method_icon = self.themes:get_method_icon(item.method, config)
-  local method_text = self.themes:get_method_text(item.method, config)
-  local method_color = self.themes:get_method_color(item.method, config)
-
-  -- Calculate highlight length for method highlighting
-  local highlight_length = self.highlighter:calculate_highlight_length(item, method_icon, method_text)
+  -- Use the same precomputed display as the telescope picker for consistency
+  local entry_display = self:_get_entry_display(item, config)
 
   return {
     value = item,
     display = function(_)
-      return display_text, { { { 0, highlight_length }, method_color } }
+      return entry_display.text, { { { 0, entry_display.highlight_length }, entry_display.method_color } }
     end,
-    -- Include action name and controller name in search ordinal for Rails action annotations
-    ordinal = item.endpoint_path
-      .. " "
-      .. item.method
-      .. (item.action and (" " .. item.action) or "")
-      .. (item.controller and (" " .. item.controller) or "")
-      .. (item.display_value and (" " .. item.display_value) or ""),
+    ordinal = entry_display.ordinal,
     filename = item.file_path,
     lnum = item.line_number,
     col = item.column,
@@ -251,35 +237,22 @@ function VimUiSelectPicker:_register_dressing_custom_kind()
 
       local entries = {}
       local text_width = 1
+      local config = require("endpoint.config").get()
 
       for idx, item in ipairs(items) do
         local text = opts.format_item(item)
         text_width = math.max(text_width, vim.api.nvim_strwidth(text))
 
         -- Create entry with method highlighting
-        local config_module = require "endpoint.config"
-        local config = config_module.get()
-
-        -- Get theme data for method highlighting
-        local method_icon = self.themes:get_method_icon(item.method, config)
-        local method_text = self.themes:get_method_text(item.method, config)
-        local method_color = self.themes:get_method_color(item.method, config)
-
-        -- Calculate highlight length
-        local highlight_length = self.highlighter:calculate_highlight_length(item, method_icon, method_text)
+        local entry_display = self:_get_entry_display(item, config)
 
         table.insert(entries, {
           idx = idx,
           display = function(_)
-            return text, { { { 0, highlight_length }, method_color } }
+            return text, { { { 0, entry_display.highlight_length }, entry_display.method_color } }
           end,
           value = item,
-          ordinal = item.endpoint_path
-            .. " "
-            .. item.method
-            .. (item.action and (" " .. item.action) or "")
-            .. (item.controller and (" " .. item.controller) or "")
-            .. (item.display_value and (" " .. item.display_value) or ""),
+          ordinal = entry_display.ordinal,
         })
       end
 
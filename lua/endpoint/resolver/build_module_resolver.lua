@@ -0,0 +1,367 @@
+local fs = require "endpoint.utils.fs"
+local log = require "endpoint.utils.log"
+local index_root = require "endpoint.resolver.index_root"
+
+local uv = vim.uv or vim.loop
+
+---Module graph of multi-module Maven and Gradle builds
+---Modules come from the root pom.xml `<modules>` (recursively) or the `include`s of settings.gradle(.kts), and
+---their dependencies on each other from the module poms (`<dependency>` artifactIds) or build.gradle(.kts)
+---(`project(':x')`). The graph is re-read only when one of the build files it was read from changed. Each project
+---root has its own graph (see endpoint.IndexRoot).
+---@class endpoint.BuildModuleResolver
+local M = {}
+
+local GRADLE_SETTINGS_FILES = { "settings.gradle", "settings.gradle.kts" }
+local GRADLE_BUILD_FILES = { "build.gradle", "build.gradle.kts" }
+
+-- Graphs by project root: { project_root, modules, by_name, build_files, built }
+-- modules: ordered by directory ({ name, dir, dependencies, aliases }); by_name: modules by name and alias
+-- (directory, Gradle project path); build_files: mtime keys of the build files the graph was read from, by path
+-- (false when missing)
+local _indexes = index_root.create_index_set(function(project_root)
+  return { project_root = project_root, modules = {}, by_name = {}, build_files = {}, built = false }
+end)
+
+---Gets a build file's modification time as a comparable key
+local function _get_mtime_key(file_path)
+  local stat = uv.fs_stat(file_path)
+  if not stat then
+    return false
+  end
+  return string.format("%d.%d.%d", stat.mtime.sec, stat.mtime.nsec or 0, stat.size)
+end
+
+---Reads a build file, recording it in the graph so the graph is re-read when it changes
+---@return string|nil
+local function _read_build_file(index, file_path)
+  index.build_files[file_path] = _get_mtime_key(file_path)
+  local lines = index.build_files[file_path] and fs.read_file(file_path)
+  return lines and table.concat(lines, "\n") or nil
+end
+
+---Joins a module directory to its parent's, normalizing `./` and `..` segments
+local function _join_dir(parent_dir, dir)
+  local segments = {}
+  for segment in ((parent_dir ~= "" and parent_dir .. "/" or "") .. dir):gmatch "[^/\\]+" do
+    if segment == ".." then
+      table.remove(segments)
+    elseif segment ~= "." then
+      table.insert(segments, segment)
+    end
+  end
+  return table.concat(segments, "/")
+end
+
+---Parses a pom.xml into its artifactId, `<modules>` and dependency artifactIds
+---@param content string
+---@return table { artifact_id, modules, dependencies }
+function M._parse_pom(content)
+  content = content:gsub("<!%-%-.-%-%->", "")
+
+  -- Plugins and managed versions declare dependencies that are not the module's own
+  local project = content:gsub("<build>.-</build>", ""):gsub("<dependencyManagement>.-</dependencyManagement>", "")
+
+  local modules = {}
+  for modules_block in project:gmatch "<modules>(.-)</modules>" do
+    for module_dir in modules_block:gmatch "<module>%s*([^<]-)%s*</module>" do
+      table.insert(modules, module_dir)
+    end
+  end
+
+  local dependencies = {}
+  for dependencies_block in project:gmatch "<dependencies>(.-)</dependencies>" do
+    for artifact_id in dependencies_block:gmatch "<artifactId>%s*([^<]-)%s*</artifactId>" do
+      table.insert(dependencies, artifact_id)
+    end
+  end
+
+  local own = project
+    :gsub("<parent>.-</parent>", "")
+    :gsub("<dependencies>.-</dependencies>", "")
+    :gsub("<profiles>.-</profiles>", "")
+
+  return {
+    artifact_id = own:match "<artifactId>%s*([^<]-)%s*</artifactId>",
+    modules = modules,
+    dependencies = dependencies,
+  }
+end
+
+---Parses the project paths of the `include`s of a settings.gradle(.kts)
+---@param content string
+---@return string[] project_paths e.g. ":services:user"
+---@return table<string, string> project_dirs Directories set with `project(':x').projectDir`, by project path
+function M._parse_gradle_settings(content)
+  content = content:gsub("/%*.-%*/", ""):gsub("//[^\n]*", "")
+
+  local project_paths = {}
+  local position = 1
+  while true do
+    local _, include_end = content:find("%f[%w]include%f[^%w]%s*%(?", position)
+    if not include_end then
+      break
+    end
+    position = include_end + 1
+
+    -- include ':a', ':b' / include("a", "b"), possibly across lines
+    while true do
+      local _, value_end, project_path = content:find("^[%s,]*[\"']([^\"']+)[\"']", position)
+      if not value_end then
+        break
+      end
+      table.insert(project_paths, project_path:sub(1, 1) == ":" and project_path or ":" .. project_path)
+      position = value_end + 1
+    end
+  end
+
+  local project_dirs = {}
+  for project_path, project_dir in
+    content:gmatch "project%(%s*[\"']([^\"']+)[\"']%s*%)%.projectDir%s*=%s*[^\"'\n]*[\"']([^\"']+)[\"']"
+  do
+    project_dirs[project_path:sub(1, 1) == ":" and project_path or ":" .. project_path] = project_dir
+  end
+
+  return project_paths, project_dirs
+end
+
+---Parses the project dependencies of a build.gradle(.kts)
+---@param content string
+---@return string[] project_paths
+function M._parse_gradle_dependencies(content)
+  content = content:gsub("/%*.-%*/", ""):gsub("//[^\n]*", "")
+
+  local project_paths = {}
+  -- project(':common'), project(path: ':common'), project(path = ":common")
+  for project_path in content:gmatch "project%s*%([^)\"']-[\"'](:[^\"']*)[\"']" do
+    table.insert(project_paths, project_path)
+  end
+  return project_paths
+end
+
+---Reads the modules of a Maven build, starting at the root pom.xml
+---@return table[]|nil modules nil when the project has no pom.xml
+local function _read_maven_modules(index)
+  local project_root = index.project_root
+  local root_content = _read_build_file(index, project_root .. "/pom.xml")
+  if not root_content then
+    return nil
+  end
+
+  local modules = {}
+  local visited = {}
+
+  local function read_modules(parent_dir, module_dirs)
+    for _, module_dir in ipairs(module_dirs) do
+      -- <module> may name the module's pom file instead of its directory
+      local pom_name = module_dir:match "[^/\\]+%.xml$"
+      local dir = _join_dir(parent_dir, pom_name and module_dir:sub(1, -#pom_name - 2) or module_dir)
+      if not visited[dir] then
+        visited[dir] = true
+        local content = _read_build_file(index, project_root .. "/" .. _join_dir(dir, pom_name or "pom.xml"))
+        if content then
+          local pom = M._parse_pom(content)
+          table.insert(modules, {
+            name = pom.artifact_id or vim.fn.fnamemodify(dir, ":t"),
+            dir = dir,
+            dependencies = pom.dependencies,
+            aliases = { dir },
+          })
+          read_modules(dir, pom.modules)
+        end
+      end
+    end
+  end
+
+  read_modules("", M._parse_pom(root_content).modules)
+  return modules
+end
+
+---Reads the modules of a Gradle build, starting at settings.gradle(.kts)
+---@return table[]|nil modules nil when the project has no settings.gradle(.kts)
+local function _read_gradle_modules(index)
+  local project_root = index.project_root
+  local settings_content
+  for _, settings_file in ipairs(GRADLE_SETTINGS_FILES) do
+    settings_content = settings_content or _read_build_file(index, project_root .. "/" .. settings_file)
+  end
+  if not settings_content then
+    return nil
+  end
+
+  local project_paths, project_dirs = M._parse_gradle_settings(settings_content)
+  local modules = {}
+  for _, project_path in ipairs(project_paths) do
+    local dir = _join_dir("", project_dirs[project_path] or project_path:sub(2):gsub(":", "/"))
+
+    local dependencies = {}
+    for _, build_file in ipairs(GRADLE_BUILD_FILES) do
+      local content = _read_build_file(index, project_root .. "/" .. _join_dir(dir, build_file))
+      if content then
+        dependencies = M._parse_gradle_dependencies(content)
+        break
+      end
+    end
+
+    table.insert(modules, {
+      name = project_path:match "[^:]+$",
+      dir = dir,
+      dependencies = dependencies,
+      aliases = { dir, project_path },
+    })
+  end
+  return modules
+end
+
+---Reads the module graph of a project and indexes it
+local function _build(index)
+  index.build_files = {}
+  local modules = _read_maven_modules(index) or _read_gradle_modules(index) or {}
+  local by_name = {}
+
+  table.sort(modules, function(a, b)
+    return a.dir < b.dir
+  end)
+  for _, module in ipairs(modules) do
+    by_name[module.name] = by_name[module.name] or module
+  end
+  for _, module in ipairs(modules) do
+    for _, alias in ipairs(module.aliases) do
+      by_name[alias] = by_name[alias] or module
+    end
+  end
+
+  index.modules = modules
+  index.by_name = by_name
+  index.built = true
+  if #modules > 0 then
+    log.framework_debug(string.format("Build module graph: %d modules", #modules))
+  end
+end
+
+---Checks if a build file the graph was read from changed
+local function _is_outdated(index)
+  for file_path, mtime_key in pairs(index.build_files) do
+    if _get_mtime_key(file_path) ~= mtime_key then
+      return true
+    end
+  end
+  return false
+end
+
+---Re-reads the module graph of a project when it was not read yet or one of its build files changed
+---@param project_root string|nil Defaults to the active scan's project (see endpoint.IndexRoot)
+function M.refresh(project_root)
+  local index = index_root.get_index(_indexes, project_root)
+  if not index.built or _is_outdated(index) then
+    _build(index)
+  end
+end
+
+---Gets the graph of the active scan's project, read if it was not; scans and module scoping refresh it for the
+---project they work in
+local function _get_built_index()
+  local index = index_root.get_index(_indexes)
+  if not index.built then
+    _build(index)
+  end
+  return index
+end
+
+---Gets the modules of the project, ordered by directory
+---@return table[] modules { name, dir, dependencies }; empty for single-module projects
+function M.get_modules()
+  return _get_built_index().modules
+end
+
+---Finds a module by artifactId or Gradle project name, directory, or Gradle project path
+---@param name string
+---@return table|nil module
+function M.find_module(name)
+  local by_name = _get_built_index().by_name
+  return by_name[name] or by_name[(name:gsub("^%./", ""):gsub("/$", ""))]
+end
+
+---Gets the name of the module a file belongs to (the innermost module containing it)
+---@param file_path string Relative to the project root (with or without `./`), or absolute
+---@return string|nil
+function M.get_module_for_file(file_path)
+  local index = _get_built_index()
+  if #index.modules == 0 or not file_path then
+    return nil
+  end
+
+  local relative_path = file_path:gsub("^%./", "")
+  local root_prefix = index.project_root .. "/"
+  if relative_path:sub(1, #root_prefix) == root_prefix then
+    relative_path = relative_path:sub(#root_prefix + 1)
+  end
+
+  local found = nil
+  for _, module in ipairs(index.modules) do
+    if relative_path:sub(1, #module.dir + 1) == module.dir .. "/" and (not found or #module.dir > #found.dir) then
+      found = module
+    end
+  end
+  return found and found.name or nil
+end
+
+---Gets the scope of a module: itself and the modules it depends on, transitively
+---@param name string
+---@return { name: string, modules: table<string, boolean>, dirs: string[] }|nil scope nil when there is no such module
+function M.get_scope(name)
+  local root_module = M.find_module(name)
+  if not root_module then
+    return nil
+  end
+
+  local by_name = _get_built_index().by_name
+  local scope = { name = root_module.name, modules = {}, dirs = {} }
+  local function add(module)
+    if scope.modules[module.name] then
+      return
+    end
+    scope.modules[module.name] = true
+    table.insert(scope.dirs, module.dir)
+    for _, dependency in ipairs(module.dependencies) do
+      local dependency_module = by_name[dependency]
+      if dependency_module then
+        add(dependency_module)
+      end
+    end
+  end
+  add(root_module)
+
+  table.sort(scope.dirs)
+  return scope
+end
+
+---Filters endpoints down to the modules of a scope
+---Endpoints cached before they were tagged get their module from their file.
+---@param endpoints endpoint.entry[]
+---@param scope table From get_scope()
+---@return endpoint.entry[]
+function M.filter_endpoints(endpoints, scope)
+  local filtered = {}
+  for _, endpoint in ipairs(endpoints) do
+    local module = endpoint.module or M.get_module_for_file(endpoint.file_path)
+    if module and scope.modules[module] then
+      table.insert(filtered, endpoint)
+    end
+  end
+  return filtered
+end
+
+---Gets the build files the graph may be read from, for reading them at a git revision (see endpoint.ApiDiff)
+---`<module>` entries naming a pom file are matched by its usual `*pom*.xml` names.
+---@return table spec
+function M.get_context_spec()
+  local file_globs = vim.list_extend({ "*pom*.xml" }, GRADLE_SETTINGS_FILES)
+  return { file_globs = vim.list_extend(file_globs, GRADLE_BUILD_FILES) }
+end
+
+function M.clear_cache()
+  index_root.clear(_indexes)
+end
+
+return M
@@ -0,0 +1,86 @@
+---Project root of the resolver indexes
+---Scans of several projects run at the same time (workspace roots, API diff mirrors), so each resolver keeps one
+---index per project root. Scans pass their root when they refresh an index, while parsers look indexes up without
+---one: a scan runs its synchronous parse work through run(), which makes its root the active one for that batch.
+---Outside scans the working directory's index is used.
+---@class endpoint.IndexRoot
+local M = {}
+
+---@type string|nil
+local _active_root = nil
+
+-- Index sets of the resolvers: { by_root, create_index }
+---@type table[]
+local _index_sets = {}
+
+---Gets the project root an index is looked up for: the given one, else the active scan's, else the working directory
+---@param project_root string|nil
+---@return string
+function M.get(project_root)
+  return project_root or _active_root or vim.fn.getcwd()
+end
+
+---Gets the root of the scan whose work is running, nil outside run() or for a scan of the working directory
+---@return string|nil
+function M.get_active()
+  return _active_root
+end
+
+---Runs a scan's synchronous work with its project root active
+---@param project_root string|nil nil for the working directory
+---@param fn function
+---@return any ... What fn returns
+function M.run(project_root, fn, ...)
+  local previous_root = _active_root
+  _active_root = project_root
+  local results = { pcall(fn, ...) }
+  _active_root = previous_root
+  if not results[1] then
+    error(results[2], 0)
+  end
+  return unpack(results, 2, table.maxn(results))
+end
+
+---Creates a resolver's set of indexes, one per project root
+---@param create_index fun(project_root: string): table
+---@return table index_set
+function M.create_index_set(create_index)
+  local index_set = { by_root = {}, create_index = create_index }
+  table.insert(_index_sets, index_set)
+  return index_set
+end
+
+---Gets the index of a project root (see get()), created on first use
+---@param index_set table From create_index_set()
+---@param project_root string|nil
+---@return table index
+function M.get_index(index_set, project_root)
+  project_root = M.get(project_root)
+  local index = index_set.by_root[project_root]
+  if not index then
+    index = index_set.create_index(project_root)
+    index_set.by_root[project_root] = index
+  end
+  return index
+end
+
+---Drops every index of one set, or of a project root in one set
+---@param index_set table
+---@param project_root string|nil
+function M.clear(index_set, project_root)
+  if project_root then
+    index_set.by_root[project_root] = nil
+  else
+    index_set.by_root = {}
+  end
+end
+
+---Drops the indexes every resolver keeps for a project root (e.g. once a mirror directory was scanned)
+---@param project_root string
+function M.release(project_root)
+  for _, index_set in ipairs(_index_sets) do
+    index_set.by_root[project_root] = nil
+  end
+end
+
+return M
@@ -1,14 +1,21 @@
 local fs = require "endpoint.utils.fs"
 local log = require "endpoint.utils.log"
+local profiler = require "endpoint.utils.profiler"
+local rg = require "endpoint.utils.rg"
+local index_root = require "endpoint.resolver.index_root"
 
 ---@class endpoint.JavaConstantResolver
 local M = {}
 
----@type table<string, table<string, string>>
-local _cache = {}
+-- Constants by qualified name, by project root (see endpoint.IndexRoot)
+local _indexes = index_root.create_index_set(function()
+  return { constants = {} }
+end)
 
----@type string|nil
-local _cache_project_root = nil
+---Gets the project a lookup is for: the given one, else the active scan's, else the git root
+local function _get_project_root(project_root)
+  return project_root or index_root.get_active() or fs.get_project_root()
+end
 
 local function _find_java_files(project_root)
   local cmd = string.format("find %s -name '*.java' -not -path '*/target/*' -not -path '*/build/*' -not -path '*/.gradle/*' 2>/dev/null", vim.fn.shellescape(project_root))
@@ -19,12 +26,7 @@ local function _find_java_files(project_root)
   return result
 end
 
-local function _parse_constants_from_file(file_path)
-  local lines = fs.read_file(file_path)
-  if not lines then
-    return {}
-  end
-
+local function _parse_constants_from_lines(lines)
   local constants = {}
 
   local class_stack = {}
@@ -81,7 +83,16 @@ local function _parse_constants_from_file(file_path)
   return constants
 end
 
+local function _parse_constants_from_file(file_path)
+  local lines = fs.read_file(file_path)
+  if not lines then
+    return {}
+  end
+  return _parse_constants_from_lines(lines)
+end
+
 local function _build_constant_map(project_root)
+  local resolve_span = profiler.start_phase "resolve_constants"
   local java_files = _find_java_files(project_root)
   local constant_map = {}
 
@@ -92,28 +103,25 @@ local function _build_constant_map(project_root)
     end
   end
 
+  profiler.end_phase(resolve_span, { file_count = #java_files })
   return constant_map
 end
 
 function M.resolve(constant_ref, project_root)
-  project_root = project_root or fs.get_project_root()
-
-  if _cache_project_root ~= project_root then
-    _cache = {}
-    _cache_project_root = project_root
-  end
+  project_root = _get_project_root(project_root)
+  local index = index_root.get_index(_indexes, project_root)
 
-  if vim.tbl_isempty(_cache) then
-    _cache = _build_constant_map(project_root)
-    log.framework_debug("Java constant resolver: loaded " .. vim.tbl_count(_cache) .. " constants")
+  if vim.tbl_isempty(index.constants) then
+    index.constants = _build_constant_map(project_root)
+    log.framework_debug("Java constant resolver: loaded " .. vim.tbl_count(index.constants) .. " constants")
   end
 
-  local value = _cache[constant_ref]
+  local value = index.constants[constant_ref]
   if value then
     return value
   end
 
-  for qualified_name, const_value in pairs(_cache) do
+  for qualified_name, const_value in pairs(index.constants) do
     if qualified_name:match("[^.]+%." .. vim.pesc(constant_ref) .. "$") then
       return const_value
     end
@@ -126,7 +134,7 @@ function M.resolve(constant_ref, project_root)
 end
 
 function M.resolve_from_file_context(constant_ref, file_path, project_root)
-  project_root = project_root or fs.get_project_root()
+  project_root = _get_project_root(project_root)
 
   local direct = M.resolve(constant_ref, project_root)
   if direct then
@@ -137,7 +145,7 @@ function M.resolve_from_file_context(constant_ref, file_path, project_root)
     return nil
   end
 
-  local lines = fs.read_file(file_path)
+  local lines = require("endpoint.core.SourcePass").static.read_lines(file_path)
   if not lines then
     return nil
   end
@@ -168,22 +176,68 @@ function M.resolve_from_file_context(constant_ref, file_path, project_root)
   return nil
 end
 
+---Creates a source pass consumer that extracts constants from the files the pass reads
+---Once the pass is done, the constants replace the project's, so resolving needs no separate find and read.
+---The constants of a module-scoped pass only cover the module and its dependencies, so they are dropped
+---when the pass is released and the next lookup outside it reads the whole project again.
+---@param project_root string|nil
+---@param scoped boolean|nil The pass reads part of the project only
+---@return table consumer
+function M.create_source_consumer(project_root, scoped)
+  project_root = _get_project_root(project_root)
+  local constant_map = {}
+
+  return {
+    on_file = function(_, lines)
+      for qualified_name, value in pairs(_parse_constants_from_lines(lines)) do
+        constant_map[qualified_name] = value
+      end
+    end,
+    on_done = function()
+      index_root.get_index(_indexes, project_root).constants = constant_map
+      local constant_count = vim.tbl_count(constant_map)
+      log.framework_debug("Java constant resolver: loaded " .. constant_count .. " constants from source pass")
+    end,
+    on_release = scoped and function()
+      if index_root.get_index(_indexes, project_root).constants == constant_map then
+        index_root.clear(_indexes, project_root)
+      end
+    end or nil,
+  }
+end
+
+---Gets the files declaring constants, for reading them at a git revision (see endpoint.ApiDiff)
+---The mappings using them are their dependents, compared again when a constant changed.
+---@return table spec
+function M.get_context_spec()
+  return {
+    file_globs = { "*.java" },
+    exclude_globs = rg.common_exclude_patterns.java,
+    search_patterns = { "static\\s+final\\s+String", "final\\s+static\\s+String" },
+    dependents = {
+      file_globs = { "*.java" },
+      exclude_globs = rg.common_exclude_patterns.java,
+      search_patterns = { "Mapping\\s*\\(" },
+    },
+  }
+end
+
 function M.clear_cache()
-  _cache = {}
-  _cache_project_root = nil
+  index_root.clear(_indexes)
 end
 
 function M.get_all_constants(project_root)
-  project_root = project_root or fs.get_project_root()
+  project_root = _get_project_root(project_root)
+  local index = index_root.get_index(_indexes, project_root)
 
-  if _cache_project_root ~= project_root or vim.tbl_isempty(_cache) then
-    _cache = _build_constant_map(project_root)
-    _cache_project_root = project_root
+  if vim.tbl_isempty(index.constants) then
+    index.constants = _build_constant_map(project_root)
   end
 
-  return _cache
+  return index.constants
 end
 
 M._parse_constants_from_file = _parse_constants_from_file
+M._parse_constants_from_lines = _parse_constants_from_lines
 
 return M
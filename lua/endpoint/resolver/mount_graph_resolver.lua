@@ -0,0 +1,614 @@
+local fs = require "endpoint.utils.fs"
+local log = require "endpoint.utils.log"
+local rg = require "endpoint.utils.rg"
+local ProcessPool = require "endpoint.core.ProcessPool"
+local index_root = require "endpoint.resolver.index_root"
+
+---Project-wide router mount graph for Express, NestJS and FastAPI, built once per scan
+---Files with mount calls (app.use, include_router, setGlobalPrefix, RouterModule, @Module) are found with one
+---`rg --files-with-matches` and read once. Their imports and mount calls become edges from a mounted router to
+---the router it is mounted on, and an endpoint's prefix is the memoized walk of those edges to the root, so
+---deep router trees are resolved without re-reading files. Each project root has its own graphs (see
+---endpoint.IndexRoot).
+---@class endpoint.MountGraphResolver
+local M = {}
+
+local JS_EXTENSIONS = { ".js", ".ts", ".mjs", ".cjs", ".jsx", ".tsx" }
+
+-- Graphs by project root: { graphs, scan_counts }
+-- graphs: graphs by framework name, built by the running scans and released once none uses them; scan_counts:
+-- running scans using each framework's graph
+local _indexes = index_root.create_index_set(function()
+  return { graphs = {}, scan_counts = {} }
+end)
+
+local function _normalize_path(file_path)
+  return (file_path:gsub("^%./", ""))
+end
+
+---Joins path prefixes, normalizing slashes
+local function _join_paths(base, path)
+  path = (path or ""):gsub("^/+", ""):gsub("/+$", "")
+  if path == "" then
+    return base
+  end
+  return base:gsub("/+$", "") .. "/" .. path
+end
+
+local function _get_dirname(file_path)
+  return file_path:match "^(.*)/[^/]*$" or ""
+end
+
+---Joins a relative path to a directory, resolving . and .. segments (absolute directories stay absolute)
+local function _resolve_relative(dir, relative_path)
+  local segments = {}
+  for segment in dir:gmatch "[^/]+" do
+    table.insert(segments, segment)
+  end
+  for segment in relative_path:gmatch "[^/]+" do
+    if segment == ".." then
+      table.remove(segments)
+    elseif segment ~= "." then
+      table.insert(segments, segment)
+    end
+  end
+  return (dir:match "^/" and "/" or "") .. table.concat(segments, "/")
+end
+
+---Splits call arguments at top-level commas
+local function _split_args(args)
+  local parts = {}
+  local depth = 0
+  local quote = nil
+  local start = 1
+  for index = 1, #args do
+    local char = args:sub(index, index)
+    if quote then
+      if char == quote then
+        quote = nil
+      end
+    elseif char == "'" or char == '"' or char == "`" then
+      quote = char
+    elseif char == "(" or char == "[" or char == "{" then
+      depth = depth + 1
+    elseif char == ")" or char == "]" or char == "}" then
+      depth = depth - 1
+    elseif char == "," and depth == 0 then
+      table.insert(parts, vim.trim(args:sub(start, index - 1)))
+      start = index + 1
+    end
+  end
+  local last = vim.trim(args:sub(start))
+  if last ~= "" then
+    table.insert(parts, last)
+  end
+  return parts
+end
+
+---Reads a file's content once per graph
+local function _read_content(graph, file_path)
+  if graph.contents[file_path] == nil then
+    local lines = fs.read_file(file_path)
+    graph.contents[file_path] = lines and table.concat(lines, "\n") or false
+  end
+  return graph.contents[file_path] or nil
+end
+
+---Adds an edge from a mounted router to the router it is mounted on
+local function _add_edge(graph, child_key, parent_key, prefix)
+  graph.edges[child_key] = graph.edges[child_key] or {}
+  table.insert(graph.edges[child_key], { parent = parent_key, prefix = prefix or "" })
+end
+
+-- ========================================
+-- EXPRESS
+-- ========================================
+
+---Resolves a relative JavaScript/TypeScript module specifier to a file
+local function _resolve_js_module(importer_path, specifier)
+  if not specifier:match "^%.%.?/" then
+    return nil
+  end
+  local module_path = _resolve_relative(_get_dirname(importer_path), specifier)
+  if fs.file_exists(module_path) then
+    return module_path
+  end
+  for _, extension in ipairs(JS_EXTENSIONS) do
+    if fs.file_exists(module_path .. extension) then
+      return module_path .. extension
+    end
+  end
+  for _, extension in ipairs(JS_EXTENSIONS) do
+    if fs.file_exists(module_path .. "/index" .. extension) then
+      return module_path .. "/index" .. extension
+    end
+  end
+  return nil
+end
+
+---Collects the import and require bindings of a JavaScript/TypeScript file
+---@return table<string, string> node keys by local name
+local function _get_js_imports(file_path, content)
+  local imports = {}
+
+  local function bind(local_name, specifier, export_name)
+    local module_file = _resolve_js_module(file_path, specifier)
+    if module_file then
+      imports[local_name] = module_file .. "#" .. export_name
+    end
+  end
+
+  local function bind_names(names, specifier)
+    for name in names:gmatch "[^,]+" do
+      local export_name, local_name = name:match "([%w_$]+)%s+as%s+([%w_$]+)"
+      if not export_name then
+        export_name, local_name = name:match "([%w_$]+)%s*:%s*([%w_$]+)"
+      end
+      if not export_name then
+        export_name = name:match "([%w_$]+)"
+        local_name = export_name
+      end
+      if export_name then
+        bind(local_name, specifier, export_name)
+      end
+    end
+  end
+
+  for local_name, specifier in content:gmatch "([%w_$]+)%s*=%s*require%s*%(%s*['\"]([^'\"]+)['\"]%s*%)" do
+    bind(local_name, specifier, "default")
+  end
+  for names, specifier in content:gmatch "{([^}]*)}%s*=%s*require%s*%(%s*['\"]([^'\"]+)['\"]%s*%)" do
+    bind_names(names, specifier)
+  end
+  for clause, specifier in content:gmatch "import%s+([^;'\"]-)%s+from%s+['\"]([^'\"]+)['\"]" do
+    local default_name = clause:match "^([%w_$]+)"
+    if default_name and default_name ~= "type" then
+      bind(default_name, specifier, "default")
+    end
+    local names = clause:match "{([^}]*)}"
+    if names then
+      bind_names(names, specifier)
+    end
+  end
+
+  return imports
+end
+
+---Adds the mount edges of an Express file: app.use('/prefix', router)
+local function _index_express_file(graph, file_path, content)
+  local imports = _get_js_imports(file_path, content)
+
+  local local_routers = {}
+  for name in content:gmatch "([%w_$]+)%s*=%s*[%w_$%.]*Router%s*%(" do
+    local_routers[name] = true
+  end
+  for name in content:gmatch "([%w_$]+)%s*=%s*express%s*%(" do
+    local_routers[name] = true
+  end
+
+  for receiver, call in content:gmatch "([%w_$]+)%s*%.%s*use%s*(%b())" do
+    local args = _split_args(call:sub(2, -2))
+    local prefix = args[1] and args[1]:match "^['\"`]([^'\"`]*)['\"`]$"
+    local mounted = args[#args]
+
+    local child_key = nil
+    local required = mounted and mounted:match "^require%s*%(%s*['\"]([^'\"]+)['\"]%s*%)$"
+    if required then
+      local module_file = _resolve_js_module(file_path, required)
+      child_key = module_file and module_file .. "#default"
+    elseif mounted and mounted:match "^[%w_$]+$" then
+      child_key = imports[mounted] or (local_routers[mounted] and file_path .. "#" .. mounted)
+    end
+
+    if child_key then
+      _add_edge(graph, child_key, file_path .. "#" .. receiver, prefix)
+    end
+  end
+end
+
+-- ========================================
+-- FASTAPI
+-- ========================================
+
+---Resolves a Python module (absolute or relative dotted name) to a file
+local function _resolve_python_module(importer_path, module_name)
+  local dots, dotted_name = module_name:match "^(%.*)(.*)$"
+  local relative_path = dotted_name:gsub("%.", "/")
+
+  local base_dirs = {}
+  if #dots > 0 then
+    local dir = _get_dirname(importer_path)
+    for _ = 2, #dots do
+      dir = _get_dirname(dir)
+    end
+    base_dirs = { dir }
+  else
+    -- Absolute imports resolve from the nearest package root above the importer
+    local dir = _get_dirname(importer_path)
+    while true do
+      table.insert(base_dirs, dir)
+      if dir == "" then
+        break
+      end
+      dir = _get_dirname(dir)
+    end
+  end
+
+  for _, base_dir in ipairs(base_dirs) do
+    local module_path = _resolve_relative(base_dir, relative_path)
+    if module_path ~= "" and fs.file_exists(module_path .. ".py") then
+      return module_path .. ".py"
+    end
+    if fs.file_exists(_resolve_relative(module_path, "__init__.py")) then
+      return _resolve_relative(module_path, "__init__.py")
+    end
+  end
+  return nil
+end
+
+---Collects the import bindings of a Python file
+---@return table<string, table> bindings by local name: { module_file } for modules, { module_file, name } for names
+local function _get_python_imports(file_path, content)
+  local imports = {}
+
+  for module_name, names in content:gmatch "from%s+([%w_%.]+)%s+import%s+(%b())" do
+    content = content .. "\nfrom " .. module_name .. " import " .. names:sub(2, -2):gsub("%s+", " ")
+  end
+
+  for module_name, names in content:gmatch "from%s+([%w_%.]+)%s+import%s+([^\n%(]+)" do
+    for name in names:gmatch "[^,]+" do
+      local imported_name, local_name = name:match "([%w_]+)%s+as%s+([%w_]+)"
+      if not imported_name then
+        imported_name = name:match "([%w_]+)"
+        local_name = imported_name
+      end
+      if imported_name then
+        local separator = module_name:match "%.$" and "" or "."
+        local submodule_file = _resolve_python_module(file_path, module_name .. separator .. imported_name)
+        if submodule_file then
+          imports[local_name] = { module_file = submodule_file }
+        else
+          local module_file = _resolve_python_module(file_path, module_name)
+          if module_file then
+            imports[local_name] = { module_file = module_file, name = imported_name }
+          end
+        end
+      end
+    end
+  end
+
+  for module_name, local_name in content:gmatch "\nimport%s+([%w_%.]+)%s+as%s+([%w_]+)" do
+    local module_file = _resolve_python_module(file_path, module_name)
+    if module_file then
+      imports[local_name] = { module_file = module_file }
+    end
+  end
+
+  return imports
+end
+
+---Adds the mount edges of a FastAPI file: app.include_router(users.router, prefix="/users")
+local function _index_fastapi_file(graph, file_path, content)
+  local imports = _get_python_imports(file_path, "\n" .. content)
+
+  for receiver, call in content:gmatch "([%w_]+)%.include_router%s*(%b())" do
+    local args = _split_args(call:sub(2, -2))
+    local router = args[1] and args[1]:match "^([%w_%.]+)$"
+    local prefix = call:match "prefix%s*=%s*['\"]([^'\"]*)['\"]"
+
+    local child_key = nil
+    if router then
+      local module_name, attribute = router:match "^([%w_]+)%.([%w_]+)$"
+      local binding = imports[module_name or router]
+      if attribute and binding and not binding.name then
+        child_key = binding.module_file .. "#" .. attribute
+      elseif not attribute and binding and binding.name then
+        child_key = binding.module_file .. "#" .. binding.name
+      elseif not attribute and not binding then
+        child_key = file_path .. "#" .. router
+      end
+    end
+
+    if child_key then
+      _add_edge(graph, child_key, file_path .. "#" .. receiver, prefix)
+    end
+  end
+end
+
+---Gets the prefix a FastAPI router declares itself: router = APIRouter(prefix="/items")
+local function _get_fastapi_own_prefix(graph, node_key)
+  local file_path, router = node_key:match "^(.*)#([^#]+)$"
+  local content = _read_content(graph, file_path)
+  local call = content and content:match("%f[%w_]" .. router .. "%s*=%s*APIRouter%s*(%b())")
+  return call and call:match "prefix%s*=%s*['\"]([^'\"]*)['\"]" or ""
+end
+
+-- ========================================
+-- NESTJS
+-- ========================================
+
+---Collects module prefixes from RouterModule routes: { path, module, children }
+local function _collect_router_module_routes(graph, routes, parent_prefix)
+  for route in routes:sub(2, -2):gmatch "%b{}" do
+    local body = route:sub(2, -2)
+    local children = body:match "children%s*:%s*(%b[])"
+    if children then
+      body = body:gsub("children%s*:%s*%b[]", "")
+    end
+
+    local prefix = _join_paths(parent_prefix, body:match "path%s*:%s*['\"`]([^'\"`]*)['\"`]")
+    local module_name = body:match "module%s*:%s*([%w_$]+)"
+    if module_name then
+      graph.module_prefixes[module_name] = prefix
+    end
+    if children then
+      _collect_router_module_routes(graph, children, prefix)
+    end
+  end
+end
+
+---Reads the global prefix, RouterModule routes and module controllers of a NestJS file
+local function _index_nestjs_file(graph, _, content)
+  local global_prefix = content:match "setGlobalPrefix%s*%(%s*['\"`]([^'\"`]*)['\"`]"
+  if global_prefix then
+    graph.global_prefix = global_prefix
+  end
+
+  for call in content:gmatch "RouterModule%.[%w_]+%s*(%b())" do
+    local routes = call:match "^%(%s*(%b[])"
+    local routes_name = not routes and call:match "^%(%s*([%w_$]+)%s*%)$"
+    if routes_name then
+      routes = content:match(routes_name .. "%s*:?[^=\n]*=%s*(%b[])")
+    end
+    if routes then
+      _collect_router_module_routes(graph, routes, "")
+    end
+  end
+
+  for module_start, decorator in content:gmatch "()@Module%s*(%b())" do
+    local module_name = content:match("class%s+([%w_$]+)", module_start)
+    local controllers = decorator:match "controllers%s*:%s*(%b[])"
+    if module_name and controllers then
+      for controller_name in controllers:gmatch "[%w_$]+" do
+        graph.controller_modules[controller_name] = module_name
+      end
+    end
+  end
+end
+
+---Gets the class a NestJS controller file declares after its @Controller decorator, false if none
+local function _get_controller_class(graph, file_path)
+  if graph.controller_classes[file_path] == nil then
+    local content = _read_content(graph, file_path)
+    local decorator_start = content and content:find "@Controller"
+    graph.controller_classes[file_path] = decorator_start and content:match("class%s+([%w_$]+)", decorator_start)
+      or false
+  end
+  return graph.controller_classes[file_path]
+end
+
+-- ========================================
+-- GRAPH
+-- ========================================
+
+local GRAPH_SPECS = {
+  express = {
+    file_globs = { "*.js", "*.ts", "*.mjs", "*.cjs" },
+    exclude_globs = rg.common_exclude_patterns.node,
+    search_patterns = { "\\.use\\s*\\(" },
+    -- Files declaring routes on a router, whose prefixes the mounts set
+    route_patterns = { "\\.(get|post|put|delete|patch|all)\\s*[<(]" },
+    index_file = _index_express_file,
+    -- Routers mounted by module import are the module's default export
+    default_export = true,
+  },
+  nestjs = {
+    file_globs = { "*.ts" },
+    exclude_globs = rg.common_exclude_patterns.node,
+    search_patterns = { "setGlobalPrefix", "RouterModule", "@Module\\s*\\(" },
+    route_patterns = { "@Controller\\s*\\(" },
+    index_file = _index_nestjs_file,
+  },
+  fastapi = {
+    file_globs = { "*.py" },
+    exclude_globs = rg.common_exclude_patterns.python,
+    search_patterns = { "include_router" },
+    route_patterns = { "@[A-Za-z_][A-Za-z0-9_.]*\\.(get|post|put|delete|patch)\\s*\\(" },
+    index_file = _index_fastapi_file,
+    get_own_prefix = _get_fastapi_own_prefix,
+  },
+}
+
+---Gets the command listing the files with mount calls under the searched directories
+local function _get_discovery_command(spec, search_paths)
+  return rg.create_command {
+    method_patterns = { MOUNT = spec.search_patterns },
+    file_globs = spec.file_globs,
+    exclude_globs = spec.exclude_globs,
+    extra_flags = { "--files-with-matches" },
+    search_paths = search_paths,
+  }
+end
+
+---Builds a framework's graph of a project from the files with mount calls
+local function _build(framework_name, project_root, file_paths)
+  project_root = index_root.get(project_root)
+  local spec = GRAPH_SPECS[framework_name]
+  local graph = {
+    spec = spec,
+    project_root = project_root,
+    contents = {},
+    edges = {},
+    memo = {},
+    global_prefix = "",
+    module_prefixes = {},
+    controller_modules = {},
+    controller_classes = {},
+  }
+
+  table.sort(file_paths)
+  for _, file_path in ipairs(file_paths) do
+    local content = _read_content(graph, file_path)
+    if content then
+      spec.index_file(graph, file_path, content)
+    end
+  end
+
+  index_root.get_index(_indexes, project_root).graphs[framework_name] = graph
+  log.framework_debug(
+    string.format("%s mount graph: %d files, %d routers", framework_name, #file_paths, vim.tbl_count(graph.edges))
+  )
+end
+
+local function _split_paths(output)
+  return vim.tbl_map(_normalize_path, vim.split(output or "", "\n", { trimempty = true }))
+end
+
+---Counts a scan using a framework's graph of a project
+local function _add_scan(framework_name, project_root)
+  local scan_counts = index_root.get_index(_indexes, project_root).scan_counts
+  scan_counts[framework_name] = (scan_counts[framework_name] or 0) + 1
+end
+
+---Builds a framework's mount graph for a scan, which calls release() when it finishes (synchronous)
+---@param framework_name string
+---@param scope table|nil Scan options: `project_root` (defaults to the working directory) and `search_paths`
+function M.refresh(framework_name, scope)
+  scope = scope or {}
+  _add_scan(framework_name, scope.project_root)
+  local output = vim.fn.system(_get_discovery_command(GRAPH_SPECS[framework_name], scope.search_paths))
+  _build(framework_name, scope.project_root, vim.v.shell_error == 0 and _split_paths(output) or {})
+end
+
+---Builds a framework's mount graph for a scan without blocking; the scan calls release() when it finishes
+---@param framework_name string
+---@param scope table|nil Scan options, as for refresh()
+---@param scan_handle endpoint.ScanHandle
+---@param callback fun() Not called if the scan was cancelled
+function M.refresh_async(framework_name, scope, scan_handle, callback)
+  scope = scope or {}
+  _add_scan(framework_name, scope.project_root)
+  local command = _get_discovery_command(GRAPH_SPECS[framework_name], scope.search_paths)
+  ProcessPool.static.spawn(scope.process_pool, { "sh", "-c", command }, { text = true }, function(obj)
+    -- ripgrep exits with 1 when no file matched
+    _build(framework_name, scope.project_root, obj.code == 0 and _split_paths(obj.stdout) or {})
+    callback()
+  end, scan_handle)
+end
+
+---Gets the files a framework's graph is built from, for reading them at a git revision (see endpoint.ApiDiff)
+---The files declaring routes are their dependents, compared again when a mount changed.
+---@param framework_name string
+---@return table spec
+function M.get_context_spec(framework_name)
+  local spec = GRAPH_SPECS[framework_name]
+  return {
+    file_globs = spec.file_globs,
+    exclude_globs = spec.exclude_globs,
+    search_patterns = spec.search_patterns,
+    dependents = {
+      file_globs = spec.file_globs,
+      exclude_globs = spec.exclude_globs,
+      search_patterns = spec.route_patterns,
+    },
+  }
+end
+
+---Ends a scan's use of a framework's graph, dropping the graph once no running scan of the project uses it
+---@param framework_name string
+---@param project_root string|nil Defaults to the working directory
+function M.release(framework_name, project_root)
+  local index = index_root.get_index(_indexes, project_root)
+  index.scan_counts[framework_name] = math.max((index.scan_counts[framework_name] or 0) - 1, 0)
+  if index.scan_counts[framework_name] == 0 then
+    index.graphs[framework_name] = nil
+    index.scan_counts[framework_name] = nil
+  end
+end
+
+---Gets the graph of the active scan's project, nil outside scans
+local function _get_graph(framework_name)
+  return index_root.get_index(_indexes).graphs[framework_name]
+end
+
+---Gets the edges of a node; a module's routers fall back to the edges of its default export
+local function _get_mounts(graph, node_key)
+  local mounts = graph.edges[node_key]
+  if not mounts and graph.spec.default_export then
+    mounts = graph.edges[node_key:gsub("#[^#]*$", "#default")]
+  end
+  return mounts
+end
+
+---Resolves a node's full prefix by walking its mounts to the root, memoized
+local function _resolve_prefix(graph, node_key, visiting)
+  if graph.memo[node_key] ~= nil then
+    return graph.memo[node_key]
+  end
+  if visiting[node_key] then
+    return ""
+  end
+  visiting[node_key] = true
+
+  local prefix = graph.spec.get_own_prefix and graph.spec.get_own_prefix(graph, node_key) or ""
+  local mounts = _get_mounts(graph, node_key)
+  if mounts then
+    -- A router mounted at several places keeps its first mount
+    local mount = mounts[1]
+    prefix = _join_paths(_join_paths(_resolve_prefix(graph, mount.parent, visiting), mount.prefix), prefix)
+  end
+
+  visiting[node_key] = nil
+  graph.memo[node_key] = prefix
+  return prefix
+end
+
+---Gets the prefix a router is mounted at (Express, FastAPI)
+---@param framework_name string
+---@param file_path string File declaring the routes
+---@param router_name string|nil Router the routes are declared on, nil for the module's default export
+---@return string|nil prefix nil if the router is not mounted and declares no prefix
+function M.get_router_prefix(framework_name, file_path, router_name)
+  local graph = _get_graph(framework_name)
+  if not graph then
+    return nil
+  end
+
+  local node_key = _normalize_path(file_path) .. "#" .. (router_name or "default")
+  local prefix = _resolve_prefix(graph, node_key, {})
+  if prefix == "" and not _get_mounts(graph, node_key) then
+    return nil
+  end
+  return prefix
+end
+
+---Gets the prefix of a NestJS controller's routes before its @Controller path: global prefix and RouterModule path
+---@param file_path string Controller file
+---@return string|nil prefix nil outside scans
+function M.get_controller_prefix(file_path)
+  local graph = _get_graph "nestjs"
+  if not graph then
+    return nil
+  end
+
+  local class_name = _get_controller_class(graph, _normalize_path(file_path))
+  local module_name = class_name and graph.controller_modules[class_name]
+  return _join_paths(_join_paths("", graph.global_prefix), graph.module_prefixes[module_name] or "")
+end
+
+---Drops a framework's graphs, or every graph
+---@param framework_name string|nil
+function M.clear_cache(framework_name)
+  if framework_name then
+    for _, index in pairs(_indexes.by_root) do
+      index.graphs[framework_name] = nil
+      index.scan_counts[framework_name] = nil
+    end
+  else
+    index_root.clear(_indexes)
+  end
+end
+
+M._split_args = _split_args
+
+return M
@@ -0,0 +1,445 @@
+local fs = require "endpoint.utils.fs"
+local log = require "endpoint.utils.log"
+local rg = require "endpoint.utils.rg"
+local ProcessPool = require "endpoint.core.ProcessPool"
+local index_root = require "endpoint.resolver.index_root"
+
+local uv = vim.uv or vim.loop
+
+---Route table compiled from the project's routes files, and controller actions indexed by controller
+---The routes DSL (namespace, scope, resources, member, collection, concerns) is compiled once per scan into
+---a context per line and the member actions of each resource, and app/controllers is indexed in the same
+---pass, so the Rails parser resolves each hit with table lookups instead of re-reading files. Each project root has
+---its own index (see endpoint.IndexRoot).
+---@class endpoint.RailsRouteResolver
+local M = {}
+
+local FILE_GLOBS = { "**/config/routes.rb", "**/config/routes/**/*.rb", "**/app/controllers/**/*_controller.rb" }
+
+local HTTP_VERBS = { get = true, post = true, put = true, patch = true, delete = true, match = true }
+
+-- Ruby statements closed by an `end` without a trailing `do`
+local BLOCK_KEYWORDS = { ["if"] = true, ["unless"] = true, ["case"] = true, ["begin"] = true, ["while"] = true }
+
+-- Indexes by project root: { files, controllers, resources, member_actions, built }
+-- files: compiled files by path ({ mtime, kind, compiled }); controllers: controller file by controller path
+-- (e.g. "api/v1/users"); resources and member_actions: resources declared in any routes file, and their member actions
+local _indexes = index_root.create_index_set(function()
+  return { files = {}, controllers = {}, resources = {}, member_actions = {}, built = false }
+end)
+
+local function _normalize_path(file_path)
+  return (file_path:gsub("^%./", ""))
+end
+
+---Gets a file's modification time as a comparable key
+local function _get_mtime_key(file_path)
+  local stat = uv.fs_stat(file_path)
+  if not stat then
+    return nil
+  end
+  return string.format("%d.%d", stat.mtime.sec, stat.mtime.nsec or 0)
+end
+
+---Extracts the symbols a resources line declares, before any option
+local function _get_resource_names(line)
+  local names = {}
+  local main_part = line:match "^%s*resources?%s+(.+)$"
+  if not main_part then
+    return names
+  end
+  main_part = main_part:gsub("%s+do%s*$", ""):gsub("%s+do%s*|[^|]*|%s*$", ""):gsub("%s*,%s*%a+:.*$", "")
+  for name in main_part:gmatch ":([%w_]+)" do
+    table.insert(names, name)
+  end
+  return names
+end
+
+---Extracts the concern symbols of a `concerns: [...]` option or a `concerns :name` line
+local function _get_concern_names(line)
+  local names = {}
+  local concern_list = line:match "concerns:%s*%[([^%]]*)%]"
+    or line:match "concerns:%s*(:[%w_]+)"
+    or line:match "^%s*concerns%s+(.+)$"
+  for name in (concern_list or ""):gmatch ":([%w_]+)" do
+    table.insert(names, name)
+  end
+  return names
+end
+
+---Joins a path segment to a prefix, normalizing slashes
+local function _join_path(prefix, segment)
+  segment = segment:gsub("^/+", ""):gsub("/+$", "")
+  if segment == "" then
+    return prefix
+  end
+  return prefix .. "/" .. segment
+end
+
+---Classifies the block a line opens, nil if it opens none
+local function _parse_block(line)
+  local opens_do_block = line:match "%sdo%s*$" or line:match "%sdo%s*|[^|]*|%s*$"
+  if not opens_do_block then
+    local keyword = line:match "^%s*(%a+)"
+    if keyword and BLOCK_KEYWORDS[keyword] and not line:match "%send%s*$" then
+      return { kind = "other" }
+    end
+    return nil
+  end
+
+  local namespace_name = line:match "^%s*namespace%s+:([%w_]+)"
+  if namespace_name then
+    return { kind = "namespace", path = line:match "path:%s*['\"]([^'\"]*)['\"]" or namespace_name }
+  end
+  if line:match "^%s*scope[%s%(]" then
+    local scope_path = line:match "^%s*scope%(?%s*['\"]([^'\"]*)['\"]" or line:match "path:%s*['\"]([^'\"]*)['\"]"
+    return { kind = "scope", path = scope_path or "" }
+  end
+  local resource_type = line:match "^%s*(resources?)%s+:"
+  if resource_type then
+    return { kind = resource_type, name = _get_resource_names(line)[1] }
+  end
+  local concern_name = line:match "^%s*concern%s+:([%w_]+)"
+  if concern_name then
+    return { kind = "concern", name = concern_name }
+  end
+  if line:match "^%s*member%s+do" then
+    return { kind = "member" }
+  end
+  if line:match "^%s*collection%s+do" then
+    return { kind = "collection" }
+  end
+  return { kind = "other" }
+end
+
+---Compiles a routes file into a context per line and member actions per resource or concern
+---@param lines string[]
+---@return table compiled { lines, contexts, resources, member_actions, concerns_used }
+local function _compile_routes(lines)
+  local compiled = {
+    contexts = {},
+    resources = {},
+    -- Actions by owner: resources name, or "concern:" .. concern name
+    member_actions = {},
+    -- Concerns used by resources name
+    concerns_used = {},
+  }
+  local stack = {}
+
+  local function get_owner()
+    for index = #stack, 1, -1 do
+      local block = stack[index]
+      if block.kind == "resources" or block.kind == "resource" then
+        return block.name
+      elseif block.kind == "concern" then
+        return "concern:" .. block.name
+      end
+    end
+    return nil
+  end
+
+  -- Context of the enclosing blocks, shared by consecutive lines until a block opens or closes
+  local context = { prefix = "" }
+
+  for line_number, line in ipairs(lines) do
+    compiled.contexts[line_number] = context
+
+    local innermost = stack[#stack]
+    local verb, action_name = line:match "^%s*(%a+)%s+:([%w_]+)"
+    if not action_name then
+      verb, action_name = line:match "^%s*(%a+)%s+['\"]([%w_]+)['\"]"
+    end
+    local owner = get_owner()
+    local is_member = (innermost and innermost.kind == "member") or line:match "on:%s*:member"
+    if action_name and HTTP_VERBS[verb] and owner and is_member then
+      compiled.member_actions[owner] = compiled.member_actions[owner] or {}
+      compiled.member_actions[owner][action_name] = true
+    end
+
+    if line:match "^%s*resources?%s+:" then
+      local resource_names = _get_resource_names(line)
+      for _, resource_name in ipairs(resource_names) do
+        compiled.resources[resource_name] = true
+        compiled.concerns_used[resource_name] = compiled.concerns_used[resource_name] or {}
+        vim.list_extend(compiled.concerns_used[resource_name], _get_concern_names(line))
+      end
+    elseif line:match "^%s*concerns%s+:" and owner then
+      compiled.concerns_used[owner] = compiled.concerns_used[owner] or {}
+      vim.list_extend(compiled.concerns_used[owner], _get_concern_names(line))
+    end
+
+    local block = nil
+    if line:match "^%s*end%s*$" then
+      table.remove(stack)
+    else
+      block = _parse_block(line)
+      if block then
+        table.insert(stack, block)
+      end
+    end
+
+    if block or line:match "^%s*end%s*$" then
+      local prefix = ""
+      local parent_resource = nil
+      for _, enclosing in ipairs(stack) do
+        if enclosing.kind == "namespace" or enclosing.kind == "scope" then
+          prefix = _join_path(prefix, enclosing.path)
+        elseif enclosing.kind == "resources" then
+          parent_resource = enclosing.name
+        end
+      end
+      local last = stack[#stack]
+      context = {
+        prefix = prefix,
+        parent_resource = parent_resource,
+        in_member_collection = last ~= nil and (last.kind == "member" or last.kind == "collection"),
+      }
+    end
+  end
+
+  compiled.lines = lines
+  return compiled
+end
+
+---Compiles a controller into its action definitions and their visibility
+---@param lines string[]
+---@return table compiled { actions = { [name] = { line_number, column } }, private_lines = { [line_number] = true } }
+local function _compile_controller(lines)
+  local compiled = { actions = {}, private_lines = {} }
+  local is_private = false
+
+  for line_number, line in ipairs(lines) do
+    if line:match "^%s*class%s" then
+      is_private = false
+    elseif line:match "^%s*private%s*$" or line:match "^%s*protected%s*$" then
+      is_private = true
+    elseif line:match "^%s*public%s*$" then
+      is_private = false
+    end
+
+    local def_column, action_name, after_name = line:match "^%s*()def%s+([%w_]+[?!]?)()"
+    if not def_column then
+      def_column, action_name, after_name = line:match "^%s*private%s+()def%s+([%w_]+[?!]?)()"
+    end
+    if action_name and line:sub(after_name, after_name) ~= "." then
+      if is_private or line:match "^%s*private%s+def" then
+        compiled.private_lines[line_number] = true
+      end
+      if not compiled.actions[action_name] then
+        compiled.actions[action_name] = { line_number = line_number, column = def_column }
+      end
+    end
+  end
+
+  return compiled
+end
+
+---Gets the kind of a discovered file
+local function _get_kind(file_path)
+  return file_path:match "controllers/.*_controller%.rb$" and "controller" or "routes"
+end
+
+---Compiles a file into an index if it is new or its mtime changed
+---@return boolean changed
+local function _load_file(index, file_path, kind)
+  local mtime_key = _get_mtime_key(file_path)
+  local cached = index.files[file_path]
+  if not mtime_key or (cached and cached.mtime == mtime_key) then
+    return false
+  end
+
+  local lines = fs.read_file(file_path)
+  if not lines then
+    return false
+  end
+  local compiled = kind == "controller" and _compile_controller(lines) or _compile_routes(lines)
+  index.files[file_path] = { mtime = mtime_key, kind = kind, compiled = compiled }
+  return true
+end
+
+---Merges the compiled files of an index into its lookup tables
+local function _rebuild_lookup(index)
+  local controllers = {}
+  local resources = {}
+  local member_actions = {}
+
+  local file_paths = vim.tbl_keys(index.files)
+  table.sort(file_paths)
+  for _, file_path in ipairs(file_paths) do
+    local file = index.files[file_path]
+    if file.kind == "controller" then
+      local controller_path = file_path:match "controllers/(.*)_controller%.rb$"
+      controllers[controller_path] = controllers[controller_path] or file_path
+    else
+      local compiled = file.compiled
+      for resource_name in pairs(compiled.resources) do
+        resources[resource_name] = true
+      end
+
+      for owner, actions in pairs(compiled.member_actions) do
+        member_actions[owner] = vim.tbl_extend("force", member_actions[owner] or {}, actions)
+      end
+      -- Concerns contribute their member actions to the resources using them
+      for resource_name, concern_names in pairs(compiled.concerns_used) do
+        for _, concern_name in ipairs(concern_names) do
+          local concern_actions = compiled.member_actions["concern:" .. concern_name]
+          if concern_actions then
+            member_actions[resource_name] = vim.tbl_extend("force", member_actions[resource_name] or {}, concern_actions)
+          end
+        end
+      end
+    end
+  end
+
+  index.controllers = controllers
+  index.resources = resources
+  index.member_actions = member_actions
+end
+
+---Updates a project's index from discovered file paths, re-compiling only changed ones
+local function _update(project_root, file_paths)
+  local index = index_root.get_index(_indexes, project_root)
+  local changed = not index.built
+  local discovered = {}
+
+  for _, file_path in ipairs(file_paths) do
+    discovered[file_path] = true
+    if _load_file(index, file_path, _get_kind(file_path)) then
+      changed = true
+    end
+  end
+
+  for file_path in pairs(index.files) do
+    if not discovered[file_path] then
+      index.files[file_path] = nil
+      changed = true
+    end
+  end
+
+  if changed then
+    _rebuild_lookup(index)
+    log.framework_debug(string.format("Rails route index: %d files", vim.tbl_count(index.files)))
+  end
+  index.built = true
+end
+
+---Gets the command listing the routes files and controllers under the searched directories
+local function _get_discovery_command(search_paths)
+  return rg.create_files_command {
+    file_globs = FILE_GLOBS,
+    exclude_globs = rg.common_exclude_patterns.ruby,
+    search_paths = search_paths,
+  }
+end
+
+local function _split_paths(output)
+  return vim.tbl_map(_normalize_path, vim.split(output or "", "\n", { trimempty = true }))
+end
+
+---Discovers routes files and controllers and updates the index (synchronous)
+---@param scope table|nil Scan options: `project_root` (defaults to the working directory) and `search_paths`
+function M.refresh(scope)
+  scope = scope or {}
+  local output = vim.fn.system(_get_discovery_command(scope.search_paths))
+  _update(scope.project_root, vim.v.shell_error == 0 and _split_paths(output) or {})
+end
+
+---Discovers routes files and controllers and updates the index without blocking
+---@param scope table|nil Scan options, as for refresh()
+---@param scan_handle endpoint.ScanHandle
+---@param callback fun() Not called if the scan was cancelled
+function M.refresh_async(scope, scan_handle, callback)
+  scope = scope or {}
+  local command = _get_discovery_command(scope.search_paths)
+  ProcessPool.static.spawn(scope.process_pool, { "sh", "-c", command }, { text = true }, function(obj)
+    _update(scope.project_root, obj.code == 0 and _split_paths(obj.stdout) or {})
+    callback()
+  end, scan_handle)
+end
+
+---Gets the index of the active scan's project, built if it was not; scans refresh it for the directories they scan
+local function _get_built_index()
+  local index = index_root.get_index(_indexes)
+  if not index.built then
+    M.refresh()
+  end
+  return index
+end
+
+---Gets a compiled file, compiling files outside the discovered ones on first use
+local function _get_compiled(file_path, kind)
+  local index = _get_built_index()
+  file_path = _normalize_path(file_path)
+  if not index.files[file_path] then
+    _load_file(index, file_path, kind)
+  end
+  local file = index.files[file_path]
+  return file and file.kind == kind and file.compiled or nil
+end
+
+---Gets the routes context of a line: enclosing namespace/scope prefix, parent resources, member/collection block
+---@param file_path string
+---@param line_number number
+---@return table|nil context { prefix, parent_resource, in_member_collection, line }
+function M.get_route_context(file_path, line_number)
+  local compiled = _get_compiled(file_path, "routes")
+  local context = compiled and compiled.contexts[line_number]
+  if not context then
+    return nil
+  end
+  return vim.tbl_extend("force", context, { line = compiled.lines[line_number] })
+end
+
+---Checks if a resource is declared in any routes file
+---@param resource_name string
+---@return boolean
+function M.has_resource(resource_name)
+  return _get_built_index().resources[resource_name] == true
+end
+
+---Checks if an action is routed as a member route (on: :member, or inside a member block) of a resource
+---@param resource_name string
+---@param action_name string
+---@return boolean
+function M.is_member_action(resource_name, action_name)
+  local member_actions = _get_built_index().member_actions[resource_name]
+  return member_actions ~= nil and member_actions[action_name] == true
+end
+
+---Finds where a controller defines an action
+---@param controller_path string Controller path without suffix, e.g. "users" or "api/v1/users"
+---@param action_name string
+---@return table|nil location { file_path, line_number, column }
+function M.find_controller_action(controller_path, action_name)
+  local file_path = _get_built_index().controllers[controller_path]
+  local compiled = file_path and _get_compiled(file_path, "controller")
+  local action = compiled and compiled.actions[action_name]
+  if not action then
+    return nil
+  end
+  return { file_path = file_path, line_number = action.line_number, column = action.column }
+end
+
+---Checks if the method defined at a controller line is private or protected
+---@param file_path string
+---@param line_number number
+---@return boolean
+function M.is_private_method(file_path, line_number)
+  local compiled = _get_compiled(file_path, "controller")
+  return compiled ~= nil and compiled.private_lines[line_number] == true
+end
+
+---Gets the files refresh() indexes, for reading them at a git revision (see endpoint.ApiDiff)
+---@return table spec
+function M.get_context_spec()
+  return { file_globs = FILE_GLOBS, exclude_globs = rg.common_exclude_patterns.ruby }
+end
+
+function M.clear_cache()
+  index_root.clear(_indexes)
+end
+
+M._compile_routes = _compile_routes
+M._compile_controller = _compile_controller
+
+return M
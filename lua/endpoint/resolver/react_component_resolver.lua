@@ -0,0 +1,274 @@
+local fs = require "endpoint.utils.fs"
+local log = require "endpoint.utils.log"
+local rg = require "endpoint.utils.rg"
+local ProcessPool = require "endpoint.core.ProcessPool"
+local index_root = require "endpoint.resolver.index_root"
+
+---Index of the project's component files by component name, built from one `rg --files` listing per scan
+---Route components resolve through the static and lazy `import()` bindings of the routes file first, then
+---through the conventional locations (Name.tsx, Name/index.tsx, src/pages/Name.tsx, ...), checked against
+---the listing instead of probing the disk. Each project root has its own index (see endpoint.IndexRoot).
+---@class endpoint.ReactComponentResolver
+local M = {}
+
+-- Extensions in resolution order
+local EXTENSIONS = { ".tsx", ".jsx", ".ts", ".js" }
+local FILE_GLOBS = { "*.tsx", "*.jsx", "*.ts", "*.js" }
+
+-- Conventional component directories, and their nested directories
+local SEARCH_DIRS = { "src", "app", "components", "pages" }
+local NESTED_DIRS = { "components", "pages", "views", "containers" }
+
+-- Indexes by project root: { root_prefix, paths, by_name, resolved, bindings, definition_lines, built }
+-- root_prefix: prefix of listed paths, empty for the working directory's project, whose listing is relative;
+-- paths and by_name: listed files, and the files named after a component (Name.tsx or Name/index.tsx);
+-- resolved, bindings and definition_lines: per-scan caches of resolved component names, import bindings by routes
+-- file, and definition lines by file
+local _indexes = index_root.create_index_set(function()
+  return {
+    root_prefix = "",
+    paths = {},
+    by_name = {},
+    resolved = {},
+    bindings = {},
+    definition_lines = {},
+    built = false,
+  }
+end)
+
+local function _normalize_path(file_path)
+  return (file_path:gsub("^%./", ""))
+end
+
+---Gets the component name a file is named after
+local function _get_component_name(file_path)
+  local name = file_path:match "([^/]+)%.[jt]sx?$"
+  if name == "index" then
+    return file_path:match "([^/]+)/index%.[jt]sx?$"
+  end
+  return name
+end
+
+---Rebuilds a project's index from a listing
+local function _update(project_root, file_paths)
+  project_root = index_root.get(project_root)
+  index_root.clear(_indexes, project_root)
+  local index = index_root.get_index(_indexes, project_root)
+  index.root_prefix = project_root ~= vim.fn.getcwd() and project_root .. "/" or ""
+
+  for _, file_path in ipairs(file_paths) do
+    index.paths[file_path] = true
+    local component_name = _get_component_name(file_path)
+    if component_name then
+      index.by_name[component_name] = true
+    end
+  end
+
+  index.built = true
+  log.framework_debug(string.format("Component index: %d files", #file_paths))
+end
+
+---Gets the command listing the component files under the searched directories
+local function _get_discovery_command(search_paths)
+  return rg.create_files_command {
+    file_globs = FILE_GLOBS,
+    exclude_globs = rg.common_exclude_patterns.node,
+    search_paths = search_paths,
+  }
+end
+
+local function _split_paths(output)
+  return vim.tbl_map(_normalize_path, vim.split(output or "", "\n", { trimempty = true }))
+end
+
+---Lists the component files and rebuilds the index (synchronous)
+---@param scope table|nil Scan options: `project_root` (defaults to the working directory) and `search_paths`
+function M.refresh(scope)
+  scope = scope or {}
+  local output = vim.fn.system(_get_discovery_command(scope.search_paths))
+  _update(scope.project_root, vim.v.shell_error == 0 and _split_paths(output) or {})
+end
+
+---Lists the component files and rebuilds the index without blocking
+---@param scope table|nil Scan options, as for refresh()
+---@param scan_handle endpoint.ScanHandle
+---@param callback fun() Not called if the scan was cancelled
+function M.refresh_async(scope, scan_handle, callback)
+  scope = scope or {}
+  local command = _get_discovery_command(scope.search_paths)
+  ProcessPool.static.spawn(scope.process_pool, { "sh", "-c", command }, { text = true }, function(obj)
+    _update(scope.project_root, obj.code == 0 and _split_paths(obj.stdout) or {})
+    callback()
+  end, scan_handle)
+end
+
+---Gets the index of the active scan's project, built if it was not; scans refresh it for the directories they scan
+local function _get_built_index()
+  if not index_root.get_index(_indexes).built then
+    M.refresh()
+  end
+  -- refresh() replaces the index
+  return index_root.get_index(_indexes)
+end
+
+---Finds a listed file for a module path without extension: path.ext, then path/index.ext
+local function _find_module_file(index, module_path)
+  if index.paths[module_path] then
+    return module_path
+  end
+  for _, extension in ipairs(EXTENSIONS) do
+    if index.paths[module_path .. extension] then
+      return module_path .. extension
+    end
+  end
+  for _, extension in ipairs(EXTENSIONS) do
+    if index.paths[module_path .. "/index" .. extension] then
+      return module_path .. "/index" .. extension
+    end
+  end
+  return nil
+end
+
+---Resolves a relative import specifier against the importing file's directory
+local function _resolve_specifier(index, importer_path, specifier)
+  if not specifier:match "^%.%.?/" then
+    return nil
+  end
+
+  local segments = {}
+  for segment in (importer_path:match "^(.*)/[^/]*$" or ""):gmatch "[^/]+" do
+    table.insert(segments, segment)
+  end
+  for segment in specifier:gmatch "[^/]+" do
+    if segment == ".." then
+      table.remove(segments)
+    elseif segment ~= "." then
+      table.insert(segments, segment)
+    end
+  end
+  return _find_module_file(index, (importer_path:match "^/" and "/" or "") .. table.concat(segments, "/"))
+end
+
+---Parses a file's default and lazy import() bindings once per scan
+local function _get_bindings(index, file_path)
+  if index.bindings[file_path] then
+    return index.bindings[file_path]
+  end
+
+  local bindings = {}
+  local lines = fs.read_file(file_path)
+  local content = lines and table.concat(lines, "\n") or ""
+
+  -- import Users from "./pages/Users"
+  for name, specifier in content:gmatch "import%s+([%w_$]+)%s*,?[^;\n]-%s+from%s+['\"]([^'\"]+)['\"]" do
+    bindings[name] = specifier
+  end
+  -- const Users = lazy(() => import("./pages/Users"))
+  for name, specifier in
+    content:gmatch "([%w_$]+)%s*=%s*[%w_.]*lazy%s*%(%s*%(%s*%)%s*=>%s*{?%s*[%w%s]-import%s*%(%s*['\"]([^'\"]+)['\"]"
+  do
+    bindings[name] = specifier
+  end
+
+  index.bindings[file_path] = bindings
+  return bindings
+end
+
+---Finds a component by name in the conventional locations, in the same order the paths are probed on disk
+local function _find_by_name(index, component_name)
+  local function find_in(dir)
+    return _find_module_file(index, index.root_prefix .. (dir and (dir .. "/" .. component_name) or component_name))
+  end
+
+  local found = find_in(nil)
+  if found then
+    return found
+  end
+
+  for _, search_dir in ipairs(SEARCH_DIRS) do
+    found = find_in(search_dir)
+    if found then
+      return found
+    end
+    for _, nested_dir in ipairs(NESTED_DIRS) do
+      found = find_in(search_dir .. "/" .. nested_dir)
+      if found then
+        return found
+      end
+    end
+  end
+  return nil
+end
+
+---Finds the file of a route component
+---@param component_name string
+---@param routes_file_path string|nil File declaring the route, whose imports are resolved first
+---@return string|nil
+function M.find_component_file(component_name, routes_file_path)
+  local index = _get_built_index()
+
+  if routes_file_path then
+    routes_file_path = _normalize_path(routes_file_path)
+    local specifier = _get_bindings(index, routes_file_path)[component_name]
+    local imported = specifier and _resolve_specifier(index, routes_file_path, specifier)
+    if imported then
+      return imported
+    end
+  end
+
+  -- Most route elements are not project components (e.g. <Navigate />); skip them with one lookup
+  if not index.by_name[component_name] then
+    return nil
+  end
+  if index.resolved[component_name] == nil then
+    index.resolved[component_name] = _find_by_name(index, component_name) or false
+  end
+  return index.resolved[component_name] or nil
+end
+
+---Finds the line defining a component in lines of its file (1-based), false if there is none
+---@param lines string[]
+---@param component_name string
+---@return number|false
+function M.find_definition_line(lines, component_name)
+  for line_number, line in ipairs(lines) do
+    if
+      line:match("const%s+" .. component_name)
+      or line:match("function%s+" .. component_name)
+      or line:match("export%s+default%s+" .. component_name)
+      or line:match("export%s+default%s+function%s+" .. component_name)
+    then
+      return line_number
+    end
+  end
+  return false
+end
+
+---Finds the line defining a route component in its file, read once per file during a scan
+---The parser keeps it on the endpoint (component_line_number), so previews find it in the cached index.
+---@param component_file_path string
+---@param component_name string
+---@return number|false
+function M.find_component_line(component_file_path, component_name)
+  local index = index_root.get_index(_indexes)
+  index.definition_lines[component_file_path] = index.definition_lines[component_file_path] or {}
+  local definition_lines = index.definition_lines[component_file_path]
+  if definition_lines[component_name] == nil then
+    local lines = fs.read_file(component_file_path) or {}
+    definition_lines[component_name] = M.find_definition_line(lines, component_name)
+  end
+  return definition_lines[component_name]
+end
+
+---Gets the files refresh() lists, for listing them at a git revision (see endpoint.ApiDiff)
+---Only their paths are looked up, so their contents are not needed.
+---@return table spec
+function M.get_context_spec()
+  return { file_globs = FILE_GLOBS, exclude_globs = rg.common_exclude_patterns.node, paths_only = true }
+end
+
+function M.clear_cache()
+  index_root.clear(_indexes)
+end
+
+return M
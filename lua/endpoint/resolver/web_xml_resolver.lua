@@ -0,0 +1,207 @@
+local log = require "endpoint.utils.log"
+local rg = require "endpoint.utils.rg"
+local ProcessPool = require "endpoint.core.ProcessPool"
+local index_root = require "endpoint.resolver.index_root"
+
+local uv = vim.uv or vim.loop
+
+---Index of servlet url-patterns by servlet class, built from every web.xml and web-fragment.xml in the project
+---Descriptors are discovered once per scan and re-parsed only when their mtime changed, so resolving the
+---mapping of a servlet hit is a table lookup. Each project root has its own index (see endpoint.IndexRoot).
+---@class endpoint.WebXmlResolver
+local M = {}
+
+local DESCRIPTOR_GLOBS = { "web.xml", "web-fragment.xml" }
+
+-- Indexes by project root: { descriptors, by_class, by_simple_name, built }
+-- descriptors: parsed descriptors by path ({ mtime, mappings }); by_class and by_simple_name: url-patterns by
+-- fully qualified servlet class and by simple class name
+local _indexes = index_root.create_index_set(function()
+  return { descriptors = {}, by_class = {}, by_simple_name = {}, built = false }
+end)
+
+---Gets a descriptor's modification time as a comparable key
+local function _get_mtime_key(file_path)
+  local stat = uv.fs_stat(file_path)
+  if not stat then
+    return nil
+  end
+  return string.format("%d.%d", stat.mtime.sec, stat.mtime.nsec or 0)
+end
+
+---Parses a web.xml or web-fragment.xml into url-patterns by servlet class
+---@param content string
+---@return table<string, string[]>
+local function _parse_descriptor(content)
+  content = content:gsub("<!%-%-.-%-%->", "")
+
+  local classes_by_name = {}
+  for servlet_block in content:gmatch "<servlet>(.-)</servlet>" do
+    local servlet_name = servlet_block:match "<servlet%-name>%s*([^<]-)%s*</servlet%-name>"
+    local servlet_class = servlet_block:match "<servlet%-class>%s*([^<]-)%s*</servlet%-class>"
+    if servlet_name and servlet_class then
+      classes_by_name[servlet_name] = servlet_class
+    end
+  end
+
+  local mappings = {}
+  for mapping_block in content:gmatch "<servlet%-mapping>(.-)</servlet%-mapping>" do
+    local servlet_name = mapping_block:match "<servlet%-name>%s*([^<]-)%s*</servlet%-name>"
+    local servlet_class = servlet_name and classes_by_name[servlet_name]
+    if servlet_class then
+      mappings[servlet_class] = mappings[servlet_class] or {}
+      -- A mapping may list several url-patterns
+      for url_pattern in mapping_block:gmatch "<url%-pattern>%s*([^<]-)%s*</url%-pattern>" do
+        table.insert(mappings[servlet_class], url_pattern)
+      end
+    end
+  end
+
+  return mappings
+end
+
+---Merges the parsed descriptors of an index into its lookup tables
+local function _rebuild_lookup(index)
+  index.by_class = {}
+  index.by_simple_name = {}
+
+  local descriptor_paths = vim.tbl_keys(index.descriptors)
+  table.sort(descriptor_paths)
+  for _, descriptor_path in ipairs(descriptor_paths) do
+    for servlet_class, url_patterns in pairs(index.descriptors[descriptor_path].mappings) do
+      local simple_name = servlet_class:match "([^.]+)$"
+      for _, lookup in ipairs { { index.by_class, servlet_class }, { index.by_simple_name, simple_name } } do
+        local index, key = lookup[1], lookup[2]
+        index[key] = index[key] or {}
+        for _, url_pattern in ipairs(url_patterns) do
+          if not vim.tbl_contains(index[key], url_pattern) then
+            table.insert(index[key], url_pattern)
+          end
+        end
+      end
+    end
+  end
+end
+
+---Updates a project's index from discovered descriptor paths, re-parsing only changed ones
+local function _update(project_root, descriptor_paths)
+  local index = index_root.get_index(_indexes, project_root)
+  local changed = not index.built
+  local discovered = {}
+
+  for _, descriptor_path in ipairs(descriptor_paths) do
+    discovered[descriptor_path] = true
+    local mtime_key = _get_mtime_key(descriptor_path)
+    local cached = index.descriptors[descriptor_path]
+
+    if mtime_key and (not cached or cached.mtime ~= mtime_key) then
+      local ok, lines = pcall(vim.fn.readfile, descriptor_path)
+      if ok then
+        local mappings = _parse_descriptor(table.concat(lines, "\n"))
+        index.descriptors[descriptor_path] = { mtime = mtime_key, mappings = mappings }
+        changed = true
+      end
+    end
+  end
+
+  for descriptor_path in pairs(index.descriptors) do
+    if not discovered[descriptor_path] then
+      index.descriptors[descriptor_path] = nil
+      changed = true
+    end
+  end
+
+  if changed then
+    _rebuild_lookup(index)
+    log.framework_debug(string.format("web.xml index: %d descriptors", vim.tbl_count(index.descriptors)))
+  end
+  index.built = true
+end
+
+---Gets the command listing the deployment descriptors under the searched directories
+local function _get_discovery_command(search_paths)
+  return rg.create_files_command {
+    file_globs = DESCRIPTOR_GLOBS,
+    exclude_globs = rg.common_exclude_patterns.java,
+    search_paths = search_paths,
+  }
+end
+
+local function _split_paths(output)
+  return vim.tbl_map(function(file_path)
+    return (file_path:gsub("^%./", ""))
+  end, vim.split(output or "", "\n", { trimempty = true }))
+end
+
+---Discovers descriptors and updates the index (synchronous)
+---@param scope table|nil Scan options: `project_root` (defaults to the working directory) and `search_paths`
+function M.refresh(scope)
+  scope = scope or {}
+  local output = vim.fn.system(_get_discovery_command(scope.search_paths))
+  _update(scope.project_root, vim.v.shell_error == 0 and _split_paths(output) or {})
+end
+
+---Discovers descriptors and updates the index without blocking
+---@param scope table|nil Scan options, as for refresh()
+---@param scan_handle endpoint.ScanHandle
+---@param callback fun() Not called if the scan was cancelled
+function M.refresh_async(scope, scan_handle, callback)
+  scope = scope or {}
+  local command = _get_discovery_command(scope.search_paths)
+  ProcessPool.static.spawn(scope.process_pool, { "sh", "-c", command }, { text = true }, function(obj)
+    _update(scope.project_root, obj.code == 0 and _split_paths(obj.stdout) or {})
+    callback()
+  end, scan_handle)
+end
+
+---Gets the index of the active scan's project, built if it was not; scans refresh it for the directories they scan
+local function _get_built_index()
+  local index = index_root.get_index(_indexes)
+  if not index.built then
+    M.refresh()
+  end
+  return index
+end
+
+---Gets the url-patterns mapped to a servlet class
+---@param servlet_class string Fully qualified class, or a simple class name when the package is unknown
+---@return string[]|nil
+function M.get_url_patterns(servlet_class)
+  local index = _get_built_index()
+
+  local url_patterns = servlet_class:find(".", 1, true) and index.by_class[servlet_class]
+    or index.by_simple_name[servlet_class]
+  if url_patterns and #url_patterns > 0 then
+    return vim.deepcopy(url_patterns)
+  end
+  return nil
+end
+
+---Checks if the project has any deployment descriptor
+---@return boolean
+function M.has_descriptors()
+  return next(_get_built_index().descriptors) ~= nil
+end
+
+---Gets the files refresh() indexes, for reading them at a git revision (see endpoint.ApiDiff)
+---The servlets they map are their dependents, compared again when a descriptor changed.
+---@return table spec
+function M.get_context_spec()
+  return {
+    file_globs = DESCRIPTOR_GLOBS,
+    exclude_globs = rg.common_exclude_patterns.java,
+    dependents = {
+      file_globs = { "*.java" },
+      exclude_globs = rg.common_exclude_patterns.java,
+      search_patterns = { "extends\\s+HttpServlet" },
+    },
+  }
+end
+
+function M.clear_cache()
+  index_root.clear(_indexes)
+end
+
+M._parse_descriptor = _parse_descriptor
+
+return M
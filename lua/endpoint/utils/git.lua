@@ -0,0 +1,166 @@
+-- Git utility functions
+local M = {}
+
+---Gets the repository of a directory
+---@param cwd string|nil Defaults to the working directory
+---@return { top_level: string, git_dir: string, common_dir: string, head: string }|nil nil outside a repository
+---or without commits
+function M.get_repo(cwd)
+  cwd = cwd or vim.fn.getcwd()
+  local output = vim.fn.systemlist {
+    "git",
+    "-C",
+    cwd,
+    "rev-parse",
+    "--show-toplevel",
+    "--absolute-git-dir",
+    "--git-common-dir",
+    "HEAD",
+  }
+  if vim.v.shell_error ~= 0 or #output < 4 then
+    return nil
+  end
+
+  local common_dir = output[3]
+  if not common_dir:match "^/" and not common_dir:match "^%a:" then
+    common_dir = cwd .. "/" .. common_dir
+  end
+
+  return {
+    top_level = output[1],
+    -- The worktree's own, holding its HEAD
+    git_dir = output[2],
+    -- Shared by every worktree of the repository
+    common_dir = (vim.fn.fnamemodify(common_dir, ":p"):gsub("/$", "")),
+    head = output[4],
+  }
+end
+
+---Reads the first line of a file, nil when it cannot be read
+local function read_first_line(file_path)
+  local file = io.open(file_path, "r")
+  if not file then
+    return nil
+  end
+  local line = file:read "*l"
+  file:close()
+  return line
+end
+
+---Reads the commit HEAD points to from the repository's files, without starting git
+---Covers a detached HEAD and branches stored as loose or packed refs.
+---@param repo table From get_repo()
+---@return string|nil head nil when the refs are stored some other way (e.g. reftable)
+function M.read_head(repo)
+  local head = read_first_line(repo.git_dir .. "/HEAD")
+  local ref = head and head:match "^ref:%s*(%S+)"
+  if not ref then
+    return head and head:match "^%x+$"
+  end
+
+  local sha = read_first_line(repo.git_dir .. "/" .. ref) or read_first_line(repo.common_dir .. "/" .. ref)
+  if sha then
+    return sha:match "^%x+$"
+  end
+
+  local packed_refs = io.open(repo.common_dir .. "/packed-refs", "r")
+  if not packed_refs then
+    return nil
+  end
+  for line in packed_refs:lines() do
+    local packed_sha, packed_ref = line:match "^(%x+) (%S+)$"
+    if packed_ref == ref then
+      packed_refs:close()
+      return packed_sha
+    end
+  end
+  packed_refs:close()
+  return nil
+end
+
+-- Reads the paths to hash from stdin, printing one blob SHA per line
+M.HASH_FILES_COMMAND = { "git", "hash-object", "--stdin-paths" }
+
+---Hashes files the way git stores them (blob SHA of their current contents)
+---Works for untracked files and files outside a repository too.
+---@param file_paths string[] Existing files
+---@return table<string, string>|nil blobs Blob SHA by file path, nil when git is unavailable
+function M.hash_files(file_paths)
+  if #file_paths == 0 then
+    return {}
+  end
+
+  local output = vim.fn.systemlist(M.HASH_FILES_COMMAND, file_paths)
+  if vim.v.shell_error ~= 0 then
+    return nil
+  end
+  return M.to_blobs(file_paths, output)
+end
+
+---Pairs the files given to HASH_FILES_COMMAND with its output lines
+---@param file_paths string[]
+---@param output string[]
+---@return table<string, string>|nil blobs Blob SHA by file path, nil when a line is missing
+function M.to_blobs(file_paths, output)
+  if #output ~= #file_paths then
+    return nil
+  end
+
+  local blobs = {}
+  for index, file_path in ipairs(file_paths) do
+    blobs[file_path] = output[index]
+  end
+  return blobs
+end
+
+---Lists the files changed between two revisions, or between a revision and the working tree
+---Renames are listed as a deletion and an addition, so both paths are compared.
+---@param base string
+---@param head string|nil Defaults to the working tree (including untracked files)
+---@param cwd string|nil Defaults to the working directory
+---@return string[]|nil file_paths Relative to `cwd` and limited to it, nil when a revision is unknown
+function M.changed_files(base, head, cwd)
+  cwd = cwd or vim.fn.getcwd()
+  local output = vim.fn.systemlist(M.get_diff_command(base, head, cwd))
+  if vim.v.shell_error ~= 0 then
+    return nil
+  end
+
+  if not head then
+    local untracked = vim.fn.systemlist { "git", "-C", cwd, "ls-files", "--others", "--exclude-standard" }
+    if vim.v.shell_error == 0 then
+      vim.list_extend(output, untracked)
+    end
+  end
+  return output
+end
+
+---Gets the `git diff` listing the files changed between two revisions (tracked files only)
+---@param base string
+---@param head string|nil Defaults to the working tree
+---@param cwd string
+---@return string[]
+function M.get_diff_command(base, head, cwd)
+  local command = { "git", "-C", cwd, "diff", "--name-only", "--no-renames", "--relative", base }
+  if head then
+    table.insert(command, head)
+  end
+  table.insert(command, "--")
+  return command
+end
+
+---Reads a file as of a revision
+---@param revision string
+---@param file_path string Relative to `cwd`
+---@param cwd string|nil Defaults to the working directory
+---@return string[]|nil lines nil when the file does not exist at the revision
+function M.show_file(revision, file_path, cwd)
+  cwd = cwd or vim.fn.getcwd()
+  local output = vim.fn.systemlist { "git", "-C", cwd, "show", revision .. ":./" .. file_path }
+  if vim.v.shell_error ~= 0 then
+    return nil
+  end
+  return output
+end
+
+return M
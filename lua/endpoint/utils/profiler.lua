@@ -0,0 +1,321 @@
+-- Scan profiler utility for endpoint.nvim
+-- Records per-phase timings, Lua heap deltas, parser hit counts and per-file costs
+---@class endpoint.utils.profiler
+local M = {}
+
+local config = require "endpoint.config"
+local uv = vim.uv or vim.loop
+
+---@class endpoint.profile.phase
+---@field phase string Phase name (detection, ripgrep, parse, resolve_constants, post_process, picker, ...)
+---@field framework_name string|nil Framework the phase belongs to
+---@field duration_ms number Wall time spent in the phase
+---@field memory_delta_kb number Lua heap delta (collectgarbage "count") across the phase
+
+---@class endpoint.profile
+---@field label string
+---@field started_at number hrtime at start
+---@field finished_at number|nil hrtime at finish
+---@field memory_start_kb number
+---@field memory_peak_kb number
+---@field phases endpoint.profile.phase[]
+---@field frameworks table<string, { duration_ms: number, memory_delta_kb: number }>
+---@field parsers table<string, { accepted: number, rejected: number }>
+---@field files table<string, { duration_ms: number, hits: number, framework_name: string|nil }>
+
+---@type endpoint.profile|nil
+local _active = nil
+
+---@type endpoint.profile|nil
+local _last = nil
+
+local function now_ns()
+  return uv.hrtime()
+end
+
+---High-resolution timestamp in nanoseconds
+---@return number
+M.now = now_ns
+
+local function heap_kb()
+  return collectgarbage "count"
+end
+
+---Check if profiling is enabled
+---@return boolean
+function M.is_enabled()
+  local profiler_config = config.get().profiler or {}
+  return profiler_config.enabled == true
+end
+
+---Begin a new profile and make it the active one
+---@param label string|nil
+---@return endpoint.profile|nil
+function M.begin(label)
+  if not M.is_enabled() then
+    return nil
+  end
+
+  local memory = heap_kb()
+
+  ---@type endpoint.profile
+  local profile = {
+    label = label or "scan",
+    started_at = now_ns(),
+    finished_at = nil,
+    memory_start_kb = memory,
+    memory_peak_kb = memory,
+    phases = {},
+    frameworks = {},
+    parsers = {},
+    files = {},
+  }
+
+  _active = profile
+  return profile
+end
+
+---Get the currently active profile
+---@return endpoint.profile|nil
+function M.get_active()
+  return _active
+end
+
+---Get the most recently finished profile
+---@return endpoint.profile|nil
+function M.get_last()
+  return _last
+end
+
+---Start a phase span on the active profile
+---@param phase string
+---@param framework_name string|nil
+---@return table|nil span
+function M.start_phase(phase, framework_name)
+  if not _active then
+    return nil
+  end
+
+  return {
+    profile = _active,
+    phase = phase,
+    framework_name = framework_name,
+    started_at = now_ns(),
+    memory_start_kb = heap_kb(),
+  }
+end
+
+---Finish a phase span and emit a SCAN_PHASE event
+---@param span table|nil Span returned by start_phase
+---@param extra table|nil Extra fields merged into the recorded phase
+---@return endpoint.profile.phase|nil
+function M.end_phase(span, extra)
+  if not span then
+    return nil
+  end
+
+  local profile = span.profile
+  local memory = heap_kb()
+
+  local phase = {
+    phase = span.phase,
+    framework_name = span.framework_name,
+    duration_ms = (now_ns() - span.started_at) / 1e6,
+    memory_delta_kb = memory - span.memory_start_kb,
+  }
+
+  if extra then
+    for key, value in pairs(extra) do
+      phase[key] = value
+    end
+  end
+
+  profile.memory_peak_kb = math.max(profile.memory_peak_kb, memory)
+  table.insert(profile.phases, phase)
+
+  if span.framework_name then
+    local totals = profile.frameworks[span.framework_name] or { duration_ms = 0, memory_delta_kb = 0 }
+    totals.duration_ms = totals.duration_ms + phase.duration_ms
+    totals.memory_delta_kb = totals.memory_delta_kb + phase.memory_delta_kb
+    profile.frameworks[span.framework_name] = totals
+  end
+
+  local Events = require "endpoint.core.Events"
+  Events.static.get_instance():emit_event(Events.static.EVENT_TYPES.SCAN_PHASE, {
+    profile_label = profile.label,
+    phase = phase.phase,
+    framework_name = phase.framework_name,
+    duration_ms = phase.duration_ms,
+    memory_delta_kb = phase.memory_delta_kb,
+  })
+
+  return phase
+end
+
+---Record whether a parser accepted or rejected a search hit
+---@param parser_name string
+---@param accepted boolean
+function M.record_hit(parser_name, accepted)
+  if not _active then
+    return
+  end
+
+  local counts = _active.parsers[parser_name]
+  if not counts then
+    counts = { accepted = 0, rejected = 0 }
+    _active.parsers[parser_name] = counts
+  end
+
+  if accepted then
+    counts.accepted = counts.accepted + 1
+  else
+    counts.rejected = counts.rejected + 1
+  end
+end
+
+---Accumulate parse time spent on a single file
+---@param file_path string
+---@param duration_ns number
+---@param framework_name string|nil
+function M.record_file(file_path, duration_ns, framework_name)
+  if not _active then
+    return
+  end
+
+  local entry = _active.files[file_path]
+  if not entry then
+    entry = { duration_ms = 0, hits = 0, framework_name = framework_name }
+    _active.files[file_path] = entry
+  end
+
+  entry.duration_ms = entry.duration_ms + duration_ns / 1e6
+  entry.hits = entry.hits + 1
+end
+
+---Finish a profile; it becomes the one shown by :EndpointProfile
+---@param profile endpoint.profile|nil
+---@return endpoint.profile|nil
+function M.finish(profile)
+  if not profile then
+    return nil
+  end
+
+  profile.finished_at = now_ns()
+  profile.memory_peak_kb = math.max(profile.memory_peak_kb, heap_kb())
+
+  if _active == profile then
+    _active = nil
+  end
+  _last = profile
+
+  return profile
+end
+
+---Get the slowest files of a profile
+---@param profile endpoint.profile
+---@param limit number|nil
+---@return table[] files { file_path, duration_ms, hits, framework_name }
+function M.get_slowest_files(profile, limit)
+  local files = {}
+  for file_path, entry in pairs(profile.files) do
+    table.insert(files, {
+      file_path = file_path,
+      duration_ms = entry.duration_ms,
+      hits = entry.hits,
+      framework_name = entry.framework_name,
+    })
+  end
+
+  table.sort(files, function(a, b)
+    return a.duration_ms > b.duration_ms
+  end)
+
+  return vim.list_slice(files, 1, limit or #files)
+end
+
+---Format a profile as report lines
+---@param profile endpoint.profile
+---@param opts table|nil { slowest_files = number }
+---@return string[]
+function M.format_report(profile, opts)
+  opts = opts or {}
+  local lines = {}
+
+  local finished_at = profile.finished_at or now_ns()
+  table.insert(
+    lines,
+    string.format(
+      "Profile '%s': %.1f ms total, peak heap %.0f KB (start %.0f KB)",
+      profile.label,
+      (finished_at - profile.started_at) / 1e6,
+      profile.memory_peak_kb,
+      profile.memory_start_kb
+    )
+  )
+
+  table.insert(lines, "")
+  table.insert(lines, "Phases:")
+  for _, phase in ipairs(profile.phases) do
+    table.insert(
+      lines,
+      string.format(
+        "  %-18s %-14s %9.1f ms %+9.0f KB",
+        phase.phase,
+        phase.framework_name or "-",
+        phase.duration_ms,
+        phase.memory_delta_kb
+      )
+    )
+  end
+
+  local framework_names = vim.tbl_keys(profile.frameworks)
+  if #framework_names > 0 then
+    table.sort(framework_names, function(a, b)
+      return profile.frameworks[a].duration_ms > profile.frameworks[b].duration_ms
+    end)
+
+    table.insert(lines, "")
+    table.insert(lines, "Frameworks:")
+    for _, framework_name in ipairs(framework_names) do
+      local totals = profile.frameworks[framework_name]
+      table.insert(
+        lines,
+        string.format("  %-18s %9.1f ms %+9.0f KB", framework_name, totals.duration_ms, totals.memory_delta_kb)
+      )
+    end
+  end
+
+  local parser_names = vim.tbl_keys(profile.parsers)
+  if #parser_names > 0 then
+    table.sort(parser_names)
+
+    table.insert(lines, "")
+    table.insert(lines, "Parser hits (accepted / rejected):")
+    for _, parser_name in ipairs(parser_names) do
+      local counts = profile.parsers[parser_name]
+      table.insert(lines, string.format("  %-30s %6d / %d", parser_name, counts.accepted, counts.rejected))
+    end
+  end
+
+  local slowest = M.get_slowest_files(profile, opts.slowest_files or 10)
+  if #slowest > 0 then
+    table.insert(lines, "")
+    table.insert(lines, "Slowest files:")
+    for _, file in ipairs(slowest) do
+      table.insert(
+        lines,
+        string.format("  %9.2f ms  %4d hits  %s", file.duration_ms, file.hits, vim.fn.fnamemodify(file.file_path, ":."))
+      )
+    end
+  end
+
+  return lines
+end
+
+---Reset profiler state (mainly for tests)
+function M.reset()
+  _active = nil
+  _last = nil
+end
+
+return M
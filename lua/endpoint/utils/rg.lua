@@ -1,6 +1,19 @@
 -- Ripgrep command utility functions
 local M = {}
 
+-- Join search paths (relative to the current directory) into command arguments, "." when none are given
+local function format_search_paths(search_paths)
+  if not search_paths or #search_paths == 0 then
+    return " ."
+  end
+
+  local formatted_paths = ""
+  for _, search_path in ipairs(search_paths) do
+    formatted_paths = formatted_paths .. " " .. vim.fn.shellescape(search_path)
+  end
+  return formatted_paths
+end
+
 -- Generate ripgrep search command for endpoint patterns
 function M.create_command(ripgrep_search_options)
   local method_patterns = ripgrep_search_options.method_patterns or {}
@@ -43,8 +56,8 @@ function M.create_command(ripgrep_search_options)
     ripgrep_command = ripgrep_command .. " -e " .. vim.fn.shellescape(search_pattern)
   end
 
-  -- Add search path (current directory)
-  ripgrep_command = ripgrep_command .. " ."
+  -- Add search paths (current directory unless scoped, e.g. to a build module)
+  ripgrep_command = ripgrep_command .. format_search_paths(ripgrep_search_options.search_paths)
 
   return ripgrep_command
 end
@@ -67,8 +80,8 @@ function M.create_files_command(ripgrep_file_options)
     ripgrep_command = ripgrep_command .. " --glob " .. vim.fn.shellescape("!" .. exclude_glob_pattern .. "/**")
   end
 
-  -- Add search path (current directory)
-  ripgrep_command = ripgrep_command .. " ."
+  -- Add search paths (current directory unless scoped, e.g. to a build module)
+  ripgrep_command = ripgrep_command .. format_search_paths(ripgrep_file_options.search_paths)
 
   return ripgrep_command
 end
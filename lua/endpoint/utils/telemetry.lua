@@ -0,0 +1,237 @@
+-- Rolling scan telemetry for endpoint.nvim
+-- Keeps a small history of recent scans per project, in memory and in the cache dir
+---@class endpoint.utils.telemetry
+local M = {}
+
+local config = require "endpoint.config"
+local log = require "endpoint.utils.log"
+local uv = vim.uv or vim.loop
+
+---@class endpoint.telemetry.record
+---@field timestamp number os.time() of the scan
+---@field method string|nil Method filter of the request
+---@field duration_ms number Wall time from request to result
+---@field time_to_first_result_ms number|nil Time until the first endpoint was available
+---@field endpoint_file_count number Number of distinct files with endpoints (not the files scanned)
+---@field endpoint_count number Number of endpoints returned
+---@field cache "hit"|"miss"
+---@field parser_types table<string, string> Framework name -> "ripgrep" | "treesitter"
+
+---@type table<string, endpoint.telemetry.record[]>
+local _history = {}
+
+-- Pending history writes by project key: { records, dirty }
+local _writes = {}
+
+---Check if telemetry is enabled
+---@return boolean
+function M.is_enabled()
+  local telemetry_config = config.get().telemetry or {}
+  return telemetry_config.enabled ~= false
+end
+
+---High-resolution timestamp in nanoseconds
+---@return number
+function M.now()
+  return uv.hrtime()
+end
+
+---Get the telemetry key for a project root
+---@param project_root string|nil Defaults to the current working directory
+---@return string
+function M.get_project_key(project_root)
+  project_root = project_root or vim.fn.getcwd()
+  return (project_root:gsub("[^%w]", "_"))
+end
+
+---Get the telemetry directory
+---@return string
+function M.get_dir()
+  return vim.fn.stdpath "cache" .. "/endpoint.nvim/telemetry"
+end
+
+local function get_file_path(project_key)
+  return M.get_dir() .. "/" .. project_key .. ".json"
+end
+
+local function get_history_size()
+  local telemetry_config = config.get().telemetry or {}
+  return telemetry_config.history_size or 20
+end
+
+local function load_from_disk(project_key)
+  local file = io.open(get_file_path(project_key), "r")
+  if not file then
+    return {}
+  end
+
+  local content = file:read "*a"
+  file:close()
+
+  local ok, decoded = pcall(vim.json.decode, content)
+  if not ok or type(decoded) ~= "table" then
+    return {}
+  end
+
+  return decoded
+end
+
+local function write_file_async(file_path, content, callback)
+  uv.fs_open(file_path, "w", 420, function(open_err, fd)
+    if not fd then
+      callback(open_err)
+      return
+    end
+    uv.fs_write(fd, content, 0, function(write_err)
+      uv.fs_close(fd, function()
+        callback(write_err)
+      end)
+    end)
+  end)
+end
+
+---Writes a project's history without blocking the caller
+---The write starts on the next event loop tick, so records made in one tick are written once, and goes through
+---libuv. Records made while the file is being written are written after that write.
+local function save_to_disk(project_key, records)
+  local write = _writes[project_key]
+  if write then
+    write.records = records
+    write.dirty = true
+    return
+  end
+  write = { records = records, dirty = true }
+  _writes[project_key] = write
+
+  local function flush()
+    -- Cleared meanwhile
+    if _writes[project_key] ~= write then
+      return
+    end
+    write.dirty = false
+
+    local success, content = pcall(function()
+      local dir = M.get_dir()
+      if vim.fn.isdirectory(dir) == 0 then
+        vim.fn.mkdir(dir, "p")
+      end
+      return vim.json.encode(write.records)
+    end)
+    if not success then
+      _writes[project_key] = nil
+      log.framework_debug("Failed to save scan telemetry: " .. tostring(content))
+      return
+    end
+
+    write_file_async(
+      get_file_path(project_key),
+      content,
+      vim.schedule_wrap(function(err)
+        if err then
+          log.framework_debug("Failed to save scan telemetry: " .. tostring(err))
+        end
+        if write.dirty then
+          flush()
+        elseif _writes[project_key] == write then
+          _writes[project_key] = nil
+        end
+      end)
+    )
+  end
+  vim.schedule(flush)
+end
+
+---Get recent scan records for a project (oldest first)
+---@param project_root string|nil
+---@return endpoint.telemetry.record[]
+function M.get_history(project_root)
+  local project_key = M.get_project_key(project_root)
+  if not _history[project_key] then
+    _history[project_key] = load_from_disk(project_key)
+  end
+  return _history[project_key]
+end
+
+---Count distinct files among endpoints
+---@param endpoints endpoint.entry[]
+---@return number
+function M.count_endpoint_files(endpoints)
+  local seen = {}
+  local count = 0
+  for _, endpoint in ipairs(endpoints) do
+    if endpoint.file_path and not seen[endpoint.file_path] then
+      seen[endpoint.file_path] = true
+      count = count + 1
+    end
+  end
+  return count
+end
+
+---Record a finished scan
+---The history is updated right away and written to disk after the current event loop tick.
+---@param record endpoint.telemetry.record
+---@param project_root string|nil
+function M.record(record, project_root)
+  if not M.is_enabled() then
+    return
+  end
+
+  record.timestamp = record.timestamp or os.time()
+
+  local project_key = M.get_project_key(project_root)
+  local records = M.get_history(project_root)
+  table.insert(records, record)
+
+  local history_size = get_history_size()
+  while #records > history_size do
+    table.remove(records, 1)
+  end
+
+  save_to_disk(project_key, records)
+end
+
+---Clear telemetry for a project (memory and disk)
+---@param project_root string|nil
+function M.clear(project_root)
+  local project_key = M.get_project_key(project_root)
+  _history[project_key] = nil
+  _writes[project_key] = nil
+  os.remove(get_file_path(project_key))
+end
+
+---Summarize a history: median duration of earlier scans versus the latest one
+---@param records endpoint.telemetry.record[]
+---@return table|nil summary { latest, median_ms, ratio }
+function M.summarize(records)
+  if #records == 0 then
+    return nil
+  end
+
+  local latest = records[#records]
+  local durations = {}
+  for index = 1, #records - 1 do
+    if records[index].cache == latest.cache then
+      table.insert(durations, records[index].duration_ms)
+    end
+  end
+
+  if #durations == 0 then
+    return { latest = latest }
+  end
+
+  table.sort(durations)
+  local median_ms = durations[math.ceil(#durations / 2)]
+
+  return {
+    latest = latest,
+    median_ms = median_ms,
+    ratio = median_ms > 0 and latest.duration_ms / median_ms or nil,
+  }
+end
+
+---Reset in-memory state (mainly for tests); pending writes still complete
+function M.reset()
+  _history = {}
+end
+
+return M
@@ -43,6 +43,22 @@
 ---@field controller? string Rails controller name
 ---@field component_file_path? string React Router component file path
 ---@field component_name? string React Router component name
+---@field component_line_number? number|false Component definition line, found when the route is parsed (false: none)
+---@field _display? endpoint.entry_display Picker display, computed when the endpoint is indexed
+---@field traffic? endpoint.traffic.summary Requests from ingested access logs
+---@field module? string Module of a multi-module Maven/Gradle build
+---@field root? string Workspace root the endpoint was found in (multi-root workspaces)
+---@field diff? "added"|"removed"|"changed" Change between two revisions (:EndpointDiff)
+---@field revision? string Git revision the diff entry was found at (nil: working tree)
+
+-- Precomputed picker display of an endpoint
+---@class endpoint.entry_display
+---@field ui_key string Key of the `ui` config the display was computed for
+---@field text string Themed list text (icon + display value)
+---@field traffic? endpoint.traffic.summary Traffic summary included in the text
+---@field highlight_length number Length of the method highlight from column 0
+---@field method_color string Highlight group of the method
+---@field ordinal string Text matched by fuzzy search
 
 -- ========================================
 -- CONFIGURATION TYPES
@@ -63,11 +79,56 @@
 
 -- Cache configuration (new structure)
 ---@class endpoint.cache.config
----@field mode "none" | "session" | "persistent"
+---@field mode "none" | "session" | "persistent" | "swr"
+---@field swr_max_age? number Seconds after which swr revalidates even if no file changed
+
+-- Background pre-warm configuration
+---@class endpoint.prewarm.config
+---@field enabled boolean Scan in the background on VimEnter/DirChanged
+---@field delay_ms? number Idle time before the background scan starts
+
+-- Profiler configuration
+---@class endpoint.profiler.config
+---@field enabled boolean Record per-phase timings and Lua heap deltas
+---@field slowest_files? number Number of slowest files shown by :EndpointProfile
+
+-- Access log traffic configuration
+---@class endpoint.traffic.config
+---@field log_files? string[] Access logs read by :EndpointTraffic without arguments
+---@field sort? "hits" | "errors" | "p99" Sort the picker by traffic once a log was ingested
+---@field min_hits? number Hide endpoints with fewer requests once a log was ingested
+
+-- Traffic of an endpoint from ingested access logs
+---@class endpoint.traffic.summary
+---@field hits number Requests
+---@field errors number Requests answered with 5xx
+---@field p50_ms? number Median latency in milliseconds
+---@field p99_ms? number 99th percentile latency in milliseconds
+
+-- Scan telemetry configuration
+---@class endpoint.telemetry.config
+---@field enabled boolean Keep a rolling history of recent scans per project
+---@field history_size? number Number of scans kept per project
+
+-- Comment filtering configuration
+---@class endpoint.comment_filtering.config
+---@field enabled boolean Drop matches inside comments before parsing
+---@field languages? table<string, boolean> Per-language toggles: java, kotlin, typescript, javascript, php, csharp, python, ruby
+
+-- Multi-root workspace configuration
+---@class endpoint.workspace.config
+---@field enabled boolean Scan several project roots and merge their endpoints
+---@field roots? string[] Root directories; empty: discover them
+---@field max_jobs? number Roots, and ripgrep processes, a workspace scan runs at the same time
+
+-- Multi-module build configuration
+---@class endpoint.modules.config
+---@field scope "all" | "buffer" Default scope of :Endpoint: every module, or the current buffer's module and its dependencies
 
 -- Picker configuration (new structure)
 ---@class endpoint.picker.config
----@field type "telescope" | "vim_ui_select" | "snacks"
+---@field type "telescope" | "vim_ui_select" | "snacks" | "float"
+---@field stream? boolean Open telescope/snacks when a scan starts and append endpoints as they are parsed
 ---@field options endpoint.picker.options
 
 -- Picker options configuration
@@ -75,6 +136,7 @@
 ---@field telescope? table Options passed to Telescope picker
 ---@field vim_ui_select? endpoint.picker.vim_ui_select.options Options for vim.ui.select picker
 ---@field snacks? table Options passed to Snacks.nvim picker
+---@field float? endpoint.picker.float.options Options for the built-in floating window picker
 
 -- Vim UI Select picker options
 ---@class endpoint.picker.vim_ui_select.options
@@ -83,9 +145,17 @@
 ---@field show_filter_examples? boolean Show filter examples in prompt (default: true)
 ---@field enable_filter? boolean Enable filtering for large lists (default: false)
 
+-- Floating window picker options
+---@class endpoint.picker.float.options
+---@field width? number Fraction of the editor width, or columns when > 1 (default: 0.8)
+---@field height? number Fraction of the editor height, or lines when > 1 (default: 0.6)
+---@field border? string|table Window border (default: "rounded")
+
 -- Previewer configuration (new structure)
 ---@class endpoint.picker.previewer.config
 ---@field enable_highlighting boolean
+---@field cache_size? number Telescope preview buffers kept loaded (LRU)
+---@field prefetch? number Telescope entries above and below the selection whose files are preloaded
 
 -- Controller Name Extractor Configuration
 ---@class endpoint.controller_extractor
@@ -97,6 +167,13 @@
 ---@field cache? endpoint.cache.config -- New structure
 ---@field picker? endpoint.picker.config -- New structure
 ---@field previewer? endpoint.picker.previewer.config -- New structure
+---@field prewarm? endpoint.prewarm.config
+---@field profiler? endpoint.profiler.config
+---@field traffic? endpoint.traffic.config
+---@field telemetry? endpoint.telemetry.config
+---@field comment_filtering? endpoint.comment_filtering.config
+---@field modules? endpoint.modules.config
+---@field workspace? endpoint.workspace.config
 ---@field ui endpoint.ui.config
 ---@field frameworks? table
 ---@field cache_mode? "none" | "session" | "persistent" -- Legacy (deprecated)
@@ -114,28 +191,67 @@
 ---@field framework_registry endpoint.FrameworkRegistry
 ---@field cache endpoint.Cache
 ---@field picker_registry endpoint.PickerRegistry
+---@field prewarmer endpoint.Prewarmer
 ---@field _initialized boolean
+---@field _active_finds table<string, endpoint.ScanHandle> In-flight find() handles by project root
+---@field _inflight_scans table<string, table<string, table>> In-flight scans by project root and method ("*" = all)
 ---@field initialize fun(self: endpoint.core.Endpoint, dependencies?: table)
 ---@field setup fun(self: endpoint.core.Endpoint, user_config: table?)
 ---@field get_events fun(self: endpoint.core.Endpoint): endpoint.Events
 ---@field register_framework fun(self: endpoint.core.Endpoint, framework_instance: endpoint.Framework)
 ---@field unregister_framework fun(self: endpoint.core.Endpoint, framework_name: string): boolean
 ---@field get_registered_frameworks fun(self: endpoint.core.Endpoint): endpoint.Framework[]
----@field detect_project_frameworks fun(self: endpoint.core.Endpoint): endpoint.Framework[]
+---@field detect_project_frameworks fun(self: endpoint.core.Endpoint, project_root?: string): endpoint.Framework[]
 ---@field scan_all_endpoints fun(self: endpoint.core.Endpoint, scan_options: table?): endpoint.entry[]
+---@field scan_all_endpoints_async fun(self: endpoint.core.Endpoint, scan_options: table?, callback: function, scan_handle: endpoint.ScanHandle?, on_batch: fun(endpoints: endpoint.entry[])?): endpoint.ScanHandle
 ---@field scan_with_framework fun(self: endpoint.core.Endpoint, framework_name: string, scan_options: table?): endpoint.entry[]
 ---@field add_event_listener fun(self: endpoint.core.Endpoint, event_type: string, listener_callback: function, listener_priority: number?)
 ---@field remove_event_listener fun(self: endpoint.core.Endpoint, event_type: string, listener_callback: function): boolean
 ---@field get_framework_info fun(self: endpoint.core.Endpoint): table[]
 ---@field clear_all_frameworks fun(self: endpoint.core.Endpoint): number
----@field find fun(self: endpoint.core.Endpoint, opts: table?)
+---@field find fun(self: endpoint.core.Endpoint, opts: table?): endpoint.ScanHandle
+---@field cancel_scans fun(self: endpoint.core.Endpoint)
+---@field goto_url fun(self: endpoint.core.Endpoint, text: string)
+---@field goto_url_under_cursor fun(self: endpoint.core.Endpoint)
+---@field _route_tries table<endpoint.entry[], endpoint.RouteTrie>
+---@field _get_route_trie fun(self: endpoint.core.Endpoint, endpoints: endpoint.entry[]): endpoint.RouteTrie
+---@field traffic endpoint.Traffic
+---@field workspace endpoint.Workspace
+---@field ingest_traffic fun(self: endpoint.core.Endpoint, log_files?: string[], callback?: fun(summary: table|nil)): endpoint.ScanHandle|nil
+---@field clear_traffic fun(self: endpoint.core.Endpoint)
 ---@field clear_cache fun(self: endpoint.core.Endpoint)
 ---@field show_cache_stats fun(self: endpoint.core.Endpoint)
+---@field show_profile fun(self: endpoint.core.Endpoint)
 ---@field _ensure_initialized fun(self: endpoint.core.Endpoint)
 ---@field _resolve_endpoints fun(self: endpoint.core.Endpoint, opts: table): endpoint.entry[]
+---@field _join_scan fun(self: endpoint.core.Endpoint, opts: table, callback: function, scan_handle: endpoint.ScanHandle): endpoint.ScanHandle
+---@field _get_module_scope fun(self: endpoint.core.Endpoint, opts: table): endpoint.module_scope|nil, string|nil
 ---@field _should_use_cache fun(self: endpoint.core.Endpoint, method?: string): boolean
 ---@field _update_cache_if_enabled fun(self: endpoint.core.Endpoint, endpoints: endpoint.entry[], method?: string)
----@field _show_with_picker fun(self: endpoint.core.Endpoint, endpoints: endpoint.entry[], opts: table?)
+---@field _show_with_picker fun(self: endpoint.core.Endpoint, endpoints: endpoint.entry[], opts: table?): endpoint.Picker
+---@field _precompute_displays fun(self: endpoint.core.Endpoint, endpoints: endpoint.entry[])
+---@field _get_picker fun(self: endpoint.core.Endpoint, opts: table): endpoint.Picker, table
+---@field _get_streaming_picker fun(self: endpoint.core.Endpoint, opts: table): endpoint.Picker|nil, table|nil
+---@field _revalidate_async fun(self: endpoint.core.Endpoint, opts: table, cached_endpoints: endpoint.entry[], callback: function, scan_handle: endpoint.ScanHandle)
+---@field _apply_revalidation fun(self: endpoint.core.Endpoint, shown_picker: endpoint.Picker?, endpoints: endpoint.entry[], result_info: table)
+
+-- ScanHandle (Cancellation of in-flight async scans)
+---@class endpoint.ScanHandle : Class
+---@field cancelled boolean
+---@field cancel_reason string|nil
+---@field cancel fun(self: endpoint.ScanHandle, reason?: string)
+---@field is_cancelled fun(self: endpoint.ScanHandle): boolean
+---@field track_process fun(self: endpoint.ScanHandle, process: vim.SystemObj)
+---@field on_cancel fun(self: endpoint.ScanHandle, cancel_callback: fun(reason: string))
+
+-- Prewarmer (Background cache pre-warm)
+---@class endpoint.Prewarmer : Class
+---@field endpoint endpoint.core.Endpoint
+---@field delay_ms number
+---@field setup fun(self: endpoint.Prewarmer, prewarm_config: endpoint.prewarm.config?)
+---@field stop fun(self: endpoint.Prewarmer)
+---@field schedule fun(self: endpoint.Prewarmer)
+---@field prewarm fun(self: endpoint.Prewarmer): boolean
 
 -- FrameworkRegistry (Framework Management)
 ---@class endpoint.FrameworkRegistry : Class
@@ -145,7 +261,7 @@
 ---@field unregister fun(self: endpoint.FrameworkRegistry, framework_name: string): boolean
 ---@field get_all fun(self: endpoint.FrameworkRegistry): endpoint.Framework[]
 ---@field get_by_name fun(self: endpoint.FrameworkRegistry, framework_name: string): endpoint.Framework|nil
----@field detect_all fun(self: endpoint.FrameworkRegistry): endpoint.Framework[]
+---@field detect_all fun(self: endpoint.FrameworkRegistry, project_root?: string): endpoint.Framework[]
 ---@field clear fun(self: endpoint.FrameworkRegistry): number
 ---@field get_info fun(self: endpoint.FrameworkRegistry): table[]
 ---@field _register_default_frameworks fun(self: endpoint.FrameworkRegistry)
@@ -178,9 +294,13 @@
 ---@class endpoint.Cache : Class
 ---@field cached_endpoints table<string, endpoint.entry[]>
 ---@field cache_timestamps table<string, number>
----@field cache_mode "none" | "session" | "persistent"
+---@field cache_mode "none" | "session" | "persistent" | "swr"
 ---@field initialize fun(self: endpoint.Cache)
----@field set_mode fun(self: endpoint.Cache, mode: "none" | "session" | "persistent")
+---@field set_mode fun(self: endpoint.Cache, mode: "none" | "session" | "persistent" | "swr")
+---@field get_saved_at fun(self: endpoint.Cache, method?: string): number|nil
+---@field is_stale_async fun(self: endpoint.Cache, method?: string, endpoints: endpoint.entry[], max_age?: number, callback: fun(stale: boolean), scan_handle?: endpoint.ScanHandle)
+---@field forget_repos fun(self: endpoint.Cache)
+---@field _uses_disk fun(self: endpoint.Cache): boolean
 ---@field is_valid fun(self: endpoint.Cache, method?: string): boolean
 ---@field get_endpoints fun(self: endpoint.Cache, method?: string): endpoint.entry[]
 ---@field save_endpoints fun(self: endpoint.Cache, endpoints: endpoint.entry[], method?: string)
@@ -189,7 +309,17 @@
 ---@field _get_cache_key fun(self: endpoint.Cache, method?: string): string
 ---@field _get_cache_dir fun(self: endpoint.Cache): string
 ---@field _get_project_hash fun(self: endpoint.Cache): string
----@field _get_cache_file_path fun(self: endpoint.Cache, method?: string): string
+---@field _get_cache_file_path fun(self: endpoint.Cache, method?: string, for_write?: boolean): string
+---@field _repos table<string, table|false>
+---@field _get_repo fun(self: endpoint.Cache): { top_level: string, git_dir: string, common_dir: string, head: string }|nil
+---@field _get_snapshot_dir fun(self: endpoint.Cache, repo: table): string
+---@field _get_snapshot_path fun(self: endpoint.Cache, repo: table, method?: string, for_write?: boolean): string
+---@field _list_snapshots fun(self: endpoint.Cache, snapshot_dir: string, suffix: string): string[]
+---@field _create_manifest fun(self: endpoint.Cache, repo: table, endpoints: endpoint.entry[]): table|nil
+---@field _read_manifest fun(self: endpoint.Cache, snapshot_path: string): table|nil
+---@field _has_source_changes fun(self: endpoint.Cache, repo: table, manifest: table): boolean
+---@field _has_source_changes_async fun(self: endpoint.Cache, repo: table, manifest: table, callback: fun(has_changes: boolean), scan_handle: endpoint.ScanHandle)
+---@field _prune_snapshots fun(self: endpoint.Cache, saved_path: string)
 ---@field _ensure_cache_dir fun(self: endpoint.Cache)
 ---@field _save_to_disk fun(self: endpoint.Cache, endpoints: endpoint.entry[], method?: string)
 ---@field _load_from_disk fun(self: endpoint.Cache, method?: string): endpoint.entry[]|nil
@@ -222,12 +352,21 @@
 ---@field initialize fun(self: endpoint.Framework, fields?: table)
 ---@field _validate_config fun(self: endpoint.Framework)
 ---@field _initialize fun(self: endpoint.Framework)
----@field detect fun(self: endpoint.Framework): boolean
+---@field detect fun(self: endpoint.Framework, project_root?: string): boolean
 ---@field parse fun(self: endpoint.Framework, content: string, file_path: string, line_number: number, column: number): endpoint.entry|nil
 ---@field get_search_cmd fun(self: endpoint.Framework, method?: string): string
 ---@field scan fun(self: endpoint.Framework, options?: table): endpoint.entry[]
+---@field scan_async fun(self: endpoint.Framework, options?: table, callback: function, scan_handle?: endpoint.ScanHandle, on_batch?: fun(endpoints: endpoint.entry[])): endpoint.ScanHandle
+---@field _prepare_scan fun(self: endpoint.Framework, options: table)
+---@field _prepare_scan_async fun(self: endpoint.Framework, options: table, scan_handle: endpoint.ScanHandle, done: fun())
+---@field _finish_scan fun(self: endpoint.Framework, options: table)
+---@field _get_endpoint_key fun(self: endpoint.Framework, endpoint: endpoint.entry): string
 ---@field _search_and_parse fun(self: endpoint.Framework, scan_options?: table): endpoint.entry[]
 ---@field _parse_result_line fun(self: endpoint.Framework, result_line: string): endpoint.entry[]
+---@field _parse_hit fun(self: endpoint.Framework, file_path: string, line_number: number, column: number, content: string): endpoint.entry[]
+---@field _parse_source_pass_async fun(self: endpoint.Framework, source_pass: endpoint.SourcePass, options: table, callback: function, scan_handle: endpoint.ScanHandle, on_batch?: fun(endpoints: endpoint.entry[]))
+---@field get_source_pass_config fun(self: endpoint.Framework): endpoint.source_pass.config|nil
+---@field get_mount_graph fun(self: endpoint.Framework): string|nil Router mount graph of config.mount_graph, nil for Tree-sitter parsers
 ---@field _post_process_endpoints fun(self: endpoint.Framework, endpoints: endpoint.entry[]): endpoint.entry[]
 ---@field get_name fun(self: endpoint.Framework): string
 ---@field get_config fun(self: endpoint.Framework): table
@@ -235,6 +374,107 @@
 
 ---@alias endpoint.framework_base endpoint.Framework
 
+-- Shared source pass a framework takes part in (config.source_pass)
+---@class endpoint.source_pass.config
+---@field language string Frameworks with the same language share one pass
+---@field file_globs string[] Files listed by the pass
+---@field line_patterns string[] Lua patterns of the lines the framework parses
+
+-- Servlet url-patterns from web.xml and web-fragment.xml
+---@class endpoint.WebXmlResolver
+---@field refresh fun(scope?: table)
+---@field refresh_async fun(scope: table|nil, scan_handle: endpoint.ScanHandle, callback: fun())
+---@field get_url_patterns fun(servlet_class: string): string[]|nil
+---@field has_descriptors fun(): boolean
+---@field clear_cache fun()
+
+-- Rails routes table and controller action index
+---@class endpoint.RailsRouteResolver
+---@field refresh fun(scope?: table)
+---@field refresh_async fun(scope: table|nil, scan_handle: endpoint.ScanHandle, callback: fun())
+---@field get_route_context fun(file_path: string, line_number: number): table|nil
+---@field has_resource fun(resource_name: string): boolean
+---@field is_member_action fun(resource_name: string, action_name: string): boolean
+---@field find_controller_action fun(controller_path: string, action_name: string): table|nil
+---@field is_private_method fun(file_path: string, line_number: number): boolean
+---@field clear_cache fun()
+
+-- React Router component files by component name
+---@class endpoint.ReactComponentResolver
+---@field refresh fun(scope?: table)
+---@field refresh_async fun(scope: table|nil, scan_handle: endpoint.ScanHandle, callback: fun())
+---@field find_component_file fun(component_name: string, routes_file_path?: string): string|nil
+---@field clear_cache fun()
+
+-- Router mount graph for Express, NestJS and FastAPI prefixes
+---@class endpoint.MountGraphResolver
+---@field refresh fun(framework_name: string, scope?: table)
+---@field refresh_async fun(framework_name: string, scope: table|nil, scan_handle: endpoint.ScanHandle, callback: fun())
+---@field release fun(framework_name: string, project_root?: string)
+---@field get_router_prefix fun(framework_name: string, file_path: string, router_name?: string): string|nil
+---@field get_controller_prefix fun(file_path: string): string|nil
+---@field clear_cache fun(framework_name?: string)
+
+-- Bounded pool of vim.system jobs
+---@class endpoint.ProcessPool : Class
+---@field max_jobs number
+---@field run fun(self: endpoint.ProcessPool, cmd: string[], opts: table, on_exit: fun(obj: vim.SystemCompleted), scan_handle: endpoint.ScanHandle)
+---@field get_running_count fun(self: endpoint.ProcessPool): number
+---@field get_queued_count fun(self: endpoint.ProcessPool): number
+---@field spawn fun(pool: endpoint.ProcessPool|nil, cmd: string[], opts: table, on_exit: fun(obj: vim.SystemCompleted), scan_handle: endpoint.ScanHandle)
+
+-- Roots of a multi-root workspace, scanned in parallel with their ripgrep processes on a bounded pool
+---@class endpoint.Workspace : Class
+---@field pool endpoint.ProcessPool
+---@field scan_root function Scans one root (Endpoint:scan_all_endpoints_async)
+---@field get_roots fun(self: endpoint.Workspace): string[]|nil
+---@field scan_async fun(self: endpoint.Workspace, roots: string[], scan_options: table, callback: fun(endpoints: endpoint.entry[], scan_summary: table), scan_handle: endpoint.ScanHandle, on_batch?: fun(endpoints: endpoint.entry[]))
+
+-- Project root of the resolver indexes, one index per root
+---@class endpoint.IndexRoot
+---@field get fun(project_root?: string): string
+---@field get_active fun(): string|nil
+---@field run fun(project_root: string|nil, fn: function, ...): any
+---@field create_index_set fun(create_index: fun(project_root: string): table): table
+---@field get_index fun(index_set: table, project_root?: string): table
+---@field clear fun(index_set: table, project_root?: string)
+---@field release fun(project_root: string)
+
+-- Module graph of multi-module Maven and Gradle builds
+---@class endpoint.BuildModuleResolver
+---@field refresh fun(project_root?: string)
+---@field get_modules fun(): { name: string, dir: string, dependencies: string[] }[]
+---@field find_module fun(name: string): table|nil
+---@field get_module_for_file fun(file_path: string): string|nil
+---@field get_scope fun(name: string): endpoint.module_scope|nil
+---@field filter_endpoints fun(endpoints: endpoint.entry[], scope: endpoint.module_scope): endpoint.entry[]
+---@field clear_cache fun()
+
+-- A module and the modules it depends on, transitively
+---@class endpoint.module_scope
+---@field name string
+---@field modules table<string, boolean> Module names in the scope
+---@field dirs string[] Module directories, relative to the project root
+
+-- Per-scan listing and read of one language's files
+---@class endpoint.SourcePass : Class
+---@field language string
+---@field file_count number
+---@field add_line_consumer fun(self: endpoint.SourcePass, name: string, line_patterns: string[])
+---@field search_paths? string[] Directories listed instead of the whole project
+---@field process_pool? endpoint.ProcessPool Pool the file listing runs on
+---@field add_file_consumer fun(self: endpoint.SourcePass, consumer: { on_file: fun(file_path: string, lines: string[]), on_done?: fun(), on_release?: fun() })
+---@field has_consumer fun(self: endpoint.SourcePass, name: string): boolean
+---@field get_hits fun(self: endpoint.SourcePass, name: string): table[]
+---@field get_lines fun(self: endpoint.SourcePass, file_path: string): string[]|nil
+---@field run_async fun(self: endpoint.SourcePass, scan_handle: endpoint.ScanHandle, callback: fun())
+---@field release fun(self: endpoint.SourcePass)
+
+-- Commented lines of one file and their ranges, cached for the duration of a scan
+---@class endpoint.CommentMap : Class
+---@field language string
+---@field is_commented fun(self: endpoint.CommentMap, line_number: number, column?: number): boolean
+
 -- Base Picker Class
 ---@class endpoint.Picker : Class
 ---@field super Class Parent class reference
@@ -243,6 +483,13 @@
 ---@field initialize fun(self: endpoint.Picker, fields?: table)
 ---@field is_available fun(self: endpoint.Picker): boolean
 ---@field show fun(self: endpoint.Picker, endpoints?: endpoint.entry[], opts?: table)
+---@field update fun(self: endpoint.Picker, endpoints: endpoint.entry[]): boolean
+---@field precompute_displays fun(self: endpoint.Picker, endpoints: endpoint.entry[])
+---@field _get_entry_display fun(self: endpoint.Picker, endpoint: endpoint.entry, config: table): endpoint.entry_display
+---@field supports_streaming fun(self: endpoint.Picker): boolean
+---@field show_stream fun(self: endpoint.Picker, opts?: table)
+---@field append fun(self: endpoint.Picker, endpoints: endpoint.entry[]): boolean
+---@field close fun(self: endpoint.Picker)
 ---@field get_name fun(self: endpoint.Picker): string
 ---@field _validate_endpoints fun(self: endpoint.Picker, endpoints: endpoint.entry[]): boolean
 ---@field _format_endpoint_display fun(self: endpoint.Picker, endpoint: endpoint.entry): string
@@ -259,7 +506,7 @@
 ---@field required_dependencies string[]
 ---@field manifest_files string[]
 ---@field initialize fun(self: endpoint.Detector, required_dependencies: string[], manifest_files: string[], detection_name?: string)
----@field is_target_detected fun(self: endpoint.Detector): boolean
+---@field is_target_detected fun(self: endpoint.Detector, project_root?: string): boolean
 ---@field get_name fun(self: endpoint.Detector): string
 ---@field get_detection_details fun(self: endpoint.Detector): table|nil
 ---@field _check_manifest_file_for_dependencies fun(self: endpoint.Detector, manifest_file_path: string): boolean
@@ -295,8 +542,38 @@
 ---@field highlight_line_range fun(self: endpoint.Highlighter, bufnr: number, start_line: number, start_col: number, end_line?: number, highlight_group?: string)
 ---@field highlight_endpoint fun(self: endpoint.Highlighter, bufnr: number, endpoint: table, highlight_group?: string)
 ---@field highlight_component_definition fun(self: endpoint.Highlighter, bufnr: number, endpoint: table, highlight_group?: string)
+---@field find_component_line fun(self: endpoint.Highlighter, bufnr: number, component_name: string): number|false
 ---@field calculate_highlight_length fun(self: endpoint.Highlighter, entry: table, method_icon: string, method_text: string): number
 
+-- Route template trie
+---@class endpoint.RouteTrie : Class
+---@field root table
+---@field size number
+---@field insert fun(self: endpoint.RouteTrie, endpoint: endpoint.entry)
+---@field lookup fun(self: endpoint.RouteTrie, url: string, method?: string): endpoint.entry[]
+---@field match fun(self: endpoint.RouteTrie, url: string, method: string): endpoint.entry|nil
+
+-- Access log statistics
+---@class endpoint.Traffic : Class
+---@field stats table<string, table>
+---@field unmatched number
+---@field generation number
+---@field ingest_async fun(self: endpoint.Traffic, file_path: string, route_trie: endpoint.RouteTrie, callback: fun(summary: table|nil, err: string|nil), on_progress?: fun(bytes_read: integer, total_bytes: integer)): endpoint.ScanHandle
+---@field get_summary fun(self: endpoint.Traffic, endpoint: endpoint.entry): endpoint.traffic.summary|nil
+---@field has_data fun(self: endpoint.Traffic): boolean
+---@field apply fun(self: endpoint.Traffic, endpoints: endpoint.entry[], traffic_config: endpoint.traffic.config): endpoint.entry[]
+---@field clear fun(self: endpoint.Traffic)
+
+-- Preview buffer cache
+---@class endpoint.PreviewCache : Class
+---@field capacity number
+---@field set_capacity fun(self: endpoint.PreviewCache, capacity: number)
+---@field get fun(self: endpoint.PreviewCache, file_path: string): integer|nil
+---@field load fun(self: endpoint.PreviewCache, file_path: string, callback?: fun(bufnr: integer|nil))
+---@field prefetch fun(self: endpoint.PreviewCache, file_paths: string[])
+---@field clear fun(self: endpoint.PreviewCache)
+---@field size fun(self: endpoint.PreviewCache): integer
+
 -- Themes
 ---@class endpoint.Themes : Class
 ---@field DEFAULT_METHOD_COLORS table<string, string>
@@ -318,7 +595,7 @@
 ---@field _process_nested_routes fun(self: endpoint.RailsParser, content: string, file_path: string, line_number: number, column: number): endpoint.entry[]|nil
 ---@field _find_namespace_prefix fun(self: endpoint.RailsParser, file_path: string, line_number: number): string
 ---@field _find_parent_resource fun(self: endpoint.RailsParser, file_path: string, line_number: number): string|nil
----@field _find_controller_action fun(self: endpoint.RailsParser, resource_name: string, action_name: string): table|nil
+---@field _find_controller_action fun(self: endpoint.RailsParser, resource_name: string, action_name: string, namespace_prefix?: string): table|nil
 ---@field _is_private_method fun(self: endpoint.RailsParser, file_path: string, line_number: number): boolean
 ---@field _is_rails_content fun(self: endpoint.RailsParser, content: string): boolean
 
@@ -427,7 +704,7 @@
 ---@field _extract_route_path fun(self: endpoint.ReactRouterParser, content: string): string|nil
 ---@field _extract_component_name fun(self: endpoint.ReactRouterParser, content: string): string|nil
 ---@field _detect_route_type fun(self: endpoint.ReactRouterParser, content: string): string
----@field _find_component_file fun(self: endpoint.ReactRouterParser, component_name?: string): string|nil
+---@field _find_component_file fun(self: endpoint.ReactRouterParser, component_name?: string, routes_file_path?: string): string|nil
 
 -- ========================================
 -- CONCRETE FRAMEWORK IMPLEMENTATIONS
@@ -487,6 +764,14 @@
 ---@field _create_method_highlight_function fun(self: endpoint.VimUiSelectPicker): function
 ---@field _register_dressing_custom_kind fun(self: endpoint.VimUiSelectPicker)
 
+---@class endpoint.FloatPicker : endpoint.Picker
+---@field highlighter endpoint.Highlighter
+---@field _index_cache table<endpoint.entry[], table> Segment index by endpoint list (weak keys)
+---@field initialize fun(self: endpoint.FloatPicker)
+---@field _get_index fun(self: endpoint.FloatPicker, endpoints: endpoint.entry[]): table
+---@field _match fun(self: endpoint.FloatPicker, index: table, query: string, candidates?: integer[]): integer[]
+---@field _render fun(self: endpoint.FloatPicker)
+
 -- ========================================
 -- UTILITY MODULES
 -- ========================================
@@ -8,15 +8,31 @@ vim.g.loaded_endpoint_nvim = true
 
 -- Main endpoint finding command
 vim.api.nvim_create_user_command("Endpoint", function(opts)
-  ---@diagnostic disable-next-line: undefined-field
-  local method = opts.args and string.upper(opts.args) or nil
-  require("endpoint").find { method = method }
+  local find_opts = {}
+  for _, arg in ipairs(opts.fargs) do
+    local module_name = arg:match "^module=(.+)$"
+    if module_name then
+      find_opts.module = module_name
+    else
+      find_opts.method = string.upper(arg)
+    end
+  end
+  require("endpoint").find(find_opts)
 end, {
-  nargs = "?",
-  complete = function()
-    return { "Get", "Post", "Put", "Delete", "Patch" }
+  nargs = "*",
+  complete = function(arg_lead)
+    if arg_lead:match "^module=" then
+      local module_names = { "module=all" }
+      for _, module in ipairs(require("endpoint.resolver.build_module_resolver").get_modules()) do
+        table.insert(module_names, "module=" .. module.name)
+      end
+      return vim.tbl_filter(function(module_name)
+        return vim.startswith(module_name, arg_lead)
+      end, module_names)
+    end
+    return { "Get", "Post", "Put", "Delete", "Patch", "module=" }
   end,
-  desc = "Find endpoints (optionally filter by method: Get, Post, etc.)",
+  desc = "Find endpoints (optionally filter by method: Get, Post, etc., and by module: module=<name>)",
 })
 
 vim.api.nvim_create_user_command("EndpointRefresh", function()
@@ -24,3 +40,39 @@ vim.api.nvim_create_user_command("EndpointRefresh", function()
 end, {
   desc = "Force refresh endpoints (bypass cache)",
 })
+
+vim.api.nvim_create_user_command("EndpointGoto", function(opts)
+  if opts.args ~= "" then
+    require("endpoint").goto_url(opts.args)
+  else
+    require("endpoint").goto_url_under_cursor()
+  end
+end, {
+  nargs = "*",
+  desc = "Jump to the handler of a URL (e.g. GET /api/orders/1), or of the URL under the cursor",
+})
+
+vim.api.nvim_create_user_command("EndpointDiff", function(opts)
+  require("endpoint").diff(opts.fargs[1], opts.fargs[2])
+end, {
+  nargs = "+",
+  desc = "List endpoints added, removed or changed between two git revisions (head defaults to the working tree)",
+})
+
+vim.api.nvim_create_user_command("EndpointTraffic", function(opts)
+  if opts.args == "clear" then
+    require("endpoint").clear_traffic()
+  else
+    require("endpoint").ingest_traffic(#opts.fargs > 0 and opts.fargs or nil)
+  end
+end, {
+  nargs = "*",
+  complete = "file",
+  desc = "Annotate endpoints with traffic from access logs (defaults to traffic.log_files), or clear it",
+})
+
+vim.api.nvim_create_user_command("EndpointProfile", function()
+  require("endpoint").show_profile()
+end, {
+  desc = "Show per-phase timings of the last profiled scan (requires profiler.enabled)",
+})
@@ -0,0 +1,26 @@
+-- Generate synthetic benchmark projects without running scans
+-- Usage: nvim --headless --noplugin -u NONE -l tests/bench/generate.lua [kinds=spring,rails] [files=1000] [dir=.tests/bench]
+
+local repo_root = vim.fn.getcwd()
+package.path = package.path .. ";" .. repo_root .. "/tests/?.lua"
+
+local generator = require "bench.generator"
+
+local args = {
+  kinds = table.concat(generator.KINDS, ","),
+  files = "1000",
+  dir = repo_root .. "/.tests/bench",
+}
+
+for _, argument in ipairs(_G.arg or {}) do
+  local key, value = argument:match "^([%w_]+)=(.*)$"
+  if key then
+    args[key] = value
+  end
+end
+
+for _, kind in ipairs(vim.split(args.kinds, ",", { trimempty = true })) do
+  local files = tonumber(args.files)
+  local info = generator.generate(kind, string.format("%s/%s-%d", args.dir, kind, files), { files = files })
+  io.stdout:write(vim.json.encode(info) .. "\n")
+end
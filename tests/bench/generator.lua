@@ -0,0 +1,545 @@
+-- Synthetic project generator for endpoint.nvim benchmarks
+-- Produces Spring, Servlet, multi-module Maven, NestJS and Rails projects at configurable sizes
+local M = {}
+
+M.KINDS = { "spring", "servlet", "spring_multi_module", "nestjs", "rails" }
+
+local HTTP_METHODS = { "Get", "Post", "Put", "Delete", "Patch" }
+
+-- Directories already created during this run (avoids one mkdir per file on 50k-file projects)
+local created_dirs = {}
+
+local function write_file(file_path, lines)
+  local dir = vim.fn.fnamemodify(file_path, ":h")
+  if not created_dirs[dir] then
+    vim.fn.mkdir(dir, "p")
+    created_dirs[dir] = true
+  end
+  local file = assert(io.open(file_path, "w"))
+  file:write(table.concat(lines, "\n"))
+  file:write "\n"
+  file:close()
+end
+
+local function merge_defaults(opts)
+  return vim.tbl_extend("keep", opts or {}, {
+    files = 1000, -- Total number of source files
+    controller_ratio = 0.2, -- Share of source files that declare endpoints
+    methods_per_controller = 8, -- Endpoints per regular controller
+    long_controller_every = 25, -- Every Nth controller is a long one
+    long_controller_methods = 60, -- Endpoints per long controller
+    constant_ratio = 0.5, -- Share of mappings that use constants (Java kinds)
+    modules = 8, -- Modules for spring_multi_module
+  })
+end
+
+local function controller_count(opts)
+  return math.max(1, math.floor(opts.files * opts.controller_ratio))
+end
+
+local function methods_for(opts, index)
+  if opts.long_controller_every > 0 and index % opts.long_controller_every == 0 then
+    return opts.long_controller_methods
+  end
+  return opts.methods_per_controller
+end
+
+-- ========================================
+-- JAVA (Spring / multi-module / Servlet)
+-- ========================================
+
+local SPRING_DEPENDENCY = { group_id = "org.springframework.boot", artifact_id = "spring-boot-starter-web" }
+local SERVLET_DEPENDENCY = { group_id = "javax.servlet", artifact_id = "javax.servlet-api" }
+
+local function maven_pom(artifact_id, modules, dependency)
+  local lines = {
+    '<?xml version="1.0" encoding="UTF-8"?>',
+    '<project xmlns="http://maven.apache.org/POM/4.0.0">',
+    "  <modelVersion>4.0.0</modelVersion>",
+    "  <groupId>com.bench</groupId>",
+    "  <artifactId>" .. artifact_id .. "</artifactId>",
+    "  <version>1.0.0</version>",
+  }
+
+  if modules then
+    table.insert(lines, "  <packaging>pom</packaging>")
+    table.insert(lines, "  <modules>")
+    for _, module_name in ipairs(modules) do
+      table.insert(lines, "    <module>" .. module_name .. "</module>")
+    end
+    table.insert(lines, "  </modules>")
+  end
+
+  dependency = dependency or SPRING_DEPENDENCY
+  vim.list_extend(lines, {
+    "  <dependencies>",
+    "    <dependency>",
+    "      <groupId>" .. dependency.group_id .. "</groupId>",
+    "      <artifactId>" .. dependency.artifact_id .. "</artifactId>",
+    "    </dependency>",
+    "  </dependencies>",
+    "</project>",
+  })
+
+  return lines
+end
+
+local function java_constants_file(package_name, class_name, controllers, opts)
+  local lines = {
+    "package " .. package_name .. ";",
+    "",
+    "public final class " .. class_name .. " {",
+    '    public static final String API_BASE = "/api";',
+  }
+
+  for controller_index = 1, controllers do
+    table.insert(lines, "    public static class Resource" .. controller_index .. " {")
+    table.insert(
+      lines,
+      string.format('        public static final String BASE = "/api/v1/resource%d";', controller_index)
+    )
+    for method_index = 1, methods_for(opts, controller_index) do
+      table.insert(
+        lines,
+        string.format('        public static final String ACTION_%d = "/action%d/{id}";', method_index, method_index)
+      )
+    end
+    table.insert(lines, "    }")
+  end
+
+  table.insert(lines, "}")
+  return lines
+end
+
+local function uses_constants_for(opts, index)
+  if opts.constant_ratio <= 0 then
+    return false
+  end
+  return index % math.max(1, math.floor(1 / opts.constant_ratio)) == 0
+end
+
+local function spring_controller(package_name, class_name, index, opts, constants_class)
+  local uses_constants = constants_class ~= nil and uses_constants_for(opts, index)
+  local lines = {
+    "package " .. package_name .. ";",
+    "",
+    "import org.springframework.web.bind.annotation.*;",
+  }
+
+  if uses_constants then
+    table.insert(lines, "import com.bench.constants." .. constants_class .. ";")
+  end
+
+  vim.list_extend(lines, {
+    "",
+    "@RestController",
+    uses_constants and string.format("@RequestMapping(%s.Resource%d.BASE)", constants_class, index)
+      or string.format('@RequestMapping("/api/v1/resource%d")', index),
+    "public class " .. class_name .. " {",
+  })
+
+  for method_index = 1, methods_for(opts, index) do
+    local http_method = HTTP_METHODS[(method_index - 1) % #HTTP_METHODS + 1]
+    table.insert(lines, "")
+
+    if method_index % 7 == 0 then
+      -- Multi-line @RequestMapping with several methods
+      vim.list_extend(lines, {
+        "    @RequestMapping(",
+        string.format('        value = "/multi%d",', method_index),
+        "        method = {RequestMethod.GET, RequestMethod.POST}",
+        "    )",
+      })
+    elseif uses_constants then
+      table.insert(
+        lines,
+        string.format("    @%sMapping(%s.Resource%d.ACTION_%d)", http_method, constants_class, index, method_index)
+      )
+    else
+      table.insert(lines, string.format('    @%sMapping("/action%d/{id}")', http_method, method_index))
+    end
+
+    vim.list_extend(lines, {
+      string.format("    public String action%d(@PathVariable Long id) {", method_index),
+      string.format('        return "action%d-" + id;', method_index),
+      "    }",
+    })
+  end
+
+  table.insert(lines, "}")
+  return lines
+end
+
+local function java_filler(package_name, class_name)
+  return {
+    "package " .. package_name .. ";",
+    "",
+    "import java.util.ArrayList;",
+    "import java.util.List;",
+    "",
+    "public class " .. class_name .. " {",
+    "    private final List<String> items = new ArrayList<>();",
+    "",
+    "    public List<String> findAll() {",
+    "        return items;",
+    "    }",
+    "",
+    "    public void save(String item) {",
+    "        items.add(item);",
+    "    }",
+    "}",
+  }
+end
+
+local function generate_spring_sources(root, source_root, package_prefix, files, opts, constants_class)
+  local controllers = controller_count(vim.tbl_extend("force", opts, { files = files }))
+  local endpoint_count = 0
+
+  for index = 1, controllers do
+    local package_name = string.format("%s.module%d", package_prefix, index % 20)
+    local class_name = string.format("Resource%dController", index)
+    local package_dir = source_root .. "/" .. package_name:gsub("%.", "/")
+    write_file(
+      string.format("%s/%s/%s.java", root, package_dir, class_name),
+      spring_controller(package_name, class_name, index, opts, constants_class)
+    )
+
+    for method_index = 1, methods_for(opts, index) do
+      endpoint_count = endpoint_count + (method_index % 7 == 0 and 2 or 1)
+    end
+  end
+
+  for index = 1, math.max(0, files - controllers) do
+    local package_name = string.format("%s.service%d", package_prefix, index % 20)
+    local class_name = string.format("Service%d", index)
+    local package_dir = source_root .. "/" .. package_name:gsub("%.", "/")
+    write_file(string.format("%s/%s/%s.java", root, package_dir, class_name), java_filler(package_name, class_name))
+  end
+
+  return controllers, endpoint_count
+end
+
+local function generate_spring(root, opts)
+  write_file(root .. "/pom.xml", maven_pom "bench-spring")
+
+  local controllers = controller_count(opts)
+  write_file(
+    root .. "/src/main/java/com/bench/constants/ApiPaths.java",
+    java_constants_file("com.bench.constants", "ApiPaths", controllers, opts)
+  )
+
+  local _, endpoint_count =
+    generate_spring_sources(root, "src/main/java", "com.bench", opts.files - 1, opts, "ApiPaths")
+  return endpoint_count
+end
+
+local function generate_spring_multi_module(root, opts)
+  local module_names = {}
+  for module_index = 1, opts.modules do
+    table.insert(module_names, "service-" .. module_index)
+  end
+  table.insert(module_names, "common")
+
+  write_file(root .. "/pom.xml", maven_pom("bench-parent", module_names))
+  write_file(root .. "/common/pom.xml", maven_pom "common")
+
+  local files_per_module = math.max(1, math.floor((opts.files - 1) / opts.modules))
+  local module_opts = vim.tbl_extend("force", opts, { files = files_per_module })
+  write_file(
+    root .. "/common/src/main/java/com/bench/constants/ApiPaths.java",
+    java_constants_file("com.bench.constants", "ApiPaths", controller_count(module_opts), opts)
+  )
+
+  local endpoint_count = 0
+  for module_index = 1, opts.modules do
+    local module_root = root .. "/service-" .. module_index
+    write_file(module_root .. "/pom.xml", maven_pom("service-" .. module_index))
+    local _, module_endpoints = generate_spring_sources(
+      module_root,
+      "src/main/java",
+      "com.bench.service" .. module_index,
+      files_per_module,
+      opts,
+      "ApiPaths"
+    )
+    endpoint_count = endpoint_count + module_endpoints
+  end
+
+  return endpoint_count
+end
+
+local SERVLET_METHODS = { "doGet", "doPost", "doPut", "doDelete" }
+
+local function servlet_class(package_name, class_name, url_pattern, annotated)
+  local lines = {
+    "package " .. package_name .. ";",
+    "",
+    "import java.io.IOException;",
+    "import javax.servlet.ServletException;",
+    "import javax.servlet.annotation.WebServlet;",
+    "import javax.servlet.http.HttpServlet;",
+    "import javax.servlet.http.HttpServletRequest;",
+    "import javax.servlet.http.HttpServletResponse;",
+    "",
+  }
+
+  if annotated then
+    table.insert(lines, string.format('@WebServlet(urlPatterns = {"%s"}, name = "%s")', url_pattern, class_name))
+  end
+
+  table.insert(lines, "public class " .. class_name .. " extends HttpServlet {")
+  for _, servlet_method in ipairs(SERVLET_METHODS) do
+    vim.list_extend(lines, {
+      "",
+      "    @Override",
+      "    protected void " .. servlet_method .. "(HttpServletRequest request, HttpServletResponse response)",
+      "            throws ServletException, IOException {",
+      '        response.setContentType("application/json");',
+      "    }",
+    })
+  end
+  table.insert(lines, "}")
+
+  return lines
+end
+
+local function generate_servlet(root, opts)
+  local servlets = controller_count(opts)
+  local web_xml = {
+    '<?xml version="1.0" encoding="UTF-8"?>',
+    '<web-app xmlns="http://xmlns.jcp.org/xml/ns/javaee" version="4.0">',
+  }
+
+  write_file(root .. "/pom.xml", maven_pom("bench-servlet", nil, SERVLET_DEPENDENCY))
+
+  for index = 1, servlets do
+    local package_name = string.format("com.bench.servlet%d", index % 20)
+    local class_name = string.format("Resource%dServlet", index)
+    local url_pattern = string.format("/resource%d/*", index)
+    local annotated = index % 2 == 0
+
+    if not annotated then
+      vim.list_extend(web_xml, {
+        "  <servlet>",
+        "    <servlet-name>" .. class_name .. "</servlet-name>",
+        "    <servlet-class>" .. package_name .. "." .. class_name .. "</servlet-class>",
+        "  </servlet>",
+        "  <servlet-mapping>",
+        "    <servlet-name>" .. class_name .. "</servlet-name>",
+        "    <url-pattern>" .. url_pattern .. "</url-pattern>",
+        "  </servlet-mapping>",
+      })
+    end
+
+    write_file(
+      string.format("%s/src/main/java/%s/%s.java", root, package_name:gsub("%.", "/"), class_name),
+      servlet_class(package_name, class_name, url_pattern, annotated)
+    )
+  end
+
+  table.insert(web_xml, "</web-app>")
+  write_file(root .. "/src/main/webapp/WEB-INF/web.xml", web_xml)
+
+  for index = 1, math.max(0, opts.files - servlets) do
+    local package_name = string.format("com.bench.service%d", index % 20)
+    local class_name = string.format("Service%d", index)
+    write_file(
+      string.format("%s/src/main/java/%s/%s.java", root, package_name:gsub("%.", "/"), class_name),
+      java_filler(package_name, class_name)
+    )
+  end
+
+  return servlets * #SERVLET_METHODS
+end
+
+-- ========================================
+-- NESTJS
+-- ========================================
+
+local function generate_nestjs(root, opts)
+  write_file(root .. "/package.json", {
+    "{",
+    '  "name": "bench-nestjs",',
+    '  "dependencies": {',
+    '    "@nestjs/common": "^10.0.0",',
+    '    "@nestjs/core": "^10.0.0"',
+    "  }",
+    "}",
+  })
+
+  local controllers = controller_count(opts)
+  local endpoint_count = 0
+
+  for index = 1, controllers do
+    local lines = {
+      "import { Controller, Get, Post, Put, Delete, Patch, Param, Body } from '@nestjs/common';",
+      "",
+      string.format("@Controller('resource%d')", index),
+      string.format("export class Resource%dController {", index),
+    }
+
+    for method_index = 1, methods_for(opts, index) do
+      local http_method = HTTP_METHODS[(method_index - 1) % #HTTP_METHODS + 1]
+      vim.list_extend(lines, {
+        "",
+        string.format("  @%s('action%d/:id')", http_method, method_index),
+        string.format("  action%d(@Param('id') id: string) {", method_index),
+        string.format("    return `action%d-${id}`;", method_index),
+        "  }",
+      })
+      endpoint_count = endpoint_count + 1
+    end
+
+    table.insert(lines, "}")
+    write_file(string.format("%s/src/resource%d/resource%d.controller.ts", root, index, index), lines)
+  end
+
+  for index = 1, math.max(0, opts.files - controllers) do
+    write_file(string.format("%s/src/shared/service%d.service.ts", root, index), {
+      "import { Injectable } from '@nestjs/common';",
+      "",
+      "@Injectable()",
+      string.format("export class Service%d {", index),
+      "  private readonly items: string[] = [];",
+      "",
+      "  findAll(): string[] {",
+      "    return this.items;",
+      "  }",
+      "}",
+    })
+  end
+
+  return endpoint_count
+end
+
+-- ========================================
+-- RAILS
+-- ========================================
+
+local function generate_rails(root, opts)
+  write_file(root .. "/Gemfile", {
+    "source 'https://rubygems.org'",
+    "",
+    "gem 'rails', '~> 7.1'",
+  })
+  write_file(root .. "/config/application.rb", {
+    "require_relative 'boot'",
+    "require 'rails/all'",
+  })
+
+  local controllers = controller_count(opts)
+  local routes = { "Rails.application.routes.draw do", "  root 'home#index'", "" }
+
+  for index = 1, controllers do
+    local resource = string.format("resources%d", index)
+    local namespaced = index % 3 == 0
+    local indent = namespaced and "    " or "  "
+
+    if namespaced then
+      table.insert(routes, "  namespace :api do")
+    end
+
+    vim.list_extend(routes, {
+      indent .. "resources :" .. resource .. " do",
+      indent .. "  member do",
+      indent .. "    get :profile",
+      indent .. "  end",
+      indent .. "  collection do",
+      indent .. "    get :search",
+      indent .. "  end",
+      indent .. "end",
+    })
+
+    if namespaced then
+      table.insert(routes, "  end")
+    end
+
+    local controller_dir = namespaced and (root .. "/app/controllers/api") or (root .. "/app/controllers")
+    local class_name = (namespaced and "Api::" or "") .. string.format("Resources%dController", index)
+    local lines = {
+      string.format("class %s < ApplicationController", class_name),
+    }
+    for _, action in ipairs { "index", "show", "create", "update", "destroy", "profile", "search" } do
+      vim.list_extend(lines, {
+        "  def " .. action,
+        "    render json: {}",
+        "  end",
+        "",
+      })
+    end
+    table.insert(lines, "end")
+    write_file(string.format("%s/%s_controller.rb", controller_dir, resource), lines)
+  end
+
+  table.insert(routes, "end")
+  write_file(root .. "/config/routes.rb", routes)
+
+  for index = 1, math.max(0, opts.files - controllers) do
+    write_file(string.format("%s/app/models/model%d.rb", root, index), {
+      string.format("class Model%d < ApplicationRecord", index),
+      "  validates :name, presence: true",
+      "end",
+    })
+  end
+
+  -- resources (5 routes + member + collection) per controller
+  return controllers * 7
+end
+
+local GENERATORS = {
+  spring = generate_spring,
+  servlet = generate_servlet,
+  spring_multi_module = generate_spring_multi_module,
+  nestjs = generate_nestjs,
+  rails = generate_rails,
+}
+
+---Generate a synthetic project
+---@param kind string One of M.KINDS
+---@param root string Directory to generate into (recreated)
+---@param opts table|nil Size options (see merge_defaults)
+---@return table info { kind, root, files, expected_endpoints }
+function M.generate(kind, root, opts)
+  local generator = GENERATORS[kind]
+  if not generator then
+    error("Unknown benchmark project kind: " .. tostring(kind))
+  end
+
+  opts = merge_defaults(opts)
+
+  vim.fn.delete(root, "rf")
+  vim.fn.mkdir(root, "p")
+  created_dirs = {}
+
+  local expected_endpoints = generator(root, opts)
+
+  local info = {
+    kind = kind,
+    root = root,
+    files = opts.files,
+    expected_endpoints = expected_endpoints,
+  }
+
+  write_file(root .. "/.bench.json", { vim.json.encode(info) })
+  return info
+end
+
+---Generate a project unless an identical one already exists
+---@param kind string
+---@param root string
+---@param opts table|nil
+---@return table info
+function M.ensure(kind, root, opts)
+  local marker = io.open(root .. "/.bench.json", "r")
+  if marker then
+    local ok, info = pcall(vim.json.decode, marker:read "*a")
+    marker:close()
+    if ok and type(info) == "table" and info.files == merge_defaults(opts).files then
+      return info
+    end
+  end
+
+  return M.generate(kind, root, opts)
+end
+
+return M
@@ -0,0 +1,100 @@
+-- Shared scan measurement helpers for the benchmarks (tests/bench) and the perf specs (tests/perf)
+local M = {}
+
+---Reload endpoint modules so every run starts from a fresh process-like state
+---@param mode "regex"|"treesitter"
+---@return table endpoint Endpoint instance set up for benchmarking
+function M.fresh_endpoint(mode)
+  for module_name in pairs(package.loaded) do
+    if module_name:match "^endpoint" then
+      package.loaded[module_name] = nil
+    end
+  end
+
+  local Endpoint = require "endpoint.core.Endpoint"
+  local instance = Endpoint:new()
+  instance:setup {
+    cache = { mode = "persistent" },
+    progress = { enabled = false },
+    telemetry = { enabled = false },
+    profiler = { enabled = true },
+    treesitter = { enabled = mode == "treesitter" },
+  }
+  return instance
+end
+
+---Run an async resolver and wait for it while sampling the Lua heap
+---@param timeout number Milliseconds to wait for the result
+---@param start_fn fun(done: fun(endpoints: table, scan_summary: table|nil))
+---@return table measurement { timed_out, wall_ms, peak_heap_kb, heap_growth_kb, endpoints, parser_types }
+function M.measure(timeout, start_fn)
+  collectgarbage "collect"
+  local baseline_kb = collectgarbage "count"
+  local peak_kb = baseline_kb
+  local result = nil
+  local summary = nil
+
+  local started_at = vim.uv.hrtime()
+  start_fn(function(endpoints, scan_summary)
+    result = endpoints
+    summary = scan_summary
+  end)
+
+  vim.wait(timeout, function()
+    peak_kb = math.max(peak_kb, collectgarbage "count")
+    return result ~= nil
+  end, 5)
+
+  local wall_ms = (vim.uv.hrtime() - started_at) / 1e6
+  peak_kb = math.max(peak_kb, collectgarbage "count")
+
+  local profile = require("endpoint.utils.profiler").get_last()
+  if profile then
+    peak_kb = math.max(peak_kb, profile.memory_peak_kb)
+  end
+
+  return {
+    timed_out = result == nil,
+    wall_ms = wall_ms,
+    peak_heap_kb = peak_kb,
+    heap_growth_kb = peak_kb - baseline_kb,
+    endpoints = result and #result or 0,
+    parser_types = summary and summary.parser_types or nil,
+  }
+end
+
+---Measure a cold scan, a warm rescan in the same process and a load from the persistent cache
+---Must be called with the project root as the current working directory.
+---@param mode "regex"|"treesitter"
+---@param timeout number
+---@return table<string, table> measurements keyed by "cold", "warm" and "cache"
+function M.measure_runs(mode, timeout)
+  local measurements = {}
+
+  -- Cold: fresh modules, empty resolver caches, no endpoint cache
+  local endpoint = M.fresh_endpoint(mode)
+  endpoint.cache:set_mode "persistent"
+  endpoint.cache:clear()
+  measurements.cold = M.measure(timeout, function(done)
+    endpoint:scan_all_endpoints_async({}, done)
+  end)
+
+  -- Warm: same process, resolver caches and OS page cache populated
+  measurements.warm = M.measure(timeout, function(done)
+    endpoint:scan_all_endpoints_async({}, function(endpoints, scan_summary)
+      endpoint:_update_cache_if_enabled(endpoints)
+      done(endpoints, scan_summary)
+    end)
+  end)
+
+  -- Cache: fresh modules loading the persistent endpoint cache written by the warm run
+  endpoint = M.fresh_endpoint(mode)
+  measurements.cache = M.measure(timeout, function(done)
+    endpoint:_resolve_endpoints_async({}, done)
+  end)
+
+  endpoint.cache:clear()
+  return measurements
+end
+
+return M
@@ -0,0 +1,266 @@
+-- Per-parser throughput microbenchmarks for endpoint.nvim
+-- Usage: nvim --headless --noplugin -u NONE -l tests/bench/parsers.lua [frameworks=spring,dotnet] [iterations=50] [warmup=5] [project=<dir>] [output=bench_output.txt]
+--
+-- Ripgrep hit streams are recorded once per project under .tests/bench/recordings and replayed
+-- straight into Parser:parse_content (regex) and, for the matched file set, into
+-- TreeSitterParser:extract_endpoints, so ripgrep itself is not part of the measurement.
+-- Prints one JSON object per (framework, parser) with lines/sec, files/sec and KB allocated per iteration.
+
+local repo_root = vim.fn.getcwd()
+package.path = table.concat({
+  package.path,
+  repo_root .. "/lua/?.lua",
+  repo_root .. "/lua/?/init.lua",
+}, ";")
+
+local FRAMEWORK_NAMES =
+  { "spring", "servlet", "rails", "symfony", "express", "nestjs", "fastapi", "dotnet", "ktor", "react_router" }
+
+-- Hot regex-parser functions benchmarked on their own with every recorded hit as input
+local HOT_FUNCTIONS = {
+  spring = { "_extract_path_from_specific_mapping", "_extract_methods_from_request_mapping" },
+  dotnet = { "_clean_multiline_content" },
+}
+
+local function parse_args(argv)
+  local args = {
+    frameworks = table.concat(FRAMEWORK_NAMES, ","),
+    iterations = "50",
+    warmup = "5",
+    project = "",
+    output = "bench_output.txt",
+    recordings = repo_root .. "/.tests/bench/recordings",
+  }
+
+  for _, argument in ipairs(argv or {}) do
+    local key, value = argument:match "^([%w_]+)=(.*)$"
+    if key then
+      args[key] = value
+    end
+  end
+
+  return {
+    frameworks = vim.split(args.frameworks, ",", { trimempty = true }),
+    iterations = tonumber(args.iterations),
+    warmup = tonumber(args.warmup),
+    project = args.project ~= "" and vim.fn.fnamemodify(args.project, ":p"):gsub("/$", "") or nil,
+    output = args.output ~= "" and args.output or nil,
+    recordings = args.recordings,
+  }
+end
+
+local function get_framework(framework_name)
+  local FrameworkRegistry = require "endpoint.core.FrameworkRegistry"
+  return FrameworkRegistry:new():get_by_name(framework_name)
+end
+
+---Load a recorded ripgrep hit stream, recording it first if needed
+local function load_hits(framework, project_root, recordings_dir)
+  local recording_path =
+    string.format("%s/%s-%s.rg", recordings_dir, vim.fn.fnamemodify(project_root, ":t"), framework:get_name())
+
+  if vim.fn.filereadable(recording_path) == 0 then
+    vim.fn.mkdir(recordings_dir, "p")
+    local search_output = vim.fn.system(framework:get_search_cmd())
+    local file = assert(io.open(recording_path, "w"))
+    file:write(search_output)
+    file:close()
+  end
+
+  local rg_util = require "endpoint.utils.rg"
+  local hits = {}
+  local file_set = {}
+  local file_list = {}
+
+  for _, result_line in ipairs(vim.fn.readfile(recording_path)) do
+    local parsed = rg_util.parse_result_line(result_line)
+    if parsed then
+      table.insert(hits, parsed)
+      if not file_set[parsed.file_path] then
+        file_set[parsed.file_path] = true
+        table.insert(file_list, parsed.file_path)
+      end
+    end
+  end
+
+  return hits, file_list
+end
+
+---Run fn `iterations` times with the GC stopped and return seconds and KB allocated per iteration
+local function measure(iterations, fn)
+  collectgarbage "collect"
+  collectgarbage "stop"
+  local memory_before = collectgarbage "count"
+  local started_at = vim.uv.hrtime()
+
+  for _ = 1, iterations do
+    fn()
+  end
+
+  local seconds = (vim.uv.hrtime() - started_at) / 1e9
+  local allocated_kb = (collectgarbage "count" - memory_before) / iterations
+  collectgarbage "restart"
+
+  return seconds, allocated_kb
+end
+
+local function emit(output_file, record)
+  local line = vim.json.encode(record)
+  io.stdout:write(line .. "\n")
+  if output_file then
+    output_file:write(line .. "\n")
+    output_file:flush()
+  end
+end
+
+local function bench_regex(framework, hits, file_count, args)
+  local parser = framework.config.parser:new()
+  local accepted = 0
+
+  local function pass()
+    accepted = 0
+    for _, hit in ipairs(hits) do
+      if parser:parse_content(hit.content, hit.file_path, hit.line_number, hit.column) then
+        accepted = accepted + 1
+      end
+    end
+  end
+
+  for _ = 1, args.warmup do
+    pass()
+  end
+
+  local seconds, allocated_kb = measure(args.iterations, pass)
+  return {
+    parser = parser:get_name(),
+    hits = #hits,
+    accepted = accepted,
+    files = file_count,
+    lines_per_sec = seconds > 0 and #hits * args.iterations / seconds or 0,
+    files_per_sec = seconds > 0 and file_count * args.iterations / seconds or 0,
+    alloc_kb_per_iteration = allocated_kb,
+  }
+end
+
+local function bench_hot_functions(framework, hits, args)
+  local results = {}
+  local parser = framework.config.parser:new()
+
+  for _, function_name in ipairs(HOT_FUNCTIONS[framework:get_name()] or {}) do
+    local hot_function = parser[function_name]
+    if hot_function then
+      local function pass()
+        for _, hit in ipairs(hits) do
+          hot_function(parser, hit.content, hit.file_path, hit.line_number)
+        end
+      end
+
+      for _ = 1, args.warmup do
+        pass()
+      end
+
+      local seconds, allocated_kb = measure(args.iterations, pass)
+      table.insert(results, {
+        parser = parser:get_name(),
+        ["function"] = function_name,
+        hits = #hits,
+        lines_per_sec = seconds > 0 and #hits * args.iterations / seconds or 0,
+        alloc_kb_per_iteration = allocated_kb,
+      })
+    end
+  end
+
+  return results
+end
+
+local function bench_treesitter(framework, file_list, args)
+  if not framework.config.treesitter_parser then
+    return nil
+  end
+
+  local ok, TreeSitterParser = pcall(require, framework.config.treesitter_parser)
+  if not ok then
+    return nil
+  end
+
+  local parser = TreeSitterParser:new()
+  if not parser:is_available() then
+    return { parser = parser:get_name(), skipped = "tree-sitter parser not available" }
+  end
+
+  local endpoint_count = 0
+  local line_count = 0
+  for _, file_path in ipairs(file_list) do
+    line_count = line_count + #vim.fn.readfile(file_path)
+  end
+
+  local function pass()
+    endpoint_count = 0
+    for _, file_path in ipairs(file_list) do
+      local endpoints = parser:extract_endpoints(file_path, {})
+      endpoint_count = endpoint_count + (endpoints and #endpoints or 0)
+    end
+  end
+
+  for _ = 1, args.warmup do
+    pass()
+  end
+
+  local seconds, allocated_kb = measure(args.iterations, pass)
+  return {
+    parser = parser:get_name(),
+    files = #file_list,
+    lines = line_count,
+    endpoints = endpoint_count,
+    lines_per_sec = seconds > 0 and line_count * args.iterations / seconds or 0,
+    files_per_sec = seconds > 0 and #file_list * args.iterations / seconds or 0,
+    alloc_kb_per_iteration = allocated_kb,
+  }
+end
+
+local function run()
+  local args = parse_args(_G.arg)
+  local output_file = args.output and io.open(args.output, "a") or nil
+
+  require("endpoint.config").setup { progress = { enabled = false }, telemetry = { enabled = false } }
+
+  for _, framework_name in ipairs(args.frameworks) do
+    local project_root = args.project or (repo_root .. "/tests/fixtures/" .. framework_name)
+    local framework = get_framework(framework_name)
+
+    if framework and vim.fn.isdirectory(project_root) == 1 then
+      vim.fn.chdir(project_root)
+      local hits, file_list = load_hits(framework, project_root, args.recordings)
+
+      local base_record = {
+        benchmark = "parser",
+        framework = framework_name,
+        project = vim.fn.fnamemodify(project_root, ":t"),
+        iterations = args.iterations,
+        warmup = args.warmup,
+      }
+
+      emit(
+        output_file,
+        vim.tbl_extend("force", base_record, { mode = "regex" }, bench_regex(framework, hits, #file_list, args))
+      )
+
+      for _, hot_result in ipairs(bench_hot_functions(framework, hits, args)) do
+        emit(output_file, vim.tbl_extend("force", base_record, { mode = "function" }, hot_result))
+      end
+
+      local treesitter_result = bench_treesitter(framework, file_list, args)
+      if treesitter_result then
+        emit(output_file, vim.tbl_extend("force", base_record, { mode = "treesitter" }, treesitter_result))
+      end
+
+      vim.fn.chdir(repo_root)
+    end
+  end
+
+  if output_file then
+    output_file:close()
+  end
+end
+
+run()
@@ -0,0 +1,95 @@
+-- Headless end-to-end scan benchmark for endpoint.nvim
+-- Usage: nvim --headless --noplugin -u NONE -l tests/bench/run.lua [kinds=spring,rails] [files=1000] [modes=regex,treesitter] [output=bench_output.txt]
+--
+-- Prints one JSON object per (kind, mode, run) to stdout and appends it to the output file:
+--   { kind, files, mode, run = "cold"|"warm"|"cache", wall_ms, peak_heap_kb, endpoints, endpoints_per_sec, parser_types }
+
+local repo_root = vim.fn.getcwd()
+package.path = table.concat({
+  package.path,
+  repo_root .. "/lua/?.lua",
+  repo_root .. "/lua/?/init.lua",
+  repo_root .. "/tests/?.lua",
+}, ";")
+
+local generator = require "bench.generator"
+local harness = require "bench.harness"
+
+local function parse_args(argv)
+  local args = {
+    kinds = table.concat(generator.KINDS, ","),
+    files = "1000",
+    modes = "regex,treesitter",
+    output = "bench_output.txt",
+    dir = repo_root .. "/.tests/bench",
+    timeout = "600000",
+  }
+
+  for _, argument in ipairs(argv or {}) do
+    local key, value = argument:match "^([%w_]+)=(.*)$"
+    if key then
+      args[key] = value
+    end
+  end
+
+  return {
+    kinds = vim.split(args.kinds, ",", { trimempty = true }),
+    files = tonumber(args.files),
+    modes = vim.split(args.modes, ",", { trimempty = true }),
+    output = args.output ~= "" and args.output or nil,
+    dir = args.dir,
+    timeout = tonumber(args.timeout),
+  }
+end
+
+local function emit(output_file, record)
+  local line = vim.json.encode(record)
+  io.stdout:write(line .. "\n")
+  if output_file then
+    output_file:write(line .. "\n")
+    output_file:flush()
+  end
+end
+
+local function run()
+  local args = parse_args(_G.arg)
+  local output_file = args.output and io.open(args.output, "a") or nil
+
+  for _, kind in ipairs(args.kinds) do
+    local project_root = string.format("%s/%s-%d", args.dir, kind, args.files)
+    local info = generator.ensure(kind, project_root, { files = args.files })
+    vim.fn.chdir(project_root)
+
+    for _, mode in ipairs(args.modes) do
+      local function record(run_name, measurement)
+        emit(output_file, {
+          kind = kind,
+          files = args.files,
+          expected_endpoints = info.expected_endpoints,
+          mode = mode,
+          run = run_name,
+          timed_out = measurement.timed_out,
+          wall_ms = measurement.wall_ms,
+          peak_heap_kb = measurement.peak_heap_kb,
+          heap_growth_kb = measurement.heap_growth_kb,
+          endpoints = measurement.endpoints,
+          endpoints_per_sec = measurement.wall_ms > 0 and measurement.endpoints / (measurement.wall_ms / 1000) or 0,
+          parser_types = measurement.parser_types,
+        })
+      end
+
+      local measurements = harness.measure_runs(mode, args.timeout)
+      for _, run_name in ipairs { "cold", "warm", "cache" } do
+        record(run_name, measurements[run_name])
+      end
+    end
+
+    vim.fn.chdir(repo_root)
+  end
+
+  if output_file then
+    output_file:close()
+  end
+end
+
+run()
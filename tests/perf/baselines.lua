@@ -0,0 +1,61 @@
+-- Recorded performance budgets for the perf specs (make test-perf)
+--
+-- Each entry generates a synthetic project with tests/bench/generator.lua and measures a cold scan,
+-- a warm rescan and a load from the persistent cache (see tests/bench/harness.lua).
+-- A metric fails when it exceeds its budget by more than the tolerance.
+--
+-- To re-baseline after an intentional change, run `make test-perf` on a quiet machine and copy the
+-- "measured" column of the report into the matching budget, rounded up.
+return {
+  -- Allowed overshoot as a fraction of the budget; ENDPOINT_PERF_TOLERANCE overrides it (e.g. 0.5 on slow CI)
+  tolerance = 0.25,
+
+  scans = {
+    {
+      kind = "spring",
+      files = 5000,
+      mode = "regex",
+      budgets = {
+        cold = { wall_ms = 6000, heap_growth_kb = 120000 },
+        warm = { wall_ms = 5000, heap_growth_kb = 120000 },
+        cache = { wall_ms = 400, heap_growth_kb = 40000 },
+      },
+    },
+    {
+      kind = "servlet",
+      files = 2000,
+      mode = "regex",
+      budgets = {
+        cold = { wall_ms = 3000, heap_growth_kb = 60000 },
+        cache = { wall_ms = 200 },
+      },
+    },
+    {
+      kind = "spring_multi_module",
+      files = 2000,
+      mode = "regex",
+      budgets = {
+        cold = { wall_ms = 3000, heap_growth_kb = 60000 },
+        cache = { wall_ms = 200 },
+      },
+    },
+    {
+      kind = "nestjs",
+      files = 2000,
+      mode = "regex",
+      budgets = {
+        cold = { wall_ms = 2500, heap_growth_kb = 50000 },
+        cache = { wall_ms = 200 },
+      },
+    },
+    {
+      kind = "rails",
+      files = 1000,
+      mode = "regex",
+      budgets = {
+        cold = { wall_ms = 4000, heap_growth_kb = 60000 },
+        cache = { wall_ms = 200 },
+      },
+    },
+  },
+}
@@ -0,0 +1,82 @@
+local repo_root = vim.fn.getcwd()
+package.path = package.path .. ";" .. repo_root .. "/tests/?.lua"
+
+local generator = require "bench.generator"
+local harness = require "bench.harness"
+local baselines = require "perf.baselines"
+
+local TIMEOUT_MS = 600000
+local RUN_ORDER = { "cold", "warm", "cache" }
+local METRIC_ORDER = { "wall_ms", "heap_growth_kb" }
+
+local tolerance = tonumber(vim.env.ENDPOINT_PERF_TOLERANCE) or baselines.tolerance
+
+---Compare measurements against budgets, returning a report and whether any metric regressed
+local function compare(measurements, budgets)
+  local lines = {
+    string.format("%-22s %12s %12s %9s", "metric", "budget", "measured", "delta"),
+  }
+  local regressed = false
+
+  for _, run_name in ipairs(RUN_ORDER) do
+    local run_budgets = budgets[run_name]
+    if run_budgets then
+      for _, metric in ipairs(METRIC_ORDER) do
+        local budget = run_budgets[metric]
+        if budget then
+          local measured = measurements[run_name][metric]
+          local delta = (measured - budget) / budget
+          local failed = measured > budget * (1 + tolerance)
+          regressed = regressed or failed
+
+          table.insert(
+            lines,
+            string.format(
+              "%-22s %12.1f %12.1f %+8.1f%%%s",
+              run_name .. "." .. metric,
+              budget,
+              measured,
+              delta * 100,
+              failed and "  REGRESSED" or ""
+            )
+          )
+        end
+      end
+    end
+  end
+
+  return table.concat(lines, "\n"), regressed
+end
+
+describe("Scan performance budgets", function()
+  after_each(function()
+    vim.fn.chdir(repo_root)
+  end)
+
+  for _, scan in ipairs(baselines.scans) do
+    local label = string.format("%s-%d (%s)", scan.kind, scan.files, scan.mode)
+
+    it("should keep " .. label .. " within budget", function()
+      local project_root = string.format("%s/.tests/bench/%s-%d", repo_root, scan.kind, scan.files)
+      generator.ensure(scan.kind, project_root, { files = scan.files })
+      vim.fn.chdir(project_root)
+
+      local measurements = harness.measure_runs(scan.mode, TIMEOUT_MS)
+
+      assert.is_true(measurements.cold.endpoints > 0, label .. " found no endpoints")
+      for _, run_name in ipairs(RUN_ORDER) do
+        local measurement = measurements[run_name]
+        assert.is_false(measurement.timed_out, label .. " " .. run_name .. " run timed out")
+        -- A faster scan that lost endpoints is not an improvement
+        assert.equals(measurements.cold.endpoints, measurement.endpoints, label .. " " .. run_name .. " endpoint count")
+      end
+
+      local report, regressed = compare(measurements, scan.budgets)
+      print(string.format("\n%s, tolerance %d%%\n%s", label, tolerance * 100, report))
+
+      if regressed then
+        error(string.format("Performance regression in %s (tolerance %d%%):\n%s", label, tolerance * 100, report))
+      end
+    end)
+  end
+end)
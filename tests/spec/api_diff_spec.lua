@@ -0,0 +1,204 @@
+local ApiDiff = require "endpoint.core.ApiDiff"
+local ScanHandle = require "endpoint.core.ScanHandle"
+local git = require "endpoint.utils.git"
+
+describe("API diff", function()
+  local function get_display_values(endpoints)
+    local display_values = vim.tbl_map(function(each)
+      return each.display_value
+    end, endpoints)
+    table.sort(display_values)
+    return display_values
+  end
+
+  local function endpoint(method, endpoint_path, file_path, raw_content)
+    return {
+      method = method,
+      endpoint_path = endpoint_path,
+      file_path = file_path,
+      display_value = method .. " " .. endpoint_path,
+      metadata = { raw_content = raw_content },
+    }
+  end
+
+  it("should report added, removed and changed endpoints", function()
+    local result = ApiDiff.static.compare({
+      endpoint("GET", "/users", "./users.js", "router.get('/users', list)"),
+      endpoint("GET", "/users/:id", "./users.js", "router.get('/users/:id', show)"),
+      endpoint("POST", "/users", "./users.js", "router.post('/users', create)"),
+      endpoint("DELETE", "/users/:id", "./users.js"),
+    }, {
+      endpoint("GET", "/users", "users.js", "router.get('/users',  list)"),
+      endpoint("GET", "/users/:id", "./users.js", "router.get('/users/:id', auth, show)"),
+      endpoint("POST", "/users", "./accounts.js", "router.post('/users', create)"),
+      endpoint("PUT", "/users/:id", "./users.js"),
+    })
+
+    assert.same({ "PUT /users/:id" }, get_display_values(result.added))
+    assert.same({ "DELETE /users/:id" }, get_display_values(result.removed))
+    assert.same({ "GET /users/:id", "POST /users" }, vim.tbl_map(function(each)
+      return each.head.display_value
+    end, result.changed))
+  end)
+
+  it("should tag picker entries with their change and revision", function()
+    local entries = ApiDiff.static.to_entries {
+      added = { endpoint("GET", "/a", "./a.js") },
+      removed = { endpoint("GET", "/c", "./c.js") },
+      changed = { { base = endpoint("GET", "/b", "./a.js"), head = endpoint("GET", "/b", "./b.js") } },
+      base = "main",
+    }
+
+    assert.same({ "added", "removed", "changed" }, { entries[1].diff, entries[2].diff, entries[3].diff })
+    assert.equals("GET /b (changed)", entries[3].display_value)
+    assert.equals("./b.js", entries[3].file_path)
+    -- Removed endpoints are opened at the base, the others in the working tree
+    assert.same({ "main" }, { entries[1].revision, entries[2].revision, entries[3].revision })
+  end)
+
+  describe("revisions", function()
+    local original_cwd
+    local repo_dir
+
+    local function run_git(...)
+      vim.fn.system(vim.list_extend({ "git", "-C", repo_dir }, { ... }))
+      assert.equals(0, vim.v.shell_error)
+    end
+
+    -- Parses "<METHOD> <path>" lines, standing in for the framework scan, with the prefix of the root's
+    -- prefix.txt standing in for one declared in another file (e.g. a router mount)
+    local function scan(project_root, callback)
+      local prefix_path = project_root .. "/prefix.txt"
+      local prefix = vim.fn.filereadable(prefix_path) == 1 and vim.fn.readfile(prefix_path)[1] or ""
+      local endpoints = {}
+      for _, file_path in ipairs(vim.fn.globpath(project_root, "**/*.txt", false, true)) do
+        for line_number, line in ipairs(vim.fn.readfile(file_path)) do
+          local method, endpoint_path = line:match "^(%u+) (%S+)$"
+          if method then
+            local found = endpoint(method, prefix .. endpoint_path, file_path, line)
+            found.line_number = line_number
+            table.insert(endpoints, found)
+          end
+        end
+      end
+      vim.schedule(function()
+        callback(endpoints)
+      end)
+    end
+
+    local function diff(base, head)
+      local result = nil
+      local scanned_paths = {}
+      ApiDiff:new({
+        scan = function(project_root, callback)
+          table.insert(scanned_paths, project_root)
+          scan(project_root, callback)
+        end,
+        get_context_specs = function()
+          return {
+            { manifest_files = { "prefix.txt" }, dependents = { file_globs = { "routes/*.txt" } } },
+            { file_globs = { "health.txt" } },
+          }
+        end,
+      }):run_async(base, head, function(diff_result, err)
+        result = diff_result or { err = err }
+      end, ScanHandle:new())
+
+      vim.wait(5000, function()
+        return result ~= nil
+      end, 10)
+      return result, scanned_paths
+    end
+
+    before_each(function()
+      original_cwd = vim.fn.getcwd()
+      repo_dir = vim.fn.resolve(vim.fn.tempname())
+      vim.fn.mkdir(repo_dir .. "/routes", "p")
+      vim.fn.writefile({ "GET /users", "POST /users" }, repo_dir .. "/routes/users.txt")
+      vim.fn.writefile({ "GET /health" }, repo_dir .. "/routes/health.txt")
+      vim.fn.writefile({ "/api" }, repo_dir .. "/prefix.txt")
+      run_git "init"
+      run_git("add", ".")
+      run_git("-c", "user.name=test", "-c", "user.email=test@example.com", "commit", "-m", "base")
+      run_git("tag", "base")
+      vim.fn.chdir(repo_dir)
+    end)
+
+    after_each(function()
+      vim.fn.chdir(original_cwd)
+      vim.fn.delete(repo_dir, "rf")
+    end)
+
+    it("should list the changed files, untracked ones included for the working tree", function()
+      vim.fn.writefile({ "GET /users/:id" }, repo_dir .. "/routes/users.txt")
+      vim.fn.writefile({ "GET /orders" }, repo_dir .. "/routes/orders.txt")
+
+      local changed_files = git.changed_files "base"
+      table.sort(changed_files)
+      assert.same({ "routes/orders.txt", "routes/users.txt" }, changed_files)
+      assert.is_nil(git.changed_files "missing-ref")
+    end)
+
+    it("should only parse the changed files of each revision", function()
+      vim.fn.writefile({ "GET /users", "GET /users/:id" }, repo_dir .. "/routes/users.txt")
+      vim.fn.writefile({ "GET /orders" }, repo_dir .. "/routes/orders.txt")
+      run_git("add", ".")
+      run_git("-c", "user.name=test", "-c", "user.email=test@example.com", "commit", "-m", "head")
+      vim.fn.delete(repo_dir .. "/routes/orders.txt")
+
+      local result, scanned_paths = diff("base", "HEAD")
+
+      assert.equals(2, result.file_count)
+      assert.same({ "GET /api/orders", "GET /api/users/:id" }, get_display_values(result.added))
+      assert.same({ "POST /api/users" }, get_display_values(result.removed))
+      for _, added in ipairs(result.added) do
+        local expected_path = added.endpoint_path == "/api/orders" and "./routes/orders.txt" or "./routes/users.txt"
+        assert.equals(expected_path, added.file_path)
+      end
+      assert.same({ "base", "HEAD" }, { result.base, result.head })
+
+      -- One scan per revision, of a mirror removed afterwards
+      assert.equals(2, #scanned_paths)
+      for _, scanned_path in ipairs(scanned_paths) do
+        assert.equals(0, vim.fn.isdirectory(scanned_path))
+      end
+    end)
+
+    it("should compare with the working tree when no head is given", function()
+      vim.fn.writefile({ "GET /users" }, repo_dir .. "/routes/users.txt")
+
+      local result = diff "base"
+
+      assert.equals(0, #result.added)
+      assert.same({ "POST /api/users" }, get_display_values(result.removed))
+      assert.is_not_nil(diff("missing-ref").err)
+    end)
+
+    it("should resolve prefixes declared in unchanged files as they were at each revision", function()
+      vim.fn.writefile({ "GET /users", "POST /users", "GET /users/:id" }, repo_dir .. "/routes/users.txt")
+      run_git("add", ".")
+      run_git("-c", "user.name=test", "-c", "user.email=test@example.com", "commit", "-m", "head")
+      -- Not committed: the working tree's prefix is neither revision's
+      vim.fn.writefile({ "/v2" }, repo_dir .. "/prefix.txt")
+
+      local result = diff("base", "HEAD")
+
+      assert.same({ "GET /api/users/:id" }, get_display_values(result.added))
+      assert.equals(0, #result.removed)
+      assert.equals(0, #result.changed)
+    end)
+
+    it("should compare the files depending on a changed file", function()
+      vim.fn.writefile({ "/v2" }, repo_dir .. "/prefix.txt")
+      run_git("add", ".")
+      run_git("-c", "user.name=test", "-c", "user.email=test@example.com", "commit", "-m", "head")
+
+      local result = diff("base", "HEAD")
+
+      assert.equals(1, result.file_count)
+      assert.same({ "GET /v2/health", "GET /v2/users", "POST /v2/users" }, get_display_values(result.added))
+      assert.same({ "GET /api/health", "GET /api/users", "POST /api/users" }, get_display_values(result.removed))
+      assert.equals(0, #result.changed)
+    end)
+  end)
+end)
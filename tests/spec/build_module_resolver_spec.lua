@@ -0,0 +1,120 @@
+local build_module_resolver = require "endpoint.resolver.build_module_resolver"
+
+describe("BuildModuleResolver", function()
+  local original_cwd
+
+  before_each(function()
+    original_cwd = vim.fn.getcwd()
+    build_module_resolver.clear_cache()
+  end)
+
+  after_each(function()
+    vim.fn.chdir(original_cwd)
+    build_module_resolver.clear_cache()
+  end)
+
+  it("should read a pom's own artifactId, modules and dependencies", function()
+    local pom = build_module_resolver._parse_pom(table.concat({
+      "<project>",
+      "  <parent><artifactId>parent</artifactId></parent>",
+      "  <artifactId>api</artifactId>",
+      "  <modules><module>impl</module><!-- <module>old</module> --></modules>",
+      "  <dependencyManagement><dependencies>",
+      "    <dependency><artifactId>managed</artifactId></dependency>",
+      "  </dependencies></dependencyManagement>",
+      "  <dependencies><dependency><artifactId>common</artifactId></dependency></dependencies>",
+      "  <build><plugins><plugin><dependencies>",
+      "    <dependency><artifactId>plugin-dep</artifactId></dependency>",
+      "  </dependencies></plugin></plugins></build>",
+      "</project>",
+    }, "\n"))
+
+    assert.equals("api", pom.artifact_id)
+    assert.same({ "impl" }, pom.modules)
+    assert.same({ "common" }, pom.dependencies)
+  end)
+
+  it("should read Gradle includes and project dependencies", function()
+    local project_paths, project_dirs = build_module_resolver._parse_gradle_settings(table.concat({
+      "rootProject.name = 'shop'",
+      "include ':common', ':services:user'",
+      "include(",
+      '  "order", // ":legacy"',
+      ")",
+      "includeBuild 'build-logic'",
+      "project(':order').projectDir = file('apps/order')",
+    }, "\n"))
+
+    assert.same({ ":common", ":services:user", ":order" }, project_paths)
+    assert.same({ [":order"] = "apps/order" }, project_dirs)
+    assert.same(
+      { ":common", ":services:user" },
+      build_module_resolver._parse_gradle_dependencies(
+        "dependencies {\n  implementation project(':common')\n  api(project(path = \":services:user\"))\n}"
+      )
+    )
+  end)
+
+  it("should build the module graph of a multi-module Maven build", function()
+    vim.fn.chdir "tests/fixtures/spring-multi-module"
+
+    local module_names = vim.tbl_map(function(module)
+      return module.name
+    end, build_module_resolver.get_modules())
+    assert.same({ "common", "order-service", "user-service" }, module_names)
+
+    assert.equals(
+      "user-service",
+      build_module_resolver.get_module_for_file "./user-service/src/main/java/com/example/user/UserController.java"
+    )
+    assert.is_nil(build_module_resolver.get_module_for_file "pom.xml")
+
+    local scope = build_module_resolver.get_scope "user-service"
+    assert.same({ "common", "user-service" }, scope.dirs)
+    assert.is_nil(scope.modules["order-service"])
+    assert.is_nil(build_module_resolver.get_scope "billing")
+
+    local filtered = build_module_resolver.filter_endpoints({
+      { file_path = "./order-service/src/main/java/com/example/order/OrderController.java" },
+      { file_path = "./user-service/src/main/java/com/example/user/UserController.java", module = "user-service" },
+    }, scope)
+    assert.equals(1, #filtered)
+    assert.equals("user-service", filtered[1].module)
+  end)
+
+  describe("Gradle builds", function()
+    local project_root
+
+    before_each(function()
+      project_root = vim.fn.tempname()
+      vim.fn.mkdir(project_root .. "/services/user", "p")
+      vim.fn.mkdir(project_root .. "/common", "p")
+      vim.fn.writefile({ 'include ":common", ":services:user"' }, project_root .. "/settings.gradle.kts")
+      vim.fn.writefile(
+        { 'dependencies { implementation(project(":common")) }' },
+        project_root .. "/services/user/build.gradle.kts"
+      )
+      vim.fn.chdir(project_root)
+    end)
+
+    after_each(function()
+      vim.fn.chdir(original_cwd)
+      vim.fn.delete(project_root, "rf")
+    end)
+
+    it("should find modules by name or project path and follow their dependencies", function()
+      assert.equals("services/user", build_module_resolver.find_module(":services:user").dir)
+      assert.same({ "common", "services/user" }, build_module_resolver.get_scope("user").dirs)
+      assert.equals("user", build_module_resolver.get_module_for_file(project_root .. "/services/user/src/Api.kt"))
+    end)
+
+    it("should re-read the graph when a build file changed", function()
+      assert.equals(2, #build_module_resolver.get_modules())
+
+      vim.fn.writefile({ 'include ":common"' }, project_root .. "/settings.gradle.kts")
+      build_module_resolver.refresh()
+
+      assert.equals(1, #build_module_resolver.get_modules())
+    end)
+  end)
+end)
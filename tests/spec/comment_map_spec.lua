@@ -0,0 +1,113 @@
+local CommentMap = require "endpoint.core.CommentMap"
+local config = require "endpoint.config"
+
+describe("CommentMap", function()
+  before_each(function()
+    config.reset()
+    CommentMap.static.clear_cache()
+  end)
+
+  after_each(function()
+    config.reset()
+    CommentMap.static.clear_cache()
+  end)
+
+  it("should map line and block comments without reading into strings", function()
+    local map = CommentMap:new({
+      "public class UsersController {",
+      '    // @GetMapping("/old")',
+      '    @GetMapping("/users") // list',
+      "    /*",
+      '    @PostMapping("/users")',
+      "    */",
+      '    @GetMapping("http://example.com/*")',
+      '    /** Deletes */ @DeleteMapping("/users/{id}")',
+      "}",
+    }, "java")
+
+    assert.is_true(map:is_commented(2))
+    assert.is_false(map:is_commented(3, 5))
+    assert.is_true(map:is_commented(3, 27))
+    assert.is_true(map:is_commented(3, 26))
+    assert.is_true(map:is_commented(4))
+    assert.is_true(map:is_commented(5))
+    assert.is_true(map:is_commented(6))
+    assert.is_false(map:is_commented(7))
+    assert.is_true(map:is_commented(8, 5))
+    assert.is_false(map:is_commented(8, 20))
+    assert.is_false(map:is_commented(9))
+    assert.is_nil(map._lines)
+  end)
+
+  it("should treat standalone Python triple-quoted strings as comments", function()
+    local map = CommentMap:new({
+      '@router.get("/items")',
+      '# @router.delete("/items/{id}")',
+      "def list_items():",
+      '    """',
+      '    @router.post("/docs")',
+      '    """',
+      'label = "#not-a-comment"',
+      'description = """@router.put("/kept")"""',
+    }, "python")
+
+    assert.is_false(map:is_commented(1))
+    assert.is_true(map:is_commented(2))
+    assert.is_true(map:is_commented(5))
+    assert.is_false(map:is_commented(7))
+    assert.is_false(map:is_commented(8, 16))
+  end)
+
+  it("should handle Ruby =begin blocks and PHP attributes", function()
+    local ruby_map = CommentMap:new({ "=begin", 'get "/old"', "=end", 'get "/users/#{id}" # show' }, "ruby")
+    assert.is_true(ruby_map:is_commented(2))
+    assert.is_false(ruby_map:is_commented(4))
+    assert.is_true(ruby_map:is_commented(4, 20))
+
+    local php_map = CommentMap:new({ "#[Route('/users')]", "# #[Route('/old')]", "// #[Route('/older')]" }, "php")
+    assert.is_false(php_map:is_commented(1))
+    assert.is_true(php_map:is_commented(2))
+    assert.is_true(php_map:is_commented(3))
+  end)
+
+  it("should skip JavaScript regex literals", function()
+    local map = CommentMap:new({ "app.get(/\\/*legacy/, handler);", "app.post('/users', create);" }, "javascript")
+
+    assert.is_false(map:is_commented(1))
+    assert.is_false(map:is_commented(2))
+  end)
+
+  it("should detect the comment syntax from the file extension", function()
+    assert.equals("kotlin", CommentMap.static.get_language "src/Routes.kt")
+    assert.equals("typescript", CommentMap.static.get_language "src/users.controller.ts")
+    assert.equals("csharp", CommentMap.static.get_language "Controllers/UsersController.cs")
+    assert.is_nil(CommentMap.static.get_language "WEB-INF/web.xml")
+  end)
+
+  describe("is_commented_hit", function()
+    local file_path
+
+    before_each(function()
+      file_path = vim.fn.tempname() .. ".cs"
+      vim.fn.writefile({ '// [HttpGet("old")]', '[HttpGet("users")]' }, file_path)
+    end)
+
+    after_each(function()
+      vim.fn.delete(file_path)
+    end)
+
+    it("should drop hits inside comments", function()
+      assert.is_true(CommentMap.static.is_commented_hit(file_path, 1, 4))
+      assert.is_false(CommentMap.static.is_commented_hit(file_path, 2, 1))
+    end)
+
+    it("should keep every hit of a disabled language", function()
+      config.setup { comment_filtering = { languages = { csharp = false } } }
+      assert.is_false(CommentMap.static.is_commented_hit(file_path, 1, 4))
+      assert.is_true(CommentMap.static.is_enabled "java")
+
+      config.setup { comment_filtering = { enabled = false } }
+      assert.is_false(CommentMap.static.is_enabled "java")
+    end)
+  end)
+end)
@@ -0,0 +1,63 @@
+local VimUiSelectPicker = require "endpoint.pickers.vim_ui_select"
+local config = require "endpoint.config"
+
+describe("Precomputed entry displays", function()
+  local picker
+
+  before_each(function()
+    config.reset()
+    picker = VimUiSelectPicker:new()
+  end)
+
+  after_each(function()
+    config.reset()
+  end)
+
+  local function new_endpoint()
+    return {
+      method = "GET",
+      endpoint_path = "/users",
+      file_path = "UserController.java",
+      line_number = 1,
+      column = 1,
+      display_value = "GET /users",
+    }
+  end
+
+  it("should compute the display once and keep it on the endpoint", function()
+    local endpoint = new_endpoint()
+    picker:precompute_displays { endpoint }
+
+    local display = endpoint._display
+    assert.is_not_nil(display)
+    assert.equals("📥 GET /users", display.text)
+    assert.equals(#"📥" + #"GET" + 1, display.highlight_length)
+    assert.equals("TelescopeResultsNumber", display.method_color)
+    assert.equals("/users GET GET /users", display.ordinal)
+
+    endpoint.display_value = "changed"
+    assert.equals(display, picker:_get_entry_display(endpoint, config.get()))
+  end)
+
+  it("should recompute the display when the ui config changes", function()
+    local endpoint = new_endpoint()
+    picker:precompute_displays { endpoint }
+
+    config.setup { ui = { show_icons = false } }
+    local display = picker:_get_entry_display(endpoint, config.get())
+
+    assert.equals(" GET /users", display.text)
+    assert.equals(#"GET" + 1, display.highlight_length)
+  end)
+
+  it("should survive the cache round trip", function()
+    local endpoint = new_endpoint()
+    picker:precompute_displays { endpoint }
+
+    local Cache = require "endpoint.core.Cache"
+    local loaded = loadstring("return " .. Cache:new():_serialize_table { endpoint })()
+
+    assert.equals(endpoint._display.ui_key, loaded[1]._display.ui_key)
+    assert.equals(endpoint._display.text, picker:_get_entry_display(loaded[1], config.get()).text)
+  end)
+end)
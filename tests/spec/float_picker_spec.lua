@@ -0,0 +1,120 @@
+local FloatPicker = require "endpoint.pickers.float"
+local PickerRegistry = require "endpoint.core.PickerRegistry"
+local config = require "endpoint.config"
+
+describe("FloatPicker", function()
+  local picker
+
+  local endpoints = {
+    { method = "GET", endpoint_path = "/api/users", file_path = "src/UserController.java", line_number = 10 },
+    { method = "POST", endpoint_path = "/api/users", file_path = "src/UserController.java", line_number = 20 },
+    { method = "GET", endpoint_path = "/api/orders/{id}", file_path = "src/OrderController.java", line_number = 5 },
+    { method = "DELETE", endpoint_path = "/admin/users/{id}", file_path = "src/AdminController.java", line_number = 7 },
+  }
+
+  local function set_query(query)
+    vim.api.nvim_buf_set_lines(picker._state.prompt_buf, 0, -1, false, { query })
+    picker:_on_query_changed()
+  end
+
+  local function visible_lines()
+    return vim.api.nvim_buf_get_lines(picker._state.results_buf, 0, -1, false)
+  end
+
+  before_each(function()
+    config.reset()
+    picker = FloatPicker:new()
+  end)
+
+  after_each(function()
+    picker:close()
+    config.reset()
+  end)
+
+  it("should be registered as an always available picker", function()
+    local registry = PickerRegistry:new()
+    assert.is_true(registry:is_picker_available "float")
+  end)
+
+  describe("segment index", function()
+    it("should require every term to match a segment", function()
+      local index = picker:_get_index(endpoints)
+
+      assert.same({ 1, 2, 4 }, picker:_match(index, "users"))
+      assert.same({ 1, 3 }, picker:_match(index, "get api"))
+      assert.same({ 4 }, picker:_match(index, "/admin/us"))
+      assert.same({ 3 }, picker:_match(index, "order"))
+      assert.same({}, picker:_match(index, "missing"))
+      assert.same({ 1, 2, 3, 4 }, picker:_match(index, ""))
+    end)
+
+    it("should narrow given candidates only", function()
+      local index = picker:_get_index(endpoints)
+      assert.same({ 4 }, picker:_match(index, "users", { 3, 4 }))
+    end)
+
+    it("should reuse the index of the same endpoint list", function()
+      assert.equals(picker:_get_index(endpoints), picker:_get_index(endpoints))
+    end)
+  end)
+
+  describe("window", function()
+    it("should render only the rows that fit the results window", function()
+      local many = {}
+      for index = 1, 500 do
+        table.insert(many, {
+          method = "GET",
+          endpoint_path = "/items/" .. index,
+          file_path = "items.py",
+          line_number = index,
+        })
+      end
+
+      picker:show(many, { height = 10 })
+
+      assert.equals(10, #visible_lines())
+      picker:_move(25)
+      assert.equals(26, picker._state.selected)
+      assert.is_truthy(visible_lines()[10]:find("/items/26", 1, true))
+    end)
+
+    it("should filter as the query changes", function()
+      picker:show(endpoints)
+
+      set_query "users"
+      assert.equals(3, #visible_lines())
+
+      set_query "users post"
+      assert.equals(1, #visible_lines())
+      assert.is_truthy(visible_lines()[1]:find("POST /api/users", 1, true))
+
+      set_query ""
+      assert.equals(4, #visible_lines())
+    end)
+
+    it("should navigate to the selected endpoint and close", function()
+      local navigated_to = nil
+      picker._navigate_to_endpoint = function(_, endpoint)
+        navigated_to = endpoint
+      end
+
+      picker:show(endpoints)
+      set_query "orders"
+      picker:_select()
+
+      assert.equals(endpoints[3], navigated_to)
+      assert.is_nil(picker._state)
+    end)
+
+    it("should match appended endpoints against the current query", function()
+      picker:show_stream {}
+      set_query "users"
+
+      picker:append { endpoints[1], endpoints[3] }
+      picker:append { endpoints[4] }
+
+      assert.same({ 1, 3 }, picker._state.matches)
+      assert.equals(3, #picker._state.endpoints)
+    end)
+  end)
+end)
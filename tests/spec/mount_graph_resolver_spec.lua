@@ -0,0 +1,135 @@
+local mount_graph_resolver = require "endpoint.resolver.mount_graph_resolver"
+
+describe("MountGraphResolver", function()
+  local original_cwd
+  local project_root
+
+  local function write_file(relative_path, lines)
+    local file_path = project_root .. "/" .. relative_path
+    vim.fn.mkdir(vim.fn.fnamemodify(file_path, ":h"), "p")
+    vim.fn.writefile(lines, file_path)
+  end
+
+  before_each(function()
+    original_cwd = vim.fn.getcwd()
+    project_root = vim.fn.tempname()
+    vim.fn.mkdir(project_root, "p")
+    mount_graph_resolver.clear_cache()
+  end)
+
+  after_each(function()
+    vim.fn.chdir(original_cwd)
+    vim.fn.delete(project_root, "rf")
+    mount_graph_resolver.clear_cache()
+  end)
+
+  it("should split call arguments at top-level commas", function()
+    assert.same(
+      { "'/api'", "auth({ roles: ['a', 'b'] })", "router" },
+      mount_graph_resolver._split_args "'/api', auth({ roles: ['a', 'b'] }), router"
+    )
+  end)
+
+  it("should not resolve prefixes before a scan built the graph", function()
+    assert.is_nil(mount_graph_resolver.get_router_prefix("express", "routes/users.js", "router"))
+    assert.is_nil(mount_graph_resolver.get_controller_prefix "src/users.controller.ts")
+  end)
+
+  it("should walk nested Express routers mounted across files", function()
+    if vim.fn.executable "rg" == 0 then
+      pending "ripgrep not available"
+      return
+    end
+
+    write_file("app.js", {
+      "const express = require('express');",
+      "const api = require('./routes/api');",
+      "const app = express();",
+      "app.use(express.json());",
+      "app.use('/api', authenticate, api);",
+    })
+    write_file("routes/api/index.js", {
+      "import { Router } from 'express';",
+      "import users from '../users';",
+      "const router = Router();",
+      "router.use('/v1/users', users);",
+      "export default router;",
+    })
+    write_file("routes/users.js", {
+      "const router = require('express').Router();",
+      "router.get('/:id', show);",
+      "module.exports = router;",
+    })
+    vim.fn.chdir(project_root)
+
+    mount_graph_resolver.refresh "express"
+
+    assert.equals("/api/v1/users", mount_graph_resolver.get_router_prefix("express", "./routes/users.js", "router"))
+    assert.equals("/api", mount_graph_resolver.get_router_prefix("express", "routes/api/index.js", "router"))
+    assert.is_nil(mount_graph_resolver.get_router_prefix("express", "app.js", "app"))
+
+    -- The graph only lives as long as the scan that built it
+    mount_graph_resolver.release "express"
+    assert.is_nil(mount_graph_resolver.get_router_prefix("express", "./routes/users.js", "router"))
+  end)
+
+  it("should combine include_router prefixes with the router's own prefix", function()
+    if vim.fn.executable "rg" == 0 then
+      pending "ripgrep not available"
+      return
+    end
+
+    write_file("app/main.py", {
+      "from fastapi import FastAPI",
+      "from app.routers import (",
+      "    items,",
+      ")",
+      "from app.routers.users import router as users_router",
+      "app = FastAPI()",
+      'app.include_router(items.router, prefix="/api")',
+      "app.include_router(users_router)",
+    })
+    write_file("app/__init__.py", {})
+    write_file("app/routers/__init__.py", {})
+    write_file("app/routers/items.py", { 'router = APIRouter(prefix="/items", tags=["items"])' })
+    write_file("app/routers/users.py", { "router = APIRouter(", '    prefix="/users",', ")" })
+    vim.fn.chdir(project_root)
+
+    mount_graph_resolver.refresh "fastapi"
+
+    assert.equals("/api/items", mount_graph_resolver.get_router_prefix("fastapi", "app/routers/items.py", "router"))
+    assert.equals("/users", mount_graph_resolver.get_router_prefix("fastapi", "app/routers/users.py", "router"))
+  end)
+
+  it("should add setGlobalPrefix and RouterModule paths to NestJS controllers", function()
+    if vim.fn.executable "rg" == 0 then
+      pending "ripgrep not available"
+      return
+    end
+
+    write_file("src/main.ts", { "const app = await NestFactory.create(AppModule);", "app.setGlobalPrefix('api');" })
+    write_file("src/app.module.ts", {
+      "@Module({",
+      "  imports: [RouterModule.register([",
+      "    { path: 'admin', module: AdminModule, children: [{ path: 'billing', module: BillingModule }] },",
+      "  ])],",
+      "})",
+      "export class AppModule {}",
+    })
+    write_file("src/billing.module.ts", {
+      "@Module({ controllers: [InvoicesController] })",
+      "export class BillingModule {}",
+    })
+    write_file("src/invoices.controller.ts", {
+      "@Controller('invoices')",
+      "export class InvoicesController {}",
+    })
+    write_file("src/health.controller.ts", { "@Controller()", "export class HealthController {}" })
+    vim.fn.chdir(project_root)
+
+    mount_graph_resolver.refresh "nestjs"
+
+    assert.equals("/api/admin/billing", mount_graph_resolver.get_controller_prefix "src/invoices.controller.ts")
+    assert.equals("/api", mount_graph_resolver.get_controller_prefix "src/health.controller.ts")
+  end)
+end)
@@ -0,0 +1,98 @@
+local PreviewCache = require "endpoint.core.PreviewCache"
+local Highlighter = require "endpoint.core.Highlighter"
+
+describe("PreviewCache", function()
+  local temp_dir = vim.fn.tempname()
+  local cache
+
+  local function write_file(name, lines)
+    local file_path = temp_dir .. "/" .. name
+    vim.fn.writefile(lines, file_path)
+    return file_path
+  end
+
+  local function load_and_wait(file_path)
+    local loaded, result = false, nil
+    cache:load(file_path, function(bufnr)
+      loaded, result = true, bufnr
+    end)
+    vim.wait(1000, function()
+      return loaded
+    end)
+    return result
+  end
+
+  before_each(function()
+    vim.fn.mkdir(temp_dir, "p")
+    cache = PreviewCache:new(2)
+  end)
+
+  after_each(function()
+    cache:clear()
+    vim.fn.delete(temp_dir, "rf")
+  end)
+
+  it("should load a file into a buffer and reuse it", function()
+    local file_path = write_file("UserController.java", { "class UserController {", "}" })
+
+    local bufnr = load_and_wait(file_path)
+    assert.is_not_nil(bufnr)
+    assert.same({ "class UserController {", "}" }, vim.api.nvim_buf_get_lines(bufnr, 0, -1, false))
+    assert.equals(bufnr, cache:get(file_path))
+  end)
+
+  it("should reload a file once its mtime changed", function()
+    local file_path = write_file("routes.rb", { "get '/users'" })
+    local bufnr = load_and_wait(file_path)
+
+    vim.fn.writefile({ "get '/posts'" }, file_path)
+    local uv = vim.uv or vim.loop
+    uv.fs_utime(file_path, os.time() + 5, os.time() + 5)
+
+    assert.is_nil(cache:get(file_path))
+    assert.is_false(vim.api.nvim_buf_is_valid(bufnr))
+
+    local reloaded = load_and_wait(file_path)
+    assert.same({ "get '/posts'" }, vim.api.nvim_buf_get_lines(reloaded, 0, -1, false))
+  end)
+
+  it("should drop the least recently used buffer beyond its capacity", function()
+    local first = write_file("a.py", { "a" })
+    local second = write_file("b.py", { "b" })
+    local third = write_file("c.py", { "c" })
+
+    local first_bufnr = load_and_wait(first)
+    load_and_wait(second)
+    cache:get(first)
+    load_and_wait(third)
+
+    assert.equals(2, cache:size())
+    assert.equals(first_bufnr, cache:get(first))
+    assert.is_nil(cache:get(second))
+  end)
+
+  it("should call back nil for unreadable files", function()
+    assert.is_nil(load_and_wait(temp_dir .. "/missing.ts"))
+    assert.equals(0, cache:size())
+  end)
+end)
+
+describe("Highlighter:highlight_component_definition", function()
+  it("should highlight the component line recorded on the endpoint", function()
+    local highlighter = Highlighter:new "endpoint_preview_cache_spec"
+    local bufnr = vim.api.nvim_create_buf(false, true)
+    vim.api.nvim_buf_set_lines(bufnr, 0, -1, false, { "import React from 'react'", "", "function Users() {}" })
+
+    highlighter:highlight_component_definition(bufnr, { component_name = "Users", component_line_number = false })
+    assert.equals(0, #vim.api.nvim_buf_get_extmarks(bufnr, highlighter.highlight_ns, 0, -1, {}))
+
+    local endpoint = { component_name = "Users", component_file_path = "Users.jsx", component_line_number = 3 }
+    highlighter:highlight_component_definition(bufnr, endpoint)
+
+    local extmarks = vim.api.nvim_buf_get_extmarks(bufnr, highlighter.highlight_ns, 0, -1, {})
+    assert.equals(1, #extmarks)
+    assert.equals(2, extmarks[1][2])
+
+    vim.api.nvim_buf_delete(bufnr, { force = true })
+  end)
+end)
@@ -0,0 +1,97 @@
+local Prewarmer = require "endpoint.core.Prewarmer"
+local config = require "endpoint.config"
+
+describe("Prewarmer", function()
+  local fake_endpoint
+  local resolve_calls
+  local detected
+  local cache_valid
+
+  before_each(function()
+    config.reset()
+    config.setup { cache = { mode = "session" } }
+
+    resolve_calls = {}
+    detected = { {} }
+    cache_valid = false
+
+    fake_endpoint = {
+      _should_use_cache = function()
+        return cache_valid
+      end,
+      detect_project_frameworks = function()
+        return detected
+      end,
+      _resolve_endpoints_async = function(_, opts, callback)
+        table.insert(resolve_calls, opts)
+        callback {}
+      end,
+    }
+  end)
+
+  after_each(function()
+    config.reset()
+  end)
+
+  it("should start a quiet background scan", function()
+    local prewarmer = Prewarmer:new(fake_endpoint)
+
+    assert.is_true(prewarmer:prewarm())
+    assert.equals(1, #resolve_calls)
+    assert.is_true(resolve_calls[1].quiet)
+  end)
+
+  it("should skip when the cache is already valid", function()
+    cache_valid = true
+    local prewarmer = Prewarmer:new(fake_endpoint)
+
+    assert.is_false(prewarmer:prewarm())
+    assert.equals(0, #resolve_calls)
+  end)
+
+  it("should skip when caching is disabled", function()
+    config.setup { cache = { mode = "none" } }
+    local prewarmer = Prewarmer:new(fake_endpoint)
+
+    assert.is_false(prewarmer:prewarm())
+    assert.equals(0, #resolve_calls)
+  end)
+
+  it("should skip projects without a detected framework and remember them", function()
+    detected = {}
+    local detect_count = 0
+    fake_endpoint.detect_project_frameworks = function()
+      detect_count = detect_count + 1
+      return detected
+    end
+    local prewarmer = Prewarmer:new(fake_endpoint)
+
+    assert.is_false(prewarmer:prewarm())
+    assert.is_false(prewarmer:prewarm())
+    assert.equals(1, detect_count)
+    assert.equals(0, #resolve_calls)
+  end)
+
+  it("should treat recent typing as busy", function()
+    local prewarmer = Prewarmer:new(fake_endpoint)
+    prewarmer._last_typed_at = (vim.uv or vim.loop).now()
+
+    assert.is_true(prewarmer:_is_user_busy())
+  end)
+
+  it("should only register autocommands when enabled", function()
+    local prewarmer = Prewarmer:new(fake_endpoint)
+    local function count_dir_changed_autocmds()
+      local ok, autocmds = pcall(vim.api.nvim_get_autocmds, { group = "EndpointPrewarm", event = "DirChanged" })
+      return ok and #autocmds or 0
+    end
+
+    prewarmer:setup { enabled = false }
+    assert.equals(0, count_dir_changed_autocmds())
+
+    prewarmer:setup { enabled = true, delay_ms = 50 }
+    assert.equals(1, count_dir_changed_autocmds())
+
+    prewarmer:stop()
+  end)
+end)
@@ -0,0 +1,114 @@
+local profiler = require "endpoint.utils.profiler"
+local config = require "endpoint.config"
+local Events = require "endpoint.core.Events"
+
+describe("Profiler Utility", function()
+  before_each(function()
+    config.reset()
+    profiler.reset()
+  end)
+
+  after_each(function()
+    Events.static.get_instance():clear_all_event_listeners()
+  end)
+
+  describe("begin", function()
+    it("should return nil when disabled", function()
+      config.setup { profiler = { enabled = false } }
+      assert.is_nil(profiler.begin "scan")
+      assert.is_nil(profiler.get_active())
+    end)
+
+    it("should create an active profile when enabled", function()
+      config.setup { profiler = { enabled = true } }
+      local profile = profiler.begin "scan"
+      assert.is_not_nil(profile)
+      assert.equals("scan", profile.label)
+      assert.equals(profile, profiler.get_active())
+    end)
+  end)
+
+  describe("phases", function()
+    it("should be no-ops without an active profile", function()
+      assert.has_no.errors(function()
+        local span = profiler.start_phase("ripgrep", "spring")
+        assert.is_nil(span)
+        profiler.end_phase(span)
+        profiler.record_hit("spring_parser", true)
+        profiler.record_file("Foo.java", 1000, "spring")
+      end)
+    end)
+
+    it("should record phase timings and framework totals", function()
+      config.setup { profiler = { enabled = true } }
+      local profile = profiler.begin "scan"
+
+      local span = profiler.start_phase("ripgrep", "spring")
+      profiler.end_phase(span, { hit_count = 3 })
+
+      assert.equals(1, #profile.phases)
+      assert.equals("ripgrep", profile.phases[1].phase)
+      assert.equals("spring", profile.phases[1].framework_name)
+      assert.equals(3, profile.phases[1].hit_count)
+      assert.is_true(profile.phases[1].duration_ms >= 0)
+      assert.is_not_nil(profile.frameworks.spring)
+    end)
+
+    it("should emit SCAN_PHASE events", function()
+      config.setup { profiler = { enabled = true } }
+      profiler.begin "scan"
+
+      local received_data = nil
+      Events.static.get_instance():add_event_listener(Events.static.EVENT_TYPES.SCAN_PHASE, function(data)
+        received_data = data
+      end)
+
+      profiler.end_phase(profiler.start_phase("parse", "rails"))
+
+      assert.is_not_nil(received_data)
+      assert.equals("parse", received_data.phase)
+      assert.equals("rails", received_data.framework_name)
+      assert.equals("scan", received_data.profile_label)
+    end)
+  end)
+
+  describe("hits and files", function()
+    it("should count accepted and rejected hits per parser", function()
+      config.setup { profiler = { enabled = true } }
+      local profile = profiler.begin "scan"
+
+      profiler.record_hit("spring_parser", true)
+      profiler.record_hit("spring_parser", true)
+      profiler.record_hit("spring_parser", false)
+
+      assert.equals(2, profile.parsers.spring_parser.accepted)
+      assert.equals(1, profile.parsers.spring_parser.rejected)
+    end)
+
+    it("should sort slowest files first", function()
+      config.setup { profiler = { enabled = true } }
+      local profile = profiler.begin "scan"
+
+      profiler.record_file("Fast.java", 1e6, "spring")
+      profiler.record_file("Slow.java", 5e6, "spring")
+      profiler.record_file("Slow.java", 5e6, "spring")
+
+      local slowest = profiler.get_slowest_files(profile, 1)
+      assert.equals(1, #slowest)
+      assert.equals("Slow.java", slowest[1].file_path)
+      assert.equals(2, slowest[1].hits)
+    end)
+  end)
+
+  describe("finish", function()
+    it("should clear the active profile and keep it as last", function()
+      config.setup { profiler = { enabled = true } }
+      local profile = profiler.begin "find"
+      profiler.finish(profile)
+
+      assert.is_nil(profiler.get_active())
+      assert.equals(profile, profiler.get_last())
+      assert.is_true(#profiler.format_report(profile) > 0)
+    end)
+  end)
+end)
@@ -0,0 +1,95 @@
+local rails_route_resolver = require "endpoint.resolver.rails_route_resolver"
+
+describe("RailsRouteResolver", function()
+  local original_cwd
+
+  before_each(function()
+    original_cwd = vim.fn.getcwd()
+    rails_route_resolver.clear_cache()
+  end)
+
+  after_each(function()
+    vim.fn.chdir(original_cwd)
+    rails_route_resolver.clear_cache()
+  end)
+
+  describe("_compile_routes", function()
+    it("should compile namespace, scope, member and concern contexts per line", function()
+      local compiled = rails_route_resolver._compile_routes {
+        "Rails.application.routes.draw do",
+        "  concern :likeable do",
+        "    member do",
+        "      post :like",
+        "    end",
+        "  end",
+        "  scope '/:locale' do",
+        "    namespace :admin do",
+        "      resources :posts, concerns: [:likeable] do",
+        "        get :preview, on: :member",
+        "        collection do",
+        "          get :drafts",
+        "        end",
+        "        resources :comments",
+        "      end",
+        "    end",
+        "  end",
+        "  resources :users",
+        "end",
+      }
+
+      assert.equals("/:locale/admin", compiled.contexts[9].prefix)
+      assert.equals("posts", compiled.contexts[14].parent_resource)
+      assert.is_true(compiled.contexts[12].in_member_collection)
+      assert.is_false(compiled.contexts[14].in_member_collection)
+      assert.equals("", compiled.contexts[18].prefix)
+      assert.is_nil(compiled.contexts[18].parent_resource)
+      assert.same({ preview = true }, compiled.member_actions.posts)
+      assert.same({ like = true }, compiled.member_actions["concern:likeable"])
+      assert.same({ "likeable" }, compiled.concerns_used.posts)
+      assert.is_true(compiled.resources.comments)
+    end)
+  end)
+
+  describe("_compile_controller", function()
+    it("should index actions and keep methods after private as private", function()
+      local compiled = rails_route_resolver._compile_controller {
+        "class UsersController < ApplicationController",
+        "  def index",
+        "  end",
+        "",
+        "  private",
+        "",
+        "  def set_user",
+        "  end",
+        "",
+        "  def user_params",
+        "  end",
+        "end",
+      }
+
+      assert.same({ line_number = 2, column = 3 }, compiled.actions.index)
+      assert.is_nil(compiled.private_lines[2])
+      assert.is_true(compiled.private_lines[7])
+      assert.is_true(compiled.private_lines[10])
+    end)
+  end)
+
+  it("should index the rails fixture's routes and controllers", function()
+    if vim.fn.executable "rg" == 0 then
+      pending "ripgrep not available"
+      return
+    end
+
+    vim.fn.chdir(original_cwd .. "/tests/fixtures/rails")
+
+    assert.is_true(rails_route_resolver.has_resource "reviews")
+    assert.is_true(rails_route_resolver.is_member_action("users", "profile"))
+    assert.is_false(rails_route_resolver.is_member_action("users", "search"))
+    assert.equals("/api/v1", rails_route_resolver.get_route_context("config/routes.rb", 41).prefix)
+
+    local show = rails_route_resolver.find_controller_action("users", "show")
+    assert.equals("app/controllers/users_controller.rb", show.file_path)
+    assert.equals(8, show.line_number)
+    assert.is_true(rails_route_resolver.is_private_method("app/controllers/users_controller.rb", 56))
+  end)
+end)
@@ -0,0 +1,71 @@
+local react_component_resolver = require "endpoint.resolver.react_component_resolver"
+
+describe("ReactComponentResolver", function()
+  local original_cwd
+
+  before_each(function()
+    original_cwd = vim.fn.getcwd()
+    react_component_resolver.clear_cache()
+  end)
+
+  after_each(function()
+    vim.fn.chdir(original_cwd)
+    react_component_resolver.clear_cache()
+  end)
+
+  it("should resolve components in the conventional locations", function()
+    if vim.fn.executable "rg" == 0 then
+      pending "ripgrep not available"
+      return
+    end
+
+    vim.fn.chdir(original_cwd .. "/tests/fixtures/react_router")
+
+    -- src/components wins over src/pages, index files count as the directory's name
+    assert.equals("src/components/Home/index.tsx", react_component_resolver.find_component_file "Home")
+    assert.equals("src/pages/Dashboard/index.jsx", react_component_resolver.find_component_file "Dashboard")
+    assert.equals("src/components/About.tsx", react_component_resolver.find_component_file "About")
+    assert.is_nil(react_component_resolver.find_component_file "Navigate")
+  end)
+
+  it("should resolve static and lazy imports of the routes file first", function()
+    if vim.fn.executable "rg" == 0 then
+      pending "ripgrep not available"
+      return
+    end
+
+    local project_root = vim.fn.tempname()
+    vim.fn.mkdir(project_root .. "/src/features/billing", "p")
+    vim.fn.mkdir(project_root .. "/src/pages", "p")
+    vim.fn.writefile({ "export default function Invoices() {}" }, project_root .. "/src/features/billing/Invoices.tsx")
+    vim.fn.writefile({ "export default function Reports() {}" }, project_root .. "/src/features/Reports.jsx")
+    vim.fn.writefile({ "export default function Reports() {}" }, project_root .. "/src/pages/Reports.jsx")
+    vim.fn.writefile({
+      "import Reports from './features/Reports';",
+      "const Invoices = lazy(() => import('./features/billing/Invoices'));",
+      "<Route path='/invoices' element={<Invoices />} />",
+    }, project_root .. "/src/App.tsx")
+    vim.fn.chdir(project_root)
+
+    assert.equals(
+      "src/features/billing/Invoices.tsx",
+      react_component_resolver.find_component_file("Invoices", "./src/App.tsx")
+    )
+    assert.equals("src/features/Reports.jsx", react_component_resolver.find_component_file("Reports", "src/App.tsx"))
+    assert.equals("src/pages/Reports.jsx", react_component_resolver.find_component_file "Reports")
+
+    vim.fn.chdir(original_cwd)
+    vim.fn.delete(project_root, "rf")
+  end)
+
+  it("should find the line defining a component in its file", function()
+    local component_file = vim.fn.tempname() .. ".jsx"
+    vim.fn.writefile({ "import React from 'react'", "", "export default function Users() {}" }, component_file)
+
+    assert.equals(3, react_component_resolver.find_component_line(component_file, "Users"))
+    assert.is_false(react_component_resolver.find_component_line(component_file, "Orders"))
+    assert.is_false(react_component_resolver.find_definition_line({ "<Users />" }, "Users"))
+
+    vim.fn.delete(component_file)
+  end)
+end)
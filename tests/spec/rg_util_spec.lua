@@ -118,5 +118,15 @@ describe("Ripgrep Utility", function()
       local expected_escaped_input = vim.fn.shellescape(malicious_input)
       assert.is_truthy(cmd:match(vim.pesc(expected_escaped_input)), "Malicious input should be escaped")
     end)
+
+    it("should search the given paths instead of the current directory", function()
+      local options = {
+        method_patterns = { GET = { "@GetMapping" } },
+        search_paths = { "./user-service", "./common" },
+      }
+
+      assert.is_truthy(rg_util.create_command(options):match " '%./user%-service' '%./common'$")
+      assert.is_truthy(rg_util.create_command({ method_patterns = options.method_patterns }):match " %.$")
+    end)
   end)
 end)
@@ -0,0 +1,92 @@
+local RouteTrie = require "endpoint.core.RouteTrie"
+
+describe("RouteTrie", function()
+  local function endpoint(method, path)
+    return { method = method, endpoint_path = path, file_path = "handler", line_number = 1 }
+  end
+
+  local function paths(matches)
+    return vim.tbl_map(function(match)
+      return match.method .. " " .. match.endpoint_path
+    end, matches)
+  end
+
+  describe("route templates", function()
+    local trie = RouteTrie.static.from_endpoints {
+      endpoint("GET", "/api/v2/orders/{orderId}/items"), -- Spring
+      endpoint("GET", "/users/:id(\\d+)"), -- Express with a constraint
+      endpoint("GET", "/items/{item_id}"), -- FastAPI
+      endpoint("GET", "/files/{file_path:path}"), -- FastAPI path converter
+      endpoint("GET", "/posts/<int:post_id>"), -- Flask/Django
+      endpoint("GET", "/photos/:id(.:format)"), -- Rails optional format
+      endpoint("GET", "/assets/*path"), -- Rails glob
+      endpoint("GET", "/legacy/*"), -- Servlet prefix mapping
+      endpoint("GET", "/a/*/c"), -- Spring single-segment wildcard
+      endpoint("GET", "/static/**"), -- Spring catch-all
+    }
+
+    it("should match parameters of every convention", function()
+      assert.same({ "GET /api/v2/orders/{orderId}/items" }, paths(trie:lookup "/api/v2/orders/8812/items"))
+      assert.same({ "GET /users/:id(\\d+)" }, paths(trie:lookup "/users/42"))
+      assert.same({ "GET /items/{item_id}" }, paths(trie:lookup "/items/7"))
+      assert.same({ "GET /posts/<int:post_id>" }, paths(trie:lookup "/posts/3"))
+      assert.same({ "GET /photos/:id(.:format)" }, paths(trie:lookup "/photos/9"))
+    end)
+
+    it("should match wildcards and catch-alls", function()
+      assert.same({ "GET /files/{file_path:path}" }, paths(trie:lookup "/files/a/b/c.txt"))
+      assert.same({ "GET /assets/*path" }, paths(trie:lookup "/assets/js/app.js"))
+      assert.same({ "GET /legacy/*" }, paths(trie:lookup "/legacy/report/2024"))
+      assert.same({ "GET /a/*/c" }, paths(trie:lookup "/a/b/c"))
+      assert.same({}, paths(trie:lookup "/a/b/x/c"))
+      assert.same({ "GET /static/**" }, paths(trie:lookup "/static"))
+    end)
+
+    it("should ignore scheme, host, query and fragment", function()
+      assert.same({ "GET /items/{item_id}" }, paths(trie:lookup "https://api.example.com:8080/items/7?full=1#top"))
+    end)
+
+    it("should drop a leading context path when nothing else matches", function()
+      assert.same({ "GET /items/{item_id}" }, paths(trie:lookup "/shop-service/items/7"))
+    end)
+  end)
+
+  it("should prefer literal segments over parameters and the requested method", function()
+    local trie = RouteTrie.static.from_endpoints {
+      endpoint("GET", "/users/{id}"),
+      endpoint("GET", "/users/me"),
+      endpoint("DELETE", "/users/{id}"),
+    }
+
+    assert.same({ "GET /users/me", "GET /users/{id}", "DELETE /users/{id}" }, paths(trie:lookup "/users/me"))
+    assert.same({ "DELETE /users/{id}", "GET /users/{id}" }, paths(trie:lookup("/users/1", "delete")))
+  end)
+
+  it("should match requests only to endpoints of their method on the whole path", function()
+    local trie = RouteTrie.static.from_endpoints {
+      endpoint("GET", "/users/{id}"),
+      endpoint("GET", "/users/me"),
+      endpoint("ALL", "/health"),
+    }
+
+    assert.same({ "GET /users/me" }, paths { trie:match("/users/me", "get") })
+    assert.same({ "ALL /health" }, paths { trie:match("/health", "HEAD") })
+    assert.is_nil(trie:match("/users/1", "DELETE"))
+    assert.is_nil(trie:match("/api/users/1", "GET"))
+  end)
+
+  describe("parse_request", function()
+    it("should find the method and URL in request and log lines", function()
+      assert.same({ "GET", "/api/orders/1" }, { RouteTrie.static.parse_request "GET /api/orders/1 HTTP/1.1" })
+      assert.same(
+        { "POST", "/login?next=/" },
+        { RouteTrie.static.parse_request '127.0.0.1 - - [10/Oct/2024] "POST /login?next=/ HTTP/1.1" 200 512' }
+      )
+      assert.same(
+        { "PUT", "http://localhost/x" },
+        { RouteTrie.static.parse_request "curl -X PUT 'http://localhost/x'" }
+      )
+      assert.same({}, { RouteTrie.static.parse_request "no url here" })
+    end)
+  end)
+end)
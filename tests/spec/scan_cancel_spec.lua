@@ -0,0 +1,245 @@
+local Endpoint = require "endpoint.core.Endpoint"
+local ScanHandle = require "endpoint.core.ScanHandle"
+
+describe("Scan cancellation", function()
+  describe("ScanHandle", function()
+    it("should kill tracked processes and run cancel callbacks once", function()
+      local handle = ScanHandle:new()
+      local killed_with = nil
+      local reasons = {}
+
+      handle:track_process {
+        kill = function(_, signal)
+          killed_with = signal
+        end,
+      }
+      handle:on_cancel(function(reason)
+        table.insert(reasons, reason)
+      end)
+
+      handle:cancel "superseded"
+      handle:cancel "again"
+
+      assert.is_true(handle:is_cancelled())
+      assert.equals(15, killed_with)
+      assert.same({ "superseded" }, reasons)
+    end)
+
+    it("should kill processes tracked after cancel", function()
+      local handle = ScanHandle:new()
+      handle:cancel()
+
+      local killed = false
+      handle:track_process {
+        kill = function()
+          killed = true
+        end,
+      }
+
+      assert.is_true(killed)
+      assert.equals("cancelled", handle.cancel_reason)
+    end)
+  end)
+
+  describe("Endpoint", function()
+    local endpoint_instance
+    local pending_scans
+    local shown
+
+    before_each(function()
+      pending_scans = {}
+      shown = {}
+
+      local fake_framework = {
+        get_name = function()
+          return "fake"
+        end,
+        get_parser_type = function()
+          return "ripgrep"
+        end,
+        scan_async = function(_, _, callback, scan_handle)
+          table.insert(pending_scans, { callback = callback, handle = scan_handle })
+          return scan_handle
+        end,
+      }
+
+      endpoint_instance = Endpoint:new {
+        framework_registry = {
+          get_all = function()
+            return { fake_framework }
+          end,
+          detect_all = function()
+            return { fake_framework }
+          end,
+        },
+      }
+      endpoint_instance:setup {
+        cache = { mode = "none" },
+        progress = { enabled = false },
+        telemetry = { enabled = false },
+      }
+      endpoint_instance._show_with_picker = function(_, endpoints)
+        table.insert(shown, endpoints)
+      end
+    end)
+
+    it("should not call back a cancelled scan", function()
+      local called = false
+      local handle = endpoint_instance:scan_all_endpoints_async({}, function()
+        called = true
+      end)
+
+      handle:cancel()
+      pending_scans[1].callback { { method = "GET", endpoint_path = "/users" } }
+
+      assert.is_true(pending_scans[1].handle:is_cancelled())
+      assert.is_false(called)
+    end)
+
+    it("should supersede an older find for the same project", function()
+      local first_handle = endpoint_instance:find { method = "GET" }
+      local second_handle = endpoint_instance:find { method = "POST" }
+
+      assert.is_true(first_handle:is_cancelled())
+      assert.equals("superseded", first_handle.cancel_reason)
+      assert.is_false(second_handle:is_cancelled())
+      assert.is_true(pending_scans[1].handle:is_cancelled())
+
+      pending_scans[1].callback { { method = "GET", endpoint_path = "/old" } }
+      pending_scans[2].callback { { method = "POST", endpoint_path = "/new" } }
+
+      assert.equals(1, #shown)
+      assert.equals("/new", shown[1][1].endpoint_path)
+    end)
+
+    it("should keep a scan shared with the superseding find running", function()
+      local first_handle = endpoint_instance:find {}
+      endpoint_instance:find { method = "POST" }
+
+      assert.is_true(first_handle:is_cancelled())
+      assert.equals(1, #pending_scans)
+      assert.is_false(pending_scans[1].handle:is_cancelled())
+
+      pending_scans[1].callback {
+        { method = "GET", endpoint_path = "/users" },
+        { method = "POST", endpoint_path = "/users" },
+      }
+
+      assert.equals(1, #shown)
+      assert.equals(1, #shown[1])
+      assert.equals("POST", shown[1][1].method)
+    end)
+
+    it("should cancel every in-flight find", function()
+      local handle = endpoint_instance:find {}
+      endpoint_instance:cancel_scans()
+
+      assert.is_true(handle:is_cancelled())
+      pending_scans[1].callback { { method = "GET", endpoint_path = "/users" } }
+      assert.equals(0, #shown)
+    end)
+  end)
+end)
+
+describe("Scan coalescing", function()
+  local endpoint_instance
+  local pending_scans
+
+  before_each(function()
+    pending_scans = {}
+
+    local fake_framework = {
+      get_name = function()
+        return "fake"
+      end,
+      get_parser_type = function()
+        return "ripgrep"
+      end,
+      scan_async = function(_, options, callback, scan_handle)
+        table.insert(pending_scans, { method = options.method, callback = callback, handle = scan_handle })
+        return scan_handle
+      end,
+    }
+
+    endpoint_instance = Endpoint:new {
+      framework_registry = {
+        get_all = function()
+          return { fake_framework }
+        end,
+        detect_all = function()
+          return { fake_framework }
+        end,
+      },
+    }
+    endpoint_instance:setup {
+      cache = { mode = "none" },
+      progress = { enabled = false },
+      telemetry = { enabled = false },
+    }
+  end)
+
+  local endpoints = {
+    { method = "GET", endpoint_path = "/users" },
+    { method = "POST", endpoint_path = "/users" },
+  }
+
+  it("should run one scan for concurrent requests of the same project", function()
+    local results = {}
+    for index = 1, 3 do
+      endpoint_instance:_resolve_endpoints_async({}, function(found)
+        results[index] = found
+      end)
+    end
+
+    assert.equals(1, #pending_scans)
+    pending_scans[1].callback(endpoints)
+
+    for index = 1, 3 do
+      assert.equals(2, #results[index])
+    end
+  end)
+
+  it("should serve a single-method request from an all-methods scan", function()
+    local all_result, post_result
+    endpoint_instance:_resolve_endpoints_async({}, function(found)
+      all_result = found
+    end)
+    endpoint_instance:_resolve_endpoints_async({ method = "POST" }, function(found)
+      post_result = found
+    end)
+
+    assert.equals(1, #pending_scans)
+    pending_scans[1].callback(endpoints)
+
+    assert.equals(2, #all_result)
+    assert.equals(1, #post_result)
+    assert.equals("POST", post_result[1].method)
+  end)
+
+  it("should not serve an all-methods request from a single-method scan", function()
+    endpoint_instance:_resolve_endpoints_async({ method = "GET" }, function() end)
+    endpoint_instance:_resolve_endpoints_async({}, function() end)
+
+    assert.equals(2, #pending_scans)
+    assert.equals("GET", pending_scans[1].method)
+  end)
+
+  it("should start a new scan once the previous one completed", function()
+    endpoint_instance:_resolve_endpoints_async({}, function() end)
+    pending_scans[1].callback(endpoints)
+    endpoint_instance:_resolve_endpoints_async({}, function() end)
+
+    assert.equals(2, #pending_scans)
+  end)
+
+  it("should cancel the shared scan only when every request cancelled", function()
+    local first = endpoint_instance:_resolve_endpoints_async({}, function() end)
+    local second = endpoint_instance:_resolve_endpoints_async({}, function() end)
+
+    first:cancel()
+    assert.is_false(pending_scans[1].handle:is_cancelled())
+
+    second:cancel()
+    assert.is_true(pending_scans[1].handle:is_cancelled())
+  end)
+end)
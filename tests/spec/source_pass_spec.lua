@@ -0,0 +1,92 @@
+local SourcePass = require "endpoint.core.SourcePass"
+local ScanHandle = require "endpoint.core.ScanHandle"
+local SpringFramework = require "endpoint.frameworks.spring"
+local ServletFramework = require "endpoint.frameworks.servlet"
+local java_constant_resolver = require "endpoint.resolver.java_constant_resolver"
+
+describe("SourcePass", function()
+  local original_cwd
+
+  local function run_pass(pass)
+    local done = false
+    pass:run_async(ScanHandle:new(), function()
+      done = true
+    end)
+    vim.wait(5000, function()
+      return done
+    end)
+    return done
+  end
+
+  local function endpoint_keys(endpoints)
+    local keys = vim.tbl_map(function(endpoint)
+      local location = endpoint.file_path .. ":" .. endpoint.line_number
+      return endpoint.method .. " " .. endpoint.endpoint_path .. " " .. location
+    end, endpoints)
+    table.sort(keys)
+    return keys
+  end
+
+  before_each(function()
+    original_cwd = vim.fn.getcwd()
+    java_constant_resolver.clear_cache()
+  end)
+
+  after_each(function()
+    vim.fn.chdir(original_cwd)
+    java_constant_resolver.clear_cache()
+  end)
+
+  it("should match lines of every consumer in one read and keep hit files for parsers", function()
+    vim.fn.chdir(original_cwd .. "/tests/fixtures/spring")
+    local pass = SourcePass.static.create_for_frameworks { SpringFramework:new(), ServletFramework:new() }
+    local java_pass = pass.java
+
+    assert.is_true(run_pass(java_pass))
+
+    local spring_hits = java_pass:get_hits "spring"
+    assert.is_true(#spring_hits > 0)
+    local hit = spring_hits[1]
+    assert.is_truthy(hit.content:find("Mapping", hit.column, true))
+    assert.equals(java_pass:get_lines(hit.file_path), SourcePass.static.read_lines(hit.file_path))
+
+    java_pass:release()
+    assert.is_nil(java_pass:get_lines(hit.file_path))
+  end)
+
+  it("should feed the constant resolver from the same read", function()
+    vim.fn.chdir(original_cwd .. "/tests/fixtures/spring")
+    local java_pass = SourcePass.static.create_for_frameworks({ SpringFramework:new() }).java
+
+    assert.is_true(run_pass(java_pass))
+    assert.equals("/api/v0/students", java_constant_resolver.resolve "PathConstants.Student.BASE_V0")
+    java_pass:release()
+  end)
+
+  it("should find the same Spring endpoints as the ripgrep scan", function()
+    if vim.fn.executable "rg" == 0 then
+      pending "ripgrep not available"
+      return
+    end
+
+    vim.fn.chdir(original_cwd .. "/tests/fixtures/spring")
+    local framework = SpringFramework:new()
+    framework.detect = function()
+      return true
+    end
+
+    local ripgrep_endpoints = framework:scan {}
+
+    local passes = SourcePass.static.create_for_frameworks { framework }
+    local pass_endpoints = nil
+    framework:scan_async({ source_passes = passes }, function(endpoints)
+      pass_endpoints = endpoints
+    end)
+    vim.wait(5000, function()
+      return pass_endpoints ~= nil
+    end)
+    passes.java:release()
+
+    assert.same(endpoint_keys(ripgrep_endpoints), endpoint_keys(pass_endpoints))
+  end)
+end)
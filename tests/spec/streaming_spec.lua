@@ -0,0 +1,173 @@
+local Endpoint = require "endpoint.core.Endpoint"
+local TelescopePicker = require "endpoint.pickers.telescope"
+local config = require "endpoint.config"
+
+describe("Streaming scan results", function()
+  local endpoint_instance
+  local pending_scans
+  local picker_calls
+  local fake_picker
+
+  local function setup_endpoint(stream)
+    endpoint_instance:setup {
+      cache = { mode = "none" },
+      progress = { enabled = false },
+      telemetry = { enabled = false },
+      picker = { type = "telescope", stream = stream },
+    }
+  end
+
+  before_each(function()
+    pending_scans = {}
+    picker_calls = { show_stream = 0, appended = {}, updated = {}, shown = {}, closed = 0 }
+
+    fake_picker = {
+      supports_streaming = function()
+        return true
+      end,
+      show_stream = function()
+        picker_calls.show_stream = picker_calls.show_stream + 1
+      end,
+      append = function(_, endpoints)
+        table.insert(picker_calls.appended, endpoints)
+        return true
+      end,
+      update = function(_, endpoints)
+        table.insert(picker_calls.updated, endpoints)
+        return true
+      end,
+      show = function(_, endpoints)
+        table.insert(picker_calls.shown, endpoints)
+      end,
+      close = function()
+        picker_calls.closed = picker_calls.closed + 1
+      end,
+      precompute_displays = function() end,
+    }
+
+    local fake_framework = {
+      get_name = function()
+        return "fake"
+      end,
+      get_parser_type = function()
+        return "ripgrep"
+      end,
+      scan_async = function(_, _, callback, scan_handle, on_batch)
+        table.insert(pending_scans, { callback = callback, on_batch = on_batch })
+        return scan_handle
+      end,
+    }
+
+    endpoint_instance = Endpoint:new {
+      framework_registry = {
+        get_all = function()
+          return { fake_framework }
+        end,
+        detect_all = function()
+          return { fake_framework }
+        end,
+      },
+      picker_registry = {
+        get_best_available_picker = function(_, picker_name)
+          return fake_picker, picker_name
+        end,
+      },
+    }
+  end)
+
+  after_each(function()
+    config.reset()
+  end)
+
+  local first_batch = { { method = "GET", endpoint_path = "/users" } }
+  local second_batch = { { method = "POST", endpoint_path = "/users" } }
+
+  it("should open the picker when the scan starts and append each batch", function()
+    setup_endpoint(true)
+    endpoint_instance:find {}
+
+    assert.equals(1, picker_calls.show_stream)
+    assert.equals(0, #picker_calls.appended)
+
+    pending_scans[1].on_batch(first_batch)
+    pending_scans[1].on_batch(second_batch)
+    assert.equals(2, #picker_calls.appended)
+    assert.equals("/users", picker_calls.appended[1][1].endpoint_path)
+
+    pending_scans[1].callback { first_batch[1], second_batch[1] }
+    assert.equals(0, #picker_calls.updated)
+    assert.equals(0, #picker_calls.shown)
+  end)
+
+  it("should replace streamed endpoints when the final result differs", function()
+    setup_endpoint(true)
+    endpoint_instance:find {}
+
+    pending_scans[1].on_batch(first_batch)
+    pending_scans[1].callback { first_batch[1], second_batch[1] }
+
+    assert.equals(1, #picker_calls.updated)
+    assert.equals(2, #picker_calls.updated[1])
+  end)
+
+  it("should only stream the requested method", function()
+    setup_endpoint(true)
+    endpoint_instance:find {}
+    endpoint_instance:find { method = "POST" }
+
+    pending_scans[1].on_batch { first_batch[1], second_batch[1] }
+
+    local post_batches = picker_calls.appended[#picker_calls.appended]
+    assert.equals(1, #post_batches)
+    assert.equals("POST", post_batches[1].method)
+  end)
+
+  it("should close the streaming picker when nothing was found", function()
+    setup_endpoint(true)
+    endpoint_instance:find {}
+    pending_scans[1].callback {}
+
+    assert.equals(1, picker_calls.closed)
+  end)
+
+  it("should wait for the full result when streaming is disabled", function()
+    setup_endpoint(false)
+    endpoint_instance:find {}
+
+    assert.equals(0, picker_calls.show_stream)
+    assert.is_nil(pending_scans[1].on_batch)
+
+    pending_scans[1].callback(first_batch)
+    assert.equals(1, #picker_calls.shown)
+  end)
+
+  it("should push appended entries to Telescope's running find instead of rebuilding its results", function()
+    config.reset()
+    local picker = TelescopePicker:new()
+    picker.telescope_available = true
+    picker._open = function(self)
+      self._open_picker = { prompt_bufnr = vim.api.nvim_create_buf(false, true) }
+    end
+    picker:show_stream {}
+
+    local first_find = {}
+    local finder = picker._stream_finder
+    finder("", function(entry)
+      table.insert(first_find, entry.value.method)
+    end, function() end)
+    picker:append(first_batch)
+    picker:append(second_batch)
+    assert.same({ "GET", "POST" }, first_find)
+
+    -- A prompt change starts a new find over the entries so far; the replaced one gets no more entries
+    local second_find = {}
+    finder("P", function(entry)
+      table.insert(second_find, entry.value.method)
+    end, function() end)
+    picker:append { { method = "PUT", endpoint_path = "/users" } }
+    assert.same({ "GET", "POST", "PUT" }, second_find)
+    assert.equals(2, #first_find)
+
+    vim.api.nvim_buf_delete(picker._open_picker.prompt_bufnr, { force = true })
+  end)
+end)
@@ -0,0 +1,261 @@
+local Cache = require "endpoint.core.Cache"
+local Endpoint = require "endpoint.core.Endpoint"
+
+describe("Stale-while-revalidate cache", function()
+  local function is_stale(cache, method, endpoints, max_age)
+    local stale = nil
+    cache:is_stale_async(method, endpoints, max_age, function(result)
+      stale = result
+    end)
+    vim.wait(5000, function()
+      return stale ~= nil
+    end, 10)
+    return stale
+  end
+
+  describe("Cache:is_stale_async", function()
+    local temp_dir = vim.fn.tempname()
+    local source_file = temp_dir .. "/UserController.java"
+    local cached = { { method = "GET", endpoint_path = "/users", file_path = source_file, line_number = 1 } }
+    local cache
+
+    before_each(function()
+      vim.fn.mkdir(temp_dir, "p")
+      vim.fn.writefile({ "class UserController {}" }, source_file)
+      cache = Cache:new()
+      cache:set_mode "session"
+    end)
+
+    after_each(function()
+      vim.fn.delete(temp_dir, "rf")
+    end)
+
+    it("should be stale when nothing was cached", function()
+      assert.is_true(is_stale(cache, nil, cached))
+    end)
+
+    it("should be fresh when no source file changed since it was cached", function()
+      cache:save_endpoints(cached)
+      cache.cache_timestamps.all = os.time() + 1
+
+      assert.is_false(is_stale(cache, nil, cached, 300))
+    end)
+
+    it("should be stale when a source file changed or was removed", function()
+      cache:save_endpoints(cached)
+      cache.cache_timestamps.all = os.time() - 10
+
+      assert.is_true(is_stale(cache, nil, cached, 300))
+
+      cache.cache_timestamps.all = os.time() + 1
+      vim.fn.delete(source_file)
+      assert.is_true(is_stale(cache, nil, cached, 300))
+    end)
+
+    it("should be stale once older than max_age", function()
+      cache:save_endpoints(cached)
+      cache.cache_timestamps.all = os.time() - 600
+
+      assert.is_true(is_stale(cache, nil, {}, 300))
+    end)
+  end)
+
+  describe("git snapshots", function()
+    local original_cwd
+    local repo_dir
+    local cache
+    local cached = { { method = "GET", endpoint_path = "/users", file_path = "UserController.java", line_number = 1 } }
+
+    before_each(function()
+      original_cwd = vim.fn.getcwd()
+      repo_dir = vim.fn.tempname()
+      vim.fn.mkdir(repo_dir, "p")
+      vim.fn.chdir(repo_dir)
+      vim.fn.writefile({ "class UserController {}" }, "UserController.java")
+      vim.fn.system "git init -q && git add . && git -c user.name=t -c user.email=t@t commit -q -m init"
+      cache = Cache:new()
+      cache:set_mode "swr"
+    end)
+
+    after_each(function()
+      cache:clear()
+      vim.fn.chdir(original_cwd)
+      vim.fn.delete(repo_dir, "rf")
+    end)
+
+    it("should stay fresh when a file is rewritten with the same contents", function()
+      if vim.fn.executable "git" == 0 then
+        pending "git not available"
+        return
+      end
+
+      cache:save_endpoints(cached)
+      assert.same(cached, cache:get_endpoints())
+
+      -- A checkout rewrites the file: new mtime, same blob
+      vim.fn.writefile({ "class UserController {}" }, "UserController.java")
+      assert.is_false(is_stale(cache, nil, cached, 300))
+
+      vim.fn.writefile({ "class UserController { void list() {} }" }, "UserController.java")
+      assert.is_true(is_stale(cache, nil, cached, 300))
+    end)
+
+    it("should look the repository up once per directory and read HEAD from its files", function()
+      if vim.fn.executable "git" == 0 then
+        pending "git not available"
+        return
+      end
+
+      local repo = cache:_get_repo()
+      -- Packed, the branch has no ref file of its own
+      vim.fn.system "git -c user.name=t -c user.email=t@t commit -q --allow-empty -m next && git pack-refs --all"
+
+      assert.equals(repo, cache:_get_repo())
+      assert.equals(vim.trim(vim.fn.system "git rev-parse HEAD"), repo.head)
+      cache:forget_repos()
+      assert.are_not.equal(repo, cache:_get_repo())
+    end)
+
+    it("should fall back to another commit's snapshot until source files changed since it", function()
+      if vim.fn.executable "git" == 0 then
+        pending "git not available"
+        return
+      end
+
+      local function commit(file_name, line)
+        vim.fn.writefile({ line }, file_name)
+        vim.fn.system("git add . && git -c user.name=t -c user.email=t@t commit -q -m " .. file_name)
+      end
+
+      cache:save_endpoints(cached)
+      local snapshot_path = cache:_get_cache_file_path()
+      assert.equals(1, vim.fn.filereadable((snapshot_path:gsub("%.lua$", ".manifest.lua"))))
+
+      commit("README.md", "# Users")
+      assert.equals(snapshot_path, cache:_get_cache_file_path())
+      assert.is_false(is_stale(cache, nil, cached, 300))
+
+      -- A new controller holds endpoints the snapshot does not have
+      commit("OrderController.java", "class OrderController {}")
+      assert.equals(snapshot_path, cache:_get_cache_file_path())
+      assert.is_true(is_stale(cache, nil, cached, 300))
+    end)
+  end)
+
+  describe("Endpoint:find", function()
+    local endpoint_instance
+    local pending_scans
+    local shown
+    local updates
+    local stale
+
+    local cached_endpoints = {
+      { method = "GET", endpoint_path = "/users", file_path = "a.java", line_number = 1 },
+      { method = "GET", endpoint_path = "/legacy", file_path = "a.java", line_number = 5 },
+    }
+
+    before_each(function()
+      pending_scans = {}
+      shown = {}
+      updates = {}
+      stale = true
+
+      local fake_framework = {
+        get_name = function()
+          return "fake"
+        end,
+        get_parser_type = function()
+          return "ripgrep"
+        end,
+        scan_async = function(_, _, callback, scan_handle)
+          table.insert(pending_scans, callback)
+          return scan_handle
+        end,
+      }
+
+      local fake_cache = {
+        set_mode = function() end,
+        is_valid = function()
+          return true
+        end,
+        get_endpoints = function()
+          return cached_endpoints
+        end,
+        is_stale_async = function(_, _, _, _, callback)
+          callback(stale)
+        end,
+        forget_repos = function() end,
+        save_endpoints = function() end,
+      }
+
+      endpoint_instance = Endpoint:new {
+        cache = fake_cache,
+        framework_registry = {
+          get_all = function()
+            return { fake_framework }
+          end,
+          detect_all = function()
+            return { fake_framework }
+          end,
+        },
+      }
+      endpoint_instance:setup {
+        cache = { mode = "swr" },
+        progress = { enabled = false },
+        telemetry = { enabled = false },
+      }
+      endpoint_instance._show_with_picker = function(_, endpoints)
+        table.insert(shown, endpoints)
+        return {
+          update = function(_, updated_endpoints)
+            table.insert(updates, updated_endpoints)
+            return true
+          end,
+        }
+      end
+    end)
+
+    it("should open with cached endpoints and push the revalidated ones", function()
+      endpoint_instance:find {}
+      vim.wait(100, function()
+        return #pending_scans > 0
+      end)
+
+      assert.equals(1, #shown)
+      assert.equals(cached_endpoints, shown[1])
+      assert.equals(1, #pending_scans)
+
+      pending_scans[1] {
+        { method = "GET", endpoint_path = "/users", file_path = "a.java", line_number = 1 },
+        { method = "POST", endpoint_path = "/users", file_path = "a.java", line_number = 9 },
+      }
+
+      assert.equals(1, #updates)
+      assert.equals(2, #updates[1])
+      assert.is_nil(endpoint_instance._active_finds[vim.fn.getcwd()])
+    end)
+
+    it("should not rescan fresh cached endpoints", function()
+      stale = false
+      endpoint_instance:find {}
+      vim.wait(100, function()
+        return #shown > 0
+      end)
+
+      assert.equals(1, #shown)
+      assert.equals(0, #pending_scans)
+      assert.equals(0, #updates)
+      assert.is_nil(endpoint_instance._active_finds[vim.fn.getcwd()])
+    end)
+
+    it("should not update the picker when revalidation found no change", function()
+      endpoint_instance:find {}
+      vim.wait(100, function()
+        return #pending_scans > 0
+      end)
+
+      pending_scans[1](cached_endpoints)
+      assert.equals(0, #updates)
+    end)
+  end)
+end)
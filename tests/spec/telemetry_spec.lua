@@ -0,0 +1,89 @@
+local telemetry = require "endpoint.utils.telemetry"
+local config = require "endpoint.config"
+
+describe("Telemetry Utility", function()
+  local project_root = "/tmp/endpoint-telemetry-spec"
+
+  before_each(function()
+    config.reset()
+    telemetry.reset()
+    telemetry.clear(project_root)
+  end)
+
+  after_each(function()
+    telemetry.clear(project_root)
+  end)
+
+  local function make_record(duration_ms, cache)
+    return {
+      duration_ms = duration_ms,
+      endpoint_file_count = 1,
+      endpoint_count = 2,
+      cache = cache or "miss",
+      parser_types = { spring = "ripgrep" },
+    }
+  end
+
+  it("should keep a rolling history bounded by history_size", function()
+    config.setup { telemetry = { enabled = true, history_size = 3 } }
+
+    for index = 1, 5 do
+      telemetry.record(make_record(index), project_root)
+    end
+
+    local records = telemetry.get_history(project_root)
+    assert.equals(3, #records)
+    assert.equals(3, records[1].duration_ms)
+    assert.equals(5, records[3].duration_ms)
+  end)
+
+  it("should persist history to the cache dir after the current tick", function()
+    config.setup { telemetry = { enabled = true } }
+    local file_path = telemetry.get_dir() .. "/" .. telemetry.get_project_key(project_root) .. ".json"
+    telemetry.record(make_record(12), project_root)
+
+    assert.equals(0, vim.fn.filereadable(file_path))
+    assert.is_true(vim.wait(1000, function()
+      local ok, records = pcall(function()
+        return vim.json.decode(table.concat(vim.fn.readfile(file_path), "\n"))
+      end)
+      return ok and type(records) == "table" and #records == 1
+    end, 10))
+
+    -- Drop in-memory state and reload from disk
+    telemetry.reset()
+    local records = telemetry.get_history(project_root)
+    assert.equals(1, #records)
+    assert.equals(12, records[1].duration_ms)
+    assert.equals("ripgrep", records[1].parser_types.spring)
+  end)
+
+  it("should not record when disabled", function()
+    config.setup { telemetry = { enabled = false } }
+    telemetry.record(make_record(1), project_root)
+    assert.equals(0, #telemetry.get_history(project_root))
+  end)
+
+  it("should compare the latest scan against the median of earlier scans", function()
+    config.setup { telemetry = { enabled = true } }
+    telemetry.record(make_record(10), project_root)
+    telemetry.record(make_record(10), project_root)
+    telemetry.record(make_record(1, "hit"), project_root)
+    telemetry.record(make_record(30), project_root)
+
+    local summary = telemetry.summarize(telemetry.get_history(project_root))
+    assert.equals(10, summary.median_ms)
+    assert.equals(3, summary.ratio)
+  end)
+
+  it("should count distinct files with endpoints", function()
+    assert.equals(
+      2,
+      telemetry.count_endpoint_files {
+        { file_path = "a.java" },
+        { file_path = "a.java" },
+        { file_path = "b.java" },
+      }
+    )
+  end)
+end)
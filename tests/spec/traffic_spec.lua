@@ -0,0 +1,147 @@
+local Traffic = require "endpoint.core.Traffic"
+local RouteTrie = require "endpoint.core.RouteTrie"
+
+describe("Traffic", function()
+  local function endpoint(method, path)
+    return { method = method, endpoint_path = path, file_path = "handler", line_number = 1 }
+  end
+
+  describe("parse_line", function()
+    it("should parse nginx combined lines with a request time", function()
+      local request = Traffic.static.parse_line(
+        '10.0.0.1 - - [10/Oct/2024:13:55:36 +0000] "GET /api/users/42?x=1 HTTP/1.1" 200 512 "-" "curl/8.0" 0.125'
+      )
+      assert.same({ method = "GET", path = "/api/users/42?x=1", status = 200, latency_ms = 125 }, request)
+    end)
+
+    it("should parse Tomcat access logs with milliseconds", function()
+      local request =
+        Traffic.static.parse_line '127.0.0.1 - - [10/Oct/2024:13:55:36 +0000] "POST /orders HTTP/1.1" 503 - 87'
+      assert.same({ method = "POST", path = "/orders", status = 503, latency_ms = 87 }, request)
+    end)
+
+    it("should parse request log lines", function()
+      local request = Traffic.static.parse_line "2024-10-10 INFO c.e.Filter : DELETE /api/items/7 -> 204 in 12ms"
+      assert.same({ method = "DELETE", path = "/api/items/7", status = 204, latency_ms = 12 }, request)
+    end)
+
+    it("should skip lines without a request", function()
+      assert.is_nil(Traffic.static.parse_line "2024-10-10 INFO Started Application in 3.2 seconds")
+    end)
+  end)
+
+  describe("ingest_async", function()
+    local log_path
+
+    before_each(function()
+      log_path = vim.fn.tempname()
+    end)
+
+    after_each(function()
+      os.remove(log_path)
+    end)
+
+    it("should count hits, errors and latency percentiles per endpoint", function()
+      local lines = {}
+      for index = 1, 100 do
+        local status = index <= 3 and 500 or 200
+        table.insert(
+          lines,
+          string.format('1.1.1.1 - - [x] "GET /users/%d HTTP/1.1" %d 10 "-" "-" %.3f', index, status, index / 1000)
+        )
+      end
+      table.insert(lines, '1.1.1.1 - - [x] "GET /unknown HTTP/1.1" 404 10 "-" "-" 0.001')
+      vim.fn.writefile(lines, log_path)
+
+      local users = endpoint("GET", "/users/{id}")
+      local trie = RouteTrie.static.from_endpoints { users, endpoint("POST", "/users") }
+      local traffic = Traffic:new()
+      local summary = nil
+
+      traffic:ingest_async(log_path, trie, function(result)
+        summary = result
+      end)
+      vim.wait(5000, function()
+        return summary ~= nil
+      end)
+
+      assert.same({ requests = 101, matched = 100, unmatched = 1 }, summary)
+
+      local stats = traffic:get_summary(users)
+      assert.equals(100, stats.hits)
+      assert.equals(3, stats.errors)
+      -- Histogram buckets are within 5% of the exact value
+      assert.is_true(math.abs(stats.p50_ms - 50) <= 2.5)
+      assert.is_true(math.abs(stats.p99_ms - 99) <= 5)
+      assert.equals(stats, traffic:get_summary(users))
+    end)
+
+    it("should only count requests matching an endpoint's method and whole path", function()
+      vim.fn.writefile({
+        '1.1.1.1 - - [x] "POST /users HTTP/1.1" 201 10 "-" "-" 0.010',
+        '1.1.1.1 - - [x] "GET /users HTTP/1.1" 200 10 "-" "-" 0.010',
+        '1.1.1.1 - - [x] "GET /wp-admin/users HTTP/1.1" 404 10 "-" "-" 0.001',
+      }, log_path)
+
+      local list_users = endpoint("GET", "/users")
+      local trie = RouteTrie.static.from_endpoints { list_users, endpoint("DELETE", "/users") }
+      local traffic = Traffic:new()
+      local summary = nil
+      traffic:ingest_async(log_path, trie, function(result)
+        summary = result
+      end)
+      vim.wait(5000, function()
+        return summary ~= nil
+      end)
+
+      -- POST has no endpoint and /wp-admin/users is not /users, although :EndpointGoto resolves both
+      assert.same({ requests = 3, matched = 1, unmatched = 2 }, summary)
+      assert.equals(1, traffic:get_summary(list_users).hits)
+      assert.equals(list_users, trie:lookup("/wp-admin/users", "GET")[1])
+    end)
+
+    it("should report files that cannot be opened", function()
+      local error_message = nil
+      Traffic:new():ingest_async("/nonexistent/access.log", RouteTrie:new(), function(_, err)
+        error_message = err
+      end)
+      vim.wait(5000, function()
+        return error_message ~= nil
+      end)
+
+      assert.is_truthy(error_message:find("Cannot open", 1, true))
+    end)
+  end)
+
+  describe("apply", function()
+    it("should annotate, filter and sort endpoints by traffic", function()
+      local users = endpoint("GET", "/users")
+      local orders = endpoint("GET", "/orders")
+      local health = endpoint("GET", "/health")
+      local traffic = Traffic:new()
+      traffic:_record(users, { status = 200, latency_ms = 10 })
+      for _ = 1, 3 do
+        traffic:_record(orders, { status = 502, latency_ms = 300 })
+      end
+
+      local sorted = traffic:apply({ users, orders, health }, { sort = "hits", min_hits = 0 })
+      assert.same({ orders, users, health }, sorted)
+      assert.equals(3, orders.traffic.errors)
+      assert.is_nil(health.traffic)
+
+      assert.same({ orders }, traffic:apply({ users, orders, health }, { min_hits = 2 }))
+
+      traffic:clear()
+      traffic:apply({ users, orders }, {})
+      assert.is_nil(orders.traffic)
+    end)
+
+    it("should format summaries for picker lists", function()
+      assert.equals(
+        "1.2k hits · 3 err · p99 120ms",
+        Traffic.static.format_summary { hits = 1234, errors = 3, p99_ms = 120.4 }
+      )
+      assert.equals("7 hits", Traffic.static.format_summary { hits = 7, errors = 0 })
+    end)
+  end)
+end)
@@ -0,0 +1,92 @@
+local web_xml_resolver = require "endpoint.resolver.web_xml_resolver"
+
+describe("WebXmlResolver", function()
+  local original_cwd
+
+  before_each(function()
+    original_cwd = vim.fn.getcwd()
+    web_xml_resolver.clear_cache()
+  end)
+
+  after_each(function()
+    vim.fn.chdir(original_cwd)
+    web_xml_resolver.clear_cache()
+  end)
+
+  describe("_parse_descriptor", function()
+    it("should map servlet classes to every url-pattern of their mappings", function()
+      local mappings = web_xml_resolver._parse_descriptor [[
+        <servlet>
+          <servlet-name>Orders</servlet-name>
+          <servlet-class>com.shop.OrderServlet</servlet-class>
+        </servlet>
+        <!-- <servlet-mapping><servlet-name>Orders</servlet-name><url-pattern>/old</url-pattern></servlet-mapping> -->
+        <servlet-mapping>
+          <servlet-name>Orders</servlet-name>
+          <url-pattern>/orders</url-pattern>
+          <url-pattern>/orders/*</url-pattern>
+        </servlet-mapping>
+        <servlet-mapping>
+          <servlet-name>Unknown</servlet-name>
+          <url-pattern>/unknown</url-pattern>
+        </servlet-mapping>
+      ]]
+
+      assert.same({ ["com.shop.OrderServlet"] = { "/orders", "/orders/*" } }, mappings)
+    end)
+  end)
+
+  it("should index the servlet fixture's web.xml", function()
+    if vim.fn.executable "rg" == 0 then
+      pending "ripgrep not available"
+      return
+    end
+
+    vim.fn.chdir(original_cwd .. "/tests/fixtures/servlet")
+
+    assert.is_true(web_xml_resolver.has_descriptors())
+    assert.same({ "/legacy/users" }, web_xml_resolver.get_url_patterns "com.example.servlet.LegacyUserServlet")
+    assert.same({ "/admin/*" }, web_xml_resolver.get_url_patterns "AdminServlet")
+    assert.is_nil(web_xml_resolver.get_url_patterns "com.other.AdminServlet")
+  end)
+
+  it("should merge modules and re-parse descriptors whose mtime changed", function()
+    if vim.fn.executable "rg" == 0 then
+      pending "ripgrep not available"
+      return
+    end
+
+    local project_root = vim.fn.tempname()
+    local function write_descriptor(module, class_name, url_pattern)
+      local descriptor_dir = project_root .. "/" .. module .. "/src/main/webapp/WEB-INF"
+      vim.fn.mkdir(descriptor_dir, "p")
+      vim.fn.writefile({
+        "<web-app>",
+        "<servlet><servlet-name>S</servlet-name><servlet-class>" .. class_name .. "</servlet-class></servlet>",
+        "<servlet-mapping><servlet-name>S</servlet-name>",
+        "<url-pattern>" .. url_pattern .. "</url-pattern>",
+        "</servlet-mapping>",
+        "</web-app>",
+      }, descriptor_dir .. "/web.xml")
+      return descriptor_dir .. "/web.xml"
+    end
+
+    local billing_descriptor = write_descriptor("billing", "com.acme.BillingServlet", "/billing")
+    write_descriptor("reports", "com.acme.ReportServlet", "/reports")
+    vim.fn.chdir(project_root)
+
+    web_xml_resolver.refresh()
+    assert.same({ "/billing" }, web_xml_resolver.get_url_patterns "com.acme.BillingServlet")
+    assert.same({ "/reports" }, web_xml_resolver.get_url_patterns "com.acme.ReportServlet")
+
+    write_descriptor("billing", "com.acme.BillingServlet", "/invoices")
+    local uv = vim.uv or vim.loop
+    uv.fs_utime(billing_descriptor, os.time() + 10, os.time() + 10)
+
+    web_xml_resolver.refresh()
+    assert.same({ "/invoices" }, web_xml_resolver.get_url_patterns "com.acme.BillingServlet")
+
+    vim.fn.chdir(original_cwd)
+    vim.fn.delete(project_root, "rf")
+  end)
+end)
@@ -0,0 +1,229 @@
+local Endpoint = require "endpoint.core.Endpoint"
+local ProcessPool = require "endpoint.core.ProcessPool"
+local ScanHandle = require "endpoint.core.ScanHandle"
+local Workspace = require "endpoint.core.Workspace"
+local config = require "endpoint.config"
+
+describe("Multi-root workspaces", function()
+  local original_cwd
+
+  before_each(function()
+    original_cwd = vim.fn.getcwd()
+    config.reset()
+  end)
+
+  after_each(function()
+    vim.fn.chdir(original_cwd)
+    config.reset()
+  end)
+
+  describe("ProcessPool", function()
+    it("should run at most max_jobs processes and start queued ones as others exit", function()
+      local pool = ProcessPool:new(2)
+      local handle = ScanHandle:new()
+      local exited = 0
+      local max_running = 0
+
+      for _ = 1, 5 do
+        pool:run({ "sh", "-c", "sleep 0.05" }, {}, function(obj)
+          assert.equals(0, obj.code)
+          exited = exited + 1
+        end, handle)
+        max_running = math.max(max_running, pool:get_running_count())
+      end
+
+      assert.equals(2, pool:get_running_count())
+      assert.equals(3, pool:get_queued_count())
+
+      vim.wait(5000, function()
+        max_running = math.max(max_running, pool:get_running_count())
+        return exited == 5
+      end, 5)
+      assert.equals(5, exited)
+      assert.equals(2, max_running)
+      assert.equals(0, pool:get_running_count())
+    end)
+
+    it("should drop the queued jobs of a cancelled scan", function()
+      local pool = ProcessPool:new(1)
+      local handle = ScanHandle:new()
+      local exited = 0
+
+      for _ = 1, 3 do
+        pool:run({ "sh", "-c", "sleep 5" }, {}, function()
+          exited = exited + 1
+        end, handle)
+      end
+      handle:cancel()
+
+      vim.wait(1000, function()
+        return pool:get_running_count() == 0
+      end, 10)
+      assert.equals(0, pool:get_running_count())
+      assert.equals(0, pool:get_queued_count())
+      assert.equals(0, exited)
+    end)
+  end)
+
+  describe("roots", function()
+    local workspace_dir
+
+    before_each(function()
+      workspace_dir = vim.fn.resolve(vim.fn.tempname())
+      vim.fn.mkdir(workspace_dir .. "/orders", "p")
+      vim.fn.mkdir(workspace_dir .. "/billing", "p")
+      vim.fn.mkdir(workspace_dir .. "/docs", "p")
+      vim.fn.writefile({ "{}" }, workspace_dir .. "/orders/package.json")
+      vim.fn.writefile({ "<project/>" }, workspace_dir .. "/billing/pom.xml")
+      vim.fn.chdir(workspace_dir)
+    end)
+
+    after_each(function()
+      vim.fn.chdir(original_cwd)
+      vim.fn.delete(workspace_dir, "rf")
+    end)
+
+    it("should discover the projects under the working directory", function()
+      assert.same(
+        { workspace_dir .. "/billing", workspace_dir .. "/orders" },
+        Workspace.static.discover_roots(workspace_dir)
+      )
+      assert.same({ workspace_dir .. "/orders" }, Workspace.static.discover_roots(workspace_dir .. "/orders"))
+    end)
+
+    it("should only scan several roots when multi-root mode is enabled", function()
+      local workspace = Workspace:new()
+      assert.is_nil(workspace:get_roots())
+
+      config.setup { workspace = { enabled = true } }
+      assert.same({ workspace_dir .. "/billing", workspace_dir .. "/orders" }, workspace:get_roots())
+
+      config.setup { workspace = { enabled = true, roots = { "orders", "orders/", "missing" } } }
+      assert.same({ workspace_dir .. "/orders" }, workspace:get_roots())
+
+      vim.fn.chdir "orders"
+      config.setup { workspace = { enabled = true, roots = { "." } } }
+      assert.is_nil(workspace:get_roots())
+    end)
+
+    it("should tag endpoints with their root and make their paths absolute", function()
+      local endpoints = Workspace.static.tag_endpoints({
+        { file_path = "./src/routes.js" },
+        { file_path = "/abs/Controller.java", component_file_path = "src/Users.jsx" },
+      }, "/ws/orders")
+
+      assert.equals("/ws/orders/src/routes.js", endpoints[1].file_path)
+      assert.equals("/ws/orders", endpoints[1].root)
+      assert.equals("/abs/Controller.java", endpoints[2].file_path)
+      assert.equals("/ws/orders/src/Users.jsx", endpoints[2].component_file_path)
+    end)
+  end)
+
+  it("should scan the roots on the pool and report the roots that fail", function()
+    local original_notify = vim.notify
+    local warnings = {}
+    vim.notify = function(message, level)
+      if level == vim.log.levels.WARN then
+        table.insert(warnings, message)
+      end
+    end
+
+    local workspace = nil
+    local scanned = {}
+    workspace = Workspace:new(function(scan_options, callback)
+      if scan_options.project_root == "/ws/broken" then
+        error "parser crashed"
+      end
+      assert.same({ scan_options.project_root }, scan_options.search_paths)
+      assert.equals(workspace.pool, scan_options.process_pool)
+      table.insert(scanned, scan_options.project_root)
+      vim.schedule(function()
+        callback({ { file_path = scan_options.project_root .. "/routes.js" } }, { parser_types = {} })
+      end)
+    end)
+
+    local result = nil
+    workspace:scan_async({ "/ws/orders", "/ws/broken", "/ws/billing" }, { quiet = true }, function(endpoints)
+      result = endpoints
+    end, ScanHandle:new())
+    vim.wait(5000, function()
+      return result ~= nil
+    end, 10)
+    vim.notify = original_notify
+
+    assert.same({ "/ws/orders", "/ws/billing" }, scanned)
+    assert.equals(2, #result)
+    assert.equals("/ws/billing", result[2].root)
+    assert.equals(1, #warnings)
+    assert.truthy(warnings[1]:find("/ws/broken", 1, true))
+  end)
+
+  it("should scan up to max_jobs roots at the same time and keep the order of the roots", function()
+    config.setup { workspace = { enabled = true, max_jobs = 2 } }
+
+    local workspace = nil
+    local running_roots = 0
+    local max_running_roots = 0
+    local max_running_jobs = 0
+    workspace = Workspace:new(function(scan_options, callback, scan_handle)
+      running_roots = running_roots + 1
+      max_running_roots = math.max(max_running_roots, running_roots)
+      -- Later roots finish first
+      local delay = scan_options.project_root == "/ws/a" and "0.2" or "0.05"
+      scan_options.process_pool:run({ "sh", "-c", "sleep " .. delay }, {}, function()
+        running_roots = running_roots - 1
+        callback({ { file_path = "routes.js" } }, { parser_types = {} })
+      end, scan_handle)
+      max_running_jobs = math.max(max_running_jobs, workspace.pool:get_running_count())
+    end)
+
+    local result = nil
+    workspace:scan_async({ "/ws/a", "/ws/b", "/ws/c", "/ws/d" }, { quiet = true }, function(endpoints)
+      result = endpoints
+    end, ScanHandle:new())
+    vim.wait(5000, function()
+      return result ~= nil
+    end, 10)
+
+    assert.equals(2, max_running_roots)
+    assert.equals(2, max_running_jobs)
+    assert.same(
+      { "/ws/a/routes.js", "/ws/b/routes.js", "/ws/c/routes.js", "/ws/d/routes.js" },
+      vim.tbl_map(function(found)
+        return found.file_path
+      end, result)
+    )
+  end)
+
+  it("should scan each root in this Neovim and merge the endpoints", function()
+    if vim.fn.executable "rg" == 0 then
+      pending "ripgrep not available"
+      return
+    end
+
+    local express_root = vim.fn.fnamemodify("tests/fixtures/express", ":p"):gsub("/$", "")
+    local fastapi_root = vim.fn.fnamemodify("tests/fixtures/fastapi", ":p"):gsub("/$", "")
+    local endpoint = Endpoint:new()
+    endpoint:setup {
+      workspace = { enabled = true, roots = { express_root, fastapi_root }, max_jobs = 2 },
+      progress = { enabled = false },
+    }
+
+    local result = nil
+    endpoint:scan_all_endpoints_async({ quiet = true }, function(endpoints)
+      result = endpoints
+    end)
+    vim.wait(60000, function()
+      return result ~= nil
+    end, 50)
+
+    assert.is_not_nil(result)
+    local roots = {}
+    for _, found in ipairs(result) do
+      roots[found.root] = true
+      assert.equals(1, vim.fn.filereadable(found.file_path))
+    end
+    assert.is_true(roots[express_root])
+    assert.is_true(roots[fastapi_root])
+  end)
+end)